@@ -0,0 +1,60 @@
+package com.topper.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running benchmarks with comparable output.
+ *
+ * Accepts the usual JMH command line options, e.g.
+ * <code>-p maxNumberInstructions=10</code> or a benchmark name pattern. Unless
+ * stated otherwise, all benchmarks in this package are run, allocation rates
+ * are recorded via {@link GCProfiler}, and results are written as JSON to
+ * {@value #RESULT_FILE}. This allows to diff throughput and allocation rate
+ * between releases.
+ *
+ * With the <code>benchmark</code> profile, it can be started via
+ * <code>mvn -Pbenchmark test-compile exec:exec</code>. Options are passed via
+ * <code>-Dbenchmark.args="..."</code>.
+ */
+public final class BenchmarkMain {
+
+	/**
+	 * Default path of the JSON result file.
+	 */
+	public static final String RESULT_FILE = "target/jmh-result.json";
+
+	public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+
+		final CommandLineOptions options = new CommandLineOptions(args);
+		final ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (options.getIncludes().isEmpty()) {
+			builder.include(BenchmarkMain.class.getPackage().getName());
+		}
+		if (!options.getResult().hasValue()) {
+			builder.result(RESULT_FILE);
+		}
+		if (!options.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (options.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		new Runner(builder.build()).run();
+	}
+
+	/**
+	 * Runs all benchmarks matching <code>include</code> with the defaults of
+	 * {@link BenchmarkMain#main(String[])}.
+	 */
+	public static void run(final String include) throws RunnerException {
+		new Runner(new OptionsBuilder().include(include).result(RESULT_FILE).resultFormat(ResultFormatType.JSON)
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,121 @@
+package com.topper.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.jf.dexlib2.Opcode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.configuration.ConfigManager;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.OpcodeTable;
+import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.graphs.CFG;
+import com.topper.dex.staticanalyser.BFSCFGAnalyser;
+
+/**
+ * Measures how {@link BFSCFGAnalyser} scales with the number of basic blocks.
+ *
+ * Each input is a synthetic, switch - heavy instruction sequence: a
+ * <code>packed-switch</code> whose payload targets every one of
+ * <code>cases</code> subsequent instructions, followed by
+ * <code>return-void</code>. Every target splits an existing block, so the
+ * resulting {@link CFG} has <code>cases + 1</code> blocks. With a sorted block
+ * index, the average time per case stays roughly constant as
+ * <code>cases</code> grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CFGBenchmark {
+
+	@Param({ "16", "128", "1024", "4096" })
+	public int cases;
+
+	@Param({ "./config.xml" })
+	public String config;
+
+	private ImmutableList<DecompiledInstruction> instructions;
+
+	private BFSCFGAnalyser analyser;
+
+	@Setup
+	public void setup() throws Exception {
+
+		ConfigManager.get().loadConfig(Paths.get(this.config));
+		final TopperConfig topperConfig = ConfigManager.get().getConfig();
+
+		final byte[] bytecode = createSwitchSequence(this.cases,
+				topperConfig.getDecompilerConfig().getOpcodeTable());
+		this.instructions = new SmaliDecompiler().decompile(bytecode, null, topperConfig).getInstructions();
+		this.analyser = new BFSCFGAnalyser();
+
+		final int blocks = this.analyser.extractCFG(this.instructions, 0).getGraph().nodes().size();
+		if (blocks != this.cases + 1) {
+			throw new IllegalStateException("Expected " + (this.cases + 1) + " blocks, but got " + blocks + ".");
+		}
+	}
+
+	/**
+	 * Encodes a <code>packed-switch</code> targeting each of <code>cases</code>
+	 * <code>const/4</code> instructions, followed by <code>return-void</code>
+	 * and the switch payload.
+	 */
+	private static final byte[] createSwitchSequence(final int cases, final OpcodeTable opcodes) {
+
+		// Code units: switch (3), cases (1 each), return-void (1), alignment of payload.
+		final int payloadUnit = (3 + cases + 1 + 1) & ~1;
+		final int payloadSize = 4 + 2 * cases;
+		final ByteBuffer buffer = ByteBuffer.allocate((payloadUnit + payloadSize) * 2)
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+		// packed-switch v0, payload
+		buffer.put((byte) opcodes.getValue(Opcode.PACKED_SWITCH)).put((byte) 0).putInt(payloadUnit);
+
+		// const/4 v0, #0
+		for (int i = 0; i < cases; i++) {
+			buffer.put((byte) opcodes.getValue(Opcode.CONST_4)).put((byte) 0);
+		}
+
+		// return-void, padded with nop
+		buffer.put((byte) opcodes.getValue(Opcode.RETURN_VOID)).put((byte) 0);
+		while (buffer.position() < payloadUnit * 2) {
+			buffer.putShort((short) 0);
+		}
+
+		// Payload: targets are relative to the switch in code units.
+		buffer.putShort((short) opcodes.getValue(Opcode.PACKED_SWITCH_PAYLOAD)).putShort((short) cases).putInt(0);
+		for (int i = 0; i < cases; i++) {
+			buffer.putInt(3 + i);
+		}
+
+		return buffer.array();
+	}
+
+	@Benchmark
+	public CFG extractCFG() {
+		return this.analyser.extractCFG(this.instructions, 0);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		BenchmarkMain.run(CFGBenchmark.class.getSimpleName());
+	}
+}
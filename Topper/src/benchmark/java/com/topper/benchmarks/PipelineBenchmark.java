@@ -0,0 +1,180 @@
+package com.topper.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import com.topper.configuration.ConfigManager;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.pipeline.DecompilationDriver;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.PipelineResult;
+import com.topper.dex.pipeline.SeekerInfo;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.seeker.CodeItemSeeker;
+import com.topper.dex.seeker.PivotSeeker;
+import com.topper.dex.seeker.Seeker;
+import com.topper.dex.staticanalyser.DefaultStaticAnalyser;
+import com.topper.dex.sweeper.BackwardLinearSweeper;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.StageException;
+import com.topper.file.DexFile;
+import com.topper.file.VDexFile;
+
+/**
+ * Measures each stage of the gadget extraction pipeline separately, as well as
+ * a full {@link DecompilationDriver} run.
+ *
+ * Stages are measured on the output of their predecessors, which is computed
+ * once per trial. Inputs are selected via <code>input</code>:
+ * <ul>
+ * <li><code>DEX</code>: <code>dex</code> as .dex file, searched like the
+ * <code>file</code> command does.</li>
+ * <li><code>VDEX</code>: first .dex file of <code>vdex</code>. By default, a
+ * synthetic .vdex file is used, which contains <code>dex</code>.</li>
+ * <li><code>RAW_&lt;KiB&gt;</code>: Synthetic buffer of random bytes of the
+ * given size without augmentation.</li>
+ * </ul>
+ *
+ * Use {@link BenchmarkMain} to write results, including allocation rates, to
+ * JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+	/**
+	 * Seed of synthetic buffers, so that all runs see the same bytes.
+	 */
+	private static final long SEED = 0x70707070L;
+
+	@Param({ "DEX", "VDEX", "RAW_64", "RAW_1024" })
+	public String input;
+
+	@Param({ "5", "10", "20" })
+	public int maxNumberInstructions;
+
+	@Param({ "./config.xml" })
+	public String config;
+
+	@Param({ "./src/test/java/resources/classes7.dex" })
+	public String dex;
+
+	@Param({ "" })
+	public String vdex;
+
+	private PipelineArgs args;
+
+	private Seeker seeker;
+
+	private SeekerInfo seekerInfo;
+
+	private SweeperInfo sweeperInfo;
+
+	@Setup
+	public void setup() throws IOException, InvalidConfigException, StageException {
+
+		ConfigManager.get().loadConfig(Paths.get(this.config));
+		final TopperConfig topperConfig = ConfigManager.get().getConfig();
+		topperConfig.getSweeperConfig().setMaxNumberInstructions(this.maxNumberInstructions);
+
+		if (this.input.equals("DEX")) {
+			final byte[] buffer = Files.readAllBytes(Paths.get(this.dex));
+			final DexFile file = new DexFile(this.dex, buffer, 0, topperConfig);
+			this.args = new PipelineArgs(topperConfig, buffer, file.getDexFile(), file.getOffset());
+		} else if (this.input.equals("VDEX")) {
+			final byte[] buffer = (this.vdex.isEmpty()) ? createVDexFile(Files.readAllBytes(Paths.get(this.dex)))
+					: Files.readAllBytes(Paths.get(this.vdex));
+			final DexFile file = new VDexFile("benchmark.vdex", buffer, topperConfig).getDexFile(0);
+			this.args = new PipelineArgs(topperConfig, buffer, file.getDexFile(), file.getOffset());
+		} else if (this.input.startsWith("RAW_")) {
+			final byte[] buffer = new byte[Integer.parseInt(this.input.substring(4)) * 1024];
+			new Random(SEED).nextBytes(buffer);
+			this.args = new PipelineArgs(topperConfig, buffer);
+		} else {
+			throw new IllegalArgumentException("Unknown input " + this.input + ".");
+		}
+		this.seeker = (this.args.getAugmentation() != null) ? new CodeItemSeeker() : new PivotSeeker();
+
+		// Precompute inputs of later stages.
+		final PipelineContext context = new PipelineContext(this.args);
+		this.seeker.execute(context);
+		new BackwardLinearSweeper().execute(context);
+		this.seekerInfo = context.getSeekerInfo(SeekerInfo.class.getSimpleName());
+		this.sweeperInfo = context.getSweeperInfo(SweeperInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Wraps <code>dex</code> into a .vdex file with a single .dex file section.
+	 */
+	private static final byte[] createVDexFile(final byte[] dex) {
+		final int start = 12 + 12;
+		final ByteBuffer buffer = ByteBuffer.allocate(start + dex.length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(new byte[] { 'v', 'd', 'e', 'x', '0', '2', '7', 0 });
+		buffer.putInt(1); // Number of sections
+		buffer.putInt(1); // Section kind of .dex files
+		buffer.putInt(start);
+		buffer.putInt(dex.length);
+		buffer.put(dex);
+		return buffer.array();
+	}
+
+	@Benchmark
+	public PipelineContext seeker() throws StageException {
+		final PipelineContext context = new PipelineContext(this.args);
+		this.seeker.execute(context);
+		return context;
+	}
+
+	@Benchmark
+	public PipelineContext sweeper() throws StageException {
+		final PipelineContext context = new PipelineContext(this.args);
+		context.putInfo(SeekerInfo.class.getSimpleName(), this.seekerInfo);
+		new BackwardLinearSweeper().execute(context);
+		return context;
+	}
+
+	@Benchmark
+	public PipelineContext staticAnalyser() throws StageException {
+		final PipelineContext context = new PipelineContext(this.args);
+		context.putInfo(SweeperInfo.class.getSimpleName(), this.sweeperInfo);
+		new DefaultStaticAnalyser().execute(context);
+		return context;
+	}
+
+	@Benchmark
+	public PipelineResult driver() throws StageException {
+		final DecompilationDriver driver = new DecompilationDriver();
+		if (this.args.getAugmentation() != null) {
+			driver.setPipeline(Pipeline.createStructuredPipeline());
+		}
+		return driver.decompile(this.args);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		BenchmarkMain.run(PipelineBenchmark.class.getSimpleName());
+	}
+}
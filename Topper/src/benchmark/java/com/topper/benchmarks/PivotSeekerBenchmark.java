@@ -0,0 +1,99 @@
+package com.topper.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.seeker.PivotSeeker;
+
+/**
+ * Compares the word - at - a - time pivot scan of {@link PivotSeeker} with the
+ * former byte - by - byte loop.
+ *
+ * By default, a synthetic buffer of <code>size</code> KiB of random bytes is
+ * scanned, as the bundled test resources are too small for meaningful
+ * results. Files can be selected via <code>-p file=...</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PivotSeekerBenchmark {
+
+	/**
+	 * Seed of synthetic buffers, so that all runs see the same bytes.
+	 */
+	private static final long SEED = 0x70707070L;
+
+	@Param({ "" })
+	public String file;
+
+	@Param({ "16384" })
+	public int size;
+
+	private byte[] buffer;
+
+	private byte pivot;
+
+	private int pivotSize;
+
+	@Setup
+	public void setup() throws IOException {
+		if (this.file.isEmpty()) {
+			this.buffer = new byte[this.size * 1024];
+			new Random(SEED).nextBytes(this.buffer);
+		} else {
+			this.buffer = Files.readAllBytes(Paths.get(this.file));
+		}
+		this.pivot = (byte) (Opcodes.forDexVersion(39).getOpcodeValue(Opcode.THROW) & 0xff);
+		this.pivotSize = Opcode.THROW.format.size;
+	}
+
+	/**
+	 * Byte - by - byte loop that boxes every match, as used before.
+	 */
+	@Benchmark
+	public ImmutableList<Integer> byteLoop() {
+		final ImmutableList.Builder<Integer> builder = new ImmutableList.Builder<>();
+		for (int i = 0; i < this.buffer.length; i++) {
+			if (this.pivot == this.buffer[i] && i + this.pivotSize <= this.buffer.length) {
+				builder.add(i);
+			}
+		}
+		return builder.build();
+	}
+
+	@Benchmark
+	public int[] wordScan() {
+		return PivotSeeker.scan(this.buffer, this.pivot, this.pivotSize, false);
+	}
+
+	@Benchmark
+	public int[] wordScanAligned() {
+		return PivotSeeker.scan(this.buffer, this.pivot, this.pivotSize, true);
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		BenchmarkMain.run(PivotSeekerBenchmark.class.getSimpleName());
+	}
+}
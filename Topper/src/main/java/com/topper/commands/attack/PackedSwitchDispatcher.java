@@ -7,16 +7,16 @@ import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
-import org.jf.dexlib2.Opcodes;
 
 import com.topper.configuration.ConfigManager;
+import com.topper.dex.decompiler.OpcodeTable;
 import com.topper.dex.ehandling.Bytable;
 import com.topper.helpers.BufferHelper;
 
 public final class PackedSwitchDispatcher implements Dispatcher {
 
 	@NonNull
-	private static final Opcodes opcodes = ConfigManager.get().getDecompilerConfig().getOpcodes();
+	private static final OpcodeTable opcodes = ConfigManager.get().getDecompilerConfig().getOpcodeTable();
 
 	private final int offset;
 	private final int exceptionVregIndex;
@@ -132,7 +132,7 @@ public final class PackedSwitchDispatcher implements Dispatcher {
 		@Override
 		public byte @NonNull [] getBytes() {
 			return ByteBuffer.allocate(this.getByteSize()).order(ByteOrder.LITTLE_ENDIAN)
-					.put((byte) (opcodes.getOpcodeValue(Opcode.NEW_INSTANCE) & 0xff)).put(this.vregIndex)
+					.put((byte) opcodes.getValue(Opcode.NEW_INSTANCE)).put(this.vregIndex)
 					.putShort(this.typeIndex).array();
 		}
 
@@ -156,7 +156,7 @@ public final class PackedSwitchDispatcher implements Dispatcher {
 		@Override
 		public byte @NonNull [] getBytes() {
 			return ByteBuffer.allocate(this.getByteSize()).order(ByteOrder.LITTLE_ENDIAN)
-					.put((byte) (opcodes.getOpcodeValue(Opcode.CONST_4) & 0xff))
+					.put((byte) opcodes.getValue(Opcode.CONST_4))
 					.put((byte) ((this.constant << 4) | this.vregIndex)).array();
 		}
 
@@ -182,7 +182,7 @@ public final class PackedSwitchDispatcher implements Dispatcher {
 		@Override
 		public byte @NonNull [] getBytes() {
 			return ByteBuffer.allocate(this.getByteSize()).order(ByteOrder.LITTLE_ENDIAN)
-					.put((byte) (opcodes.getOpcodeValue(Opcode.ADD_INT_LIT8) & 0xff)).put(this.indexA).put(this.indexB)
+					.put((byte) opcodes.getValue(Opcode.ADD_INT_LIT8)).put(this.indexA).put(this.indexB)
 					.put(this.constant).array();
 		}
 
@@ -206,7 +206,7 @@ public final class PackedSwitchDispatcher implements Dispatcher {
 		@Override
 		public byte @NonNull [] getBytes() {
 			return ByteBuffer.allocate(this.getByteSize()).order(ByteOrder.LITTLE_ENDIAN)
-					.put((byte) (opcodes.getOpcodeValue(Opcode.PACKED_SWITCH) & 0xff))
+					.put((byte) opcodes.getValue(Opcode.PACKED_SWITCH))
 					.put(this.vregIndex)
 					.putInt(this.offset)
 					.array();
@@ -230,7 +230,7 @@ public final class PackedSwitchDispatcher implements Dispatcher {
 		@Override
 		public byte @NonNull [] getBytes() {
 			return ByteBuffer.allocate(this.getByteSize()).order(ByteOrder.LITTLE_ENDIAN)
-					.putShort(opcodes.getOpcodeValue(Opcode.PACKED_SWITCH_PAYLOAD))
+					.putShort((short) opcodes.getValue(Opcode.PACKED_SWITCH_PAYLOAD))
 					.putShort((short)(this.contents.length / 4))
 					.putInt(0)
 					.put(this.contents)
@@ -1,8 +1,9 @@
 package com.topper.commands.file;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
-import com.topper.dex.graphs.CFG;
+import com.topper.dex.deduplicator.UniqueGadget;
 import com.topper.dex.staticanalyser.Gadget;
 import com.topper.helpers.DexHelper;
 
@@ -13,9 +14,33 @@ public final class BasedGadget {
 
 	private final int base;
 
-	public BasedGadget(@NonNull final Gadget gadget, final int base) {
+	/**
+	 * Index of the .dex file <code>gadget</code> has been extracted from.
+	 */
+	private final int dex;
+
+	/**
+	 * All occurrences of <code>gadget</code>, if gadgets have been deduplicated.
+	 */
+	@Nullable
+	private final UniqueGadget occurrences;
+
+	public BasedGadget(@NonNull final Gadget gadget, final int base, final int dex) {
 		this.gadget = gadget;
 		this.base = base;
+		this.dex = dex;
+		this.occurrences = null;
+	}
+
+	/**
+	 * Creates a {@link BasedGadget} that represents all occurrences of a
+	 * deduplicated gadget.
+	 */
+	public BasedGadget(@NonNull final UniqueGadget gadget, final int base, final int dex) {
+		this.gadget = gadget.getGadget();
+		this.base = base;
+		this.dex = dex;
+		this.occurrences = gadget;
 	}
 
 	@NonNull
@@ -27,16 +52,59 @@ public final class BasedGadget {
 		return base;
 	}
 
+	/**
+	 * Gets the index of the .dex file this gadget has been extracted from, i.e.
+	 * the .dex file its references resolve against. It is <code>0</code> for
+	 * .dex and raw files.
+	 */
+	public final int getDex() {
+		return this.dex;
+	}
+
+	/**
+	 * Determines whether this gadget represents all occurrences of its bytecode.
+	 */
+	public final boolean isDeduplicated() {
+		return this.occurrences != null;
+	}
+
+	/**
+	 * Gets the number of occurrences of this gadget. It is <code>1</code>, unless
+	 * gadgets have been deduplicated.
+	 */
+	public final int getNumberOccurrences() {
+		final UniqueGadget occurrences = this.occurrences;
+		return (occurrences != null) ? occurrences.getNumberOccurrences() : 1;
+	}
+
+	/**
+	 * Gets the entry of the <code>index</code> - th occurrence relative to the
+	 * beginning of the loaded file.
+	 *
+	 * @throws IndexOutOfBoundsException If <code>index</code> is out of bounds.
+	 */
+	public final int getEntry(final int index) {
+		if (index < 0 || index >= this.getNumberOccurrences()) {
+			throw new IndexOutOfBoundsException("Occurrence " + index + " does not exist.");
+		}
+		final UniqueGadget occurrences = this.occurrences;
+		return this.base + ((occurrences != null) ? occurrences.getEntry(index) : this.gadget.getEntry());
+	}
+
 	@Override
 	public final String toString() {
+		return this.toString(0);
+	}
 
-		final int offset;
-		final CFG cfg = this.gadget.getCFG();
-		if (cfg != null) {
-			offset = this.base + cfg.getEntry();
-		} else {
-			offset = this.base + this.gadget.getInstructions().get(0).getOffset();
-		}
+	/**
+	 * Gets the string representation of the <code>index</code> - th occurrence.
+	 *
+	 * @throws IndexOutOfBoundsException If <code>index</code> is out of bounds.
+	 */
+	@NonNull
+	public final String toString(final int index) {
+
+		final int offset = this.getEntry(index);
 
 		final StringBuilder b = new StringBuilder();
 
@@ -48,4 +116,23 @@ public final class BasedGadget {
 
 		return b.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets the string representation of the first occurrence along with the
+	 * number of occurrences.
+	 */
+	@NonNull
+	public final String toUniqueString() {
+
+		final StringBuilder b = new StringBuilder();
+
+		// Print entry of first occurrence and number of occurrences
+		b.append(String.format("Entry: %#08x (%d occurrences)" + System.lineSeparator(), this.getEntry(0),
+				this.getNumberOccurrences()));
+
+		// Convert instructions to string
+		b.append(DexHelper.instructionsToString(this.gadget.getInstructions()));
+
+		return b.toString();
+	}
+}
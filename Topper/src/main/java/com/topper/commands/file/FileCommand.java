@@ -1,6 +1,17 @@
 package com.topper.commands.file;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -10,12 +21,21 @@ import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 import com.google.common.collect.ImmutableList;
 import com.topper.commands.PicoCommand;
 import com.topper.commands.TopLevelCommand;
+import com.topper.configuration.GeneralConfig;
 import com.topper.configuration.TopperConfig;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.deduplicator.UniqueGadget;
+import com.topper.dex.index.GadgetIndex;
+import com.topper.dex.pipeline.ConsumingFinalizer;
 import com.topper.dex.pipeline.DecompilationDriver;
+import com.topper.dex.pipeline.DeduplicatorInfo;
+import com.topper.dex.pipeline.Pipeline;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
-import com.topper.dex.pipeline.PipelineResult;
 import com.topper.dex.pipeline.StaticInfo;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.dex.sweeper.Sweeper;
 import com.topper.exceptions.commands.IllegalCommandException;
 import com.topper.exceptions.commands.InternalExecutionException;
 import com.topper.exceptions.pipeline.StageException;
@@ -51,6 +71,9 @@ public final class FileCommand extends PicoCommand {
 	@Option(names = { "-i", "--index" }, defaultValue = "0", paramLabel = "INDEX", description = "Index of the dex file to use. Defaults to 0. Only Considered for .vdex files." )
 	private int index;
 	
+	@Option(names = { "-a", "--all" }, description = "Analyses all dex files concurrently, each in the context of itself. Overrides --index. Only considered for .vdex files.")
+	private boolean all;
+	
 	@ParentCommand
 	private TopLevelCommand parent;
 	
@@ -79,32 +102,42 @@ public final class FileCommand extends PicoCommand {
 
 		// 2. Identify file. Depending on the type, use a different set
 		// of gadgets.
-		final DexBackedDexFile current;
+		final ImmutableList<@NonNull DexFile> targets;
+		final int firstDex;
 		ComposedFile aug;
 		try {
 			switch (this.type) {
 			case DEX: {
 				final DexFile dex = new DexFile(file.getName(), content, 0, context.getConfig());
-				current = dex.getDexFile();
+				targets = ImmutableList.of(dex);
+				firstDex = 0;
 				aug = dex;
 				break;
 			}
 			case VDEX: {
 				final VDexFile vdex = new VDexFile(file.getName(), content, context.getConfig());
-				if (this.index >= vdex.getDexFiles().size()) {
-					if (vdex.getDexFiles().size() <= 0) {
-						throw new IllegalCommandException(".vdex file does not contain .dex section.");
+				if (vdex.getNumberDexFiles() <= 0) {
+					throw new IllegalCommandException(".vdex file does not contain .dex section.");
+				}
+				if (this.all) {
+					targets = vdex.getDexFiles();
+					firstDex = 0;
+				} else {
+					if (this.index >= vdex.getNumberDexFiles()) {
+						throw new IllegalCommandException("Dex index exceeds total number of dex files in vdex (" + vdex.getNumberDexFiles() + ").");
 					}
-					throw new IllegalCommandException("Dex index exceeds total number of dex files in vdex (" + vdex.getDexFiles().size() + ").");
+					// Only parse the requested .dex file.
+					targets = ImmutableList.of(vdex.getDexFile(this.index));
+					firstDex = this.index;
 				}
-				current = vdex.getDexFiles().get(this.index).getDexFile();
 				aug = vdex;
 				break;
 			}
 			default: {
 				// Raw should work regardless of the file type!
 				aug = new RawFile(file.getName(), content);
-				current = null;
+				targets = ImmutableList.of();
+				firstDex = 0;
 				break;
 			}
 			}
@@ -117,7 +150,11 @@ public final class FileCommand extends PicoCommand {
 		@NonNull
 		final ImmutableList<@NonNull BasedGadget> gadgets;
 		try {
-			gadgets = this.loadGadgetsFromRaw(context.getConfig(), content, 0, current);
+			if (targets.isEmpty()) {
+				gadgets = this.loadGadgetsFromRaw(context.getConfig(), content, null, 0, null, 0, firstDex, 0);
+			} else {
+				gadgets = this.loadGadgetsFromDexFiles(context.getConfig(), content, targets, firstDex);
+			}
 		} catch (final StageException ignored) {
 			throw new InternalExecutionException("Decompilation of file " + file.getPath() + " failed.");
 		}
@@ -133,27 +170,224 @@ public final class FileCommand extends PicoCommand {
 		return new ExecutionState(this.getContext());
 	}
 
+	/**
+	 * Loads the gadgets of all <code>dexFiles</code> contained in
+	 * <code>content</code>. Each .dex file is analysed by its own pipeline with
+	 * itself as augmentation, so references always resolve against the .dex file
+	 * that contains a gadget. Pipelines share <code>content</code>, but only
+	 * search the code items of their .dex file. Thus, entries are relative to
+	 * <code>content</code>.
+	 * 
+	 * Multiple .dex files are analysed concurrently on
+	 * {@link GeneralConfig#getDefaultAmountThreads()} threads. These threads are
+	 * split among the pipelines, so that stages of concurrent pipelines do not
+	 * use more threads in total. Gadgets are merged in the order of
+	 * <code>dexFiles</code>. If gadget indices are enabled, <code>content</code>
+	 * is hashed only once for all pipelines.
+	 * 
+	 * Each gadget is tagged with the index of its .dex file in
+	 * <code>content</code>, which is <code>firstDex</code> for the first
+	 * element of <code>dexFiles</code> and increases by one per element.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
 	@NonNull
-	private final ImmutableList<@NonNull BasedGadget> loadGadgetsFromRaw(
-			@NonNull final TopperConfig config, final byte @NonNull [] content, final int offset, @Nullable final DexBackedDexFile augmentation)
-			throws StageException {
+	private final ImmutableList<@NonNull BasedGadget> loadGadgetsFromDexFiles(@NonNull final TopperConfig config,
+			final byte @NonNull [] content, @NonNull final ImmutableList<@NonNull DexFile> dexFiles,
+			final int firstDex) throws StageException {
+
+		if (dexFiles.size() == 1) {
+			final DexFile dex = dexFiles.get(0);
+			return this.loadGadgetsFromRaw(config, content, null, 0, dex.getDexFile(), dex.getOffset(), firstDex, 0);
+		}
+
+		final byte[] contentHash = (!config.getGeneralConfig().getGadgetIndexDirectory().isEmpty())
+				? GadgetIndex.hash(content)
+				: null;
 
+		// Split threads among pipelines instead of nesting a full thread pool per
+		// pipeline.
+		final int threads = config.getGeneralConfig().getDefaultAmountThreads();
+		final int numberPipelines = Math.min(dexFiles.size(), threads);
+		final int threadsPerPipeline = Math.max(1, threads / numberPipelines);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(numberPipelines);
 		try {
-			// Extract gadgets using a pipeline.
-			final PipelineArgs args = new PipelineArgs(config, content, augmentation);
-			final DecompilationDriver driver = new DecompilationDriver();
+			final List<Future<ImmutableList<@NonNull BasedGadget>>> futures = new ArrayList<>(dexFiles.size());
+			for (int i = 0; i < dexFiles.size(); i++) {
+				final DexFile dex = dexFiles.get(i);
+				final int number = firstDex + i;
+				futures.add(executor.submit(() -> this.loadGadgetsFromRaw(config, content, contentHash, 0,
+						dex.getDexFile(), dex.getOffset(), number, threadsPerPipeline)));
+			}
 
-			final PipelineResult result = driver.decompile(args);
-			final PipelineContext pipelineContext = result.getContext();
-			final StaticInfo info = pipelineContext.getStaticInfo(StaticInfo.class.getSimpleName());
+			final ImmutableList.Builder<@NonNull BasedGadget> gadgets = ImmutableList.builder();
+			for (final Future<ImmutableList<@NonNull BasedGadget>> future : futures) {
+				gadgets.addAll(future.get());
+			}
+			return gadgets.build();
+
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof StageException) {
+				throw (StageException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new StageException("Failed to analyse .dex files.", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StageException("Analysis of .dex files has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Loads the gadgets of <code>content</code> via a single pipeline.
+	 * 
+	 * @param contentHash Hash of <code>content</code>, or <code>null</code>, if
+	 *                    it has to be computed. See
+	 *                    {@link GadgetIndex#hash(byte[])}.
+	 * @param threads     Number of threads each stage may use, or
+	 *                    <code>0</code> for
+	 *                    {@link GeneralConfig#getDefaultAmountThreads()}.
+	 */
+	@NonNull
+	private final ImmutableList<@NonNull BasedGadget> loadGadgetsFromRaw(
+			@NonNull final TopperConfig config, final byte @NonNull [] content, final byte @Nullable [] contentHash,
+			final int offset, @Nullable final DexBackedDexFile augmentation, final int augmentationOffset,
+			final int dex, final int threads) throws StageException {
+
+		final PipelineArgs args = new PipelineArgs(config, content, augmentation, augmentationOffset, threads);
+		final Pipeline pipeline = createPipeline(args);
+
+		// Restore swept sequences from an index, if the same contents have already
+		// been loaded with the same configuration.
+		final String directory = config.getGeneralConfig().getGadgetIndexDirectory();
+		Path indexPath = null;
+		byte[] key = null;
+		SweeperInfo restored = null;
+		if (!directory.isEmpty()) {
+			try {
+				key = (contentHash != null) ? GadgetIndex.key(args, contentHash) : GadgetIndex.key(args);
+				indexPath = GadgetIndex.pathOf(Paths.get(directory), key);
+				final GadgetIndex index = GadgetIndex.load(indexPath, key);
+				final Sweeper sweeper = pipeline.getStage(Sweeper.class);
+				if (index != null && sweeper != null) {
+					// Decompile like the sweeper that extracted the indexed gadgets.
+					restored = index.restore(args, sweeper.getDecompiler());
+				}
+			} catch (final IOException | InvalidPathException e) {
+				this.println("Reading gadget index failed: " + e.getMessage());
+			}
+		}
+
+		final boolean deduplicate = config.getGeneralConfig().shouldDeduplicateGadgets();
+		final PipelineContext pipelineContext;
+		final ImmutableList<@NonNull Gadget> extracted;
+		if (restored != null) {
+			// Analyse restored sequences like freshly swept ones.
+			pipelineContext = pipeline.executeFrom(args, restored).getContext();
+			extracted = pipelineContext.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets();
+		} else {
+
+			// Without deduplication and index, streamed gadgets can be turned into
+			// based gadgets right away.
+			if (indexPath == null && !deduplicate) {
+				final ImmutableList.Builder<@NonNull BasedGadget> gadgets = ImmutableList.builder();
+				this.extractGadgets(pipeline, args, g -> gadgets.add(new BasedGadget(g, offset, dex)));
+				return gadgets.build();
+			}
+
+			final ImmutableList.Builder<@NonNull Gadget> gadgets = ImmutableList.builder();
+			pipelineContext = this.extractGadgets(pipeline, args, gadgets::add);
+			extracted = gadgets.build();
+		}
+
+		// Attach all occurrences to deduplicated gadgets.
+		ImmutableList<@NonNull UniqueGadget> unique = null;
+		if (deduplicate) {
+			final DeduplicatorInfo groups = pipelineContext.getInfo(DeduplicatorInfo.class.getSimpleName());
+			final ImmutableList.Builder<@NonNull UniqueGadget> builder = ImmutableList.builder();
+			for (final Gadget gadget : extracted) {
+				final UniqueGadget g = groups.toUniqueGadget(gadget);
+				if (g != null) {
+					builder.add(g);
+				}
+			}
+			unique = builder.build();
+		}
+
+		// Index freshly extracted gadgets.
+		if (restored == null && indexPath != null && key != null) {
+			try {
+				if (unique != null) {
+					GadgetIndex.writeUnique(indexPath, key, unique, config);
+				} else {
+					GadgetIndex.write(indexPath, key, extracted, config);
+				}
+			} catch (final IOException | IllegalArgumentException e) {
+				this.println("Writing gadget index failed: " + e.getMessage());
+			}
+		}
+
+		if (unique != null) {
 			return ImmutableList.copyOf(
-					info.getGadgets().stream().map(g -> new BasedGadget(g, offset)).collect(Collectors.toList()));
-		} catch (final StageException e) {
-			throw e;
+					unique.stream().map(g -> new BasedGadget(g, offset, dex)).collect(Collectors.toList()));
+		}
+		return ImmutableList.copyOf(
+				extracted.stream().map(g -> new BasedGadget(g, offset, dex)).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Creates the pipeline to extract the gadgets of <code>args</code> with.
+	 * Structured files are only searched inside of method code items.
+	 * 
+	 * If {@link GeneralConfig#shouldDeduplicateGadgets()} holds, a
+	 * {@link GadgetDeduplicator} is placed right behind the sweeper. Then only
+	 * one gadget per distinct bytecode is analysed, and the entries of all
+	 * occurrences are kept in the {@link DeduplicatorInfo}.
+	 */
+	@NonNull
+	private static final Pipeline createPipeline(@NonNull final PipelineArgs args) {
+
+		final Pipeline pipeline = (args.getAugmentation() != null) ? Pipeline.createStructuredPipeline()
+				: Pipeline.createDefaultPipeline();
+		if (args.getConfig().getGeneralConfig().shouldDeduplicateGadgets()) {
+			pipeline.addStage(2, new GadgetDeduplicator());
+		}
+		return pipeline;
+	}
+
+	/**
+	 * Extracts all gadgets of <code>args</code> via <code>pipeline</code> and
+	 * hands them to <code>consumer</code> in pipeline order.
+	 * 
+	 * If {@link GeneralConfig#shouldStreamPipeline()} holds, each chunk of
+	 * gadgets is handed over as soon as it is done via a
+	 * {@link ConsumingFinalizer}, so the pipeline never holds all gadgets at once.
+	 * 
+	 * @return Context of the executed pipeline.
+	 */
+	@NonNull
+	private final PipelineContext extractGadgets(@NonNull final Pipeline pipeline, @NonNull final PipelineArgs args,
+			@NonNull final Consumer<@NonNull Gadget> consumer) throws StageException {
+
+		final boolean streaming = args.getConfig().getGeneralConfig().shouldStreamPipeline();
+		if (streaming) {
+			pipeline.setFinalizer(new ConsumingFinalizer(consumer));
+		}
+
+		final DecompilationDriver driver = new DecompilationDriver();
+		driver.setPipeline(pipeline);
+		final PipelineContext pipelineContext = driver.decompile(args).getContext();
+		if (!streaming) {
+			final StaticInfo info = pipelineContext.getStaticInfo(StaticInfo.class.getSimpleName());
+			info.getGadgets().forEach(consumer);
 		}
+		return pipelineContext;
 	}
 
-	private final void println(@NonNull final CommandContext context, @NonNull final String s) {
+	private final void println(@NonNull final String s) {
 		parent.out().println(s);
 	}
 
@@ -4,16 +4,21 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.ReferenceType;
 
 import com.topper.commands.PicoCommand;
 import com.topper.commands.TopLevelCommand;
 import com.topper.commands.file.BasedGadget;
+import com.topper.dex.search.GadgetSearchIndex.Query;
 import com.topper.exceptions.commands.IllegalCommandException;
 import com.topper.exceptions.commands.IllegalSessionState;
 import com.topper.sstate.CommandState;
 import com.topper.sstate.ExecutionState;
+import com.topper.sstate.Session;
 import com.topper.sstate.CommandLink;
 import com.topper.sstate.CommandContext;
 
@@ -21,7 +26,7 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.ParentCommand;
 
-@Command(name = "search", mixinStandardHelpOptions = true, version = "1.0", description = "Searches for a regular expression in the string representation of all extracted gadgets.")
+@Command(name = "search", mixinStandardHelpOptions = true, version = "1.0", description = "Searches for a regular expression in the string representation of all extracted gadgets. Structured options like --opcode narrow down the gadgets beforehand.")
 @CommandLink(states = { ExecutionState.class })
 public final class SearchCommand extends PicoCommand {
 	
@@ -34,6 +39,21 @@ public final class SearchCommand extends PicoCommand {
 	@Option(names = { "-l", "--lower" }, defaultValue = "-1", paramLabel = "LOWER_BOUND", description = "Lower bound for gadget length matching given regex. Negative values are ignored.")
 	private int lower;
 	
+	@Option(names = { "--unique" }, defaultValue = "false", description = "Shows each distinct gadget once along with its number of occurrences. Requires deduplicateGadgets to be set when loading the file.")
+	private boolean unique;
+	
+	@Option(names = { "--opcode" }, paramLabel = "OPCODE", description = "Only considers gadgets with an instruction of the given opcode, e.g. move-exception. May be repeated.")
+	private List<String> opcodes;
+	
+	@Option(names = { "--writes" }, paramLabel = "REGISTER", description = "Only considers gadgets with an instruction that writes the given register, e.g. v0. May be repeated.")
+	private List<String> writes;
+	
+	@Option(names = { "--register" }, paramLabel = "REGISTER", description = "Only considers gadgets with an instruction that uses the given register as operand, e.g. v0. May be repeated.")
+	private List<String> registers;
+	
+	@Option(names = { "--ref" }, paramLabel = "[DEX:]KIND@INDEX", description = "Only considers gadgets of the DEX - th .dex file with an instruction that references the given item, e.g. type@12 or 1:type@12. KIND is one of string, type, field, method, proto, method_handle and call_site. DEX may be omitted, unless gadgets of multiple .dex files are loaded. May be repeated.")
+	private List<String> references;
+	
 	@ParentCommand
 	private TopLevelCommand parent;
 	
@@ -64,19 +84,171 @@ public final class SearchCommand extends PicoCommand {
 			throw new IllegalCommandException("Given pattern " + regex + " is invalid.");
 		}
 		
-		// Apply expression to each gadget's string representation
 		final List<@NonNull BasedGadget> gadgets = context.getSession().getGadgets();
+		if (this.unique && !gadgets.isEmpty() && !gadgets.get(0).isDeduplicated()) {
+			throw new IllegalCommandException("Gadgets have not been deduplicated. Set deduplicateGadgets and reload the file.");
+		}
+		
+		// Narrow down gadgets using the index, so only candidates are converted into strings.
+		// The index is only needed, and thus built, if structured options are given.
+		final Query query = this.buildQuery(context.getSession());
+		final int[] candidates = query.isEmpty() ? IntStream.range(0, gadgets.size()).toArray()
+				: context.getSession().getGadgetIndex().search(query);
 		
+		// Apply expression to each candidate's string representation
 		Matcher matcher;
-		for (@NonNull final BasedGadget gadget : gadgets) {
+		String representation;
+		for (final int id : candidates) {
+			final BasedGadget gadget = gadgets.get(id);
 			if (gadget.getGadget().getInstructions().size() > this.upper ||
 					gadget.getGadget().getInstructions().size() < this.lower) {
 				continue;
 			}
-			matcher = pattern.matcher(gadget.toString());
-			if (matcher.find()) {
-				parent.out().println(gadget.toString() + System.lineSeparator());
+			
+			// Distinct gadgets are matched once, instead of once per occurrence.
+			if (this.unique) {
+				representation = gadget.toUniqueString();
+				matcher = pattern.matcher(representation);
+				if (matcher.find()) {
+					parent.out().println(representation + System.lineSeparator());
+				}
+				continue;
+			}
+			
+			for (int i = 0; i < gadget.getNumberOccurrences(); i++) {
+				representation = gadget.toString(i);
+				matcher = pattern.matcher(representation);
+				if (matcher.find()) {
+					parent.out().println(representation + System.lineSeparator());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Combines all structured search options into a single query.
+	 * 
+	 * @throws IllegalCommandException If an option value is invalid.
+	 * @throws IllegalSessionState     If <code>session</code> is missing gadgets.
+	 */
+	@NonNull
+	private final Query buildQuery(@NonNull final Session session) throws IllegalCommandException, IllegalSessionState {
+		
+		final Query query = new Query();
+		if (this.opcodes != null) {
+			for (final String name : this.opcodes) {
+				try {
+					query.opcode(Opcode.valueOf(name.trim().toUpperCase().replace('-', '_')));
+				} catch (final IllegalArgumentException e) {
+					throw new IllegalCommandException("Opcode " + name + " is unknown.");
+				}
+			}
+		}
+		if (this.writes != null) {
+			for (final String register : this.writes) {
+				query.writes(parseRegister(register));
+			}
+		}
+		if (this.registers != null) {
+			for (final String register : this.registers) {
+				query.register(parseRegister(register));
+			}
+		}
+		if (this.references != null) {
+			for (final String reference : this.references) {
+				final int separator = reference.indexOf('@');
+				if (separator < 0) {
+					throw new IllegalCommandException("Reference " + reference + " must be of the form [DEX:]KIND@INDEX.");
+				}
+				
+				// Item indices are relative to a .dex file, so the .dex file must be unambiguous.
+				final int colon = reference.lastIndexOf(':', separator);
+				final int dex;
+				if (colon >= 0) {
+					dex = parseDex(reference.substring(0, colon));
+				} else {
+					final int[] dexFiles = session.getGadgetIndex().getDexFiles();
+					if (dexFiles.length > 1) {
+						throw new IllegalCommandException("Reference " + reference
+								+ " is ambiguous, because gadgets of multiple .dex files are loaded. Prefix it with the index of a .dex file, e.g. "
+								+ dexFiles[dexFiles.length - 1] + ":" + reference + ".");
+					}
+					dex = (dexFiles.length == 1) ? dexFiles[0] : 0;
+				}
+				query.reference(dex, parseReferenceType(reference.substring(colon + 1, separator)),
+						parseIndex(reference.substring(separator + 1)));
+			}
+		}
+		return query;
+	}
+	
+	/**
+	 * Parses a register like <code>v0</code> or <code>0</code>.
+	 */
+	private static final int parseRegister(@NonNull final String register) throws IllegalCommandException {
+		String value = register.trim();
+		if (value.startsWith("v") || value.startsWith("V")) {
+			value = value.substring(1);
+		}
+		try {
+			final int number = Integer.parseInt(value);
+			if (number < 0 || number > 0xffff) {
+				throw new NumberFormatException();
+			}
+			return number;
+		} catch (final NumberFormatException e) {
+			throw new IllegalCommandException("Register " + register + " is invalid.");
+		}
+	}
+	
+	/**
+	 * Parses the index of a .dex file.
+	 */
+	private static final int parseDex(@NonNull final String dex) throws IllegalCommandException {
+		try {
+			final int value = Integer.decode(dex.trim());
+			if (value < 0 || value > 0xffff) {
+				throw new NumberFormatException();
+			}
+			return value;
+		} catch (final NumberFormatException e) {
+			throw new IllegalCommandException("Dex index " + dex + " is invalid.");
+		}
+	}
+	
+	private static final int parseReferenceType(@NonNull final String kind) throws IllegalCommandException {
+		switch (kind.trim().toLowerCase().replace('-', '_')) {
+		case "string":
+			return ReferenceType.STRING;
+		case "type":
+			return ReferenceType.TYPE;
+		case "field":
+			return ReferenceType.FIELD;
+		case "method":
+			return ReferenceType.METHOD;
+		case "proto":
+			return ReferenceType.METHOD_PROTO;
+		case "method_handle":
+			return ReferenceType.METHOD_HANDLE;
+		case "call_site":
+			return ReferenceType.CALL_SITE;
+		default:
+			throw new IllegalCommandException("Reference kind " + kind + " is unknown.");
+		}
+	}
+	
+	/**
+	 * Parses a decimal or hexadecimal (<code>0x</code>) index.
+	 */
+	private static final int parseIndex(@NonNull final String index) throws IllegalCommandException {
+		try {
+			final int value = Integer.decode(index.trim());
+			if (value < 0) {
+				throw new NumberFormatException();
 			}
+			return value;
+		} catch (final NumberFormatException e) {
+			throw new IllegalCommandException("Reference index " + index + " is invalid.");
 		}
 	}
 
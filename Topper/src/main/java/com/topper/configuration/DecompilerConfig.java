@@ -5,6 +5,7 @@ import org.jf.dexlib2.Opcodes;
 
 import com.google.common.collect.ImmutableList;
 import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.OpcodeTable;
 import com.topper.dex.decompiler.SmaliDecompiler;
 import com.topper.exceptions.InvalidConfigException;
 
@@ -40,6 +41,11 @@ public class DecompilerConfig extends Config {
 	 */
 	private Opcodes opcodes;
 
+	/**
+	 * {@link OpcodeTable} chosen based on {@code dexVersion}.
+	 */
+	private OpcodeTable opcodeTable;
+
 	/**
 	 * Gets threshold for .dex file sizes in a .vdex file. If this is exceeded, then
 	 * analysis will skip the respective .dex file. Negative value indicates no
@@ -88,6 +94,7 @@ public class DecompilerConfig extends Config {
 	public final void setDexVersion(final int version) throws InvalidConfigException {
 		try {
 			this.opcodes = Opcodes.forDexVersion(version);
+			this.opcodeTable = OpcodeTable.forDexVersion(version);
 			this.dexVersion = version;
 		} catch (final RuntimeException e) {
 			throw new InvalidConfigException("Dex version is invalid.", e);
@@ -109,6 +116,20 @@ public class DecompilerConfig extends Config {
 		return this.opcodes;
 	}
 
+	/**
+	 * Gets the {@link OpcodeTable} based on provided dex version. It is shared
+	 * by all components that need fast opcode lookups.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 */
+	@NonNull
+	public final OpcodeTable getOpcodeTable() {
+		this.check();
+		return this.opcodeTable;
+	}
+
 	/**
 	 * Determine whether or not unknown opcodes should result in a NOP instead of an
 	 * exception. Defaults to {@code false}.
@@ -3,6 +3,13 @@ package com.topper.configuration;
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.google.common.collect.ImmutableList;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.index.GadgetIndex;
+import com.topper.dex.pipeline.ConsumingFinalizer;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.Stage;
+import com.topper.dex.staticanalyser.Gadget;
 import com.topper.exceptions.InvalidConfigException;
 
 /**
@@ -19,6 +26,35 @@ public final class GeneralConfig extends Config {
 	 */
 	private int defaultAmountThreads;
 	
+	/**
+	 * Whether to stream items between pipeline stages instead of handing over
+	 * entire lists.
+	 */
+	private boolean streamPipeline;
+	
+	/**
+	 * Upper bound on the number of chunks of pivots that are in flight while
+	 * streaming, i.e. swept, but not yet consumed by the finalizer.
+	 */
+	private int streamCapacity;
+	
+	/**
+	 * Whether to run independent pipeline stages concurrently.
+	 */
+	private boolean scheduleStages;
+	
+	/**
+	 * Whether to keep only one gadget per distinct bytecode when loading files.
+	 */
+	private boolean deduplicateGadgets;
+	
+	/**
+	 * Directory, in which indices of extracted gadgets are stored. Empty, if
+	 * indices are disabled.
+	 */
+	@NonNull
+	private String gadgetIndexDirectory = "";
+	
 	/**
 	 * Gets default number of threads to create in case multi - threading
 	 * is used to speed things up.
@@ -46,6 +82,131 @@ public final class GeneralConfig extends Config {
 		this.defaultAmountThreads = defaultAmountThreads;
 	}
 
+	/**
+	 * Determines whether pipelines stream {@link Gadget}s through their stages
+	 * instead of executing each stage to completion. See
+	 * {@link Pipeline#executeStreaming(PipelineArgs)}. The <code>file</code>
+	 * command then collects gadgets chunk by chunk via a
+	 * {@link ConsumingFinalizer}.
+	 * 
+	 * Defaults to <code>false</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	public final boolean shouldStreamPipeline() {
+		this.check();
+		return this.streamPipeline;
+	}
+	
+	/**
+	 * Sets whether pipelines stream {@link Gadget}s through their stages.
+	 * */
+	public final void setStreamPipeline(final boolean streamPipeline) {
+		this.streamPipeline = streamPipeline;
+	}
+	
+	/**
+	 * Gets the upper bound on the number of chunks of pivots that are in flight
+	 * while streaming. Once reached, sweeping waits for the finalizer to consume
+	 * the oldest chunk.
+	 * 
+	 * Defaults to <code>16</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	public final int getStreamCapacity() {
+		this.check();
+		return this.streamCapacity;
+	}
+	
+	/**
+	 * Sets the upper bound on the number of chunks of pivots in flight while streaming.
+	 * 
+	 * @throws InvalidConfigException If {@code streamCapacity <= 0}.
+	 * */
+	public final void setStreamCapacity(final int streamCapacity) throws InvalidConfigException {
+		if (streamCapacity <= 0) {
+			throw new InvalidConfigException("streamCapacity must be >= 1.");
+		}
+		this.streamCapacity = streamCapacity;
+	}
+
+	/**
+	 * Determines whether pipelines run {@link Stage}s, which do not depend on each
+	 * other, concurrently on {@link GeneralConfig#getDefaultAmountThreads()}
+	 * threads. See {@link Pipeline#executeScheduled(PipelineArgs)}.
+	 * 
+	 * Defaults to <code>false</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	public final boolean shouldScheduleStages() {
+		this.check();
+		return this.scheduleStages;
+	}
+	
+	/**
+	 * Sets whether pipelines run independent {@link Stage}s concurrently.
+	 * */
+	public final void setScheduleStages(final boolean scheduleStages) {
+		this.scheduleStages = scheduleStages;
+	}
+
+	/**
+	 * Determines whether loaded files keep only one {@link Gadget} per distinct
+	 * bytecode, along with the entries of all its occurrences. See
+	 * {@link GadgetDeduplicator}.
+	 * 
+	 * Defaults to <code>false</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	public final boolean shouldDeduplicateGadgets() {
+		this.check();
+		return this.deduplicateGadgets;
+	}
+	
+	/**
+	 * Sets whether loaded files keep only one {@link Gadget} per distinct bytecode.
+	 * */
+	public final void setDeduplicateGadgets(final boolean deduplicateGadgets) {
+		this.deduplicateGadgets = deduplicateGadgets;
+	}
+
+	/**
+	 * Gets the directory, in which indices of the {@link Gadget}s extracted from
+	 * loaded files are stored. Loading a file with the same contents and
+	 * configuration again restores its gadgets from the index instead of
+	 * executing a pipeline. See {@link GadgetIndex}.
+	 * 
+	 * Defaults to <code>""</code>, i.e. indices are disabled.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	@NonNull
+	public final String getGadgetIndexDirectory() {
+		this.check();
+		return this.gadgetIndexDirectory;
+	}
+	
+	/**
+	 * Sets the directory, in which indices of extracted {@link Gadget}s are stored.
+	 * An empty string disables indices.
+	 * */
+	public final void setGadgetIndexDirectory(@NonNull final String gadgetIndexDirectory) {
+		this.gadgetIndexDirectory = gadgetIndexDirectory.trim();
+	}
+
 	/**
 	 * Gets the <code>"general"</code> tag.
 	 * */
@@ -59,6 +220,11 @@ public final class GeneralConfig extends Config {
 	 * Gets a list of valid general configurations. E.g.
 	 * <ul>
 	 * <li>defaultAmountThreads(int)</li>
+	 * <li>streamPipeline(boolean)</li>
+	 * <li>streamCapacity(int)</li>
+	 * <li>scheduleStages(boolean)</li>
+	 * <li>deduplicateGadgets(boolean)</li>
+	 * <li>gadgetIndexDirectory(String)</li>
 	 * </ul>
 	 * */
 	@SuppressWarnings("null")
@@ -66,7 +232,12 @@ public final class GeneralConfig extends Config {
 	@NonNull 
 	public ImmutableList<@NonNull ConfigElement<?>> getElements() {
 		return ImmutableList.of(
-				new ConfigElement<Integer>("defaultAmountThreads", 1, this::setDefaultAmountThreads)
+				new ConfigElement<Integer>("defaultAmountThreads", 1, this::setDefaultAmountThreads),
+				new ConfigElement<Boolean>("streamPipeline", false, this::setStreamPipeline),
+				new ConfigElement<Integer>("streamCapacity", 16, this::setStreamCapacity),
+				new ConfigElement<Boolean>("scheduleStages", false, this::setScheduleStages),
+				new ConfigElement<Boolean>("deduplicateGadgets", false, this::setDeduplicateGadgets),
+				new ConfigElement<String>("gadgetIndexDirectory", "", this::setGadgetIndexDirectory)
 		);
 	}
 	
@@ -75,6 +246,11 @@ public final class GeneralConfig extends Config {
 		final StringBuilder b = new StringBuilder();
 		b.append("General Config:" + System.lineSeparator());
 		b.append("- defaultAmountThreads: " + this.getDefaultAmountThreads() + System.lineSeparator());
+		b.append("- streamPipeline: " + this.shouldStreamPipeline() + System.lineSeparator());
+		b.append("- streamCapacity: " + this.getStreamCapacity() + System.lineSeparator());
+		b.append("- scheduleStages: " + this.shouldScheduleStages() + System.lineSeparator());
+		b.append("- deduplicateGadgets: " + this.shouldDeduplicateGadgets() + System.lineSeparator());
+		b.append("- gadgetIndexDirectory: " + this.getGadgetIndexDirectory() + System.lineSeparator());
 		return b.toString();
 	}
 }
\ No newline at end of file
@@ -3,6 +3,10 @@ package com.topper.configuration;
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.google.common.collect.ImmutableList;
+import com.topper.dex.graphs.CFG;
+import com.topper.dex.graphs.CompactCFG;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.exceptions.InvalidConfigException;
 
 /**
  * Configuration used by {@link StaticAnalyser}.
@@ -12,18 +16,51 @@ import com.google.common.collect.ImmutableList;
  * */
 public class StaticAnalyserConfig extends Config {
 	
+	/**
+	 * Point in time, at which the {@link CFG} of a {@link Gadget} is extracted.
+	 * */
+	public static enum CFGMode {
+		
+		/**
+		 * Extract the <code>CFG</code> during static analysis.
+		 * */
+		EAGER,
+		
+		/**
+		 * Extract the <code>CFG</code> on first access via {@link Gadget#getCFG()}.
+		 * */
+		LAZY,
+		
+		/**
+		 * Never extract the <code>CFG</code>.
+		 * */
+		SKIP
+	}
+	
 	/**
 	 * Whether or not to skip Control Flow Graph extraction in static analysis.
 	 * */
 	private boolean skipCFG;
 	
+	/**
+	 * When to extract Control Flow Graphs.
+	 * */
+	@NonNull
+	private CFGMode cfgMode = CFGMode.EAGER;
+	
+	/**
+	 * Whether or not to keep Control Flow Graphs in compact form.
+	 * */
+	private boolean compactCFG;
+	
 	/**
 	 * Whether or not to skip Data Flow Graph extraction in static analysis.
 	 * */
 	private boolean skipDFG;
 	
 	/**
-	 * Determines whether or not to skip CFG extraction in static analysis.
+	 * Determines whether or not to skip CFG extraction in static analysis, i.e.
+	 * whether {@link StaticAnalyserConfig#getCFGMode()} is {@link CFGMode#SKIP}.
 	 * 
 	 * Defaults to <code>false</code>.
 	 * 
@@ -32,8 +69,7 @@ public class StaticAnalyserConfig extends Config {
 	 *                                       successful.
 	 * */
 	public final boolean shouldSkipCFG() {
-		this.check();
-		return this.skipCFG;
+		return this.getCFGMode() == CFGMode.SKIP;
 	}
 	
 	/**
@@ -43,6 +79,68 @@ public class StaticAnalyserConfig extends Config {
 		this.skipCFG = skip;
 	}
 	
+	/**
+	 * Gets when to extract CFGs in static analysis. If skipping CFG extraction
+	 * has been requested via {@link StaticAnalyserConfig#setSkipCFG(boolean)},
+	 * then this is {@link CFGMode#SKIP}.
+	 * 
+	 * Defaults to {@link CFGMode#EAGER}.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	@NonNull
+	public final CFGMode getCFGMode() {
+		this.check();
+		return (this.skipCFG) ? CFGMode.SKIP : this.cfgMode;
+	}
+	
+	/**
+	 * Sets when to extract CFGs.
+	 * */
+	public final void setCFGMode(@NonNull final CFGMode mode) {
+		this.cfgMode = mode;
+	}
+	
+	/**
+	 * Sets when to extract CFGs by name, i.e. one of <code>"eager"</code>,
+	 * <code>"lazy"</code> and <code>"skip"</code>. Names are case - insensitive.
+	 * 
+	 * @throws InvalidConfigException If <code>modeName</code> does not name a
+	 *                                {@link CFGMode}.
+	 * */
+	public final void setCFGMode(@NonNull final String modeName) throws InvalidConfigException {
+		try {
+			this.cfgMode = CFGMode.valueOf(modeName.trim().toUpperCase());
+		} catch (final IllegalArgumentException e) {
+			throw new InvalidConfigException(modeName.trim() + " is not a valid CFG mode.");
+		}
+	}
+	
+	/**
+	 * Determines whether or not to keep extracted CFGs as {@link CompactCFG}s
+	 * instead of full {@link CFG}s. This saves memory, if many {@link Gadget}s
+	 * are kept, but only few of their <code>CFG</code>s are ever inspected.
+	 * 
+	 * Defaults to <code>false</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 * */
+	public final boolean shouldCompactCFG() {
+		this.check();
+		return this.compactCFG;
+	}
+	
+	/**
+	 * Sets whether to keep extracted CFGs in compact form.
+	 * */
+	public final void setCompactCFG(final boolean compact) {
+		this.compactCFG = compact;
+	}
+	
 	/**
 	 * Determines whether or not to skip DFG extraction in static analysis.
 	 * 
@@ -77,6 +175,8 @@ public class StaticAnalyserConfig extends Config {
 	 * Gets a list of valid {@link StaticAnalyser} configurations. E.g.
 	 * <ul>
 	 * <li>skipCfg(boolean)</li>
+	 * <li>cfgMode(string)</li>
+	 * <li>compactCFG(boolean)</li>
 	 * <li>skipDfg(boolean)</li>
 	 * </ul>
 	 * */
@@ -86,6 +186,8 @@ public class StaticAnalyserConfig extends Config {
 	public ImmutableList<@NonNull ConfigElement<?>> getElements() {
 		return ImmutableList.of(
 				new ConfigElement<Boolean>("skipCfg", false, this::setSkipCFG),
+				new ConfigElement<@NonNull String>("cfgMode", "eager", this::setCFGMode),
+				new ConfigElement<Boolean>("compactCFG", false, this::setCompactCFG),
 				new ConfigElement<Boolean>("skipDfg", false, this::setSkipDFG)
 		);
 	}
@@ -95,6 +197,8 @@ public class StaticAnalyserConfig extends Config {
 		final StringBuilder b = new StringBuilder();
 		b.append("Static Analyser Config:" + System.lineSeparator());
 		b.append("- skipCFG: " + this.shouldSkipCFG() + System.lineSeparator());
+		b.append("- cfgMode: " + this.getCFGMode().name().toLowerCase() + System.lineSeparator());
+		b.append("- compactCFG: " + this.shouldCompactCFG() + System.lineSeparator());
 		b.append("- skipDFG: " + this.shouldSkipDFG() + System.lineSeparator());
 		return b.toString();
 	}
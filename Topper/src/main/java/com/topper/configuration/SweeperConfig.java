@@ -1,9 +1,12 @@
 package com.topper.configuration;
 
+import java.util.stream.Collectors;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.topper.exceptions.InvalidConfigException;
 
 /**
@@ -25,9 +28,16 @@ public class SweeperConfig extends Config {
 	private int maxNumberInstructions;
 
 	/**
-	 * Opcode that signals the end of a gadget.
+	 * Opcodes that signal the end of a gadget. The first opcode is the primary
+	 * pivot opcode.
+	 */
+	private ImmutableSet<@NonNull Opcode> pivotOpcodes;
+
+	/**
+	 * Whether to only consider pivot instructions at code unit aligned offsets,
+	 * if the buffer is part of a structured file like .dex or .vdex.
 	 */
-	private Opcode pivotOpcode;
+	private boolean alignPivots;
 	
 	/**
 	 * Gets current upper bound on the number of instructions to obtain from a
@@ -61,7 +71,8 @@ public class SweeperConfig extends Config {
 	}
 
 	/**
-	 * Gets current pivot instruction that signals the end of a gadget.
+	 * Gets current primary pivot instruction that signals the end of a gadget.
+	 * If multiple pivot opcodes are configured, this is the first one.
 	 * 
 	 * Defaults to <code>Opcode.THROW</code>.
 	 * 
@@ -69,14 +80,46 @@ public class SweeperConfig extends Config {
 	 *                                       executed yet or execution has not been
 	 *                                       successful.
 	 */
+	@SuppressWarnings("null") // ImmutableSet of a valid config is never empty.
 	@NonNull
 	public final Opcode getPivotOpcode() {
 		this.check();
-		return this.pivotOpcode;
+		return this.pivotOpcodes.iterator().next();
 	}
 
 	/**
-	 * Sets the pivot opcode to use during sweeping by name.
+	 * Gets the set of pivot instructions, any of which signals the end of a
+	 * gadget. Iteration order matches configuration order.
+	 * 
+	 * Defaults to <code>{Opcode.THROW}</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 */
+	@NonNull
+	public final ImmutableSet<@NonNull Opcode> getPivotOpcodes() {
+		this.check();
+		return this.pivotOpcodes;
+	}
+
+	/**
+	 * Determines whether <code>opcode</code> is one of the configured pivot
+	 * opcodes.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 */
+	public final boolean isPivotOpcode(@NonNull final Opcode opcode) {
+		this.check();
+		return this.pivotOpcodes.contains(opcode);
+	}
+
+	/**
+	 * Sets the pivot opcodes to use during sweeping by name. Multiple opcodes are
+	 * separated by commas, e.g. <code>"throw, return-void"</code>. Names are
+	 * case - insensitive and may use either <code>-</code> or <code>_</code>.
 	 * 
 	 * Using {@link Opcode#NOP#name} is forbidden, as its least-significant
 	 * byte (i.e. the entire nop byte (0x00)) overlaps with the least-significant
@@ -85,19 +128,59 @@ public class SweeperConfig extends Config {
 	 * may disrupt the entire {@link Pipeline} due to parsing errors. As <code>Opcode.NOP</code>
 	 * is not regarded a "good" pivot instruction, it is filtered while loading the config.
 	 * 
-	 * @throws InvalidConfigException If <code>pivotOpcodeName</code> is not a valid
-	 *                                {@link Opcode} or is <code>Opcode.NOP</code>.
+	 * For the same reason, payload pseudo - opcodes like
+	 * <code>Opcode.PACKED_SWITCH_PAYLOAD</code> are forbidden. Their least - significant
+	 * byte is <code>0x00</code>, so every nop byte would be regarded a pivot.
+	 * 
+	 * @throws InvalidConfigException If <code>pivotOpcodeName</code> contains an
+	 *                                invalid {@link Opcode}, contains
+	 *                                <code>Opcode.NOP</code> or a payload
+	 *                                opcode, or is empty.
 	 */
 	public final void setPivotOpcode(@NonNull final String pivotOpcodeName) throws InvalidConfigException {
-		try {
-			// Check for existence
-			this.pivotOpcode = Opcode.valueOf(pivotOpcodeName.toUpperCase());
-			if (this.pivotOpcode.equals(Opcode.NOP)) {
+		final ImmutableSet.Builder<@NonNull Opcode> builder = new ImmutableSet.Builder<>();
+		for (final String name : pivotOpcodeName.split(",")) {
+			Opcode opcode;
+			try {
+				// Check for existence
+				opcode = Opcode.valueOf(name.trim().toUpperCase().replace('-', '_'));
+			} catch (final Exception e) {
+				throw new InvalidConfigException(name.trim() + " is unknown.");
+			}
+			if (opcode.equals(Opcode.NOP)) {
 				throw new InvalidConfigException("NOP is not a valid pivot opcode.");
 			}
-		} catch (final Exception e) {
-			throw new InvalidConfigException(pivotOpcodeName + " is unknown.");
+			if (opcode.format.isPayloadFormat) {
+				throw new InvalidConfigException(opcode.name + " is a payload and not a valid pivot opcode.");
+			}
+			builder.add(opcode);
 		}
+		this.pivotOpcodes = builder.build();
+	}
+
+	/**
+	 * Determines whether pivot instructions must be located at code unit aligned
+	 * offsets, if the buffer is part of a structured file like .dex or .vdex. In
+	 * such files, all instructions are aligned to code units, so unaligned pivots
+	 * can never be executed.
+	 * 
+	 * Defaults to <code>true</code>.
+	 * 
+	 * @throws UnsupportedOperationException If {@link Config#load} has not been
+	 *                                       executed yet or execution has not been
+	 *                                       successful.
+	 */
+	public final boolean shouldAlignPivots() {
+		this.check();
+		return this.alignPivots;
+	}
+
+	/**
+	 * Determines whether pivot instructions must be located at code unit aligned
+	 * offsets in structured files.
+	 */
+	public final void setAlignPivots(final boolean alignPivots) {
+		this.alignPivots = alignPivots;
 	}
 
 	/**
@@ -113,7 +196,8 @@ public class SweeperConfig extends Config {
 	 * Gets a list of valid {@link Sweeper} configurations. E.g.
 	 * <ul>
 	 * <li>maxNumberInstructions(int)</li>
-	 * <li>pivotOpcode(String)</code>
+	 * <li>pivotOpcode(String), possibly a comma - separated list</li>
+	 * <li>alignPivots(boolean)</li>
 	 * </ul>
 	 */
 	@SuppressWarnings("null")
@@ -121,7 +205,8 @@ public class SweeperConfig extends Config {
 	@NonNull
 	public ImmutableList<@NonNull ConfigElement<?>> getElements() {
 		return ImmutableList.of(new ConfigElement<Integer>("maxNumberInstructions", 10, this::setMaxNumberInstructions),
-				new ConfigElement<@NonNull String>("pivotOpcode", "throw", this::setPivotOpcode));
+				new ConfigElement<@NonNull String>("pivotOpcode", "throw", this::setPivotOpcode),
+				new ConfigElement<Boolean>("alignPivots", true, this::setAlignPivots));
 	}
 	
 	@Override
@@ -129,7 +214,10 @@ public class SweeperConfig extends Config {
 		final StringBuilder b = new StringBuilder();
 		b.append("Sweeper Config:" + System.lineSeparator());
 		b.append("- maxNumberInstructions: " + this.getMaxNumberInstructions() + System.lineSeparator());
-		b.append("- pivotOpcode: " + this.getPivotOpcode().name + System.lineSeparator());
+		b.append("- pivotOpcode: "
+				+ this.getPivotOpcodes().stream().map(opcode -> opcode.name).collect(Collectors.joining(", "))
+				+ System.lineSeparator());
+		b.append("- alignPivots: " + this.shouldAlignPivots() + System.lineSeparator());
 		return b.toString();
 	}
 }
\ No newline at end of file
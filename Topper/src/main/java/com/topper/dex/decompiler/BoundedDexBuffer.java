@@ -0,0 +1,121 @@
+package com.topper.dex.decompiler;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.dexbacked.DexBuffer;
+
+/**
+ * {@link DexBuffer} that views a window of an underlying byte array without
+ * copying it. All offsets are relative to the beginning of the window, and
+ * every read is checked against the window size.
+ *
+ * A read that leaves the window results in an
+ * {@link ArrayIndexOutOfBoundsException}, just like a read beyond the end of a
+ * copied window would. Therefore decompiling a window yields the same results
+ * as decompiling a copy of that window.
+ */
+public final class BoundedDexBuffer extends DexBuffer {
+
+	/**
+	 * Size of the window in bytes.
+	 */
+	private final int length;
+
+	/**
+	 * Creates a view on <code>buffer</code> covering <code>length</code> bytes
+	 * starting at <code>offset</code>.
+	 *
+	 * @param buffer Underlying byte array. It is not copied.
+	 * @param offset Start of the window relative to <code>buffer</code>.
+	 * @param length Size of the window in bytes.
+	 * @throws IllegalArgumentException If the window does not fit into
+	 *                                  <code>buffer</code>.
+	 */
+	public BoundedDexBuffer(final byte @NonNull [] buffer, final int offset, final int length) {
+		super(buffer, offset);
+
+		if (offset < 0 || length < 0 || offset > buffer.length - length) {
+			throw new IllegalArgumentException("Window [" + offset + ", " + offset + " + " + length
+					+ ") exceeds buffer of size " + buffer.length + ".");
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Gets the size of the window in bytes.
+	 */
+	public final int getLength() {
+		return this.length;
+	}
+
+	@Override
+	public int readSmallUint(final int offset) {
+		this.check(offset, 4);
+		return super.readSmallUint(offset);
+	}
+
+	@Override
+	public int readOptionalUint(final int offset) {
+		this.check(offset, 4);
+		return super.readOptionalUint(offset);
+	}
+
+	@Override
+	public int readUshort(final int offset) {
+		this.check(offset, 2);
+		return super.readUshort(offset);
+	}
+
+	@Override
+	public int readUbyte(final int offset) {
+		this.check(offset, 1);
+		return super.readUbyte(offset);
+	}
+
+	@Override
+	public long readLong(final int offset) {
+		this.check(offset, 8);
+		return super.readLong(offset);
+	}
+
+	@Override
+	public int readLongAsSmallUint(final int offset) {
+		this.check(offset, 8);
+		return super.readLongAsSmallUint(offset);
+	}
+
+	@Override
+	public int readInt(final int offset) {
+		this.check(offset, 4);
+		return super.readInt(offset);
+	}
+
+	@Override
+	public int readShort(final int offset) {
+		this.check(offset, 2);
+		return super.readShort(offset);
+	}
+
+	@Override
+	public int readByte(final int offset) {
+		this.check(offset, 1);
+		return super.readByte(offset);
+	}
+
+	@Override
+	public byte[] readByteRange(final int start, final int length) {
+		this.check(start, length);
+		return super.readByteRange(start, length);
+	}
+
+	/**
+	 * Ensures that reading <code>size</code> bytes at <code>offset</code> stays
+	 * inside of the window.
+	 *
+	 * @throws ArrayIndexOutOfBoundsException If the read leaves the window.
+	 */
+	private final void check(final int offset, final int size) {
+		if (offset < 0 || size < 0 || offset > this.length - size) {
+			throw new ArrayIndexOutOfBoundsException(offset + size - 1);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.topper.dex.decompiler;
+
+/**
+ * Outcome of checking whether a window of bytes is exactly one instruction.
+ * See {@link Decompiler#checkInstruction}.
+ */
+public enum DecodeStatus {
+	/**
+	 * The window consists of exactly one instruction.
+	 */
+	VALID,
+	/**
+	 * The instruction starting the window, or its payload header, extends
+	 * beyond the window. Also used for windows that do not fit into their
+	 * buffer.
+	 */
+	TRUNCATED,
+	/**
+	 * The instruction starting the window is smaller than the window, or the
+	 * window size is not a positive multiple of a code unit.
+	 */
+	SIZE_MISMATCH,
+	/**
+	 * The window starts with an opcode that does not exist in the configured dex
+	 * version, and unknown opcodes must not be nop`ed out.
+	 */
+	UNKNOWN_OPCODE,
+	/**
+	 * The window starts with a payload, whose header is inconsistent, like an
+	 * invalid element width.
+	 */
+	BAD_PAYLOAD,
+	/**
+	 * The instruction refers to an index that does not exist in the
+	 * augmentation.
+	 */
+	BAD_REFERENCE
+}
@@ -4,6 +4,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 
+import com.google.common.collect.ImmutableList;
 import com.topper.configuration.TopperConfig;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 
@@ -35,4 +36,103 @@ public interface Decompiler {
 	@NonNull
 	DecompilationResult decompile(final byte @NonNull [] bytes, @Nullable final DexBackedDexFile augmentation,
 			@NonNull final TopperConfig config);
+
+	/**
+	 * Decompiles the window of <code>length</code> bytes starting at
+	 * <code>offset</code> in {@code bytes} into {@link DecompiledInstruction}s
+	 * wrapped in a {@link DecompilationResult}.
+	 * 
+	 * The window must not be copied. Offsets of the resulting instructions are
+	 * relative to the beginning of the window, and the results must be the same
+	 * as if the window had been copied and passed to
+	 * {@link Decompiler#decompile(byte[], DexBackedDexFile, TopperConfig)}.
+	 * 
+	 * @param bytes        Buffer containing the raw bytes to decompile.
+	 * @param offset       Start of the window relative to <code>bytes</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 *                     It may be <code>null</code>.
+	 * @param config       Configuration to use during decompilation.
+	 * @return Result wrapping decompiled instructions and further information.
+	 */
+	@NonNull
+	DecompilationResult decompile(final byte @NonNull [] bytes, final int offset, final int length,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config);
+
+	/**
+	 * Decompiles the window of <code>length</code> bytes starting at
+	 * <code>offset</code> in {@code bytes} into a single
+	 * {@link DecompiledInstruction}. The window is valid, iff. it consists of
+	 * exactly one instruction that covers all of its bytes.
+	 * 
+	 * This is meant for callers that test many candidate windows, most of which
+	 * are invalid, like a sweeper. Implementations should reject invalid windows
+	 * as cheaply as possible. The default implementation falls back to
+	 * {@link Decompiler#decompile(byte[], int, int, DexBackedDexFile, TopperConfig)}.
+	 * The offset of the resulting instruction is relative to the beginning of the
+	 * window, i.e. <code>0</code>.
+	 * 
+	 * @param bytes        Buffer containing the raw bytes to decompile.
+	 * @param offset       Start of the window relative to <code>bytes</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 *                     It may be <code>null</code>.
+	 * @param config       Configuration to use during decompilation.
+	 * @return Decompiled instruction, or <code>null</code>, if the window is not
+	 *         exactly one instruction.
+	 */
+	@Nullable
+	default DecompiledInstruction decompileInstruction(final byte @NonNull [] bytes, final int offset,
+			final int length, @Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config) {
+
+		final ImmutableList<@NonNull DecompiledInstruction> instructions = this
+				.decompile(bytes, offset, length, augmentation, config).getInstructions();
+		if (instructions.size() != 1 || instructions.get(0).getByteCode().length != length) {
+			return null;
+		}
+		return instructions.get(0);
+	}
+
+	/**
+	 * Checks whether the window of <code>length</code> bytes starting at
+	 * <code>offset</code> in {@code bytes} is exactly one instruction. If
+	 * <code>augmentation</code> is not <code>null</code>, then all references of
+	 * the instruction must be resolvable.
+	 * 
+	 * Implementations must neither throw on invalid contents, nor create the
+	 * instruction. This allows to reject invalid candidates without paying for
+	 * exceptions.
+	 * 
+	 * @param bytes        Buffer containing the raw bytes to check.
+	 * @param offset       Start of the window relative to <code>bytes</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 *                     It may be <code>null</code>.
+	 * @param config       Configuration to use during decompilation.
+	 * @return {@link DecodeStatus#VALID}, or the reason why the window is not
+	 *         exactly one instruction.
+	 */
+	@NonNull
+	DecodeStatus checkInstruction(final byte @NonNull [] bytes, final int offset, final int length,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config);
+
+	/**
+	 * Exception - free variant of
+	 * {@link Decompiler#decompileInstruction(byte[], int, int, DexBackedDexFile, TopperConfig)}.
+	 * The instruction is only created, if
+	 * {@link Decompiler#checkInstruction(byte[], int, int, DexBackedDexFile, TopperConfig)}
+	 * reports {@link DecodeStatus#VALID}.
+	 * 
+	 * @return Decompiled instruction, or <code>null</code>, if the window is not
+	 *         exactly one instruction.
+	 */
+	@Nullable
+	default DecompiledInstruction tryDecompile(final byte @NonNull [] bytes, final int offset, final int length,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config) {
+
+		if (this.checkInstruction(bytes, offset, length, augmentation, config) != DecodeStatus.VALID) {
+			return null;
+		}
+		return this.decompileInstruction(bytes, offset, length, augmentation, config);
+	}
 }
\ No newline at end of file
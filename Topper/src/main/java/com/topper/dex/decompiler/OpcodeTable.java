@@ -0,0 +1,203 @@
+package com.topper.dex.decompiler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.Opcodes;
+
+/**
+ * Precomputed lookup table over all opcode bytes of a dex version.
+ *
+ * For each of the {@value #NUMBER_BYTES} possible first bytes of an
+ * instruction, it stores the {@link Opcode}, the size of its format and
+ * whether the byte may start a payload. This allows to reject impossible
+ * instruction candidates with a single array lookup, i.e. before any object
+ * is created or any exception is thrown. It also replaces boxed
+ * {@link Opcodes#getOpcodeValue(Opcode)} lookups when encoding instructions.
+ *
+ * Tables are immutable and shared per dex version. See
+ * {@link OpcodeTable#forDexVersion(int)}.
+ */
+public final class OpcodeTable {
+
+	/**
+	 * Number of distinct opcode bytes.
+	 */
+	public static final int NUMBER_BYTES = 256;
+
+	/**
+	 * Opcode byte shared by <code>nop</code> and all payload pseudo -
+	 * instructions. Payloads are distinguished by their second byte.
+	 */
+	public static final int PAYLOAD_PREFIX = 0x00;
+
+	/**
+	 * Tables that have already been computed, by dex version.
+	 */
+	@NonNull
+	private static final Map<@NonNull Integer, @NonNull OpcodeTable> TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * Dex version this table was computed for.
+	 */
+	private final int dexVersion;
+
+	/**
+	 * Maps an opcode byte to its {@link Opcode}, or <code>null</code>, if the byte
+	 * does not encode any opcode.
+	 */
+	private final @Nullable Opcode @NonNull [] opcodes;
+
+	/**
+	 * Maps an opcode byte to the size of its format in bytes, or <code>0</code>,
+	 * if the byte does not encode any opcode.
+	 */
+	private final byte @NonNull [] sizes;
+
+	/**
+	 * Maps the second byte of a payload to the payload {@link Opcode}, if the
+	 * first byte is {@link #PAYLOAD_PREFIX}.
+	 */
+	private final @Nullable Opcode @NonNull [] payloads;
+
+	/**
+	 * Maps {@link Opcode#ordinal()} to the value of the opcode, or to
+	 * <code>-1</code>, if the opcode does not exist in this dex version.
+	 */
+	private final int @NonNull [] values;
+
+	/**
+	 * Computes the table for the given {@link Opcodes}. Prefer
+	 * {@link OpcodeTable#forDexVersion(int)}, which shares tables.
+	 *
+	 * @param opcodes    Opcode mapping of a dex version.
+	 * @param dexVersion Dex version of <code>opcodes</code>.
+	 */
+	public OpcodeTable(@NonNull final Opcodes opcodes, final int dexVersion) {
+
+		this.dexVersion = dexVersion;
+		this.opcodes = new Opcode[NUMBER_BYTES];
+		this.sizes = new byte[NUMBER_BYTES];
+		this.payloads = new Opcode[NUMBER_BYTES];
+		this.values = new int[Opcode.values().length];
+
+		for (final Opcode opcode : Opcode.values()) {
+			final Short value = opcodes.getOpcodeValue(opcode);
+			this.values[opcode.ordinal()] = (value != null) ? (value & 0xffff) : -1;
+		}
+
+		for (int value = 0; value < NUMBER_BYTES; value++) {
+			final Opcode opcode = opcodes.getOpcodeByValue(value);
+			if (opcode != null && !opcode.format.isPayloadFormat) {
+				this.opcodes[value] = opcode;
+				this.sizes[value] = (byte) opcode.format.size;
+			}
+
+			final Opcode payload = opcodes.getOpcodeByValue(value << 8);
+			if (payload != null && payload.format.isPayloadFormat) {
+				this.payloads[value] = payload;
+			}
+		}
+	}
+
+	/**
+	 * Gets the shared table of the given dex version.
+	 *
+	 * @param dexVersion Dex version, for which to get the table.
+	 * @return Table of <code>dexVersion</code>.
+	 * @throws IllegalArgumentException If <code>dexVersion</code> is not supported
+	 *                                  by {@link Opcodes#forDexVersion(int)}.
+	 */
+	@SuppressWarnings("null") // computeIfAbsent never returns null here
+	@NonNull
+	public static final OpcodeTable forDexVersion(final int dexVersion) {
+		return TABLES.computeIfAbsent(dexVersion,
+				version -> new OpcodeTable(Opcodes.forDexVersion(version), version));
+	}
+
+	/**
+	 * Gets the dex version this table was computed for.
+	 */
+	public final int getDexVersion() {
+		return this.dexVersion;
+	}
+
+	/**
+	 * Determines whether <code>opcodeByte</code> encodes an instruction of this
+	 * dex version. {@link #PAYLOAD_PREFIX} is always valid, as it encodes
+	 * <code>nop</code>.
+	 */
+	public final boolean isValid(final int opcodeByte) {
+		return this.sizes[opcodeByte & 0xff] != 0;
+	}
+
+	/**
+	 * Determines whether an instruction starting with <code>opcodeByte</code> may
+	 * be a payload, i.e. whether its size depends on its contents.
+	 */
+	public final boolean isPayloadPrefix(final int opcodeByte) {
+		return (opcodeByte & 0xff) == PAYLOAD_PREFIX;
+	}
+
+	/**
+	 * Gets the size in bytes of the format of the instruction starting with
+	 * <code>opcodeByte</code>, or <code>0</code>, if the byte is invalid. For
+	 * {@link #PAYLOAD_PREFIX}, this is the size of <code>nop</code>.
+	 */
+	public final int getSize(final int opcodeByte) {
+		return this.sizes[opcodeByte & 0xff];
+	}
+
+	/**
+	 * Determines whether an instruction of <code>size</code> bytes may start with
+	 * <code>opcodeByte</code>. If not, then decompiling such a candidate is bound
+	 * to fail. Candidates starting with {@link #PAYLOAD_PREFIX} always pass, as
+	 * payload sizes depend on their contents.
+	 *
+	 * @param opcodeByte            First byte of the candidate.
+	 * @param size                  Size of the candidate in bytes.
+	 * @param nopUnknownInstruction Whether unknown opcodes are nop`ed out.
+	 */
+	public final boolean canStart(final int opcodeByte, final int size, final boolean nopUnknownInstruction) {
+		if (this.isPayloadPrefix(opcodeByte)) {
+			return true;
+		}
+		if (this.isValid(opcodeByte)) {
+			return this.getSize(opcodeByte) == size;
+		}
+		return nopUnknownInstruction && size == Opcode.NOP.format.size;
+	}
+
+	/**
+	 * Gets the {@link Opcode} encoded by <code>opcodeByte</code>, or
+	 * <code>null</code>, if the byte is invalid. Payloads are not considered. See
+	 * {@link OpcodeTable#getPayload(int)}.
+	 */
+	@Nullable
+	public final Opcode getOpcode(final int opcodeByte) {
+		return this.opcodes[opcodeByte & 0xff];
+	}
+
+	/**
+	 * Gets the payload {@link Opcode} whose second byte is
+	 * <code>secondByte</code>, or <code>null</code>, if there is none.
+	 */
+	@Nullable
+	public final Opcode getPayload(final int secondByte) {
+		return this.payloads[secondByte & 0xff];
+	}
+
+	/**
+	 * Gets the value of <code>opcode</code> in this dex version. For payloads,
+	 * this is the full 16 - bit value.
+	 *
+	 * @return Value of <code>opcode</code>, or <code>-1</code>, if it does not
+	 *         exist in this dex version.
+	 */
+	public final int getValue(@NonNull final Opcode opcode) {
+		return this.values[opcode.ordinal()];
+	}
+}
@@ -6,9 +6,11 @@ import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.jf.dexlib2.Format;
+import org.jf.dexlib2.Opcode;
 import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.ReferenceType;
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
-import org.jf.dexlib2.dexbacked.DexBuffer;
 import org.jf.dexlib2.dexbacked.DexReader;
 import org.jf.dexlib2.dexbacked.util.VariableSizeLookaheadIterator;
 import org.jf.util.ExceptionWithContext;
@@ -54,23 +56,55 @@ public final class SmaliDecompiler implements Decompiler {
 	 * @throws IllegalArgumentException  If the buffer length is not a multiple of
 	 *                                   two.
 	 */
-	@SuppressWarnings("null")	// ImmutableList.copyOf is not expected to return null
 	@NonNull
 	@Override
 	public final DecompilationResult decompile(final byte @NonNull [] bytecode,
 			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config)
 			throws ExceptionWithContext, IndexOutOfBoundsException, IllegalArgumentException {
+		return this.decompile(bytecode, 0, bytecode.length, augmentation, config);
+	}
+
+	/**
+	 * Decompiles a window of a given byte array into smali instructions. The
+	 * window is viewed through a {@link BoundedDexBuffer}, i.e. it is never
+	 * copied. Offsets of the resulting instructions are relative to
+	 * <code>offset</code>.
+	 * 
+	 * @param bytecode     Byte array containing the window to interpret as
+	 *                     bytecode and to decompile.
+	 * @param offset       Start of the window relative to <code>bytecode</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 *                     This can be used to view instruction in different
+	 *                     execution contexts.
+	 * @param config       Configuration to use during decompilation.
+	 * @return Wrapper holding information on the decompilation. Among other things,
+	 *         it holds a list of {@link DecompiledInstruction}s.
+	 * @throws ExceptionWithContext      If an unknown instruction is met, or an
+	 *                                   internal logic error occurs like too large
+	 *                                   integer values for reference indices.
+	 * @throws IndexOutOfBoundsException If an instruction performs an out - of -
+	 *                                   bounds read wrt. the window.
+	 * @throws IllegalArgumentException  If the window length is not a multiple of
+	 *                                   two, or the window does not fit into
+	 *                                   <code>bytecode</code>.
+	 */
+	@SuppressWarnings("null")	// ImmutableList.copyOf is not expected to return null
+	@NonNull
+	@Override
+	public final DecompilationResult decompile(final byte @NonNull [] bytecode, final int offset, final int length,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config)
+			throws ExceptionWithContext, IndexOutOfBoundsException, IllegalArgumentException {
 
-		if ((bytecode.length % 2) != 0) {
+		if ((length % 2) != 0) {
 			throw new IllegalArgumentException("bytecode buffer must contain an even amount of bytes.");
 		}
 
-		final DexBuffer buffer = new DexBuffer(bytecode);
+		final BoundedDexBuffer buffer = new BoundedDexBuffer(bytecode, offset, length);
 
-		int offset = 0;
+		int current = 0;
 		int size;
 		final List<@NonNull DecompiledInstruction> decompiledInstructions = new LinkedList<>();
-		byte[] buf;
 		for (final BufferedInstruction instruction : this.getInstructions(buffer, augmentation,
 				config.getDecompilerConfig().getOpcodes(),
 				config.getDecompilerConfig().shouldNopUnknownInstruction())) {
@@ -80,16 +114,257 @@ public final class SmaliDecompiler implements Decompiler {
 			}
 
 			size = instruction.getCodeUnits() * 2;
-			buf = new byte[size];
-			System.arraycopy(bytecode, offset, buf, 0, size);
-			decompiledInstructions.add(new DecompiledInstruction(instruction, buf));
+			decompiledInstructions.add(new DecompiledInstruction(instruction, bytecode, offset + current, size));
 
-			offset += size;
+			current += size;
 		}
 
 		return new DecompilationResult(buffer, ImmutableList.copyOf(decompiledInstructions));
 	}
 
+	/**
+	 * Decompiles the window of <code>length</code> bytes starting at
+	 * <code>offset</code> in <code>bytecode</code> into a single instruction.
+	 * 
+	 * Opcode, format and size of the candidate are validated directly on
+	 * <code>bytecode</code> first. Only if the candidate covers exactly the
+	 * window, a {@link BoundedDexBuffer}, the instruction and its
+	 * {@link DecompiledInstruction} are created. Therefore rejecting a candidate
+	 * of the wrong size allocates nothing.
+	 * 
+	 * @param bytecode     Byte array containing the window to decompile.
+	 * @param offset       Start of the window relative to <code>bytecode</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 * @param config       Configuration to use during decompilation.
+	 * @return Decompiled instruction, or <code>null</code>, if the window is not
+	 *         exactly one instruction.
+	 * @throws ExceptionWithContext      If the instruction covering the window
+	 *                                   has invalid contents, like too large
+	 *                                   reference indices.
+	 * @throws IndexOutOfBoundsException If the instruction covering the window
+	 *                                   performs an out - of - bounds read wrt.
+	 *                                   the window.
+	 */
+	@Nullable
+	@Override
+	public final DecompiledInstruction decompileInstruction(final byte @NonNull [] bytecode, final int offset,
+			final int length, @Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config)
+			throws ExceptionWithContext, IndexOutOfBoundsException {
+
+		if (checkWindow(bytecode, offset, length) != DecodeStatus.VALID
+				|| checkSize(bytecode, offset, length, config.getDecompilerConfig().getOpcodeTable(),
+						config.getDecompilerConfig().shouldNopUnknownInstruction()) != DecodeStatus.VALID) {
+			return null;
+		}
+		return this.createInstruction(bytecode, offset, length, augmentation, config);
+	}
+
+	/**
+	 * Checks whether the window of <code>length</code> bytes starting at
+	 * <code>offset</code> in <code>bytecode</code> is exactly one instruction,
+	 * without throwing and without allocating.
+	 * 
+	 * Opcode and size are checked like in
+	 * {@link SmaliDecompiler#decompileInstruction(byte[], int, int, DexBackedDexFile, TopperConfig)}.
+	 * In addition, payload headers are validated and, if
+	 * <code>augmentation</code> is given, reference indices are checked against
+	 * the sizes of the respective sections.
+	 * 
+	 * @param bytecode     Byte array containing the window to check.
+	 * @param offset       Start of the window relative to <code>bytecode</code>.
+	 * @param length       Size of the window in bytes.
+	 * @param augmentation Dex file representation to use for resolving references.
+	 * @param config       Configuration to use during decompilation.
+	 * @return {@link DecodeStatus#VALID}, or the reason why the window is not
+	 *         exactly one instruction.
+	 */
+	@NonNull
+	@Override
+	public final DecodeStatus checkInstruction(final byte @NonNull [] bytecode, final int offset, final int length,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config) {
+
+		DecodeStatus status = checkWindow(bytecode, offset, length);
+		if (status != DecodeStatus.VALID) {
+			return status;
+		}
+
+		final OpcodeTable table = config.getDecompilerConfig().getOpcodeTable();
+		status = checkSize(bytecode, offset, length, table, config.getDecompilerConfig().shouldNopUnknownInstruction());
+		if (status != DecodeStatus.VALID || augmentation == null) {
+			return status;
+		}
+		return checkReferences(bytecode, offset, table, augmentation);
+	}
+
+	/**
+	 * Creates the instruction covering the window. The window must have been
+	 * checked before.
+	 */
+	@NonNull
+	private final DecompiledInstruction createInstruction(final byte @NonNull [] bytecode, final int offset,
+			final int length, @Nullable final DexBackedDexFile augmentation, @NonNull final TopperConfig config) {
+
+		final BoundedDexBuffer buffer = new BoundedDexBuffer(bytecode, offset, length);
+		final BufferedInstruction instruction = BufferedInstruction.readFrom(buffer.readerAt(0), augmentation,
+				config.getDecompilerConfig().getOpcodes(), config.getDecompilerConfig().shouldNopUnknownInstruction());
+		return new DecompiledInstruction(instruction, bytecode, offset, length);
+	}
+
+	@NonNull
+	private static final DecodeStatus checkWindow(final byte @NonNull [] bytecode, final int offset,
+			final int length) {
+
+		if (offset < 0 || length < 0 || offset > bytecode.length - length) {
+			return DecodeStatus.TRUNCATED;
+		}
+		if (length == 0 || (length % 2) != 0) {
+			return DecodeStatus.SIZE_MISMATCH;
+		}
+		return DecodeStatus.VALID;
+	}
+
+	/**
+	 * Checks that the instruction starting at <code>offset</code> covers exactly
+	 * <code>length</code> bytes. Apart from payloads, this is a single lookup in
+	 * <code>table</code>. Sizes of payloads are read from their headers.
+	 */
+	@NonNull
+	private static final DecodeStatus checkSize(final byte @NonNull [] bytecode, final int offset, final int length,
+			@NonNull final OpcodeTable table, final boolean nopUnknownInstruction) {
+
+		final int opcodeByte = bytecode[offset] & 0xff;
+
+		// Second byte of a nop is 0, any other value denotes a payload.
+		if (table.isPayloadPrefix(opcodeByte) && bytecode[offset + 1] != 0) {
+			final Opcode payload = table.getPayload(bytecode[offset + 1]);
+			if (payload == null) {
+				return nopUnknownInstruction ? compareSize(Opcode.NOP.format.size, length)
+						: DecodeStatus.UNKNOWN_OPCODE;
+			}
+
+			switch (payload.format) {
+			case PackedSwitchPayload:
+				if (length < 4) {
+					return DecodeStatus.TRUNCATED;
+				}
+				return compareSize(2L * (4 + readUshort(bytecode, offset + 2) * 2), length);
+			case SparseSwitchPayload:
+				if (length < 4) {
+					return DecodeStatus.TRUNCATED;
+				}
+				return compareSize(2L * (2 + readUshort(bytecode, offset + 2) * 4), length);
+			default:
+				if (length < 8) {
+					return DecodeStatus.TRUNCATED;
+				}
+				final int width = readUshort(bytecode, offset + 2);
+				final long count = readUint(bytecode, offset + 4);
+				if ((width != 1 && width != 2 && width != 4 && width != 8) || count > Integer.MAX_VALUE
+						|| width * count > Integer.MAX_VALUE) {
+					return DecodeStatus.BAD_PAYLOAD;
+				}
+				return compareSize(2L * (4 + (width * count + 1) / 2), length);
+			}
+		}
+
+		if (table.isValid(opcodeByte)) {
+			return compareSize(table.getSize(opcodeByte), length);
+		}
+		return nopUnknownInstruction ? compareSize(Opcode.NOP.format.size, length) : DecodeStatus.UNKNOWN_OPCODE;
+	}
+
+	@NonNull
+	private static final DecodeStatus compareSize(final long size, final int length) {
+		if (size > length) {
+			return DecodeStatus.TRUNCATED;
+		}
+		return (size < length) ? DecodeStatus.SIZE_MISMATCH : DecodeStatus.VALID;
+	}
+
+	/**
+	 * Checks that all reference indices of the instruction starting at
+	 * <code>offset</code> exist in <code>augmentation</code>. The instruction must
+	 * fit into the window.
+	 */
+	@NonNull
+	private static final DecodeStatus checkReferences(final byte @NonNull [] bytecode, final int offset,
+			@NonNull final OpcodeTable table, @NonNull final DexBackedDexFile augmentation) {
+
+		final Opcode opcode = table.isPayloadPrefix(bytecode[offset]) ? null : table.getOpcode(bytecode[offset]);
+		if (opcode == null || (opcode.referenceType == ReferenceType.NONE && opcode.format != Format.Format20bc)) {
+			return DecodeStatus.VALID;
+		}
+
+		final int referenceType;
+		final long index;
+		switch (opcode.format) {
+		case Format20bc:
+			referenceType = ((bytecode[offset + 1] & 0xff) >>> 6) + 1;
+			index = readUshort(bytecode, offset + 2);
+			break;
+		case Format31c:
+			referenceType = opcode.referenceType;
+			index = readUint(bytecode, offset + 2);
+			break;
+		default:
+			referenceType = opcode.referenceType;
+			index = readUshort(bytecode, offset + 2);
+			break;
+		}
+
+		if (!isValidReference(augmentation, referenceType, index)) {
+			return DecodeStatus.BAD_REFERENCE;
+		}
+
+		// Only dual - reference formats carry a second index.
+		final boolean dual = opcode.format == Format.Format45cc || opcode.format == Format.Format4rcc;
+		if (dual && !isValidReference(augmentation, opcode.referenceType2, readUshort(bytecode, offset + 6))) {
+			return DecodeStatus.BAD_REFERENCE;
+		}
+		return DecodeStatus.VALID;
+	}
+
+	private static final boolean isValidReference(@NonNull final DexBackedDexFile augmentation,
+			final int referenceType, final long index) {
+
+		final int size;
+		switch (referenceType) {
+		case ReferenceType.STRING:
+			size = augmentation.getStringSection().size();
+			break;
+		case ReferenceType.TYPE:
+			size = augmentation.getTypeSection().size();
+			break;
+		case ReferenceType.FIELD:
+			size = augmentation.getFieldSection().size();
+			break;
+		case ReferenceType.METHOD:
+			size = augmentation.getMethodSection().size();
+			break;
+		case ReferenceType.METHOD_PROTO:
+			size = augmentation.getProtoSection().size();
+			break;
+		case ReferenceType.CALL_SITE:
+			size = augmentation.getCallSiteSection().size();
+			break;
+		case ReferenceType.METHOD_HANDLE:
+			size = augmentation.getMethodHandleSection().size();
+			break;
+		default:
+			return false;
+		}
+		return index < size;
+	}
+
+	private static final long readUint(final byte @NonNull [] bytecode, final int offset) {
+		return (readUshort(bytecode, offset) | ((long) readUshort(bytecode, offset + 2) << 16));
+	}
+
+	private static final int readUshort(final byte @NonNull [] bytecode, final int offset) {
+		return (bytecode[offset] & 0xff) | ((bytecode[offset + 1] & 0xff) << 8);
+	}
+
 	/**
 	 * Retrieves instructions from a given <code>buffer</code>.
 	 * 
@@ -117,11 +392,11 @@ public final class SmaliDecompiler implements Decompiler {
 	 *                                   bounds read.
 	 */
 	@NonNull
-	private final Iterable<? extends BufferedInstruction> getInstructions(@NonNull final DexBuffer buffer,
+	private final Iterable<? extends BufferedInstruction> getInstructions(@NonNull final BoundedDexBuffer buffer,
 			@Nullable final DexBackedDexFile file, @NonNull final Opcodes opcodes, final boolean nopUnknownInstruction)
 			throws ExceptionWithContext, IndexOutOfBoundsException{
 		final int instructionsStartOffset = 0;
-		final int endOffset = instructionsStartOffset + buffer.getBuf().length;
+		final int endOffset = instructionsStartOffset + buffer.getLength();
 
 		return new Iterable<BufferedInstruction>() {
 			@Override
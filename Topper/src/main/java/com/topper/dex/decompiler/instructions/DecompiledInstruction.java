@@ -50,6 +50,20 @@ public final class DecompiledInstruction implements Comparable<DecompiledInstruc
 		System.arraycopy(byteCode, 0, this.byteCode, 0, this.byteCode.length);
 	}
 
+	/**
+	 * Creates a new {@link DecompiledInstruction} from a
+	 * {@link BufferedInstruction} and the <code>length</code> bytes starting at
+	 * <code>offset</code> in <code>buffer</code>, from which it was extracted.
+	 * Only these bytes are copied.
+	 */
+	public DecompiledInstruction(@NonNull final BufferedInstruction instruction, final byte @NonNull [] buffer,
+			final int offset, final int length) {
+
+		this.instruction = instruction;
+		this.byteCode = new byte[length];
+		System.arraycopy(buffer, offset, this.byteCode, 0, length);
+	}
+
 	/**
 	 * Gets the wrapped {@link BufferedInstruction}.
 	 * */
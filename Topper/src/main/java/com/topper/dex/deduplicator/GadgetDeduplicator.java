@@ -0,0 +1,237 @@
+package com.topper.dex.deduplicator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.pipeline.DeduplicatorInfo;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.Stage;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.dex.staticanalyser.StaticAnalyser;
+import com.topper.dex.sweeper.Sweeper;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
+import com.topper.exceptions.pipeline.StageException;
+
+/**
+ * {@link Stage} that merges instruction sequences with identical bytecode
+ * before they are analysed. It must be located between the {@link Sweeper} and
+ * the {@link StaticAnalyser}.
+ *
+ * Short instruction sequences like <code>move-exception v0; throw v0</code>
+ * occur thousands of times in a file. Within a single pipeline execution, all
+ * sequences are decompiled with the same augmentation and configuration.
+ * Instructions only refer to other instructions relatively, and to dex items
+ * by index. Therefore, two sequences with identical bytecode consist of the
+ * same instructions with the same references, and result in {@link Gadget}s
+ * with the same control and data flow. Only their entries differ.
+ *
+ * Sequences are read from the {@link SweeperInfo} and grouped by their
+ * concatenated bytecode. The first sequence of each group is kept, and the
+ * entries of all sequences of the group are kept in order. The resulting
+ * {@link DeduplicatorInfo} lists the groups in the order of their first
+ * sequences. As it is a <code>SweeperInfo</code> itself, the
+ * <code>StaticAnalyser</code> only analyses one sequence per group. See
+ * {@link StaticAnalyser#getSweeperInfo(PipelineContext)}.
+ */
+public final class GadgetDeduplicator implements Stage {
+
+	/**
+	 * Deduplicates all instruction sequences of the {@link SweeperInfo} in
+	 * <code>context</code> and adds the result as {@link DeduplicatorInfo}.
+	 *
+	 * @throws MissingStageInfoException If <code>context</code> does not contain
+	 *                                   a <code>SweeperInfo</code>.
+	 */
+	@Override
+	public final void execute(@NonNull final PipelineContext context) throws StageException {
+
+		final SweeperInfo info = context.getSweeperInfo(SweeperInfo.class.getSimpleName());
+		final Groups groups = new Groups();
+		info.getInstructionSequences().forEach(groups::add);
+		context.putInfo(DeduplicatorInfo.class.getSimpleName(),
+				groups.toInfo(info.getDecodeCacheHits(), info.getDecodeCacheMisses()));
+	}
+
+	/**
+	 * Counts the instruction sequences to deduplicate.
+	 */
+	@Override
+	public final long countInputs(@NonNull final PipelineContext context) {
+		try {
+			return context.getSweeperInfo(SweeperInfo.class.getSimpleName()).getInstructionSequences().size();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Counts the distinct instruction sequences.
+	 */
+	@Override
+	public final long countOutputs(@NonNull final PipelineContext context) {
+		try {
+			return context.getSweeperInfo(DeduplicatorInfo.class.getSimpleName()).getInstructionSequences().size();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Deduplicators read {@link SweeperInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of(SweeperInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Deduplicators provide {@link DeduplicatorInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of(DeduplicatorInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Groups instruction sequences with identical bytecode one sequence at a time.
+	 * It is used by {@link Pipeline#executeStreaming(PipelineArgs)} to
+	 * deduplicate chunks of sequences as soon as they are swept.
+	 *
+	 * Sequences must be added in sweeper order. Only the first sequence of each
+	 * group is kept. <code>Groups</code> are not thread - safe.
+	 */
+	public static final class Groups {
+
+		/**
+		 * Maps concatenated bytecode to its group.
+		 */
+		@NonNull
+		private final Map<@NonNull ByteBuffer, @NonNull Occurrences> groups;
+
+		/**
+		 * Groups in the order of their first sequences.
+		 */
+		@NonNull
+		private final List<@NonNull Occurrences> ordered;
+
+		public Groups() {
+			this.groups = new HashMap<>();
+			this.ordered = new ArrayList<>();
+		}
+
+		/**
+		 * Adds <code>sequence</code> to the group of its bytecode.
+		 *
+		 * @throws IllegalArgumentException If <code>sequence</code> is empty.
+		 */
+		public final void add(@NonNull final List<@NonNull DecompiledInstruction> sequence) {
+
+			if (sequence.isEmpty()) {
+				throw new IllegalArgumentException("Encountered empty instruction sequence. Missing pivot instruction.");
+			}
+
+			final ByteBuffer key = ByteBuffer.wrap(bytecodeOf(sequence));
+			Occurrences group = this.groups.get(key);
+			if (group == null) {
+				group = new Occurrences(sequence);
+				this.groups.put(key, group);
+				this.ordered.add(group);
+			}
+			group.add(sequence.iterator().next().getOffset());
+		}
+
+		/**
+		 * Gets the number of distinct sequences added so far.
+		 */
+		public final int size() {
+			return this.ordered.size();
+		}
+
+		/**
+		 * Creates a {@link DeduplicatorInfo} of all groups.
+		 *
+		 * @param decodeCacheHits   See {@link SweeperInfo#getDecodeCacheHits()}.
+		 * @param decodeCacheMisses See {@link SweeperInfo#getDecodeCacheMisses()}.
+		 */
+		@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+		@NonNull
+		public final DeduplicatorInfo toInfo(final long decodeCacheHits, final long decodeCacheMisses) {
+
+			final ImmutableList.Builder<@NonNull List<@NonNull DecompiledInstruction>> sequences = ImmutableList
+					.builderWithExpectedSize(this.ordered.size());
+			final int[][] entries = new int[this.ordered.size()][];
+			for (int i = 0; i < this.ordered.size(); i++) {
+				final Occurrences group = this.ordered.get(i);
+				sequences.add(group.sequence);
+				entries[i] = group.toEntries();
+			}
+			return new DeduplicatorInfo(sequences.build(), entries, decodeCacheHits, decodeCacheMisses);
+		}
+	}
+
+	/**
+	 * Concatenates the bytecode of all instructions of <code>sequence</code>.
+	 */
+	private static final byte @NonNull [] bytecodeOf(@NonNull final List<@NonNull DecompiledInstruction> sequence) {
+
+		int size = 0;
+		for (final DecompiledInstruction instruction : sequence) {
+			size += instruction.getByteCode().length;
+		}
+
+		final byte[] bytecode = new byte[size];
+		int offset = 0;
+		for (final DecompiledInstruction instruction : sequence) {
+			System.arraycopy(instruction.getByteCode(), 0, bytecode, offset, instruction.getByteCode().length);
+			offset += instruction.getByteCode().length;
+		}
+		return bytecode;
+	}
+
+	/**
+	 * First sequence of a group along with a growing array of entries.
+	 */
+	private static final class Occurrences {
+
+		@NonNull
+		private final List<@NonNull DecompiledInstruction> sequence;
+
+		private int @NonNull [] entries;
+
+		private int size;
+
+		private Occurrences(@NonNull final List<@NonNull DecompiledInstruction> sequence) {
+			this.sequence = sequence;
+			this.entries = new int[1];
+			this.size = 0;
+		}
+
+		private final void add(final int entry) {
+			if (this.size == this.entries.length) {
+				this.entries = Arrays.copyOf(this.entries, 2 * this.size);
+			}
+			this.entries[this.size++] = entry;
+		}
+
+		@SuppressWarnings("null") // Arrays.copyOf() is not expected to be null...
+		private final int @NonNull [] toEntries() {
+			return Arrays.copyOf(this.entries, this.size);
+		}
+	}
+}
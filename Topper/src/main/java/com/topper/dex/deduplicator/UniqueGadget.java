@@ -0,0 +1,79 @@
+package com.topper.dex.deduplicator;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.topper.dex.staticanalyser.Gadget;
+
+/**
+ * A {@link Gadget} that represents all gadgets with identical bytecode, along
+ * with the entries of all its occurrences.
+ *
+ * The canonical <code>Gadget</code> is the first occurrence. Entries are
+ * stored as a primitive array in the order, in which occurrences have been
+ * encountered. Therefore, the first entry is always the entry of the canonical
+ * <code>Gadget</code>.
+ */
+public final class UniqueGadget {
+
+	/**
+	 * First occurrence of this gadget.
+	 */
+	@NonNull
+	private final Gadget gadget;
+
+	/**
+	 * Entries of all occurrences relative to the analysed buffer.
+	 */
+	private final int @NonNull [] entries;
+
+	/**
+	 * Creates a {@link UniqueGadget} from its canonical <code>gadget</code> and
+	 * the <code>entries</code> of all occurrences. <code>entries</code> is not
+	 * copied.
+	 *
+	 * @throws IllegalArgumentException If <code>entries</code> does not start
+	 *                                  with the entry of <code>gadget</code>.
+	 */
+	public UniqueGadget(@NonNull final Gadget gadget, final int @NonNull [] entries) {
+		if (entries.length == 0 || entries[0] != gadget.getEntry()) {
+			throw new IllegalArgumentException("First entry must be the entry of the canonical gadget.");
+		}
+		this.gadget = gadget;
+		this.entries = entries;
+	}
+
+	/**
+	 * Gets the canonical {@link Gadget}, i.e. the first occurrence.
+	 */
+	@NonNull
+	public final Gadget getGadget() {
+		return this.gadget;
+	}
+
+	/**
+	 * Gets the number of occurrences of this gadget.
+	 */
+	public final int getNumberOccurrences() {
+		return this.entries.length;
+	}
+
+	/**
+	 * Gets the entry of the <code>index</code> - th occurrence.
+	 *
+	 * @throws ArrayIndexOutOfBoundsException If <code>index</code> is out of
+	 *                                        bounds.
+	 */
+	public final int getEntry(final int index) {
+		return this.entries[index];
+	}
+
+	/**
+	 * Gets a copy of the entries of all occurrences.
+	 */
+	@SuppressWarnings("null") // Arrays.copyOf() is not expected to be null...
+	public final int @NonNull [] getEntries() {
+		return Arrays.copyOf(this.entries, this.entries.length);
+	}
+}
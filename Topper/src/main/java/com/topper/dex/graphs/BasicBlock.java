@@ -72,6 +72,11 @@ public final class BasicBlock implements Comparable<BasicBlock> {
 	 * 
 	 * Its main use is to handle splitting basic blocks due to branch targets.
 	 * 
+	 * Instructions are expected to be adjacent, i.e. each instruction starts
+	 * where its predecessor ends. Thus the size is computed in constant time
+	 * from the first and last instruction, which keeps repeated splits of long
+	 * blocks cheap.
+	 * 
 	 * @throws IllegalArgumentException If number of instructions is <code>0</code>.
 	 * */
 	@SuppressWarnings("null")	// ImmutableList.get is not expected to return null for valid index.
@@ -79,9 +84,10 @@ public final class BasicBlock implements Comparable<BasicBlock> {
 		if (instructions.size() == 0) {
 			throw new IllegalArgumentException("Basic block must contain at least one instruction.");
 		}
+		final DecompiledInstruction last = instructions.get(instructions.size() - 1);
 		this.instructions = instructions;
-		this.size = instructions.stream().mapToInt(i -> i.getByteCode().length).sum();
 		this.offset = instructions.get(0).getOffset();
+		this.size = last.getOffset() + last.getByteCode().length - this.offset;
 	}
 	
 	/**
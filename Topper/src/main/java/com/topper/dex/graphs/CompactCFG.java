@@ -0,0 +1,346 @@
+package com.topper.dex.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.staticanalyser.Gadget;
+
+/**
+ * Immutable, compact representation of a {@link CFG}.
+ *
+ * Instead of {@link BasicBlock} objects, a graph and lookup trees, it only
+ * stores a few <code>int</code> arrays on top of the list of instructions it
+ * was extracted from:
+ * <ul>
+ * <li>Start and end (exclusive) instruction index of each block. Blocks are
+ * identified by their position in these arrays and ordered by offset.</li>
+ * <li>Successors and predecessors of each block in compressed sparse row
+ * format, i.e. the neighbours of block <code>b</code> are stored at indices
+ * <code>[offsets[b], offsets[b + 1])</code> of the neighbour array.</li>
+ * </ul>
+ * As the list of instructions is shared with e.g. the {@link Gadget} it
+ * belongs to, a <code>CompactCFG</code> costs a handful of objects regardless
+ * of its size. Lookups by offset or instruction use binary search and run in
+ * O(log(#instructions)).
+ *
+ * Use {@link CompactCFG#toCFG()} to obtain a full <code>CFG</code>, e.g. for
+ * graph algorithms.
+ */
+public final class CompactCFG {
+
+	/**
+	 * Offset, from which CFG extraction started.
+	 */
+	private final int entry;
+
+	/**
+	 * All instructions available at the {@link CFG} extraction stage, ordered by
+	 * offset.
+	 */
+	@NonNull
+	private final ImmutableList<@NonNull DecompiledInstruction> instructions;
+
+	/**
+	 * Index of the first instruction of each block.
+	 */
+	private final int @NonNull [] blockStarts;
+
+	/**
+	 * Index behind the last instruction of each block.
+	 */
+	private final int @NonNull [] blockEnds;
+
+	/**
+	 * Start of the successors of each block in <code>successors</code>, plus the
+	 * total number of edges.
+	 */
+	private final int @NonNull [] successorOffsets;
+
+	/**
+	 * Successor blocks of all blocks.
+	 */
+	private final int @NonNull [] successors;
+
+	/**
+	 * Start of the predecessors of each block in <code>predecessors</code>, plus
+	 * the total number of edges.
+	 */
+	private final int @NonNull [] predecessorOffsets;
+
+	/**
+	 * Predecessor blocks of all blocks.
+	 */
+	private final int @NonNull [] predecessors;
+
+	private CompactCFG(final int entry, @NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
+			final int @NonNull [] blockStarts, final int @NonNull [] blockEnds,
+			final int @NonNull [] successorOffsets, final int @NonNull [] successors,
+			final int @NonNull [] predecessorOffsets, final int @NonNull [] predecessors) {
+		this.entry = entry;
+		this.instructions = instructions;
+		this.blockStarts = blockStarts;
+		this.blockEnds = blockEnds;
+		this.successorOffsets = successorOffsets;
+		this.successors = successors;
+		this.predecessorOffsets = predecessorOffsets;
+		this.predecessors = predecessors;
+	}
+
+	/**
+	 * Compacts <code>cfg</code>.
+	 *
+	 * @param cfg          <code>CFG</code> to compact. It is not modified.
+	 * @param instructions List of instructions, from which <code>cfg</code> has
+	 *                     been extracted. Instructions must be ordered by offset.
+	 * @return Compact copy of <code>cfg</code>.
+	 * @throws IllegalArgumentException If a {@link BasicBlock} of
+	 *                                  <code>cfg</code> is not part of
+	 *                                  <code>instructions</code>.
+	 */
+	@NonNull
+	public static final CompactCFG of(@NonNull final CFG cfg,
+			@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions) {
+
+		// Order blocks by offset, so that blocks can be found via binary search.
+		final List<@NonNull BasicBlock> blocks = new ArrayList<>(cfg.getGraph().nodes());
+		blocks.sort(null);
+
+		final int numberBlocks = blocks.size();
+		final int[] blockStarts = new int[numberBlocks];
+		final int[] blockEnds = new int[numberBlocks];
+		for (int b = 0; b < numberBlocks; b++) {
+			final BasicBlock block = blocks.get(b);
+			final int start = indexOf(instructions, block.getOffset());
+			if (start < 0) {
+				throw new IllegalArgumentException(
+						String.format("Block at %#x is not part of the instructions.", block.getOffset()));
+			}
+			blockStarts[b] = start;
+			blockEnds[b] = start + block.getInstructions().size();
+		}
+
+		// Count edges per block, then fill neighbours.
+		final int numberEdges = cfg.getGraph().edges().size();
+		final int[] successorOffsets = new int[numberBlocks + 1];
+		final int[] predecessorOffsets = new int[numberBlocks + 1];
+		for (int b = 0; b < numberBlocks; b++) {
+			successorOffsets[b + 1] = successorOffsets[b] + cfg.getGraph().outDegree(blocks.get(b));
+			predecessorOffsets[b + 1] = predecessorOffsets[b] + cfg.getGraph().inDegree(blocks.get(b));
+		}
+
+		final int[] successors = new int[numberEdges];
+		final int[] predecessors = new int[numberEdges];
+		for (int b = 0; b < numberBlocks; b++) {
+			int i = successorOffsets[b];
+			for (final BasicBlock successor : cfg.getGraph().successors(blocks.get(b))) {
+				successors[i++] = findBlock(blockStarts, instructions, successor.getOffset());
+			}
+			Arrays.sort(successors, successorOffsets[b], i);
+
+			i = predecessorOffsets[b];
+			for (final BasicBlock predecessor : cfg.getGraph().predecessors(blocks.get(b))) {
+				predecessors[i++] = findBlock(blockStarts, instructions, predecessor.getOffset());
+			}
+			Arrays.sort(predecessors, predecessorOffsets[b], i);
+		}
+
+		return new CompactCFG(cfg.getEntry(), instructions, blockStarts, blockEnds, successorOffsets, successors,
+				predecessorOffsets, predecessors);
+	}
+
+	/**
+	 * Expands this <code>CompactCFG</code> into a new {@link CFG} with the same
+	 * blocks, edges and lookups. Each invocation creates a new <code>CFG</code>.
+	 */
+	@NonNull
+	public final CFG toCFG() {
+
+		final CFG cfg = new CFG(this.entry);
+		for (final DecompiledInstruction instruction : this.instructions) {
+			cfg.addOffsetInstructionLookup(instruction.getOffset(), instruction);
+		}
+
+		final BasicBlock[] blocks = new BasicBlock[this.getNumberBlocks()];
+		for (int b = 0; b < blocks.length; b++) {
+			blocks[b] = new BasicBlock(this.getBlockInstructions(b));
+			cfg.getGraph().addNode(blocks[b]);
+			for (final DecompiledInstruction instruction : blocks[b].getInstructions()) {
+				cfg.addInstructionBlockLookup(instruction, blocks[b]);
+			}
+		}
+
+		for (int b = 0; b < blocks.length; b++) {
+			for (int i = this.successorOffsets[b]; i < this.successorOffsets[b + 1]; i++) {
+				cfg.getGraph().putEdge(blocks[b], blocks[this.successors[i]]);
+			}
+		}
+
+		return cfg;
+	}
+
+	/**
+	 * Gives the byte offset, from which <code>CFG</code> extraction started.
+	 */
+	public final int getEntry() {
+		return this.entry;
+	}
+
+	/**
+	 * Gives the block containing the instruction at {@link CompactCFG#getEntry()},
+	 * or <code>-1</code>, if there is none.
+	 */
+	public final int getEntryBlock() {
+		final DecompiledInstruction instruction = this.getInstruction(this.entry);
+		return (instruction != null) ? this.getBlock(instruction) : -1;
+	}
+
+	/**
+	 * Tries to obtain the instruction at <code>offset</code>.
+	 *
+	 * @param offset Offset in bytes, for which to get the instruction.
+	 * @return Instruction at <code>offset</code>, if it exists; <code>null</code>
+	 *         otherwise.
+	 */
+	@Nullable
+	public final DecompiledInstruction getInstruction(final int offset) {
+		final int index = indexOf(this.instructions, offset);
+		return (index >= 0) ? this.instructions.get(index) : null;
+	}
+
+	/**
+	 * Tries to obtain the block containing <code>instruction</code>. Like with
+	 * {@link CFG#getBlock(DecompiledInstruction)}, instructions that are not
+	 * covered by any block do not have a block.
+	 *
+	 * @return Block containing <code>instruction</code>, if it exists;
+	 *         <code>-1</code> otherwise.
+	 */
+	public final int getBlock(@NonNull final DecompiledInstruction instruction) {
+
+		final int index = indexOf(this.instructions, instruction.getOffset());
+		if (index < 0 || !this.instructions.get(index).equals(instruction)) {
+			return -1;
+		}
+
+		// Find last block starting at or before index.
+		int position = Arrays.binarySearch(this.blockStarts, index);
+		if (position < 0) {
+			position = -position - 2;
+		}
+		return (position >= 0 && index < this.blockEnds[position]) ? position : -1;
+	}
+
+	/**
+	 * Gets the number of blocks.
+	 */
+	public final int getNumberBlocks() {
+		return this.blockStarts.length;
+	}
+
+	/**
+	 * Gets the number of edges.
+	 */
+	public final int getNumberEdges() {
+		return this.successors.length;
+	}
+
+	/**
+	 * Gets the byte offset of the first instruction of <code>block</code>.
+	 */
+	public final int getBlockOffset(final int block) {
+		return this.instructions.get(this.blockStarts[block]).getOffset();
+	}
+
+	/**
+	 * Gets the instructions that make up <code>block</code>. The resulting list
+	 * is a view of the instructions of this <code>CompactCFG</code>.
+	 */
+	@SuppressWarnings("null") // ImmutableList.subList is not expected to return null...
+	@NonNull
+	public final ImmutableList<@NonNull DecompiledInstruction> getBlockInstructions(final int block) {
+		return this.instructions.subList(this.blockStarts[block], this.blockEnds[block]);
+	}
+
+	/**
+	 * Gets the blocks <code>block</code> has an edge to, ordered by offset.
+	 */
+	public final int @NonNull [] getSuccessors(final int block) {
+		return Arrays.copyOfRange(this.successors, this.successorOffsets[block], this.successorOffsets[block + 1]);
+	}
+
+	/**
+	 * Gets the blocks that have an edge to <code>block</code>, ordered by offset.
+	 */
+	public final int @NonNull [] getPredecessors(final int block) {
+		return Arrays.copyOfRange(this.predecessors, this.predecessorOffsets[block],
+				this.predecessorOffsets[block + 1]);
+	}
+
+	/**
+	 * Determines whether there is an edge from <code>source</code> to
+	 * <code>destination</code>.
+	 */
+	public final boolean hasEdge(final int source, final int destination) {
+		return Arrays.binarySearch(this.successors, this.successorOffsets[source],
+				this.successorOffsets[source + 1], destination) >= 0;
+	}
+
+	/**
+	 * Converts this <code>CompactCFG</code> to a readable string representation.
+	 */
+	@Override
+	public final String toString() {
+		final StringBuilder b = new StringBuilder();
+
+		for (int block = 0; block < this.getNumberBlocks(); block++) {
+			b.append(String.format("Block %d at %#x (%d instructions)" + System.lineSeparator(), block,
+					this.getBlockOffset(block), this.blockEnds[block] - this.blockStarts[block]));
+			b.append("Outgoing Edges:" + System.lineSeparator());
+			for (final int successor : this.getSuccessors(block)) {
+				b.append(String.format("  To: %#x" + System.lineSeparator(), this.getBlockOffset(successor)));
+			}
+
+			b.append(System.lineSeparator());
+		}
+
+		return b.toString();
+	}
+
+	/**
+	 * Finds the block starting at <code>offset</code>.
+	 */
+	private static final int findBlock(final int @NonNull [] blockStarts,
+			@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions, final int offset) {
+		return Arrays.binarySearch(blockStarts, indexOf(instructions, offset));
+	}
+
+	/**
+	 * Finds the index of the instruction at <code>offset</code> via binary search.
+	 *
+	 * @return Index of the instruction, or a negative value, if there is none.
+	 */
+	private static final int indexOf(@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
+			final int offset) {
+
+		int low = 0;
+		int high = instructions.size() - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final int current = instructions.get(middle).getOffset();
+			if (current < offset) {
+				low = middle + 1;
+			} else if (current > offset) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,536 @@
+package com.topper.dex.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.Opcodes;
+import org.jf.util.ExceptionWithContext;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.deduplicator.UniqueGadget;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.dex.staticanalyser.StaticAnalyser;
+import com.topper.dex.sweeper.Sweeper;
+
+/**
+ * Persistent, memory - mapped index of the {@link Gadget}s extracted from a
+ * buffer.
+ *
+ * Extracting gadgets from a large file takes seconds to minutes, whereas
+ * decompiling a known gadget only takes a single linear pass over its bytes.
+ * Therefore, an index only stores the location of each gadget, i.e. its entry
+ * and length in bytes, along with its number of instructions and its pivot
+ * opcode. Instructions are decompiled again when restoring gadgets. Then the
+ * remaining stages of the pipeline, e.g. static analysis, are executed on the
+ * restored instruction sequences according to the current configuration.
+ *
+ * An index is only valid for the exact buffer and configuration it was created
+ * with. Its key is a SHA - 256 hash of the buffer, the offset of the
+ * augmentation, the sweeper and decompiler configuration, whether gadgets are
+ * deduplicated and the format version. See {@link GadgetIndex#key(PipelineArgs)}.
+ *
+ * Deduplicated gadgets are indexed with all their occurrences, one group after
+ * another. See {@link GadgetIndex#writeUnique(Path, byte[], List, TopperConfig)}.
+ *
+ * The format is little - endian and column - oriented:
+ * <ul>
+ * <li>Magic <code>TGIX</code> (4 bytes)</li>
+ * <li>Format version (4 bytes)</li>
+ * <li>Key (32 bytes)</li>
+ * <li>Number of gadgets <code>n</code> (4 bytes)</li>
+ * <li>Entries (<code>4n</code> bytes)</li>
+ * <li>Lengths in bytes (<code>4n</code> bytes)</li>
+ * <li>Numbers of instructions (<code>2n</code> bytes)</li>
+ * <li>Pivot opcode values (<code>2n</code> bytes)</li>
+ * </ul>
+ */
+public final class GadgetIndex {
+
+	/**
+	 * Magic value that starts each index, i.e. <code>"TGIX"</code>.
+	 */
+	private static final int MAGIC = 0x58494754;
+
+	/**
+	 * Version of the index format. It must be incremented whenever the format or
+	 * the meaning of the key changes.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Size of a key in bytes.
+	 */
+	private static final int KEY_SIZE = 32;
+
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = 4 + 4 + KEY_SIZE + 4;
+
+	/**
+	 * Size of all columns of a single gadget in bytes.
+	 */
+	private static final int GADGET_SIZE = 4 + 4 + 2 + 2;
+
+	/**
+	 * Number of chunks of gadgets per thread in case gadgets are restored in
+	 * parallel.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * File extension of indices.
+	 */
+	private static final String EXTENSION = ".tgi";
+
+	@NonNull
+	private final IntBuffer entries;
+
+	@NonNull
+	private final IntBuffer lengths;
+
+	@NonNull
+	private final ShortBuffer numberInstructions;
+
+	@NonNull
+	private final ShortBuffer pivots;
+
+	private GadgetIndex(@NonNull final IntBuffer entries, @NonNull final IntBuffer lengths,
+			@NonNull final ShortBuffer numberInstructions, @NonNull final ShortBuffer pivots) {
+		this.entries = entries;
+		this.lengths = lengths;
+		this.numberInstructions = numberInstructions;
+		this.pivots = pivots;
+	}
+
+	/**
+	 * Gets the number of indexed gadgets.
+	 */
+	public final int size() {
+		return this.entries.limit();
+	}
+
+	/**
+	 * Gets the entry of the <code>index</code> - th gadget relative to the
+	 * indexed buffer.
+	 */
+	public final int getEntry(final int index) {
+		return this.entries.get(index);
+	}
+
+	/**
+	 * Gets the size of the <code>index</code> - th gadget in bytes.
+	 */
+	public final int getLength(final int index) {
+		return this.lengths.get(index);
+	}
+
+	/**
+	 * Gets the number of instructions of the <code>index</code> - th gadget.
+	 */
+	public final int getNumberInstructions(final int index) {
+		return this.numberInstructions.get(index) & 0xffff;
+	}
+
+	/**
+	 * Gets the value of the pivot opcode of the <code>index</code> - th gadget.
+	 */
+	public final int getPivotValue(final int index) {
+		return this.pivots.get(index) & 0xffff;
+	}
+
+	/**
+	 * Restores the instruction sequences of all indexed gadgets from the buffer
+	 * in <code>args</code>. Each sequence is decompiled linearly by
+	 * <code>decompiler</code>. Sequences are not analysed, so that the
+	 * {@link StaticAnalyser} of the pipeline that produced this index can turn
+	 * them into gadgets. See {@link Pipeline#executeFrom(PipelineArgs, SweeperInfo)}.
+	 *
+	 * If {@link PipelineArgs#getNumberThreads()} exceeds one, contiguous
+	 * chunks of sequences are decompiled concurrently.
+	 *
+	 * If any sequence does not decompile to its indexed number of instructions
+	 * and pivot opcode, the index does not match the buffer and
+	 * <code>null</code> is returned.
+	 *
+	 * @param args       Arguments with the indexed buffer and the current
+	 *                   configuration.
+	 * @param decompiler Decompiler of the {@link Sweeper} that extracted the
+	 *                   gadgets.
+	 * @return Sequences in index order, or <code>null</code>, if the index does
+	 *         not match or restoring is interrupted.
+	 */
+	@Nullable
+	public final SweeperInfo restore(@NonNull final PipelineArgs args, @NonNull final Decompiler decompiler) {
+
+		final int threads = args.getNumberThreads();
+		if (threads <= 1 || this.size() <= 1) {
+			final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = this
+					.restoreRange(args, decompiler, 0, this.size());
+			return (sequences != null) ? new SweeperInfo(sequences) : null;
+		}
+
+		// Use more chunks than threads to balance long and short sequences.
+		final int chunkSize = Math.max(1, this.size() / (threads * CHUNKS_PER_THREAD));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>>>> chunks = new ArrayList<>();
+			for (int start = 0; start < this.size(); start += chunkSize) {
+				final int from = start;
+				final int to = Math.min(start + chunkSize, this.size());
+				chunks.add(executor.submit(() -> this.restoreRange(args, decompiler, from, to)));
+			}
+
+			// Merge in chunk order to keep index order.
+			final ImmutableList.Builder<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = ImmutableList
+					.builderWithExpectedSize(this.size());
+			for (final Future<ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>>> chunk : chunks) {
+				final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> restored = chunk.get();
+				if (restored == null) {
+					return null;
+				}
+				sequences.addAll(restored);
+			}
+			return new SweeperInfo(sequences.build());
+
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			return null;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Restores the instruction sequences with indices in <code>[from, to)</code>
+	 * one after another on the calling thread.
+	 *
+	 * @return Sequences in index order, or <code>null</code>, if any of them
+	 *         does not match the buffer.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@Nullable
+	private final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> restoreRange(
+			@NonNull final PipelineArgs args, @NonNull final Decompiler decompiler, final int from, final int to) {
+
+		final byte[] buffer = args.getBuffer();
+		final TopperConfig config = args.getConfig();
+		final Opcodes opcodes = config.getDecompilerConfig().getOpcodes();
+
+		final ImmutableList.Builder<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = ImmutableList
+				.builderWithExpectedSize(to - from);
+		try {
+			for (int i = from; i < to; i++) {
+
+				final int entry = this.getEntry(i);
+				final int length = this.getLength(i);
+				if (entry < 0 || length <= 0 || length > buffer.length - entry) {
+					return null;
+				}
+
+				final ImmutableList<@NonNull DecompiledInstruction> instructions = decompiler
+						.decompile(buffer, entry, length, args.getAugmentation(), config).getInstructions();
+				if (instructions.size() != this.getNumberInstructions(i)) {
+					return null;
+				}
+
+				final Opcode pivot = instructions.get(instructions.size() - 1).getInstruction().getOpcode();
+				final Short value = opcodes.getOpcodeValue(pivot);
+				if (value == null || (value & 0xffff) != this.getPivotValue(i)) {
+					return null;
+				}
+
+				// Offsets are relative to the window, but gadgets require offsets
+				// relative to the buffer.
+				for (final DecompiledInstruction instruction : instructions) {
+					instruction.setOffset(entry + instruction.getOffset());
+				}
+				sequences.add(instructions);
+			}
+		} catch (final ExceptionWithContext | IndexOutOfBoundsException | IllegalArgumentException ignored) {
+			return null;
+		}
+		return sequences.build();
+	}
+
+	/**
+	 * Computes the key of an index of the buffer in <code>args</code>. It covers
+	 * everything that determines which gadgets are extracted and in which order,
+	 * i.e. the buffer, the augmentation, the sweeper and decompiler configuration
+	 * and whether gadgets are deduplicated.
+	 *
+	 * The augmentation is always parsed from the buffer itself, so its offset
+	 * suffices to identify it.
+	 */
+	public static final byte @NonNull [] key(@NonNull final PipelineArgs args) {
+		return key(args, hash(args.getBuffer()));
+	}
+
+	/**
+	 * Computes the key of an index of the buffer in <code>args</code> like
+	 * {@link GadgetIndex#key(PipelineArgs)}, but reuses the hash of the buffer.
+	 * This avoids hashing a large buffer once per pipeline, e.g. once per .dex
+	 * file of a .vdex file.
+	 *
+	 * @param bufferHash Hash of the buffer in <code>args</code>. See
+	 *                   {@link GadgetIndex#hash(byte[])}.
+	 */
+	@SuppressWarnings("null") // Hasher.hash().asBytes() is not expected to be null...
+	public static final byte @NonNull [] key(@NonNull final PipelineArgs args, final byte @NonNull [] bufferHash) {
+
+		final TopperConfig config = args.getConfig();
+		final Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(VERSION);
+		hasher.putBytes(bufferHash);
+		hasher.putBoolean(args.getAugmentation() != null);
+		hasher.putInt(args.getAugmentationOffset());
+		hasher.putString(config.getSweeperConfig().toString(), StandardCharsets.UTF_8);
+		hasher.putString(config.getDecompilerConfig().toString(), StandardCharsets.UTF_8);
+		hasher.putBoolean(config.getGeneralConfig().shouldDeduplicateGadgets());
+		return hasher.hash().asBytes();
+	}
+
+	/**
+	 * Computes the SHA - 256 hash of <code>buffer</code>, which is part of the
+	 * key of each index of <code>buffer</code>.
+	 */
+	@SuppressWarnings("null") // HashFunction.hashBytes().asBytes() is not expected to be null...
+	public static final byte @NonNull [] hash(final byte @NonNull [] buffer) {
+		return Hashing.sha256().hashBytes(buffer).asBytes();
+	}
+
+	/**
+	 * Gets the path of the index with <code>key</code> inside of
+	 * <code>directory</code>.
+	 */
+	@SuppressWarnings("null") // Path.resolve() is not expected to be null...
+	@NonNull
+	public static final Path pathOf(@NonNull final Path directory, final byte @NonNull [] key) {
+		return directory.resolve(BaseEncoding.base16().lowerCase().encode(key) + EXTENSION);
+	}
+
+	/**
+	 * Maps the index at <code>path</code> into memory. Mapping does not read the
+	 * index, so this is cheap regardless of its size.
+	 *
+	 * @param path Path of the index.
+	 * @param key  Expected key of the index.
+	 * @return Index, or <code>null</code>, if there is no index at
+	 *         <code>path</code>, or its format, version or key do not match.
+	 * @throws IOException If the index exists, but cannot be read.
+	 */
+	@Nullable
+	public static final GadgetIndex load(@NonNull final Path path, final byte @NonNull [] key) throws IOException {
+
+		final MappedByteBuffer mapped;
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				return null;
+			}
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (final NoSuchFileException ignored) {
+			return null;
+		}
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+			return null;
+		}
+		final byte[] actual = new byte[KEY_SIZE];
+		mapped.get(actual);
+		if (!Arrays.equals(actual, key)) {
+			return null;
+		}
+		final int count = mapped.getInt();
+		if (count < 0 || (long) count * GADGET_SIZE != mapped.remaining()) {
+			return null;
+		}
+
+		return new GadgetIndex(column(mapped, 4 * count).asIntBuffer(), column(mapped, 4 * count).asIntBuffer(),
+				column(mapped, 2 * count).asShortBuffer(), column(mapped, 2 * count).asShortBuffer());
+	}
+
+	/**
+	 * Slices the next <code>size</code> bytes off of <code>buffer</code>.
+	 */
+	@SuppressWarnings("null") // ByteBuffer.slice() is not expected to be null...
+	@NonNull
+	private static final ByteBuffer column(@NonNull final ByteBuffer buffer, final int size) {
+		final ByteBuffer column = buffer.slice();
+		column.limit(size);
+		column.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(buffer.position() + size);
+		return column;
+	}
+
+	/**
+	 * Writes an index of <code>gadgets</code> with <code>key</code> to
+	 * <code>path</code>. The index is written to a temporary file first, which is
+	 * then moved to <code>path</code>. Therefore, concurrent readers never see a
+	 * partial index.
+	 *
+	 * @param path    Path of the index. Missing parent directories are created.
+	 * @param key     Key of the index. See {@link GadgetIndex#key(PipelineArgs)}.
+	 * @param gadgets Gadgets to index.
+	 * @param config  Configuration used to extract <code>gadgets</code>.
+	 * @throws IOException              If writing the index fails.
+	 * @throws IllegalArgumentException If <code>key</code> has an invalid size,
+	 *                                  or a gadget cannot be represented.
+	 */
+	public static final void write(@NonNull final Path path, final byte @NonNull [] key,
+			@NonNull final List<@NonNull Gadget> gadgets, @NonNull final TopperConfig config) throws IOException {
+		write(path, key, gadgets, null, config);
+	}
+
+	/**
+	 * Writes an index of all occurrences of the deduplicated <code>gadgets</code>
+	 * with <code>key</code> to <code>path</code> like
+	 * {@link GadgetIndex#write(Path, byte[], List, TopperConfig)}.
+	 *
+	 * All occurrences of a gadget have identical bytecode. Thus, they are
+	 * indexed like their canonical gadget, but with their own entries.
+	 * Occurrences are written group by group, so deduplicating the restored
+	 * gadgets again results in the same groups in the same order.
+	 *
+	 * @param gadgets Deduplicated gadgets to index.
+	 * @throws IOException              If writing the index fails.
+	 * @throws IllegalArgumentException If <code>key</code> has an invalid size,
+	 *                                  or a gadget cannot be represented.
+	 */
+	public static final void writeUnique(@NonNull final Path path, final byte @NonNull [] key,
+			@NonNull final List<@NonNull UniqueGadget> gadgets, @NonNull final TopperConfig config)
+			throws IOException {
+
+		final List<@NonNull Gadget> canonical = new ArrayList<>(gadgets.size());
+		final int[][] entries = new int[gadgets.size()][];
+		for (int i = 0; i < gadgets.size(); i++) {
+			canonical.add(gadgets.get(i).getGadget());
+			entries[i] = gadgets.get(i).getEntries();
+		}
+		write(path, key, canonical, entries, config);
+	}
+
+	/**
+	 * Writes an index of <code>gadgets</code>. If <code>entries</code> is given,
+	 * each gadget is written once per entry.
+	 */
+	private static final void write(@NonNull final Path path, final byte @NonNull [] key,
+			@NonNull final List<@NonNull Gadget> gadgets, final int @Nullable [] @NonNull [] entries,
+			@NonNull final TopperConfig config) throws IOException {
+
+		if (key.length != KEY_SIZE) {
+			throw new IllegalArgumentException("Key must be " + KEY_SIZE + " bytes long.");
+		}
+
+		final int[] occurrences = new int[gadgets.size()];
+		long count = 0;
+		for (int i = 0; i < gadgets.size(); i++) {
+			occurrences[i] = (entries != null) ? entries[i].length : 1;
+			count += occurrences[i];
+		}
+		if (HEADER_SIZE + count * GADGET_SIZE > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many gadgets to index.");
+		}
+
+		final Opcodes opcodes = config.getDecompilerConfig().getOpcodes();
+		final ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + count * GADGET_SIZE))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.put(key);
+		buffer.putInt((int) count);
+
+		for (int i = 0; i < gadgets.size(); i++) {
+			if (entries != null) {
+				for (final int entry : entries[i]) {
+					buffer.putInt(entry);
+				}
+			} else {
+				buffer.putInt(gadgets.get(i).getEntry());
+			}
+		}
+		for (int i = 0; i < gadgets.size(); i++) {
+			int length = 0;
+			for (final DecompiledInstruction instruction : gadgets.get(i).getInstructions()) {
+				length += instruction.getByteCode().length;
+			}
+			for (int j = 0; j < occurrences[i]; j++) {
+				buffer.putInt(length);
+			}
+		}
+		for (int i = 0; i < gadgets.size(); i++) {
+			final Gadget gadget = gadgets.get(i);
+			if (gadget.getInstructions().size() > 0xffff) {
+				throw new IllegalArgumentException("Gadget at " + gadget.getEntry() + " is too large.");
+			}
+			for (int j = 0; j < occurrences[i]; j++) {
+				buffer.putShort((short) gadget.getInstructions().size());
+			}
+		}
+		for (int i = 0; i < gadgets.size(); i++) {
+			final Gadget gadget = gadgets.get(i);
+			final Short value = opcodes.getOpcodeValue(gadget.getPivot());
+			if (value == null) {
+				throw new IllegalArgumentException("Pivot " + gadget.getPivot().name + " has no opcode value.");
+			}
+			for (int j = 0; j < occurrences[i]; j++) {
+				buffer.putShort(value);
+			}
+		}
+		buffer.flip();
+
+		final Path directory = path.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		final Path temporary = Files.createTempFile(directory, "index", ".tmp");
+		try {
+			try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+}
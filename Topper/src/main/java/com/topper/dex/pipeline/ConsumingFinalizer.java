@@ -0,0 +1,46 @@
+package com.topper.dex.pipeline;
+
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.topper.dex.staticanalyser.Gadget;
+
+/**
+ * {@link StreamingFinalizer} that hands each {@link Gadget} to a
+ * {@link Consumer}, e.g. to append it to a list owned by the caller, and
+ * simply forwards all {@link Stage} results afterwards.
+ *
+ * If the {@link Pipeline} does not stream, the consumer is never invoked. Then
+ * gadgets are contained in the {@link StaticInfo} of the result as usual.
+ */
+public class ConsumingFinalizer implements StreamingFinalizer {
+
+	/**
+	 * Consumer of all streamed gadgets.
+	 */
+	@NonNull
+	private final Consumer<@NonNull Gadget> consumer;
+
+	/**
+	 * Creates a finalizer that hands each streamed {@link Gadget} to
+	 * <code>consumer</code>.
+	 */
+	public ConsumingFinalizer(@NonNull final Consumer<@NonNull Gadget> consumer) {
+		this.consumer = consumer;
+	}
+
+	@Override
+	public final void accept(@NonNull final Gadget gadget) {
+		this.consumer.accept(gadget);
+	}
+
+	/**
+	 * Finalizes the pipeline by wrapping all {@link Stage} results.
+	 */
+	@Override
+	@NonNull
+	public final PipelineResult finalize(@NonNull final PipelineContext context) {
+		return new PipelineResult(context);
+	}
+}
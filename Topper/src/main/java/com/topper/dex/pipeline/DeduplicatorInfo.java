@@ -0,0 +1,128 @@
+package com.topper.dex.pipeline;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.deduplicator.UniqueGadget;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.dex.staticanalyser.StaticAnalyser;
+
+/**
+ * Output of a {@link GadgetDeduplicator}.
+ *
+ * It is a {@link SweeperInfo} that only contains one instruction sequence per
+ * distinct bytecode, i.e. the first occurrence, in the order of first
+ * occurrences. Hence, a {@link StaticAnalyser} analyses each distinct
+ * sequence once. Additionally, the entries of all occurrences of each sequence
+ * are kept, so that analysed {@link Gadget}s can be turned into
+ * {@link UniqueGadget}s.
+ * */
+public class DeduplicatorInfo extends SweeperInfo {
+
+	/**
+	 * Entries of all occurrences of each distinct sequence, ordered like the
+	 * sequences.
+	 * */
+	private final int @NonNull [] @NonNull [] entries;
+
+	/**
+	 * Maps the entry and size in bytes of each distinct sequence to its index.
+	 * See {@link DeduplicatorInfo#locationOf(int, int)}.
+	 * */
+	@NonNull
+	private final Map<@NonNull Long, @NonNull Integer> indices;
+
+	/**
+	 * Number of sequences before deduplication.
+	 * */
+	private final int numberOccurrences;
+
+	/**
+	 * Creates a {@link DeduplicatorInfo} by storing the distinct instruction
+	 * <code>sequences</code> along with the <code>entries</code> of all their
+	 * occurrences. <code>entries</code> is not copied.
+	 *
+	 * @param sequences         Distinct instruction sequences in the order of
+	 *                          their first occurrences.
+	 * @param entries           Entries of all occurrences per sequence. The
+	 *                          first entry must be the entry of the sequence
+	 *                          itself.
+	 * @param decodeCacheHits   See {@link SweeperInfo#getDecodeCacheHits()}.
+	 * @param decodeCacheMisses See {@link SweeperInfo#getDecodeCacheMisses()}.
+	 * @throws IllegalArgumentException If the number of sequences and entries
+	 *                                  differ, or any sequence is empty.
+	 * */
+	public DeduplicatorInfo(
+			@NonNull final ImmutableList<? extends @NonNull List<@NonNull DecompiledInstruction>> sequences,
+			final int @NonNull [] @NonNull [] entries, final long decodeCacheHits, final long decodeCacheMisses) {
+		super(sequences, decodeCacheHits, decodeCacheMisses);
+
+		if (sequences.size() != entries.length) {
+			throw new IllegalArgumentException("Every sequence requires its entries.");
+		}
+		this.entries = entries;
+		this.indices = new HashMap<>(2 * sequences.size());
+
+		int occurrences = 0;
+		for (int i = 0; i < sequences.size(); i++) {
+
+			final List<@NonNull DecompiledInstruction> sequence = sequences.get(i);
+			if (sequence.isEmpty()) {
+				throw new IllegalArgumentException("Encountered empty instruction sequence.");
+			}
+			int size = 0;
+			for (final DecompiledInstruction instruction : sequence) {
+				size += instruction.getByteCode().length;
+			}
+			this.indices.put(locationOf(sequence.iterator().next().getOffset(), size), i);
+			occurrences += entries[i].length;
+		}
+		this.numberOccurrences = occurrences;
+	}
+
+	/**
+	 * Gets the total number of occurrences of all sequences, i.e. the number of
+	 * sequences before deduplication.
+	 * */
+	public final int getNumberOccurrences() {
+		return this.numberOccurrences;
+	}
+
+	/**
+	 * Turns a {@link Gadget} obtained from one of the distinct sequences into a
+	 * {@link UniqueGadget} with the entries of all occurrences of that sequence.
+	 *
+	 * As a sequence is determined by the bytes it covers, it is identified by its
+	 * entry and size in bytes.
+	 *
+	 * @param gadget <code>Gadget</code> to look up.
+	 * @return <code>UniqueGadget</code>, or <code>null</code>, if
+	 *         <code>gadget</code> does not stem from a distinct sequence, e.g.
+	 *         because it is a later occurrence.
+	 * */
+	@Nullable
+	public final UniqueGadget toUniqueGadget(@NonNull final Gadget gadget) {
+
+		int size = 0;
+		for (final DecompiledInstruction instruction : gadget.getInstructions()) {
+			size += instruction.getByteCode().length;
+		}
+		final Integer index = this.indices.get(locationOf(gadget.getEntry(), size));
+		return (index != null) ? new UniqueGadget(gadget, this.entries[index]) : null;
+	}
+
+	/**
+	 * Combines the <code>entry</code> and <code>size</code> of a sequence into a
+	 * single key.
+	 * */
+	private static final long locationOf(final int entry, final int size) {
+		return ((long) entry << 32) | (size & 0xffffffffL);
+	}
+}
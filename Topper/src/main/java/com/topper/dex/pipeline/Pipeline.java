@@ -1,12 +1,32 @@
 package com.topper.dex.pipeline;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
+import com.google.common.collect.ImmutableList;
+import com.topper.configuration.GeneralConfig;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
 import com.topper.dex.graphs.CFG;
 import com.topper.dex.graphs.DFG;
+import com.topper.dex.index.GadgetIndex;
+import com.topper.dex.seeker.CodeItemSeeker;
 import com.topper.dex.seeker.PivotSeeker;
 import com.topper.dex.seeker.Seeker;
 import com.topper.dex.semanticanalyser.DefaultSemanticAnalyser;
@@ -46,6 +66,11 @@ import com.topper.exceptions.pipeline.StageException;
  */
 public final class Pipeline {
 
+	/**
+	 * Number of pivots that are swept and analysed together while streaming.
+	 */
+	private static final int STREAM_CHUNK_SIZE = 64;
+
 	/**
 	 * List of stages to run in this pipeline.
 	 */
@@ -59,9 +84,24 @@ public final class Pipeline {
 	@NonNull
 	private Finalizer finalizer;
 
+	/**
+	 * Listeners to notify about executed stages and results.
+	 */
+	@NonNull
+	private final List<@NonNull PipelineListener> listeners;
+
+	/**
+	 * Executor to run scheduled stages on. If <code>null</code>, every scheduled
+	 * execution uses its own thread pool.
+	 */
+	@Nullable
+	private Executor executor;
+
 	public Pipeline() {
 		this.stages = new LinkedList<@NonNull Stage>();
 		this.finalizer = new DefaultFinalizer();
+		this.listeners = new LinkedList<@NonNull PipelineListener>();
+		this.executor = null;
 	}
 
 	/**
@@ -77,6 +117,10 @@ public final class Pipeline {
 	 * After all <code>Stage</code>s are executed, a {@link Finalizer} is run to
 	 * collect the final <code>Pipeline</code> output.
 	 * 
+	 * Each <code>Stage</code> is measured. The resulting {@link StageMetrics} are
+	 * handed to all {@link PipelineListener}s and attached to the
+	 * {@link PipelineResult}.
+	 * 
 	 * Currently, a <code>Pipeline</code> must at least contain the following
 	 * <code>Stage</code>s:
 	 * <ol>
@@ -91,10 +135,21 @@ public final class Pipeline {
 	 * </ol>
 	 * 
 	 * The above <code>Stage</code>s must be in that order.
+	 * 
+	 * If {@link GeneralConfig#shouldStreamPipeline()} holds, then this is
+	 * equivalent to {@link Pipeline#executeStreaming(PipelineArgs)}. Otherwise, if
+	 * {@link GeneralConfig#shouldScheduleStages()} holds, then this is equivalent
+	 * to {@link Pipeline#executeScheduled(PipelineArgs)}.
 	 */
 	@NonNull
 	public final PipelineResult execute(@NonNull final PipelineArgs args) throws StageException {
 
+		if (args.getConfig().getGeneralConfig().shouldStreamPipeline()) {
+			return this.executeStreaming(args);
+		} else if (args.getConfig().getGeneralConfig().shouldScheduleStages()) {
+			return this.executeScheduled(args);
+		}
+
 		if (!this.isValid()) {
 			throw new StageException(
 					"Pipeline must at least contain a Seeker, a Sweeper, a StaticAnalyser and a SemanticAnalyser.");
@@ -104,16 +159,511 @@ public final class Pipeline {
 		// and wrap them in StageException.
 		try {
 			final PipelineContext context = new PipelineContext(args);
+			final ImmutableList.Builder<@NonNull StageMetrics> metrics = ImmutableList.builder();
 			for (final Stage stage : this.stages) {
-				stage.execute(context);
+				this.executeStage(stage, context, metrics);
+			}
+
+			return this.finalize(context, metrics);
+		} catch (final RuntimeException e) {
+			throw new StageException("An internal error occurred.", e);
+		}
+	}
+
+	/**
+	 * Executes all {@link Stage}s behind the {@link Sweeper} of this
+	 * {@link Pipeline} one after another on instruction sequences that have been
+	 * swept before, e.g. sequences restored from a {@link GadgetIndex}.
+	 * <code>Stage</code>s in front of and including the <code>Sweeper</code>
+	 * are skipped. Instead, <code>sequences</code> are added to the
+	 * {@link PipelineContext} as {@link SweeperInfo}.
+	 * 
+	 * Apart from that, execution is identical to
+	 * {@link Pipeline#execute(PipelineArgs)} without streaming and scheduling.
+	 * In particular, gadgets are not streamed into a {@link StreamingFinalizer},
+	 * but collected in a {@link StaticInfo}.
+	 * 
+	 * @param args      Arguments the sequences have been swept with.
+	 * @param sequences Swept instruction sequences.
+	 * @throws StageException If this <code>Pipeline</code> is invalid, or any
+	 *                        <code>Stage</code> fails.
+	 */
+	@NonNull
+	public final PipelineResult executeFrom(@NonNull final PipelineArgs args, @NonNull final SweeperInfo sequences)
+			throws StageException {
+
+		if (!this.isValid()) {
+			throw new StageException(
+					"Pipeline must at least contain a Seeker, a Sweeper, a StaticAnalyser and a SemanticAnalyser.");
+		}
+
+		// Catch runtime exceptions like IllegalArgumentException
+		// and wrap them in StageException.
+		try {
+			final PipelineContext context = new PipelineContext(args);
+			context.putInfo(SweeperInfo.class.getSimpleName(), sequences);
+			final ImmutableList.Builder<@NonNull StageMetrics> metrics = ImmutableList.builder();
+			for (int i = this.indexOf(Sweeper.class) + 1; i < this.stages.size(); i++) {
+				this.executeStage(this.stages.get(i), context, metrics);
+			}
+
+			return this.finalize(context, metrics);
+		} catch (final RuntimeException e) {
+			throw new StageException("An internal error occurred.", e);
+		}
+	}
+
+	/**
+	 * Executes this {@link Pipeline} like {@link Pipeline#execute(PipelineArgs)},
+	 * but runs {@link Stage}s concurrently, unless they depend on each other.
+	 * 
+	 * A <code>Stage</code> depends on an earlier <code>Stage</code>, if it reads
+	 * a {@link StageInfo} the earlier one writes, or writes a
+	 * <code>StageInfo</code> the earlier one reads or writes. See
+	 * {@link Stage#getRequiredInfoKeys()} and {@link Stage#getProvidedInfoKeys()}.
+	 * A <code>Stage</code> that does not declare its keys depends on all earlier
+	 * <code>Stage</code>s and vice versa. Therefore, the resulting
+	 * {@link PipelineContext} equals the one of a sequential execution.
+	 * 
+	 * Each <code>Stage</code> starts as soon as all <code>Stage</code>s it
+	 * depends on are done. <code>Stage</code>s run on the executor set via
+	 * {@link Pipeline#setExecutor(Executor)}, or on a thread pool of
+	 * {@link PipelineArgs#getNumberThreads()} threads.
+	 * {@link PipelineListener}s are notified on the calling thread in stage order
+	 * once all <code>Stage</code>s are done.
+	 * 
+	 * @throws StageException If this <code>Pipeline</code> is invalid, or any
+	 *                        <code>Stage</code> fails. If multiple
+	 *                        <code>Stage</code>s fail, the failure of the first
+	 *                        one in stage order is reported.
+	 */
+	@NonNull
+	public final PipelineResult executeScheduled(@NonNull final PipelineArgs args) throws StageException {
+
+		if (!this.isValid()) {
+			throw new StageException(
+					"Pipeline must at least contain a Seeker, a Sweeper, a StaticAnalyser and a SemanticAnalyser.");
+		}
+
+		final ExecutorService pool = (this.executor == null)
+				? Executors.newFixedThreadPool(args.getNumberThreads())
+				: null;
+		final Executor executor = (pool != null) ? pool : this.executor;
+
+		// Catch runtime exceptions like IllegalArgumentException
+		// and wrap them in StageException.
+		try {
+			final PipelineContext context = new PipelineContext(args);
+			final StageMetrics[] measured = new StageMetrics[this.stages.size()];
+
+			// Start each stage once all stages it depends on are done.
+			final List<CompletableFuture<Void>> futures = new ArrayList<>(this.stages.size());
+			for (int i = 0; i < this.stages.size(); i++) {
+
+				final Stage stage = this.stages.get(i);
+				final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+				for (int j = 0; j < i; j++) {
+					if (dependsOn(stage, this.stages.get(j))) {
+						dependencies.add(futures.get(j));
+					}
+				}
+
+				final int index = i;
+				futures.add(CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+						.thenRunAsync(() -> {
+							try {
+								measured[index] = this.measureStage(stage, context);
+							} catch (final StageException e) {
+								throw new CompletionException(e);
+							}
+						}, executor));
+			}
+
+			// Wait for all stages, even if some failed, before inspecting failures.
+			try {
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+			} catch (final ExecutionException ignored) {
+			}
+			for (final CompletableFuture<Void> future : futures) {
+				try {
+					future.get();
+				} catch (final ExecutionException e) {
+					if (e.getCause() instanceof StageException) {
+						throw (StageException) e.getCause();
+					} else if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					} else if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new StageException("Failed to execute stage.", e.getCause());
+				}
+			}
+
+			final ImmutableList.Builder<@NonNull StageMetrics> metrics = ImmutableList.builder();
+			for (final StageMetrics stage : measured) {
+				this.record(stage, metrics);
+			}
+			return this.finalize(context, metrics);
+
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StageException("Execution has been interrupted.", e);
+		} catch (final RuntimeException e) {
+			throw new StageException("An internal error occurred.", e);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Determines whether <code>later</code> must run after <code>earlier</code>,
+	 * i.e. whether their {@link StageInfo} accesses conflict, or any of them does
+	 * not declare its accesses.
+	 */
+	private static final boolean dependsOn(@NonNull final Stage later, @NonNull final Stage earlier) {
+
+		final Set<@NonNull String> laterReads = later.getRequiredInfoKeys();
+		final Set<@NonNull String> laterWrites = later.getProvidedInfoKeys();
+		final Set<@NonNull String> earlierReads = earlier.getRequiredInfoKeys();
+		final Set<@NonNull String> earlierWrites = earlier.getProvidedInfoKeys();
+		if (laterReads == null || laterWrites == null || earlierReads == null || earlierWrites == null) {
+			return true;
+		}
+
+		return !Collections.disjoint(laterReads, earlierWrites) || !Collections.disjoint(laterWrites, earlierWrites)
+				|| !Collections.disjoint(laterWrites, earlierReads);
+	}
+
+	/**
+	 * Executes this {@link Pipeline} like {@link Pipeline#execute(PipelineArgs)},
+	 * but streams items through the mandatory {@link Stage}s instead of running
+	 * each of them to completion.
+	 * 
+	 * All <code>Stage</code>s in front of the {@link Sweeper} are executed as
+	 * usual. Then, pivots are split into chunks of {@value #STREAM_CHUNK_SIZE}.
+	 * Each chunk is swept via
+	 * {@link Sweeper#sweep(PipelineContext, SeekerInfo, int, int)}, its
+	 * sequences are turned into {@link Gadget}s via
+	 * {@link StaticAnalyser#analyse(PipelineArgs, ImmutableList)} and filtered
+	 * via {@link SemanticAnalyser#isEligible(PipelineArgs, Gadget)}. Thus,
+	 * instruction sequences of a chunk can be discarded as soon as the chunk is
+	 * consumed.
+	 * 
+	 * With {@link PipelineArgs#getNumberThreads()} threads, chunks are
+	 * processed concurrently. At most {@link GeneralConfig#getStreamCapacity()}
+	 * chunks are in flight. Once this bound is reached, no further chunk is
+	 * started until the oldest one has been consumed. Chunks are consumed in
+	 * order, so gadgets are identical to those of a non - streaming execution.
+	 * 
+	 * If the {@link Finalizer} is a {@link StreamingFinalizer}, it consumes each
+	 * gadget as soon as its chunk is done. Otherwise, gadgets are collected into
+	 * a {@link StaticInfo} like {@link DefaultStaticAnalyser} does. Finally, all
+	 * <code>Stage</code>s behind the {@link SemanticAnalyser} are executed as
+	 * usual, followed by the <code>Finalizer</code>.
+	 * 
+	 * If a {@link GadgetDeduplicator} is located between <code>Sweeper</code>
+	 * and <code>StaticAnalyser</code>, swept chunks are grouped in order via
+	 * {@link GadgetDeduplicator.Groups} instead, so that only distinct
+	 * instruction sequences are kept. Once all pivots are swept, the resulting
+	 * {@link DeduplicatorInfo} is added to the {@link PipelineContext}, and the
+	 * distinct sequences are analysed and filtered in chunks as above. Hence,
+	 * gadgets are only consumed after sweeping is done.
+	 * 
+	 * As streamed <code>Stage</code>s interleave, they share a single
+	 * {@link StageMetrics} entry named after all of them.
+	 * 
+	 * @throws StageException If this <code>Pipeline</code> is invalid, contains
+	 *                        additional <code>Stage</code>s between
+	 *                        <code>Sweeper</code> and
+	 *                        <code>SemanticAnalyser</code> other than a single
+	 *                        <code>GadgetDeduplicator</code> in front of the
+	 *                        <code>StaticAnalyser</code>, or any
+	 *                        <code>Stage</code> fails.
+	 */
+	@NonNull
+	public final PipelineResult executeStreaming(@NonNull final PipelineArgs args) throws StageException {
+
+		if (!this.isValid()) {
+			throw new StageException(
+					"Pipeline must at least contain a Seeker, a Sweeper, a StaticAnalyser and a SemanticAnalyser.");
+		}
+
+		final int sweeperIndex = this.indexOf(Sweeper.class);
+		final int staticIndex = this.indexOf(StaticAnalyser.class);
+		final int semanticIndex = this.indexOf(SemanticAnalyser.class);
+		final int deduplicatorIndex = this.indexOf(GadgetDeduplicator.class);
+		for (int i = sweeperIndex + 1; i < semanticIndex; i++) {
+			if (i != staticIndex && (i != deduplicatorIndex || i > staticIndex)) {
+				throw new StageException("Stage " + this.stages.get(i).getClass().getSimpleName()
+						+ " cannot be streamed, because it is located between Sweeper and SemanticAnalyser.");
 			}
+		}
 
-			return this.finalizer.finalize(context);
+		// Catch runtime exceptions like IllegalArgumentException
+		// and wrap them in StageException.
+		try {
+			final PipelineContext context = new PipelineContext(args);
+			final ImmutableList.Builder<@NonNull StageMetrics> metrics = ImmutableList.builder();
+			for (int i = 0; i < sweeperIndex; i++) {
+				this.executeStage(this.stages.get(i), context, metrics);
+			}
+
+			// Streamed stages interleave, so they are measured together.
+			final Sweeper sweeper = (Sweeper) this.stages.get(sweeperIndex);
+			final boolean deduplicate = sweeperIndex < deduplicatorIndex && deduplicatorIndex < staticIndex;
+			final StaticAnalyser staticAnalyser = (StaticAnalyser) this.stages.get(staticIndex);
+			final SemanticAnalyser semanticAnalyser = (SemanticAnalyser) this.stages.get(semanticIndex);
+			final StageMeasurement measurement = StageMeasurement.start();
+			final long numberGadgets;
+			try {
+				numberGadgets = this.stream(context, sweeper, deduplicate, staticAnalyser, semanticAnalyser);
+			} catch (final StageException | RuntimeException e) {
+				measurement.discard();
+				throw e;
+			}
+			this.record(measurement.stop(sweeper.getClass().getSimpleName() + "+"
+					+ (deduplicate ? GadgetDeduplicator.class.getSimpleName() + "+" : "")
+					+ staticAnalyser.getClass().getSimpleName() + "+" + semanticAnalyser.getClass().getSimpleName(),
+					sweeper.countInputs(context), numberGadgets), metrics);
+
+			for (int i = semanticIndex + 1; i < this.stages.size(); i++) {
+				this.executeStage(this.stages.get(i), context, metrics);
+			}
+
+			return this.finalize(context, metrics);
 		} catch (final RuntimeException e) {
 			throw new StageException("An internal error occurred.", e);
 		}
 	}
 
+	/**
+	 * Executes and measures a single {@link Stage}.
+	 */
+	private final void executeStage(@NonNull final Stage stage, @NonNull final PipelineContext context,
+			final ImmutableList.@NonNull Builder<@NonNull StageMetrics> metrics) throws StageException {
+		this.record(this.measureStage(stage, context), metrics);
+	}
+
+	/**
+	 * Executes a single {@link Stage} on the current thread and measures it,
+	 * including all tasks it wraps via
+	 * {@link StageMeasurement#measured(java.util.concurrent.Callable)}.
+	 */
+	@NonNull
+	private final StageMetrics measureStage(@NonNull final Stage stage, @NonNull final PipelineContext context)
+			throws StageException {
+		final StageMeasurement measurement = StageMeasurement.start();
+		try {
+			stage.execute(context);
+		} catch (final StageException | RuntimeException e) {
+			measurement.discard();
+			throw e;
+		}
+		return measurement.stop(stage.getClass().getSimpleName(), stage.countInputs(context),
+				stage.countOutputs(context));
+	}
+
+	/**
+	 * Adds <code>stage</code> to <code>metrics</code> and notifies all
+	 * listeners.
+	 */
+	private final void record(@NonNull final StageMetrics stage,
+			final ImmutableList.@NonNull Builder<@NonNull StageMetrics> metrics) {
+		metrics.add(stage);
+		for (final PipelineListener listener : this.listeners) {
+			listener.onStageFinished(stage);
+		}
+	}
+
+	/**
+	 * Runs the {@link Finalizer}, attaches <code>metrics</code> to its result
+	 * and notifies all listeners.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final PipelineResult finalize(@NonNull final PipelineContext context,
+			final ImmutableList.@NonNull Builder<@NonNull StageMetrics> metrics) {
+		final PipelineResult result = this.finalizer.finalize(context);
+		result.setStageMetrics(metrics.build());
+		for (final PipelineListener listener : this.listeners) {
+			listener.onPipelineFinished(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Streams all pivots of the {@link SeekerInfo} in <code>context</code>
+	 * through the given stages. See
+	 * {@link Pipeline#executeStreaming(PipelineArgs)}.
+	 * 
+	 * @param deduplicate Whether to deduplicate instruction sequences before
+	 *                    analysing them.
+	 * @return Number of eligible {@link Gadget}s.
+	 */
+	private final long stream(@NonNull final PipelineContext context, @NonNull final Sweeper sweeper,
+			final boolean deduplicate, @NonNull final StaticAnalyser staticAnalyser,
+			@NonNull final SemanticAnalyser semanticAnalyser) throws StageException {
+
+		final SeekerInfo pivots = context.getSeekerInfo(SeekerInfo.class.getSimpleName());
+		final GeneralConfig config = context.getArgs().getConfig().getGeneralConfig();
+		final int threads = context.getArgs().getNumberThreads();
+		final int capacity = config.getStreamCapacity();
+
+		// Without a streaming finalizer, gadgets must be kept for the StaticInfo.
+		final StreamingFinalizer consumer = (this.finalizer instanceof StreamingFinalizer)
+				? (StreamingFinalizer) this.finalizer
+				: null;
+		final ImmutableList.Builder<@NonNull Gadget> gadgets = (consumer == null) ? ImmutableList.builder() : null;
+		final long numberGadgets;
+
+		final ExecutorService executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			if (!deduplicate) {
+				numberGadgets = this.streamChunks(executor, capacity, pivots.getNumberPivots(),
+						(from, to) -> this.analyseChunk(context.getArgs(), sweeper.sweep(context, pivots, from, to),
+								staticAnalyser, semanticAnalyser),
+						chunk -> this.consume(chunk, consumer, gadgets));
+			} else {
+
+				// A sequence is only known to be distinct once all pivots are swept.
+				final GadgetDeduplicator.Groups groups = new GadgetDeduplicator.Groups();
+				this.streamChunks(executor, capacity, pivots.getNumberPivots(),
+						(from, to) -> sweeper.sweep(context, pivots, from, to), chunk -> {
+							chunk.forEach(groups::add);
+							return chunk.size();
+						});
+				final DeduplicatorInfo info = groups.toInfo(0, 0);
+				context.putInfo(DeduplicatorInfo.class.getSimpleName(), info);
+
+				final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
+						.getInstructionSequences();
+				numberGadgets = this.streamChunks(executor, capacity, sequences.size(),
+						(from, to) -> this.analyseChunk(context.getArgs(), sequences.subList(from, to),
+								staticAnalyser, semanticAnalyser),
+						chunk -> this.consume(chunk, consumer, gadgets));
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+
+		if (gadgets != null) {
+			context.putInfo(StaticInfo.class.getSimpleName(), new StaticInfo(gadgets.build()));
+		}
+		return numberGadgets;
+	}
+
+	/**
+	 * Splits <code>[0, size)</code> into chunks of {@value #STREAM_CHUNK_SIZE},
+	 * processes each chunk via <code>task</code> and hands the results to
+	 * <code>consumer</code> in chunk order.
+	 * 
+	 * If <code>executor</code> is given, chunks are processed concurrently. At
+	 * most <code>capacity</code> chunks are in flight. Otherwise, chunks are
+	 * processed one after another on the calling thread.
+	 * 
+	 * @return Sum of all values returned by <code>consumer</code>.
+	 */
+	private final <T> long streamChunks(@Nullable final ExecutorService executor, final int capacity,
+			final int size, @NonNull final ChunkTask<T> task, @NonNull final ToLongFunction<T> consumer)
+			throws StageException {
+
+		long consumed = 0;
+		if (executor == null) {
+			for (int from = 0; from < size; from += STREAM_CHUNK_SIZE) {
+				consumed += consumer.applyAsLong(task.process(from, Math.min(from + STREAM_CHUNK_SIZE, size)));
+			}
+			return consumed;
+		}
+
+		try {
+			// Chunks in flight in the order they were started.
+			final Deque<Future<T>> chunks = new ArrayDeque<>(capacity);
+			for (int from = 0; from < size; from += STREAM_CHUNK_SIZE) {
+
+				// Wait for the oldest chunk before starting another one.
+				if (chunks.size() >= capacity) {
+					consumed += consumer.applyAsLong(chunks.poll().get());
+				}
+
+				final int start = from;
+				final int to = Math.min(from + STREAM_CHUNK_SIZE, size);
+				chunks.add(executor.submit(StageMeasurement.measured(() -> task.process(start, to))));
+			}
+
+			while (!chunks.isEmpty()) {
+				consumed += consumer.applyAsLong(chunks.poll().get());
+			}
+			return consumed;
+
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof StageException) {
+				throw (StageException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new StageException("Failed to stream pivots.", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StageException("Streaming has been interrupted.", e);
+		}
+	}
+
+	/**
+	 * Analyses the given instruction <code>sequences</code> of a chunk and
+	 * filters the resulting {@link Gadget}s.
+	 * 
+	 * @return Eligible <code>Gadget</code>s of the chunk in sequence order.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull Gadget> analyseChunk(@NonNull final PipelineArgs args,
+			@NonNull final List<@NonNull List<@NonNull DecompiledInstruction>> sequences,
+			@NonNull final StaticAnalyser staticAnalyser, @NonNull final SemanticAnalyser semanticAnalyser) {
+
+		final ImmutableList.Builder<@NonNull Gadget> gadgets = ImmutableList.builder();
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
+			final Gadget gadget = staticAnalyser.analyse(args, ImmutableList.copyOf(sequence));
+			if (semanticAnalyser.isEligible(args, gadget)) {
+				gadgets.add(gadget);
+			}
+		}
+		return gadgets.build();
+	}
+
+	/**
+	 * Hands the {@link Gadget}s of a chunk either to <code>consumer</code>, or
+	 * collects them in <code>gadgets</code>.
+	 * 
+	 * @return Number of <code>Gadget</code>s in <code>chunk</code>.
+	 */
+	private final int consume(@NonNull final ImmutableList<@NonNull Gadget> chunk,
+			@Nullable final StreamingFinalizer consumer,
+			final ImmutableList.@Nullable Builder<@NonNull Gadget> gadgets) {
+		if (consumer != null) {
+			chunk.forEach(consumer::accept);
+		} else if (gadgets != null) {
+			gadgets.addAll(chunk);
+		}
+		return chunk.size();
+	}
+
+	/**
+	 * Gets the index of the first {@link Stage} of type <code>type</code>, or
+	 * <code>-1</code>, if there is none.
+	 */
+	private final int indexOf(@NonNull final Class<?> type) {
+		for (int i = 0; i < this.stages.size(); i++) {
+			if (type.isAssignableFrom(this.stages.get(i).getClass())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Checks whether this pipeline contains at least
 	 * <ol>
@@ -152,6 +702,18 @@ public final class Pipeline {
 				&& staticIndex < semanticIndex && semanticIndex < this.stages.size();
 	}
 
+	/**
+	 * Gets the first {@link Stage} of type <code>type</code>, e.g. the
+	 * {@link Sweeper} of this {@link Pipeline}.
+	 * 
+	 * @return <code>Stage</code>, or <code>null</code>, if there is none.
+	 */
+	@Nullable
+	public final <T extends Stage> T getStage(@NonNull final Class<T> type) {
+		final int index = this.indexOf(type);
+		return (index != -1) ? type.cast(this.stages.get(index)) : null;
+	}
+
 	/**
 	 * Adds a {@link Stage} to this {@link Pipeline}.
 	 */
@@ -159,6 +721,17 @@ public final class Pipeline {
 		this.stages.add(stage);
 	}
 
+	/**
+	 * Inserts a {@link Stage} at a specified <code>index</code> into this
+	 * {@link Pipeline}, e.g. to place a {@link GadgetDeduplicator} between
+	 * {@link Sweeper} and {@link StaticAnalyser}.
+	 * 
+	 * @throws IndexOutOfBoundsException If <code>index</code> is out of bounds.
+	 */
+	public final void addStage(final int index, @NonNull final Stage stage) {
+		this.stages.add(index, stage);
+	}
+
 	/**
 	 * Removes a {@link Stage} from this {@link Pipeline}.
 	 */
@@ -174,6 +747,33 @@ public final class Pipeline {
 		this.stages.remove(index);
 	}
 
+	/**
+	 * Adds a {@link PipelineListener} that is notified about every subsequent
+	 * execution of this {@link Pipeline}.
+	 */
+	public final void addListener(@NonNull final PipelineListener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Removes a {@link PipelineListener} from this {@link Pipeline}.
+	 */
+	public final void removeListener(@NonNull final PipelineListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Sets the {@link Executor} to run scheduled {@link Stage}s on, e.g. to share
+	 * threads among many <code>Pipeline</code>s. See
+	 * {@link Pipeline#executeScheduled(PipelineArgs)}.
+	 * 
+	 * @param executor <code>Executor</code> to use, or <code>null</code> to use a
+	 *                 new thread pool per execution.
+	 */
+	public final void setExecutor(@Nullable final Executor executor) {
+		this.executor = executor;
+	}
+
 	/**
 	 * Overwrites the {@link Finalizer} with <code>finalizer</code>.
 	 * */
@@ -207,4 +807,37 @@ public final class Pipeline {
 
 		return pipeline;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Creates a {@link Pipeline} for structured files like .dex and .vdex. It
+	 * equals {@link Pipeline#createDefaultPipeline()}, except that a
+	 * {@link CodeItemSeeker} is used instead of a {@link PivotSeeker}. Therefore,
+	 * only method code items are searched and swept.
+	 * 
+	 * @return Editable <code>Pipeline</code> for structured files.
+	 * */
+	@NonNull
+	public static final Pipeline createStructuredPipeline() {
+
+		final Pipeline pipeline = new Pipeline();
+		pipeline.addStage(new CodeItemSeeker());
+		pipeline.addStage(new BackwardLinearSweeper());
+		pipeline.addStage(new DefaultStaticAnalyser());
+		pipeline.addStage(new DefaultSemanticAnalyser());
+
+		// Make sure default finalizer is used
+		pipeline.setFinalizer(new DefaultFinalizer());
+
+		return pipeline;
+	}
+
+	/**
+	 * Processes a chunk of items with indices in <code>[from, to)</code> while
+	 * streaming.
+	 */
+	@FunctionalInterface
+	private interface ChunkTask<T> {
+		@NonNull
+		T process(final int from, final int to) throws StageException;
+	}
+}
@@ -4,6 +4,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 
+import com.topper.configuration.GeneralConfig;
 import com.topper.configuration.TopperConfig;
 
 public class PipelineArgs extends StageInfo {
@@ -16,14 +17,50 @@ public class PipelineArgs extends StageInfo {
 	@Nullable
 	private final DexBackedDexFile augmentation;
 	
+	/**
+	 * Offset of <code>augmentation</code> relative to <code>buffer</code>, e.g. the offset
+	 * of a .dex file inside of a .vdex file.
+	 * */
+	private final int augmentationOffset;
+	
+	/**
+	 * Number of threads a single stage may use, or <code>0</code>, if
+	 * {@link GeneralConfig#getDefaultAmountThreads()} applies.
+	 * */
+	private final int numberThreads;
+	
 	public PipelineArgs(@NonNull final TopperConfig config, final byte @NonNull [] buffer) {
 		this(config, buffer, null);
 	}
 	
 	public PipelineArgs(@NonNull final TopperConfig config, final byte @NonNull [] buffer, @Nullable final DexBackedDexFile augmentation) {
+		this(config, buffer, augmentation, 0);
+	}
+	
+	public PipelineArgs(@NonNull final TopperConfig config, final byte @NonNull [] buffer,
+			@Nullable final DexBackedDexFile augmentation, final int augmentationOffset) {
+		this(config, buffer, augmentation, augmentationOffset, 0);
+	}
+	
+	/**
+	 * Creates arguments that limit each stage to <code>numberThreads</code>
+	 * threads, e.g. because multiple pipelines are executed concurrently.
+	 * 
+	 * @param numberThreads Number of threads a single stage may use. If
+	 *                      <code>0</code>, {@link GeneralConfig#getDefaultAmountThreads()}
+	 *                      applies.
+	 * @throws IllegalArgumentException If <code>numberThreads</code> is negative.
+	 * */
+	public PipelineArgs(@NonNull final TopperConfig config, final byte @NonNull [] buffer,
+			@Nullable final DexBackedDexFile augmentation, final int augmentationOffset, final int numberThreads) {
+		if (numberThreads < 0) {
+			throw new IllegalArgumentException("Number of threads must be non - negative.");
+		}
 		this.config = config;
 		this.buffer = buffer;
 		this.augmentation = augmentation;
+		this.augmentationOffset = augmentationOffset;
+		this.numberThreads = numberThreads;
 	}
 	
 	@NonNull
@@ -39,4 +76,20 @@ public class PipelineArgs extends StageInfo {
 	public final DexBackedDexFile getAugmentation() {
 		return this.augmentation;
 	}
+	
+	/**
+	 * Gets the offset of the augmentation relative to the buffer. Defaults to <code>0</code>.
+	 * */
+	public final int getAugmentationOffset() {
+		return this.augmentationOffset;
+	}
+	
+	/**
+	 * Gets the number of threads a single stage may use. Defaults to
+	 * {@link GeneralConfig#getDefaultAmountThreads()}.
+	 * */
+	public final int getNumberThreads() {
+		return (this.numberThreads > 0) ? this.numberThreads
+				: this.config.getGeneralConfig().getDefaultAmountThreads();
+	}
 }
\ No newline at end of file
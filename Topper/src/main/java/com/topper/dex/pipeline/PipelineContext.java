@@ -1,7 +1,7 @@
 package com.topper.dex.pipeline;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -15,6 +15,9 @@ import com.topper.exceptions.pipeline.MissingStageInfoException;
  * It is guaranteed that a <code>PipelineContext</code> at least contains an
  * instance of {@link PipelineArgs}.
  * 
+ * A <code>PipelineContext</code> is thread - safe, so that concurrently
+ * executed {@link Stage}s may share it.
+ * 
  * @author Pascal Kühnemann
  * @since 15.08.2023
  */
@@ -30,7 +33,7 @@ public final class PipelineContext {
 	 * Mapping of string identifiers to <code>StageInfo</code> implementations.
 	 */
 	@NonNull
-	private final Map<@NonNull String, @NonNull StageInfo> results;
+	private final ConcurrentNavigableMap<@NonNull String, @NonNull StageInfo> results;
 
 	/**
 	 * Create execution context by providing initial {@link Pipeline} arguments. It
@@ -41,7 +44,7 @@ public final class PipelineContext {
 	 */
 	public PipelineContext(@NonNull final PipelineArgs args) {
 
-		this.results = new TreeMap<@NonNull String, @NonNull StageInfo>();
+		this.results = new ConcurrentSkipListMap<@NonNull String, @NonNull StageInfo>();
 		this.results.put(KEY_PIPELINE_ARGS, args);
 	}
 
@@ -62,11 +65,12 @@ public final class PipelineContext {
 	@NonNull
 	public final <T extends StageInfo> T getInfo(@NonNull final String key) throws MissingStageInfoException {
 
-		if (!this.results.containsKey(key)) {
+		final StageInfo info = this.results.get(key);
+		if (info == null) {
 			throw new MissingStageInfoException("Key " + key + " does not exist.");
 		}
 
-		return (T) this.results.get(key);
+		return (T) info;
 	}
 
 	/**
@@ -84,11 +88,10 @@ public final class PipelineContext {
 	public final void putInfo(@NonNull final String key, @NonNull final StageInfo info)
 			throws DuplicateInfoIdException {
 
-		if (this.results.containsKey(key)) {
+		// Check and insert atomically, so that only one of two concurrent stages wins.
+		if (this.results.putIfAbsent(key, info) != null) {
 			throw new DuplicateInfoIdException("Key " + key + " is already part of the map.");
 		}
-
-		this.results.put(key, info);
 	}
 
 	/**
@@ -0,0 +1,27 @@
+package com.topper.dex.pipeline;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Observer of {@link Pipeline} executions, e.g. to export {@link StageMetrics}.
+ * Listeners are invoked on the thread that executes the <code>Pipeline</code>.
+ */
+public interface PipelineListener {
+
+	/**
+	 * Invoked right after a {@link Stage} has been executed successfully.
+	 * 
+	 * @param metrics Measurements of the <code>Stage</code>.
+	 */
+	void onStageFinished(@NonNull final StageMetrics metrics);
+
+	/**
+	 * Invoked right after the {@link Finalizer} produced the
+	 * {@link PipelineResult}. By default, nothing happens.
+	 * 
+	 * @param result Result of the <code>Pipeline</code>, including the
+	 *               {@link StageMetrics} of all <code>Stage</code>s.
+	 */
+	default void onPipelineFinished(@NonNull final PipelineResult result) {
+	}
+}
@@ -2,6 +2,8 @@ package com.topper.dex.pipeline;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Output of the entire {@link Pipeline} resulting from applying a
  * {@link Finalizer} to the {@link PipelineContext} after all {@link Stage}s
@@ -19,11 +21,19 @@ public class PipelineResult {
 	@NonNull
 	private final PipelineContext context;
 
+	/**
+	 * Measurements of all {@link Stage}s in execution order. Set by the
+	 * {@link Pipeline} after finalization.
+	 */
+	@NonNull
+	private ImmutableList<@NonNull StageMetrics> stageMetrics;
+
 	/**
 	 * Creates a {@link PipelineResult} by storing a {@link PipelineContext}.
 	 */
 	public PipelineResult(@NonNull final PipelineContext context) {
 		this.context = context;
+		this.stageMetrics = ImmutableList.of();
 	}
 
 	/**
@@ -34,4 +44,22 @@ public class PipelineResult {
 	public final PipelineContext getContext() {
 		return this.context;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets the {@link StageMetrics} of all executed {@link Stage}s in execution
+	 * order. It is empty, if this result has not been produced by a
+	 * {@link Pipeline}.
+	 */
+	@NonNull
+	public final ImmutableList<@NonNull StageMetrics> getStageMetrics() {
+		return this.stageMetrics;
+	}
+
+	/**
+	 * Attaches the {@link StageMetrics} of the {@link Pipeline} execution that
+	 * produced this result.
+	 */
+	final void setStageMetrics(@NonNull final ImmutableList<@NonNull StageMetrics> stageMetrics) {
+		this.stageMetrics = stageMetrics;
+	}
+}
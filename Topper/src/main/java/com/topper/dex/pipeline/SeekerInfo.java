@@ -1,8 +1,13 @@
 package com.topper.dex.pipeline;
 
+import java.util.stream.IntStream;
+
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.topper.dex.seeker.CodeRegions;
 
 /**
  * Output of the {@link Seeker}.
@@ -13,23 +18,84 @@ import com.google.common.collect.ImmutableList;
 public class SeekerInfo extends StageInfo {
 	
 	/**
-	 * List of offsets referencing pivot opcodes.
+	 * Ascending offsets referencing pivot opcodes. Stored unboxed, because
+	 * large files may contain millions of pivot candidates.
 	 * */
-	@NonNull
-	private final ImmutableList<Integer> pivotOffsets;
+	private final int @NonNull [] pivotOffsets;
+	
+	/**
+	 * Instruction regions, to which pivots and sweeps are restricted, if any.
+	 * */
+	@Nullable
+	private final CodeRegions regions;
 	
 	/**
 	 * Creates a {@link SeekerInfo} by storing a list of pivot opcode offsets.
 	 * */
 	public SeekerInfo(@NonNull final ImmutableList<Integer> pivotOffsets) {
+		this(Ints.toArray(pivotOffsets));
+	}
+	
+	/**
+	 * Creates a {@link SeekerInfo} by storing an array of pivot opcode offsets.
+	 * The array is taken over, i.e. it must not be modified afterwards.
+	 * */
+	public SeekerInfo(final int @NonNull [] pivotOffsets) {
+		this(pivotOffsets, null);
+	}
+	
+	/**
+	 * Creates a {@link SeekerInfo} by storing an array of pivot opcode offsets,
+	 * which all lie inside of <code>regions</code>. Sweeps starting at these
+	 * pivots must not leave their regions.
+	 * */
+	public SeekerInfo(final int @NonNull [] pivotOffsets, @Nullable final CodeRegions regions) {
 		this.pivotOffsets = pivotOffsets;
+		this.regions = regions;
 	}
 	
 	/**
 	 * Gets a list of pivot opcode offsets.
 	 * */
+	@SuppressWarnings("null") // ImmutableList.copyOf() is not expected to be null...
 	@NonNull
 	public final ImmutableList<Integer> getPivotOffsets() {
-		return this.pivotOffsets;
+		return ImmutableList.copyOf(Ints.asList(this.pivotOffsets));
+	}
+	
+	/**
+	 * Gets a stream of pivot opcode offsets without boxing them.
+	 * */
+	@SuppressWarnings("null") // IntStream.of() is not expected to be null...
+	@NonNull
+	public final IntStream getPivotOffsetStream() {
+		return IntStream.of(this.pivotOffsets);
+	}
+	
+	/**
+	 * Gets the number of pivot opcode offsets.
+	 * */
+	public final int getNumberPivots() {
+		return this.pivotOffsets.length;
+	}
+	
+	/**
+	 * Gets the <code>index</code> - th pivot opcode offset.
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException If <code>index</code> is out of
+	 * 	bounds.
+	 * */
+	public final int getPivotOffset(final int index) {
+		return this.pivotOffsets[index];
+	}
+	
+	/**
+	 * Gets the instruction regions, to which pivots and sweeps are restricted.
+	 * 
+	 * @return Regions, or <code>null</code>, if the entire buffer may be swept.
+	 * */
+	@Nullable
+	public final CodeRegions getRegions() {
+		return this.regions;
 	}
-}
\ No newline at end of file
+}
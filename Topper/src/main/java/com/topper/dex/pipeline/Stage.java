@@ -1,7 +1,9 @@
 package com.topper.dex.pipeline;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
+import com.google.common.collect.ImmutableSet;
 import com.topper.exceptions.pipeline.StageException;
 
 /**
@@ -9,6 +11,12 @@ import com.topper.exceptions.pipeline.StageException;
  * some computations on a given {@link PipelineContext}
  * and optionally adds information to the <code>PipelineContext</code>.
  * 
+ * A stage may declare the keys of the {@link StageInfo}s it reads and writes.
+ * Then {@link Pipeline#executeScheduled(PipelineArgs)} runs it concurrently
+ * with all stages it does not depend on. Stages without declarations are
+ * executed strictly in order. The abstract stage types do not declare any
+ * keys, so that only stages, whose keys are known, opt into concurrency.
+ * 
  * @author Pascal Kühnemann
  * @since 16.08.2023
  * */
@@ -22,4 +30,51 @@ public interface Stage {
 	 * @throws StageException If any error occurs.
 	 * */
 	void execute(@NonNull final PipelineContext context) throws StageException;
+	
+	/**
+	 * Counts the items this stage consumed from <code>context</code>, e.g. the
+	 * pivots of a sweeper. It is invoked after
+	 * {@link Stage#execute(PipelineContext)} to fill {@link StageMetrics}.
+	 * 
+	 * @return Number of consumed items, or <code>-1</code>, if unknown.
+	 * */
+	default long countInputs(@NonNull final PipelineContext context) {
+		return -1;
+	}
+	
+	/**
+	 * Counts the items this stage added to <code>context</code>, e.g. the
+	 * instruction sequences of a sweeper. It is invoked after
+	 * {@link Stage#execute(PipelineContext)} to fill {@link StageMetrics}.
+	 * 
+	 * @return Number of produced items, or <code>-1</code>, if unknown.
+	 * */
+	default long countOutputs(@NonNull final PipelineContext context) {
+		return -1;
+	}
+	
+	/**
+	 * Gets the keys of all {@link StageInfo}s this stage reads from a
+	 * {@link PipelineContext}. {@link PipelineArgs} are always readable and need
+	 * not be declared.
+	 * 
+	 * @return Set of keys, or <code>null</code>, if unknown. By default, keys are
+	 * 	unknown.
+	 * */
+	@Nullable
+	default ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return null;
+	}
+	
+	/**
+	 * Gets the keys of all {@link StageInfo}s this stage adds to a
+	 * {@link PipelineContext}.
+	 * 
+	 * @return Set of keys, or <code>null</code>, if unknown. By default, keys are
+	 * 	unknown.
+	 * */
+	@Nullable
+	default ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return null;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.topper.dex.pipeline;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Running measurement of a {@link Stage}. It takes a snapshot of wall time,
+ * thread CPU time and thread allocated bytes on creation, and turns the
+ * differences into {@link StageMetrics}.
+ *
+ * CPU time and allocated bytes of the thread that started the measurement are
+ * measured directly. <code>Stage</code>s that distribute work among worker
+ * threads must wrap their tasks via {@link StageMeasurement#measured(Callable)}.
+ * Each wrapped task adds the CPU time and allocated bytes of its own thread to
+ * the measurement that was active when wrapping it.
+ */
+public final class StageMeasurement {
+
+	/**
+	 * Bean to query CPU time and allocated bytes of the current thread.
+	 */
+	@NonNull
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Measurement that tasks wrapped on the current thread report to.
+	 */
+	@NonNull
+	private static final ThreadLocal<StageMeasurement> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Thread that started this measurement.
+	 */
+	@NonNull
+	private final Thread owner;
+
+	/**
+	 * Measurement that was active on <code>owner</code> before this one.
+	 */
+	@Nullable
+	private final StageMeasurement previous;
+
+	private final long wallStart;
+
+	private final long cpuStart;
+
+	private final long allocatedStart;
+
+	/**
+	 * CPU time of all wrapped tasks in nanoseconds.
+	 */
+	@NonNull
+	private final LongAdder workerCpu;
+
+	/**
+	 * Bytes allocated by all wrapped tasks.
+	 */
+	@NonNull
+	private final LongAdder workerAllocated;
+
+	/**
+	 * Whether CPU time or allocated bytes could not be measured on a worker
+	 * thread.
+	 */
+	private volatile boolean workerCpuUnavailable;
+
+	private volatile boolean workerAllocatedUnavailable;
+
+	@SuppressWarnings("null") // Thread.currentThread() is not expected to be null...
+	private StageMeasurement() {
+		this.owner = Thread.currentThread();
+		this.previous = CURRENT.get();
+		this.workerCpu = new LongAdder();
+		this.workerAllocated = new LongAdder();
+		this.wallStart = System.nanoTime();
+		this.cpuStart = getCpuNanos();
+		this.allocatedStart = getAllocatedBytes();
+	}
+
+	/**
+	 * Starts measuring on the current thread. Until the measurement is stopped,
+	 * tasks wrapped on the current thread report to it.
+	 */
+	@NonNull
+	static final StageMeasurement start() {
+		final StageMeasurement measurement = new StageMeasurement();
+		CURRENT.set(measurement);
+		return measurement;
+	}
+
+	/**
+	 * Stops measuring. Must be called on the thread that started the measurement,
+	 * after all wrapped tasks are done.
+	 *
+	 * @param name     Name of the measured {@link Stage}.
+	 * @param itemsIn  Number of items consumed, or <code>-1</code>.
+	 * @param itemsOut Number of items produced, or <code>-1</code>.
+	 * @return Differences since {@link StageMeasurement#start()}, including all
+	 *         wrapped tasks.
+	 */
+	@NonNull
+	final StageMetrics stop(@NonNull final String name, final long itemsIn, final long itemsOut) {
+		final long wall = System.nanoTime() - this.wallStart;
+		final long cpu = getCpuNanos();
+		final long allocated = getAllocatedBytes();
+		CURRENT.set(this.previous);
+
+		final long totalCpu = (cpu < 0 || this.cpuStart < 0 || this.workerCpuUnavailable) ? -1
+				: cpu - this.cpuStart + this.workerCpu.sum();
+		final long totalAllocated = (allocated < 0 || this.allocatedStart < 0 || this.workerAllocatedUnavailable)
+				? -1
+				: allocated - this.allocatedStart + this.workerAllocated.sum();
+		return new StageMetrics(name, wall, totalCpu, totalAllocated, itemsIn, itemsOut);
+	}
+
+	/**
+	 * Stops measuring without taking measurements, e.g. because the measured
+	 * {@link Stage} failed. Must be called on the thread that started the
+	 * measurement.
+	 */
+	final void discard() {
+		CURRENT.set(this.previous);
+	}
+
+	/**
+	 * Wraps <code>task</code> such that its CPU time and allocated bytes are
+	 * added to the measurement that is active on the current thread. The task
+	 * itself may wrap further tasks, which report to the same measurement.
+	 *
+	 * If no measurement is active, <code>task</code> is returned as is. If the
+	 * wrapped task runs on the thread that started the measurement, it is
+	 * already covered and not added again.
+	 *
+	 * @param task Task to be run on a worker thread.
+	 * @return Task that reports to the active measurement.
+	 */
+	@NonNull
+	public static final <T> Callable<T> measured(@NonNull final Callable<T> task) {
+		final StageMeasurement measurement = CURRENT.get();
+		if (measurement == null) {
+			return task;
+		}
+
+		return () -> {
+			if (Thread.currentThread() == measurement.owner) {
+				return task.call();
+			}
+
+			final StageMeasurement outer = CURRENT.get();
+			CURRENT.set(measurement);
+			final long cpuStart = getCpuNanos();
+			final long allocatedStart = getAllocatedBytes();
+			try {
+				return task.call();
+			} finally {
+				final long cpu = getCpuNanos();
+				final long allocated = getAllocatedBytes();
+				if (cpu < 0 || cpuStart < 0) {
+					measurement.workerCpuUnavailable = true;
+				} else {
+					measurement.workerCpu.add(cpu - cpuStart);
+				}
+				if (allocated < 0 || allocatedStart < 0) {
+					measurement.workerAllocatedUnavailable = true;
+				} else {
+					measurement.workerAllocated.add(allocated - allocatedStart);
+				}
+				CURRENT.set(outer);
+			}
+		};
+	}
+
+	private static final long getCpuNanos() {
+		if (!THREADS.isCurrentThreadCpuTimeSupported() || !THREADS.isThreadCpuTimeEnabled()) {
+			return -1;
+		}
+		return THREADS.getCurrentThreadCpuTime();
+	}
+
+	private static final long getAllocatedBytes() {
+		if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,131 @@
+package com.topper.dex.pipeline;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Measurements taken while executing a single {@link Stage} of a
+ * {@link Pipeline}. Values that could not be measured are <code>-1</code>.
+ * 
+ * CPU time and allocated bytes are summed over the thread that executed the
+ * <code>Stage</code> and all worker threads, on which the <code>Stage</code>
+ * ran tasks via {@link StageMeasurement#measured(java.util.concurrent.Callable)},
+ * e.g. chunks of a parallel {@link com.topper.dex.sweeper.Sweeper}.
+ */
+public final class StageMetrics {
+
+	/**
+	 * Name of the measured {@link Stage}.
+	 */
+	@NonNull
+	private final String name;
+
+	/**
+	 * Elapsed wall clock time in nanoseconds.
+	 */
+	private final long wallNanos;
+
+	/**
+	 * CPU time of all executing threads in nanoseconds.
+	 */
+	private final long cpuNanos;
+
+	/**
+	 * Bytes allocated by all executing threads.
+	 */
+	private final long allocatedBytes;
+
+	/**
+	 * Number of items consumed, e.g. pivots of a sweeper.
+	 */
+	private final long itemsIn;
+
+	/**
+	 * Number of items produced, e.g. instruction sequences of a sweeper.
+	 */
+	private final long itemsOut;
+
+	/**
+	 * Creates {@link StageMetrics} of a single {@link Stage} execution.
+	 * 
+	 * @param name           Name of the measured <code>Stage</code>.
+	 * @param wallNanos      Elapsed wall clock time in nanoseconds.
+	 * @param cpuNanos       CPU time of all executing threads in nanoseconds.
+	 * @param allocatedBytes Bytes allocated by all executing threads.
+	 * @param itemsIn        Number of items consumed.
+	 * @param itemsOut       Number of items produced.
+	 */
+	public StageMetrics(@NonNull final String name, final long wallNanos, final long cpuNanos,
+			final long allocatedBytes, final long itemsIn, final long itemsOut) {
+		this.name = name;
+		this.wallNanos = wallNanos;
+		this.cpuNanos = cpuNanos;
+		this.allocatedBytes = allocatedBytes;
+		this.itemsIn = itemsIn;
+		this.itemsOut = itemsOut;
+	}
+
+	/**
+	 * Gets the name of the measured {@link Stage}. It is the simple name of its
+	 * class.
+	 */
+	@NonNull
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the elapsed wall clock time in nanoseconds.
+	 */
+	public final long getWallNanos() {
+		return this.wallNanos;
+	}
+
+	/**
+	 * Gets the CPU time of all executing threads in nanoseconds, or
+	 * <code>-1</code>, if not supported by the JVM.
+	 */
+	public final long getCpuNanos() {
+		return this.cpuNanos;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by all executing threads, or
+	 * <code>-1</code>, if not supported by the JVM.
+	 */
+	public final long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	/**
+	 * Gets the number of items consumed, or <code>-1</code>, if unknown. See
+	 * {@link Stage#countInputs(PipelineContext)}.
+	 */
+	public final long getItemsIn() {
+		return this.itemsIn;
+	}
+
+	/**
+	 * Gets the number of items produced, or <code>-1</code>, if unknown. See
+	 * {@link Stage#countOutputs(PipelineContext)}.
+	 */
+	public final long getItemsOut() {
+		return this.itemsOut;
+	}
+
+	/**
+	 * Gets the number of items produced per second of wall time, or
+	 * <code>-1</code>, if unknown.
+	 */
+	public final double getThroughput() {
+		if (this.itemsOut < 0 || this.wallNanos <= 0) {
+			return -1;
+		}
+		return this.itemsOut * 1e9 / this.wallNanos;
+	}
+
+	@Override
+	public String toString() {
+		return this.name + ": wall=" + this.wallNanos + "ns, cpu=" + this.cpuNanos + "ns, allocated="
+				+ this.allocatedBytes + "B, in=" + this.itemsIn + ", out=" + this.itemsOut;
+	}
+}
@@ -0,0 +1,28 @@
+package com.topper.dex.pipeline;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.topper.dex.staticanalyser.Gadget;
+
+/**
+ * {@link Finalizer} that consumes {@link Gadget}s incrementally while a
+ * {@link Pipeline} is streaming. See
+ * {@link Pipeline#executeStreaming(PipelineArgs)}.
+ * 
+ * Gadgets are handed over in the same order, in which a non - streaming
+ * <code>Pipeline</code> would list them. As soon as all gadgets have been
+ * consumed, {@link Finalizer#finalize(PipelineContext)} is invoked. Unlike
+ * other finalizers, the <code>PipelineContext</code> does not contain a
+ * {@link StaticInfo} with all gadgets then. This avoids holding all of them in
+ * memory at once.
+ */
+public interface StreamingFinalizer extends Finalizer {
+
+	/**
+	 * Consumes the next {@link Gadget} of the {@link Pipeline}. It is always
+	 * invoked on the thread that executes the <code>Pipeline</code>.
+	 * 
+	 * @param gadget <code>Gadget</code> that passed all stages.
+	 */
+	void accept(@NonNull final Gadget gadget);
+}
@@ -1,9 +1,12 @@
 package com.topper.dex.pipeline;
 
+import java.util.List;
+
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.google.common.collect.ImmutableList;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.sweeper.InstructionSequence;
 
 /**
  * Output of a {@link Sweeper}.
@@ -14,23 +17,64 @@ import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 public class SweeperInfo extends StageInfo {
 
 	/**
-	 * List of {@link DecompiledInstruction} sequences.
+	 * List of {@link DecompiledInstruction} sequences. Sweepers may provide
+	 * {@link InstructionSequence}s, which share common suffixes, instead of
+	 * copying every sequence.
 	 * */
 	@NonNull
-	private final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> instructionSequences;
+	private final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> instructionSequences;
+	
+	/**
+	 * Number of instruction candidates that could be taken from a decode cache.
+	 * */
+	private final long decodeCacheHits;
+	
+	/**
+	 * Number of instruction candidates that had to be decompiled.
+	 * */
+	private final long decodeCacheMisses;
 	
 	/**
 	 * Creates a new {@link SweeperInfo} by storing a list of {@link DecompiledInstruction} sequences.
 	 * */
-	public SweeperInfo(@NonNull final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences) {
-		this.instructionSequences = sequences;
+	public SweeperInfo(@NonNull final ImmutableList<? extends @NonNull List<@NonNull DecompiledInstruction>> sequences) {
+		this(sequences, 0, 0);
 	}
 	
 	/**
-	 * Gets a list of {@link DecompiledInstruction} sequences.
+	 * Creates a new {@link SweeperInfo} by storing a list of {@link DecompiledInstruction} sequences
+	 * along with statistics of the decode cache used to obtain them.
+	 * */
+	@SuppressWarnings("null") // ImmutableList.copyOf() is not expected to be null...
+	public SweeperInfo(@NonNull final ImmutableList<? extends @NonNull List<@NonNull DecompiledInstruction>> sequences,
+			final long decodeCacheHits, final long decodeCacheMisses) {
+		this.instructionSequences = ImmutableList.copyOf(sequences);
+		this.decodeCacheHits = decodeCacheHits;
+		this.decodeCacheMisses = decodeCacheMisses;
+	}
+	
+	/**
+	 * Gets a list of {@link DecompiledInstruction} sequences. Sequences are not
+	 * guaranteed to support constant - time random access. Copy a sequence, e.g.
+	 * via {@link ImmutableList#copyOf(java.util.Collection)}, before accessing
+	 * it repeatedly by index.
 	 * */
 	@NonNull
-	public final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> getInstructionSequences() {
+	public final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> getInstructionSequences() {
 		return this.instructionSequences;
 	}
+	
+	/**
+	 * Gets the number of instruction candidates that could be taken from a decode cache.
+	 * */
+	public final long getDecodeCacheHits() {
+		return this.decodeCacheHits;
+	}
+	
+	/**
+	 * Gets the number of instruction candidates that had to be decompiled.
+	 * */
+	public final long getDecodeCacheMisses() {
+		return this.decodeCacheMisses;
+	}
 }
\ No newline at end of file
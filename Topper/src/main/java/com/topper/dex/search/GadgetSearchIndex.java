@@ -0,0 +1,375 @@
+package com.topper.dex.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.iface.instruction.DualReferenceInstruction;
+import org.jf.dexlib2.iface.instruction.FiveRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.Instruction;
+import org.jf.dexlib2.iface.instruction.OneRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.ReferenceInstruction;
+import org.jf.dexlib2.iface.instruction.RegisterRangeInstruction;
+import org.jf.dexlib2.iface.instruction.ThreeRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.TwoRegisterInstruction;
+import org.jf.dexlib2.iface.reference.Reference;
+
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.decompiler.references.CallSiteReference;
+import com.topper.dex.decompiler.references.FieldReference;
+import com.topper.dex.decompiler.references.MethodHandleReference;
+import com.topper.dex.decompiler.references.MethodProtoReference;
+import com.topper.dex.decompiler.references.MethodReference;
+import com.topper.dex.decompiler.references.StringReference;
+import com.topper.dex.decompiler.references.TypeReference;
+import com.topper.dex.staticanalyser.Gadget;
+
+/**
+ * Inverted index over a list of {@link Gadget}s. It maps opcodes, written
+ * registers, register operands and references to the ids of all gadgets that
+ * contain them. The id of a gadget is its index in the indexed list.
+ *
+ * Indices of referenced items are only meaningful within a single .dex file.
+ * Therefore, references are indexed along with the index of the .dex file the
+ * referencing gadget has been extracted from.
+ *
+ * Each postings list is a sorted primitive array of gadget ids. A
+ * {@link Query} is answered by intersecting the postings lists of all its
+ * terms, starting with the shortest one. Therefore, answering a query only
+ * depends on the sizes of the involved postings lists, and gadgets are never
+ * converted into strings.
+ */
+public final class GadgetSearchIndex {
+
+	/**
+	 * Kind of a term, which is stored in the upper bits of a key.
+	 */
+	private static final long OPCODE = 1L << 56;
+	private static final long WRITES = 2L << 56;
+	private static final long REGISTER = 3L << 56;
+	private static final long REFERENCE = 4L << 56;
+
+	private static final int @NonNull [] EMPTY = new int[0];
+
+	/**
+	 * Postings lists by key. See {@link GadgetSearchIndex#key}.
+	 */
+	@NonNull
+	private final Map<Long, int @NonNull []> postings;
+
+	/**
+	 * Number of indexed gadgets.
+	 */
+	private final int size;
+
+	/**
+	 * Sorted, distinct indices of all .dex files the indexed gadgets belong to.
+	 */
+	private final int @NonNull [] dexFiles;
+
+	private GadgetSearchIndex(@NonNull final Map<Long, int @NonNull []> postings, final int size,
+			final int @NonNull [] dexFiles) {
+		this.postings = postings;
+		this.size = size;
+		this.dexFiles = dexFiles;
+	}
+
+	/**
+	 * Builds an index over <code>gadgets</code>, which all belong to the .dex file
+	 * with index <code>0</code>. The id of a gadget is its index in
+	 * <code>gadgets</code>.
+	 */
+	@NonNull
+	public static final GadgetSearchIndex of(@NonNull final List<@NonNull Gadget> gadgets) {
+		return of(gadgets, new int[gadgets.size()]);
+	}
+
+	/**
+	 * Builds an index over <code>gadgets</code>. The id of a gadget is its index
+	 * in <code>gadgets</code>.
+	 *
+	 * @param gadgets  Gadgets to index.
+	 * @param dexFiles Index of the .dex file each gadget belongs to, i.e.
+	 *                 <code>dexFiles[id]</code> is the .dex file of the
+	 *                 <code>id</code> - th gadget. It must be in range
+	 *                 <code>[0, 0xffff]</code>.
+	 * @throws IllegalArgumentException If <code>dexFiles</code> does not match
+	 *                                  <code>gadgets</code>.
+	 */
+	@SuppressWarnings("null") // IntStream.toArray() is not expected to be null...
+	@NonNull
+	public static final GadgetSearchIndex of(@NonNull final List<@NonNull Gadget> gadgets,
+			final int @NonNull [] dexFiles) {
+
+		if (dexFiles.length != gadgets.size()) {
+			throw new IllegalArgumentException("Expected " + gadgets.size() + " .dex file indices, but got "
+					+ dexFiles.length + ".");
+		}
+		for (final int dex : dexFiles) {
+			if (dex < 0 || dex > 0xffff) {
+				throw new IllegalArgumentException("Dex file index " + dex + " is invalid.");
+			}
+		}
+
+		final Map<Long, Postings> builders = new HashMap<>();
+		for (int id = 0; id < gadgets.size(); id++) {
+			for (final DecompiledInstruction decompiled : gadgets.get(id).getInstructions()) {
+				final Instruction instruction = decompiled.getInstruction();
+
+				add(builders, OPCODE | instruction.getOpcode().ordinal(), id);
+
+				// Register operands
+				if (instruction instanceof OneRegisterInstruction) {
+					final int a = ((OneRegisterInstruction) instruction).getRegisterA();
+					add(builders, REGISTER | a, id);
+
+					if (instruction.getOpcode().setsRegister()) {
+						add(builders, WRITES | a, id);
+						if (instruction.getOpcode().setsWideRegister()) {
+							add(builders, WRITES | (a + 1), id);
+						}
+					}
+				}
+				if (instruction instanceof TwoRegisterInstruction) {
+					add(builders, REGISTER | ((TwoRegisterInstruction) instruction).getRegisterB(), id);
+				}
+				if (instruction instanceof ThreeRegisterInstruction) {
+					add(builders, REGISTER | ((ThreeRegisterInstruction) instruction).getRegisterC(), id);
+				}
+				if (instruction instanceof FiveRegisterInstruction) {
+					final FiveRegisterInstruction five = (FiveRegisterInstruction) instruction;
+					final int[] registers = new int[] { five.getRegisterC(), five.getRegisterD(), five.getRegisterE(),
+							five.getRegisterF(), five.getRegisterG() };
+					for (int i = 0; i < Math.min(five.getRegisterCount(), registers.length); i++) {
+						add(builders, REGISTER | registers[i], id);
+					}
+				}
+				if (instruction instanceof RegisterRangeInstruction) {
+					final RegisterRangeInstruction range = (RegisterRangeInstruction) instruction;
+					for (int i = 0; i < range.getRegisterCount(); i++) {
+						add(builders, REGISTER | (range.getStartRegister() + i), id);
+					}
+				}
+
+				// References
+				if (instruction instanceof ReferenceInstruction) {
+					final ReferenceInstruction reference = (ReferenceInstruction) instruction;
+					addReference(builders, dexFiles[id], reference.getReferenceType(), reference.getReference(), id);
+				}
+				if (instruction instanceof DualReferenceInstruction) {
+					final DualReferenceInstruction reference = (DualReferenceInstruction) instruction;
+					addReference(builders, dexFiles[id], reference.getReferenceType2(), reference.getReference2(),
+							id);
+				}
+			}
+		}
+
+		final Map<Long, int @NonNull []> postings = new HashMap<>(2 * builders.size());
+		for (final Map.Entry<Long, Postings> entry : builders.entrySet()) {
+			postings.put(entry.getKey(), entry.getValue().toArray());
+		}
+		return new GadgetSearchIndex(postings, gadgets.size(), IntStream.of(dexFiles).distinct().sorted().toArray());
+	}
+
+	private static final void add(@NonNull final Map<Long, Postings> builders, final long key, final int id) {
+		Postings postings = builders.get(key);
+		if (postings == null) {
+			postings = new Postings();
+			builders.put(key, postings);
+		}
+		postings.add(id);
+	}
+
+	private static final void addReference(@NonNull final Map<Long, Postings> builders, final int dex,
+			final int referenceType, final Reference reference, final int id) {
+		final int index = indexOf(reference);
+		if (index >= 0) {
+			add(builders, referenceKey(dex, referenceType, index), id);
+		}
+	}
+
+	/**
+	 * Gets the index of <code>reference</code> in its section, or
+	 * <code>-1</code>, if it is unknown.
+	 */
+	private static final int indexOf(final Reference reference) {
+		if (reference instanceof StringReference) {
+			return ((StringReference) reference).getStringIndex();
+		} else if (reference instanceof TypeReference) {
+			return ((TypeReference) reference).getTypeIndex();
+		} else if (reference instanceof FieldReference) {
+			return ((FieldReference) reference).getFieldIndex();
+		} else if (reference instanceof MethodReference) {
+			return ((MethodReference) reference).getMethodIndex();
+		} else if (reference instanceof MethodProtoReference) {
+			return ((MethodProtoReference) reference).getProtoIndex();
+		} else if (reference instanceof MethodHandleReference) {
+			return ((MethodHandleReference) reference).getMethodHandleIndex();
+		} else if (reference instanceof CallSiteReference) {
+			return ((CallSiteReference) reference).getCallSiteIndex();
+		}
+		return -1;
+	}
+
+	private static final long referenceKey(final int dex, final int referenceType, final int index) {
+		return REFERENCE | ((long) (dex & 0xffff) << 40) | ((long) (referenceType & 0xff) << 32)
+				| (index & 0xffffffffL);
+	}
+
+	/**
+	 * Gets the number of indexed gadgets.
+	 */
+	public final int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the sorted, distinct indices of all .dex files the indexed gadgets
+	 * belong to.
+	 */
+	@SuppressWarnings("null") // Arrays.copyOf() is not expected to be null...
+	public final int @NonNull [] getDexFiles() {
+		return Arrays.copyOf(this.dexFiles, this.dexFiles.length);
+	}
+
+	/**
+	 * Gets the ids of all gadgets that satisfy all terms of <code>query</code>,
+	 * in ascending order. An empty query is satisfied by all gadgets.
+	 */
+	@SuppressWarnings("null") // Arrays.copyOf() is not expected to be null...
+	public final int @NonNull [] search(@NonNull final Query query) {
+
+		if (query.keys.isEmpty()) {
+			final int[] all = new int[this.size];
+			Arrays.setAll(all, i -> i);
+			return all;
+		}
+
+		// Intersect shortest lists first, so intermediate results stay small.
+		final List<int @NonNull []> lists = new ArrayList<>(query.keys.size());
+		for (final Long key : query.keys) {
+			final int[] list = this.postings.get(key);
+			if (list == null) {
+				return EMPTY;
+			}
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(list -> list.length));
+
+		int[] result = Arrays.copyOf(lists.get(0), lists.get(0).length);
+		int length = result.length;
+		for (int i = 1; i < lists.size() && length > 0; i++) {
+			length = intersect(result, length, lists.get(i));
+		}
+		return Arrays.copyOf(result, length);
+	}
+
+	/**
+	 * Intersects the first <code>length</code> ids of <code>result</code> with
+	 * <code>other</code> in place. <code>other</code> is searched with binary
+	 * searches, as it is at least as long as <code>result</code>.
+	 *
+	 * @return Number of ids left in <code>result</code>.
+	 */
+	private static final int intersect(final int @NonNull [] result, final int length, final int @NonNull [] other) {
+		int kept = 0;
+		int from = 0;
+		for (int i = 0; i < length && from < other.length; i++) {
+			final int position = Arrays.binarySearch(other, from, other.length, result[i]);
+			if (position >= 0) {
+				result[kept++] = result[i];
+				from = position + 1;
+			} else {
+				from = -position - 1;
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * Conjunction of terms to search for in a {@link GadgetSearchIndex}.
+	 */
+	public static final class Query {
+
+		@NonNull
+		private final List<Long> keys = new ArrayList<>();
+
+		/**
+		 * Requires an instruction with <code>opcode</code>.
+		 */
+		@NonNull
+		public final Query opcode(@NonNull final Opcode opcode) {
+			this.keys.add(OPCODE | opcode.ordinal());
+			return this;
+		}
+
+		/**
+		 * Requires an instruction that writes register <code>register</code>.
+		 */
+		@NonNull
+		public final Query writes(final int register) {
+			this.keys.add(WRITES | (register & 0xffff));
+			return this;
+		}
+
+		/**
+		 * Requires an instruction with register operand <code>register</code>.
+		 */
+		@NonNull
+		public final Query register(final int register) {
+			this.keys.add(REGISTER | (register & 0xffff));
+			return this;
+		}
+
+		/**
+		 * Requires an instruction of a gadget of the <code>dex</code> - th .dex
+		 * file that references the <code>index</code> - th item of the section
+		 * given by <code>referenceType</code>, e.g.
+		 * {@link org.jf.dexlib2.ReferenceType#TYPE}.
+		 */
+		@NonNull
+		public final Query reference(final int dex, final int referenceType, final int index) {
+			this.keys.add(referenceKey(dex, referenceType, index));
+			return this;
+		}
+
+		/**
+		 * Determines whether this query has no terms.
+		 */
+		public final boolean isEmpty() {
+			return this.keys.isEmpty();
+		}
+	}
+
+	/**
+	 * Growing, sorted array of gadget ids.
+	 */
+	private static final class Postings {
+
+		private int @NonNull [] ids = new int[4];
+
+		private int size;
+
+		private final void add(final int id) {
+			// Ids are added in ascending order, so duplicates are adjacent.
+			if (this.size > 0 && this.ids[this.size - 1] == id) {
+				return;
+			}
+			if (this.size == this.ids.length) {
+				this.ids = Arrays.copyOf(this.ids, 2 * this.size);
+			}
+			this.ids[this.size++] = id;
+		}
+
+		@SuppressWarnings("null") // Arrays.copyOf() is not expected to be null...
+		private final int @NonNull [] toArray() {
+			return Arrays.copyOf(this.ids, this.size);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.topper.dex.seeker;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import com.topper.configuration.SweeperConfig;
+import com.topper.dex.decompiler.OpcodeTable;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.SeekerInfo;
+import com.topper.dex.sweeper.Sweeper;
+import com.topper.exceptions.pipeline.DuplicateInfoIdException;
+
+/**
+ * {@link Seeker} that respects the structure of .dex files. It only searches
+ * pivot instructions inside of method code items, i.e. it skips headers,
+ * string pools, map sections etc. that can never be executed. It is used in
+ * {@link Pipeline#createStructuredPipeline()}.
+ *
+ * The code items are taken from the augmentation given in
+ * {@link PipelineArgs}. If there is no augmentation, then the entire buffer is
+ * searched like {@link PivotSeeker} does.
+ */
+public class CodeItemSeeker extends Seeker {
+
+	/**
+	 * Searches all occurrences of the pivot instructions inside of method code
+	 * items. The resulting {@link SeekerInfo} also carries the
+	 * {@link CodeRegions}, so that a {@link Sweeper} does not leave the code item
+	 * of a pivot.
+	 *
+	 * Pivots at odd offsets, i.e. hidden inside of other instructions, are only
+	 * considered if {@link SweeperConfig#shouldAlignPivots()} does not hold.
+	 *
+	 * @param context {@link PipelineContext}, in which to perform analysis.
+	 * @throws DuplicateInfoIdException If this {@link CodeItemSeeker} has already been
+	 *                                  executed.
+	 */
+	@Override
+	public final void execute(@NonNull final PipelineContext context) throws DuplicateInfoIdException {
+
+		final PipelineArgs args = context.getArgs();
+		final ImmutableSet<@NonNull Opcode> pivots = args.getConfig().getSweeperConfig().getPivotOpcodes();
+		final byte[] buffer = args.getBuffer();
+		final OpcodeTable opcodes = args.getConfig().getDecompilerConfig().getOpcodeTable();
+		final DexBackedDexFile augmentation = args.getAugmentation();
+
+		// Without file structure, fall back to searching the entire buffer.
+		if (augmentation == null) {
+			context.putInfo(SeekerInfo.class.getSimpleName(),
+					new SeekerInfo(PivotSeeker.seek(buffer, 0, buffer.length, pivots, opcodes, false)));
+			return;
+		}
+
+		final boolean aligned = args.getConfig().getSweeperConfig().shouldAlignPivots();
+		final CodeRegions regions = CodeRegions.fromDexFile(augmentation, args.getAugmentationOffset());
+
+		// Regions are sorted, so concatenating their pivots keeps offsets ascending.
+		final int[][] offsets = new int[regions.size()][];
+		for (int i = 0; i < regions.size(); i++) {
+			final int start = Math.min(regions.getStart(i), buffer.length);
+			final int end = Math.min(regions.getEnd(i), buffer.length);
+			offsets[i] = PivotSeeker.seek(buffer, start, end, pivots, opcodes, aligned);
+		}
+
+		context.putInfo(SeekerInfo.class.getSimpleName(), new SeekerInfo(Ints.concat(offsets), regions));
+	}
+
+	/**
+	 * Only reads the buffer and augmentation given in {@link PipelineArgs}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of();
+	}
+
+	/**
+	 * Provides {@link SeekerInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of(SeekerInfo.class.getSimpleName());
+	}
+}
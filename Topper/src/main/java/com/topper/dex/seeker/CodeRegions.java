@@ -0,0 +1,168 @@
+package com.topper.dex.seeker;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.jf.dexlib2.dexbacked.DexBackedMethod;
+
+import com.google.common.primitives.ImmutableIntArray;
+import com.topper.helpers.DexFileHelper;
+
+/**
+ * Sorted set of disjoint instruction regions in a buffer. Each region covers
+ * the <code>insns</code> array of at least one method, i.e. bytes that may be
+ * executed. Overlapping or adjacent regions are merged.
+ *
+ * Lookups use binary search over the region starts.
+ */
+public final class CodeRegions {
+
+	/**
+	 * Ascending start offsets of all regions.
+	 */
+	private final int @NonNull [] starts;
+
+	/**
+	 * End offsets of all regions. <code>ends[i]</code> is the offset right
+	 * behind the last byte of the region starting at <code>starts[i]</code>.
+	 */
+	private final int @NonNull [] ends;
+
+	/**
+	 * Creates an index of regions <code>[starts[i], ends[i])</code>. The
+	 * regions may be given in any order and may overlap. Empty regions are
+	 * ignored.
+	 *
+	 * @param starts Start offsets of all regions.
+	 * @param ends   End offsets of all regions.
+	 * @throws IllegalArgumentException If the arrays differ in length, or a region
+	 *                                  has a negative start or ends before it
+	 *                                  starts.
+	 */
+	public CodeRegions(final int @NonNull [] starts, final int @NonNull [] ends) {
+
+		if (starts.length != ends.length) {
+			throw new IllegalArgumentException("starts and ends must have the same length.");
+		}
+
+		// Sort regions by start. Pack both into a long to sort them together.
+		final long[] regions = new long[starts.length];
+		for (int i = 0; i < starts.length; i++) {
+			if (starts[i] < 0 || ends[i] < starts[i]) {
+				throw new IllegalArgumentException("[" + starts[i] + ", " + ends[i] + ") is not a valid region.");
+			}
+			regions[i] = ((long) starts[i] << 32) | ends[i];
+		}
+		Arrays.sort(regions);
+
+		// Merge overlapping and adjacent regions.
+		final int[] mergedStarts = new int[regions.length];
+		final int[] mergedEnds = new int[regions.length];
+		int count = 0;
+		for (final long region : regions) {
+			final int start = (int) (region >>> 32);
+			final int end = (int) region;
+			if (start == end) {
+				continue;
+			}
+			if (count > 0 && start <= mergedEnds[count - 1]) {
+				mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], end);
+			} else {
+				mergedStarts[count] = start;
+				mergedEnds[count] = end;
+				count++;
+			}
+		}
+
+		this.starts = Arrays.copyOf(mergedStarts, count);
+		this.ends = Arrays.copyOf(mergedEnds, count);
+	}
+
+	/**
+	 * Creates an index of the instruction regions of all methods in
+	 * <code>file</code>. Methods without code, e.g. abstract or native methods,
+	 * are skipped.
+	 *
+	 * @param file Dex file, whose methods to index.
+	 * @param base Offset of <code>file</code> relative to the buffer the regions
+	 *             refer to. E.g. the offset of a .dex file inside of a .vdex
+	 *             file.
+	 * @return Index of all instruction regions shifted by <code>base</code>.
+	 * @throws IllegalArgumentException If the code item of a method cannot be
+	 *                                  accessed.
+	 */
+	@NonNull
+	public static final CodeRegions fromDexFile(@NonNull final DexBackedDexFile file, final int base) {
+
+		final ImmutableIntArray.Builder starts = ImmutableIntArray.builder();
+		final ImmutableIntArray.Builder ends = ImmutableIntArray.builder();
+		DexFileHelper.iterateMethods(file, method -> {
+			final int offset = getCodeOffset(method);
+			if (offset == 0) {
+				return;
+			}
+			final int start = base + offset + DexFileHelper.CODE_ITEM_SIZE;
+			starts.add(start);
+			ends.add(start + DexFileHelper.getMethodSize(method, offset));
+		});
+
+		return new CodeRegions(starts.build().toArray(), ends.build().toArray());
+	}
+
+	/**
+	 * Gets the number of disjoint regions.
+	 */
+	public final int size() {
+		return this.starts.length;
+	}
+
+	/**
+	 * Gets the start offset of the <code>index</code> - th region.
+	 */
+	public final int getStart(final int index) {
+		return this.starts[index];
+	}
+
+	/**
+	 * Gets the offset right behind the <code>index</code> - th region.
+	 */
+	public final int getEnd(final int index) {
+		return this.ends[index];
+	}
+
+	/**
+	 * Gets the total number of bytes covered by all regions.
+	 */
+	public final long getTotalSize() {
+		long total = 0;
+		for (int i = 0; i < this.starts.length; i++) {
+			total += this.ends[i] - this.starts[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Finds the region that contains <code>offset</code>.
+	 *
+	 * @return Index of the region, or <code>-1</code>, if no region contains
+	 *         <code>offset</code>.
+	 */
+	public final int indexOf(final int offset) {
+
+		// Index of the last region starting at or before offset.
+		int index = Arrays.binarySearch(this.starts, offset);
+		if (index < 0) {
+			index = -index - 2;
+		}
+		return (index >= 0 && offset < this.ends[index]) ? index : -1;
+	}
+
+	private static final int getCodeOffset(@NonNull final DexBackedMethod method) {
+		try {
+			return DexFileHelper.getMethodOffset(method);
+		} catch (final NoSuchFieldException | SecurityException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Failed to access code item of " + method.getName() + ".", e);
+		}
+	}
+}
@@ -1,10 +1,15 @@
 package com.topper.dex.seeker;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
-import org.jf.dexlib2.Opcodes;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.topper.configuration.SweeperConfig;
+import com.topper.dex.decompiler.OpcodeTable;
 import com.topper.dex.pipeline.Pipeline;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
@@ -22,9 +27,53 @@ import com.topper.exceptions.pipeline.DuplicateInfoIdException;
 public class PivotSeeker extends Seeker {
 
 	/**
-	 * Searches all occurrences of the pivot instruction. This may serve as input to
-	 * a {@link Sweeper}. It takes into account the size of the pivot instruction
-	 * determined by its format.
+	 * Number of bytes compared at once.
+	 */
+	private static final int WORD_SIZE = Long.BYTES;
+
+	/**
+	 * Size of a dex code unit in bytes.
+	 */
+	private static final int CODE_UNIT_SIZE = 2;
+
+	/**
+	 * Constant with <code>0x01</code> in every byte.
+	 */
+	private static final long ONES = 0x0101010101010101L;
+
+	/**
+	 * Constant with <code>0x7f</code> in every byte.
+	 */
+	private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+
+	/**
+	 * Highest bit of every byte in a little - endian word.
+	 */
+	private static final long ALL_BYTES = 0x8080808080808080L;
+
+	/**
+	 * Highest bit of every byte at an even offset in a little - endian word.
+	 */
+	private static final long EVEN_BYTES = 0x0080008000800080L;
+
+	/**
+	 * Number of distinct opcode bytes.
+	 */
+	private static final int NUMBER_BYTES = OpcodeTable.NUMBER_BYTES;
+
+	/**
+	 * Searches all occurrences of the pivot instructions. This may serve as input
+	 * to a {@link Sweeper}. It takes into account the size of each pivot
+	 * instruction determined by its format.
+	 * 
+	 * A single pivot opcode is searched word - at - a - time. Multiple pivot
+	 * opcodes are searched in a single pass using a lookup table indexed by opcode
+	 * byte. Pivot opcodes that do not exist in the configured dex version are
+	 * ignored.
+	 * 
+	 * If the buffer is part of a structured file, i.e. an augmentation is given,
+	 * and {@link SweeperConfig#shouldAlignPivots()} holds, then only pivots at
+	 * even offsets are considered.
 	 * 
 	 * If successful, then <code>context</code> will be augmented with
 	 * {@link SeekerInfo}.
@@ -37,21 +86,229 @@ public class PivotSeeker extends Seeker {
 	public final void execute(@NonNull final PipelineContext context) throws DuplicateInfoIdException {
 
 		final PipelineArgs args = context.getArgs();
-		final Opcode pivot = args.getConfig().getSweeperConfig().getPivotOpcode();
+		final ImmutableSet<@NonNull Opcode> pivots = args.getConfig().getSweeperConfig().getPivotOpcodes();
 		final byte[] buffer = args.getBuffer();
-		final Opcodes opcodes = Opcodes.forDexVersion(args.getConfig().getDecompilerConfig().getDexVersion());
-		final byte val = (byte) (opcodes.getOpcodeValue(pivot) & 0xff);
-
-		// Forward linear sweep to find pivot opcodes. Fully disregard file structure,
-		// if any.
-		final ImmutableList.Builder<Integer> builder = new ImmutableList.Builder<>();
-		for (int i = 0; i < buffer.length; i++) {
-			if (val == buffer[i] && i + pivot.format.size <= buffer.length) {
-				builder.add(i);
+		final OpcodeTable opcodes = args.getConfig().getDecompilerConfig().getOpcodeTable();
+		final boolean aligned = args.getAugmentation() != null
+				&& args.getConfig().getSweeperConfig().shouldAlignPivots();
+
+		// Forward linear sweep to find pivot opcodes. Apart from alignment, fully
+		// disregard file structure, if any.
+		final int[] offsets = seek(buffer, 0, buffer.length, pivots, opcodes, aligned);
+
+		// Add list of pivot offsets to results
+		context.putInfo(SeekerInfo.class.getSimpleName(), new SeekerInfo(offsets));
+	}
+
+	/**
+	 * Finds all offsets in <code>[from, to)</code>, at which any of
+	 * <code>pivots</code> starts and fits into <code>[from, to)</code>.
+	 * 
+	 * @param buffer  Buffer to search.
+	 * @param from    Offset of the first byte to search.
+	 * @param to      Offset behind the last byte to search.
+	 * @param pivots  Set of pivot opcodes.
+	 * @param opcodes Opcode table of the dex version in use.
+	 * @param aligned Whether to only report matches at even offsets.
+	 * @return Ascending offsets of all matches.
+	 */
+	static final int @NonNull [] seek(final byte @NonNull [] buffer, final int from, final int to,
+			@NonNull final ImmutableSet<@NonNull Opcode> pivots, @NonNull final OpcodeTable opcodes,
+			final boolean aligned) {
+
+		if (pivots.size() == 1) {
+			final Opcode pivot = pivots.iterator().next();
+			final int value = opcodes.getValue(pivot);
+			return (value != -1) ? scan(buffer, from, to, (byte) (value & 0xff), pivot.format.size, aligned)
+					: new int[0];
+		}
+		return scan(buffer, from, to, createSizeTable(pivots, opcodes), aligned);
+	}
+
+	/**
+	 * Finds all offsets of <code>value</code> in <code>buffer</code>, at which an
+	 * instruction of <code>instructionSize</code> bytes fits into
+	 * <code>buffer</code>.
+	 * 
+	 * @see PivotSeeker#scan(byte[], int, int, byte, int, boolean)
+	 */
+	public static final int @NonNull [] scan(final byte @NonNull [] buffer, final byte value,
+			final int instructionSize, final boolean aligned) {
+		return scan(buffer, 0, buffer.length, value, instructionSize, aligned);
+	}
+
+	/**
+	 * Finds all offsets of <code>value</code> in <code>[from, to)</code>, at which
+	 * an instruction of <code>instructionSize</code> bytes fits into
+	 * <code>[from, to)</code>.
+	 * 
+	 * Instead of comparing byte by byte, eight bytes are loaded as a single
+	 * <code>long</code> and compared at once (SWAR). All bytes equal to
+	 * <code>value</code> become zero after xor - ing the word with a word full of
+	 * <code>value</code>. Then the highest bit of each zero byte is set without
+	 * carries across bytes, so that the bits can be enumerated from lowest to
+	 * highest offset.
+	 * 
+	 * @param buffer          Buffer to search.
+	 * @param from            Offset of the first byte to search.
+	 * @param to              Offset behind the last byte to search.
+	 * @param value           Byte to search for.
+	 * @param instructionSize Number of bytes that must be available starting at
+	 *                        a match.
+	 * @param aligned         Whether to only report matches at even offsets.
+	 * @return Ascending offsets of all matches.
+	 * @throws IndexOutOfBoundsException If <code>[from, to)</code> is not a
+	 *                                   range in <code>buffer</code>.
+	 */
+	public static final int @NonNull [] scan(final byte @NonNull [] buffer, final int from, final int to,
+			final byte value, final int instructionSize, final boolean aligned) {
+
+		checkRange(buffer, from, to);
+
+		// Matches must start at or before limit.
+		final int limit = to - Math.max(instructionSize, 1);
+		if (limit < from) {
+			return new int[0];
+		}
+
+		final long pattern = (value & 0xffL) * ONES;
+		final long mask = (aligned) ? EVEN_BYTES : ALL_BYTES;
+		final ByteBuffer words = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+
+		int[] offsets = new int[16];
+		int count = 0;
+		int i = (aligned) ? from + (from & 1) : from;
+		for (; i + WORD_SIZE <= to && i <= limit; i += WORD_SIZE) {
+
+			final long word = words.getLong(i) ^ pattern;
+			long matches = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS) & mask;
+			while (matches != 0) {
+
+				final int offset = i + (Long.numberOfTrailingZeros(matches) >>> 3);
+				if (offset > limit) {
+					break;
+				}
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = offset;
+				matches &= matches - 1;
 			}
 		}
 
-		// Add list of pivot offsets to results
-		context.putInfo(SeekerInfo.class.getSimpleName(), new SeekerInfo(builder.build()));
+		// Handle remaining bytes. If aligned, i is still even.
+		for (; i <= limit; i += (aligned) ? CODE_UNIT_SIZE : 1) {
+			if (buffer[i] == value) {
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = i;
+			}
+		}
+
+		return Arrays.copyOf(offsets, count);
+	}
+
+	/**
+	 * Finds all offsets in <code>buffer</code>, at which a pivot instruction
+	 * starts and fits into <code>buffer</code>.
+	 * 
+	 * @see PivotSeeker#scan(byte[], int, int, int[], boolean)
+	 */
+	public static final int @NonNull [] scan(final byte @NonNull [] buffer, final int @NonNull [] sizes,
+			final boolean aligned) {
+		return scan(buffer, 0, buffer.length, sizes, aligned);
+	}
+
+	/**
+	 * Finds all offsets in <code>[from, to)</code>, at which a pivot instruction
+	 * starts and fits into <code>[from, to)</code>.
+	 * 
+	 * @param buffer  Buffer to search.
+	 * @param from    Offset of the first byte to search.
+	 * @param to      Offset behind the last byte to search.
+	 * @param sizes   Lookup table with {@value #NUMBER_BYTES} entries that maps an
+	 *                opcode byte to the size of its pivot instruction, or to
+	 *                <code>0</code>, if the byte does not encode a pivot opcode.
+	 *                See {@link PivotSeeker#createSizeTable(ImmutableSet, OpcodeTable)}.
+	 * @param aligned Whether to only report matches at even offsets.
+	 * @return Ascending offsets of all matches.
+	 * @throws IllegalArgumentException  If <code>sizes</code> does not have
+	 *                                   {@value #NUMBER_BYTES} entries.
+	 * @throws IndexOutOfBoundsException If <code>[from, to)</code> is not a
+	 *                                   range in <code>buffer</code>.
+	 */
+	public static final int @NonNull [] scan(final byte @NonNull [] buffer, final int from, final int to,
+			final int @NonNull [] sizes, final boolean aligned) {
+
+		if (sizes.length != NUMBER_BYTES) {
+			throw new IllegalArgumentException("sizes must contain exactly " + NUMBER_BYTES + " entries.");
+		}
+		checkRange(buffer, from, to);
+
+		int[] offsets = new int[16];
+		int count = 0;
+		int size;
+		for (int i = (aligned) ? from + (from & 1) : from; i < to; i += (aligned) ? CODE_UNIT_SIZE : 1) {
+			size = sizes[buffer[i] & 0xff];
+			if (size != 0 && i <= to - size) {
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = i;
+			}
+		}
+
+		return Arrays.copyOf(offsets, count);
+	}
+
+	/**
+	 * Creates a lookup table that maps each opcode byte to the size of the pivot
+	 * instruction it encodes, or to <code>0</code>, if it does not encode any of
+	 * <code>pivots</code>.
+	 * 
+	 * @param pivots  Set of pivot opcodes.
+	 * @param opcodes Opcode table of the dex version in use.
+	 * @return Lookup table with {@value #NUMBER_BYTES} entries.
+	 */
+	public static final int @NonNull [] createSizeTable(@NonNull final ImmutableSet<@NonNull Opcode> pivots,
+			@NonNull final OpcodeTable opcodes) {
+
+		final int[] sizes = new int[NUMBER_BYTES];
+		for (final Opcode pivot : pivots) {
+			final int value = opcodes.getValue(pivot);
+			if (value != -1) {
+				// Payload formats have a negative size, but need at least one byte.
+				sizes[value & 0xff] = Math.max(pivot.format.size, 1);
+			}
+		}
+		return sizes;
+	}
+
+	private static final void checkRange(final byte @NonNull [] buffer, final int from, final int to) {
+		if (from < 0 || to > buffer.length || from > to) {
+			throw new IndexOutOfBoundsException(
+					"[" + from + ", " + to + ") is not a range in a buffer of size " + buffer.length + ".");
+		}
+	}
+
+	/**
+	 * Only reads the buffer given in {@link PipelineArgs}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of();
+	}
+
+	/**
+	 * Provides {@link SeekerInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of(SeekerInfo.class.getSimpleName());
 	}
-}
\ No newline at end of file
+}
@@ -1,6 +1,11 @@
 package com.topper.dex.seeker;
 
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.SeekerInfo;
 import com.topper.dex.pipeline.Stage;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
 
 /**
  * Abstract description of a seeker, whose task is to
@@ -14,4 +19,23 @@ import com.topper.dex.pipeline.Stage;
  * */
 public abstract class Seeker implements Stage {
 
+	/**
+	 * Counts the bytes of the buffer to search.
+	 * */
+	@Override
+	public long countInputs(@NonNull final PipelineContext context) {
+		return context.getArgs().getBuffer().length;
+	}
+	
+	/**
+	 * Counts the pivots found.
+	 * */
+	@Override
+	public long countOutputs(@NonNull final PipelineContext context) {
+		try {
+			return context.getSeekerInfo(SeekerInfo.class.getSimpleName()).getNumberPivots();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.topper.dex.semanticanalyser;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.google.common.collect.ImmutableSet;
 import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.StaticInfo;
 
 public final class DefaultSemanticAnalyser implements SemanticAnalyser {
 
@@ -10,4 +12,24 @@ public final class DefaultSemanticAnalyser implements SemanticAnalyser {
 	public final void execute(@NonNull final PipelineContext context) {
 		
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Reads {@link StaticInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of(StaticInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Provides nothing.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of();
+	}
+}
@@ -1,7 +1,45 @@
 package com.topper.dex.semanticanalyser;
 
+import org.eclipse.jdt.annotation.NonNull;
+
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
 import com.topper.dex.pipeline.Stage;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.dex.staticanalyser.StaticAnalyser;
 
 public interface SemanticAnalyser extends Stage {
 
-}
\ No newline at end of file
+	/**
+	 * Determines whether a single {@link Gadget} is eligible. It is used by
+	 * {@link Pipeline#executeStreaming(PipelineArgs)} to filter gadgets as soon as
+	 * they are analysed, and may be invoked concurrently.
+	 * 
+	 * By default, all gadgets are eligible.
+	 * 
+	 * @param args   Arguments of the pipeline.
+	 * @param gadget <code>Gadget</code> to check.
+	 * @return <code>true</code>, if <code>gadget</code> is passed on to the
+	 *         finalizer; <code>false</code> otherwise.
+	 */
+	default boolean isEligible(@NonNull final PipelineArgs args, @NonNull final Gadget gadget) {
+		return true;
+	}
+
+	/**
+	 * Counts the {@link Gadget}s to check.
+	 */
+	@Override
+	default long countInputs(@NonNull final PipelineContext context) {
+		return StaticAnalyser.countGadgets(context);
+	}
+
+	/**
+	 * Counts the {@link Gadget}s that remain after semantic analysis.
+	 */
+	@Override
+	default long countOutputs(@NonNull final PipelineContext context) {
+		return StaticAnalyser.countGadgets(context);
+	}
+}
@@ -16,7 +16,6 @@ import org.jf.dexlib2.iface.instruction.OffsetInstruction;
 import org.jf.dexlib2.iface.instruction.SwitchPayload;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.graph.EndpointPair;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 import com.topper.dex.graphs.BasicBlock;
 import com.topper.dex.graphs.CFG;
@@ -33,6 +32,9 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 			throw new IllegalArgumentException("List of instructions must not be empty.");
 		}
 
+		final CFGBuildEvent event = new CFGBuildEvent();
+		event.begin();
+
 		final CFG cfg = new CFG(entry);
 
 		// Setup offset -> instruction index lookup (O(log n) lookup using TreeMap)
@@ -67,6 +69,14 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 			}
 		}
 
+		event.end();
+		if (event.shouldCommit()) {
+			event.instructions = instructions.size();
+			event.blocks = cfg.getGraph().nodes().size();
+			event.edges = cfg.getGraph().edges().size();
+			event.commit();
+		}
+
 		return cfg;
 	}
 
@@ -81,6 +91,10 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 		final BasicBlock startNode = this.findNextBlock(instructions, offsetToIndex.get(offset));
 		cfg.getGraph().addNode(startNode);
 
+		// Block start -> block lookup of all blocks in the graph (O(log n) lookup using TreeMap)
+		final TreeMap<Integer, @NonNull BasicBlock> blocks = new TreeMap<Integer, @NonNull BasicBlock>();
+		blocks.put(startNode.getOffset(), startNode);
+
 		final Queue<@NonNull BasicBlock> todo = new LinkedBlockingQueue<@NonNull BasicBlock>();
 		todo.add(startNode);
 
@@ -125,7 +139,8 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 					if (child == null) {
 
 						// Process it on next depth level
-						child = this.addToGraph(cfg, instructions, offsetToIndex, targetInstruction.getOffset());
+						child = this.addToGraph(cfg, instructions, offsetToIndex, blocks,
+								targetInstruction.getOffset());
 						if (child != null) {
 							cfg.getGraph().putEdge(current, child);
 							todo.add(child);
@@ -174,7 +189,11 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 	 * 
 	 * Updating the {@code CFG} does not include adding the {@code BasicBlock}
 	 * induced by {@code offset}. Adding the block must be done by the caller, as it
-	 * knows what parent block refers to this new block.
+	 * knows what parent block refers to this new block. However, the new block is
+	 * added to {@code blocks}.
+	 * 
+	 * All three cases are identified via {@code blocks}, i.e. in O(log n) time wrt.
+	 * the number of {@code BasicBlock}s.
 	 * 
 	 * @param cfg           The {@code CFG} to update wrt. the new
 	 *                      {@code BasicBlock}.
@@ -187,6 +206,9 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 	 *                      approximating coefficients of a polynomial p s.t. for
 	 *                      all offsets o of instructions at index i it holds that
 	 *                      p(o) = i)
+	 * @param blocks        Block start -> block lookup of all blocks in the
+	 *                      {@code CFG}. It is updated wrt. the new
+	 *                      {@code BasicBlock}.
 	 * @param offset        Offset into an underlying buffer containing the
 	 *                      {@code instructions}.
 	 * @return A new {@code BasicBlock} to be added to {@code CFG} by the caller and
@@ -196,102 +218,67 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 	@Nullable
 	private final BasicBlock addToGraph(@NonNull final CFG cfg,
 			@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
-			@NonNull final TreeMap<Integer, Integer> offsetToIndex, final int offset) {
-
-		// Invariant: Basic blocks do not overlap.
-		assert (!cfg.getGraph().nodes().stream().anyMatch(first -> {
-			return cfg.getGraph().nodes().stream().anyMatch(second -> {
-				if (first.equals(second)) {
-					return false;
-				}
-				return (first.getOffset() <= second.getOffset()
-						&& first.getOffset() + first.getSize() > second.getOffset())
-						|| (second.getOffset() <= first.getOffset()
-								&& second.getOffset() + second.getSize() > first.getOffset());
-			});
-		}));
+			@NonNull final TreeMap<Integer, Integer> offsetToIndex,
+			@NonNull final TreeMap<Integer, @NonNull BasicBlock> blocks, final int offset) {
 
 		// Three cases:
 		// 1. Offset points into an existing basic block -> split block
 		// 2. Offset points above an existing basic block -> precede block
 		// 3. Offset points beneath an existing basic block -> new block
 
+		// Quickly check if offset points to existing block.
+		if (blocks.containsKey(offset)) {
+			return null; // no child
+		}
+
 		final int index = offsetToIndex.get(offset);
 		BasicBlock child = null;
 
-		// Indicates offset of next basic block coming after offset.
-		// Therefore nextOffset > offset.
-		int nextOffset = Integer.MAX_VALUE;
-		BasicBlock nextBlock = null;
+		// 1. offset points into existing basic block (unique). As blocks do not
+		// overlap, only the closest block starting before offset may contain it.
+		final Map.Entry<Integer, @NonNull BasicBlock> previous = blocks.lowerEntry(offset);
+		if (previous != null && offset < previous.getKey() + previous.getValue().getSize()) {
 
-		// 1. offset points into existing basic block (unique). Equality
-		// with existing basic block impossible, because this is just
-		// the same basic block.
-		final List<@NonNull Edge<@NonNull BasicBlock>> additions = new LinkedList<>();
-		final List<@NonNull Edge<@NonNull BasicBlock>> deletions = new LinkedList<>();
-		for (final BasicBlock block : cfg.getGraph().nodes()) {
-
-			// Quickly check if offset points to existing block.
-			if (block.getOffset() == offset) {
-				return null; // no child
-			}
+			final BasicBlock block = previous.getValue();
 
-			// block offset must be above offset, but still better than current
-			// best nextOffset.
-			if (block.getOffset() > offset && block.getOffset() < nextOffset) {
-				nextOffset = block.getOffset();
-				nextBlock = block;
-			}
-
-			// Found unique matching block. Like the containing block, offset
+			// Create new block starting at instruction,
+			// which offset is pointing to. Like the containing block, offset
 			// would induce a block that stops at least at the same instruction as block,
 			// if not later.
-			if (offset > block.getOffset() && offset < block.getOffset() + block.getSize()) {
-
-				// Create new block starting at instruction,
-				// which offset is pointing to
-				child = new BasicBlock(
-						instructions.subList(index, offsetToIndex.get(block.getOffset() + block.getSize())));
-
-				// Set instructions of block to cover only instructions up to child.
-				block.setInstructions(instructions.subList(offsetToIndex.get(block.getOffset()), index));
-
-				// block must reference child, and child must take over the references
-				// i.e. outgoing edges of block.
-				additions.add(new Edge<@NonNull BasicBlock>(block, child));
-				for (final BasicBlock reference : cfg.getGraph().successors(block)) {
-					deletions.add(new Edge<@NonNull BasicBlock>(block, reference));
-					additions.add(new Edge<@NonNull BasicBlock>(child, reference));
-				}
+			child = new BasicBlock(
+					instructions.subList(index, offsetToIndex.get(block.getOffset() + block.getSize())));
 
-				break; // unique
-			}
-		}
+			// block must reference child, and child must take over the references
+			// i.e. outgoing edges of block.
+			final List<@NonNull BasicBlock> references = new ArrayList<>(cfg.getGraph().successors(block));
 
-		// Check if case 1 occurred, i.e. if there is at
-		// least an edge to add between block and child.
-		if (additions.size() > 0) {
+			// Set instructions of block to cover only instructions up to child.
+			block.setInstructions(instructions.subList(offsetToIndex.get(block.getOffset()), index));
 
-			for (final Edge<@NonNull BasicBlock> e : additions) {
-				cfg.getGraph().putEdge(e.getSource(), e.getDestination());
+			cfg.getGraph().putEdge(block, child);
+			for (final BasicBlock reference : references) {
+				cfg.getGraph().putEdge(child, reference);
 			}
-
-			for (final Edge<@NonNull BasicBlock> e : deletions) {
-				cfg.getGraph().removeEdge(e.getSource(), e.getDestination());
+			for (final BasicBlock reference : references) {
+				cfg.getGraph().removeEdge(block, reference);
 			}
 
+			blocks.put(offset, child);
+			assert (isDisjointFromNeighbours(blocks, offset));
 			return child;
 		}
 
-		// Invariant: offset does not point into existing basic block.
-		assert (!cfg.getGraph().nodes().stream()
-				.anyMatch(b -> b.getOffset() <= offset && b.getOffset() + b.getSize() > offset));
+		// Invariant: offset does not point into existing basic block. As blocks do
+		// not overlap, this follows from the check of the previous block.
 
 		// 2. offset points above existing basic block (visually above; unique).
-		// As nextOffset refers to the next basic block located (visually) below
-		// offset, a new basic block can be searched for. If they overlap, then just
-		// create a basic block that immediately precedes the existing one
-		if (nextOffset != Integer.MAX_VALUE && nextBlock != null) {
+		// The next basic block is located (visually) below offset, so a new basic
+		// block can be searched for. If they overlap, then just create a basic block
+		// that immediately precedes the existing one
+		final Map.Entry<Integer, @NonNull BasicBlock> next = blocks.higherEntry(offset);
+		if (next != null) {
+
+			final int nextOffset = next.getKey();
 
 			// Find next block.
 			child = this.findNextBlock(instructions, index);
@@ -300,15 +287,17 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 			if (child.getOffset() + child.getSize() > nextOffset) {
 
 				child.setInstructions(instructions.subList(index, offsetToIndex.get(nextOffset)));
-				cfg.getGraph().putEdge(child, nextBlock);
+				cfg.getGraph().putEdge(child, next.getValue());
 			}
 
 			// Otherwise there is no connection between child and next block.
+			blocks.put(offset, child);
+			assert (isDisjointFromNeighbours(blocks, offset));
 			return child;
 		}
 
 		// Invariant: There does not exist a block with block.getOffset() >= offset.
-		assert (!cfg.getGraph().nodes().stream().anyMatch(b -> b.getOffset() >= offset));
+		assert (blocks.ceilingKey(offset) == null);
 
 		// 3. offset points below existing basic block (visually below; unique).
 		// As whatever block precedes offset stopped before the instruction
@@ -316,9 +305,27 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 		// connections whatsoever, only limited in size.
 		child = this.findNextBlock(instructions, index);
 
+		blocks.put(offset, child);
+		assert (isDisjointFromNeighbours(blocks, offset));
 		return child;
 	}
 
+	/**
+	 * Determines whether the {@link BasicBlock} starting at {@code offset}
+	 * overlaps neither with its predecessor nor with its successor (wrt. offset)
+	 * in {@code blocks}. If all other blocks are disjoint, then so are all blocks.
+	 * It only takes O(log n) time, so that assertions do not slow down
+	 * {@code CFG} construction.
+	 */
+	private static final boolean isDisjointFromNeighbours(
+			@NonNull final TreeMap<Integer, @NonNull BasicBlock> blocks, final int offset) {
+		final BasicBlock block = blocks.get(offset);
+		final Map.Entry<Integer, @NonNull BasicBlock> previous = blocks.lowerEntry(offset);
+		final Map.Entry<Integer, @NonNull BasicBlock> next = blocks.higherEntry(offset);
+		return block != null && (previous == null || previous.getKey() + previous.getValue().getSize() <= offset)
+				&& (next == null || offset + block.getSize() <= next.getKey());
+	}
+
 	/**
 	 * Performs a forwards sweep in {@code instructions} until reaching a terminal
 	 * instruction (branch instruction or last instruction). The sweep starts at a
@@ -473,26 +480,4 @@ public class BFSCFGAnalyser implements CFGAnalyser {
 
 		return instructions;
 	}
-
-	/**
-	 * Simple directed edge implementation, because {@link EndpointPair} is
-	 * abstract.
-	 */
-	private static final class Edge<T> {
-		private final T source;
-		private final T destination;
-
-		public Edge(@NonNull final T source, @NonNull final T destination) {
-			this.source = source;
-			this.destination = destination;
-		}
-
-		public final T getSource() {
-			return this.source;
-		}
-
-		public final T getDestination() {
-			return this.destination;
-		}
-	}
-}
\ No newline at end of file
+}
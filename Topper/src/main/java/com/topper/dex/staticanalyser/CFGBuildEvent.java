@@ -0,0 +1,39 @@
+package com.topper.dex.staticanalyser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event emitted by {@link BFSCFGAnalyser} for every extracted
+ * {@link com.topper.dex.graphs.CFG}. Its duration is the time spent extracting
+ * the graph.
+ * 
+ * By default, only events of at least 1 ms are recorded, so that recording
+ * stays cheap on large files. A threshold of <code>0 ms</code> records all
+ * graphs.
+ */
+@Name("com.topper.CFGBuild")
+@Label("CFG Build")
+@Category({ "Topper", "Static Analyser" })
+@Description("Extraction of the control flow graph of a single instruction sequence.")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class CFGBuildEvent extends Event {
+
+	@Label("Instructions")
+	@Description("Number of instructions in the sequence.")
+	public int instructions;
+
+	@Label("Blocks")
+	@Description("Number of basic blocks in the graph.")
+	public int blocks;
+
+	@Label("Edges")
+	@Description("Number of edges in the graph.")
+	public int edges;
+}
@@ -1,22 +1,30 @@
 package com.topper.dex.staticanalyser;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.topper.configuration.StaticAnalyserConfig;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
 import com.topper.dex.graphs.CFG;
-import com.topper.dex.graphs.DFG;
+import com.topper.dex.pipeline.DeduplicatorInfo;
 import com.topper.dex.pipeline.Pipeline;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.StageMeasurement;
 import com.topper.dex.pipeline.StaticInfo;
 import com.topper.dex.pipeline.SweeperInfo;
 import com.topper.exceptions.pipeline.DuplicateInfoIdException;
 import com.topper.exceptions.pipeline.MissingStageInfoException;
+import com.topper.exceptions.pipeline.StageException;
 
 /**
  * Default implementation of {@link StaticAnalyser}. It is used in
@@ -27,6 +35,12 @@ import com.topper.exceptions.pipeline.MissingStageInfoException;
  */
 public final class DefaultStaticAnalyser extends StaticAnalyser {
 
+	/**
+	 * Number of chunks of instruction sequences per thread in case analysis is
+	 * done in parallel.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
 	/**
 	 * Performs static analysis on the given {@link PipelineContext}.
 	 * 
@@ -35,63 +49,148 @@ public final class DefaultStaticAnalyser extends StaticAnalyser {
 	 * of {@link Gadget}s is returned.
 	 * 
 	 * Analysis is configurable via {@link StaticAnalyserConfig} and
-	 * may decide whether to skip e.g. {@link CFG} extraction.
+	 * may decide whether to skip e.g. {@link CFG} extraction. If
+	 * {@link PipelineArgs#getNumberThreads()} exceeds one, then
+	 * instruction sequences are analysed in parallel. In any case, the
+	 * <code>Gadget</code>s are ordered like their instruction sequences. If a
+	 * {@link GadgetDeduplicator} precedes this stage, only distinct sequences are
+	 * analysed. See {@link StaticAnalyser#getSweeperInfo(PipelineContext)}.
 	 * 
 	 * @param context <code>PipelineContext</code>, in which to perform static analysis.
 	 * @throws MissingStageInfoException If {@link PipelineArgs} or
 	 *                                   {@link SweeperInfo} is missing.
 	 * @throws DuplicateInfoIdException  If {@link StaticInfo} is already part of
 	 *                                   the <code>context</code>.
+	 * @throws StageException            If parallel analysis is interrupted.
 	 * @throws IllegalArgumentException  If an instruction sequence obtained from
 	 *                                   <code>SweeperInfo</code> is empty (must at
 	 *                                   least contain pivot instruction).
 	 */
 	@Override
-	public final void execute(@NonNull final PipelineContext context)
-			throws MissingStageInfoException, DuplicateInfoIdException {
+	public final void execute(@NonNull final PipelineContext context) throws StageException {
 
 		final PipelineArgs args = context.getArgs();
-		final SweeperInfo sweeper = context.getSweeperInfo(SweeperInfo.class.getSimpleName());
-		final StaticAnalyserConfig config = args.getConfig().getStaticAnalyserConfig();
+		final SweeperInfo sweeper = getSweeperInfo(context);
 
 		@NonNull
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = sweeper
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = sweeper
 				.getInstructionSequences();
 
+		final int threads = args.getNumberThreads();
+
 		// Try out all instruction sequences from sweeping stage.
-		final List<@NonNull Gadget> gadgets = new LinkedList<@NonNull Gadget>();
-		int entry;
-		CFG cfg;
-		DFG dfg;
-		for (@NonNull
-		final ImmutableList<@NonNull DecompiledInstruction> instructions : sequences) {
-
-			// If an empty instruction sequence had been found, something must have gone
-			// wrong in
-			// a previous stage.
-			if (instructions.size() <= 0) {
-				throw new IllegalArgumentException(
-						"Encountered empty instruction sequence. Missing pivot instruction.");
-			}
+		final ImmutableList<@NonNull Gadget> gadgets;
+		if (threads > 1 && sequences.size() > 1) {
+			gadgets = this.analyseParallel(args, sequences, threads);
+		} else {
+			gadgets = this.analyseRange(args, sequences, 0, sequences.size(), false);
+		}
+
+		context.putInfo(StaticInfo.class.getSimpleName(), new StaticInfo(gadgets));
+	}
 
-			// Compute entry wrt. current instruction sequence.
-			entry = instructions.get(0).getOffset();
+	/**
+	 * Analyses all instruction <code>sequences</code> on <code>threads</code>
+	 * threads.
+	 * 
+	 * As analyses of different instruction sequences are independent of each
+	 * other, <code>sequences</code> is partitioned into contiguous chunks, which
+	 * are analysed concurrently. Results of all chunks are concatenated in the
+	 * order of their chunks. Hence the resulting list of {@link Gadget}s is
+	 * identical to the list obtained from analysing all sequences on a single
+	 * thread.
+	 * 
+	 * @param args      Arguments of the pipeline.
+	 * @param sequences Instruction sequences to analyse.
+	 * @param threads   Number of threads to use.
+	 * @return List of <code>Gadget</code>s ordered like <code>sequences</code>.
+	 * @throws StageException If analysis is interrupted.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull Gadget> analyseParallel(@NonNull final PipelineArgs args,
+			@NonNull final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences,
+			final int threads) throws StageException {
+
+		// Use more chunks than threads to balance sequences with expensive analyses.
+		final int chunkSize = Math.max(1, sequences.size() / (threads * CHUNKS_PER_THREAD));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<ImmutableList<@NonNull Gadget>>> chunks = new ArrayList<>();
+			for (int start = 0; start < sequences.size(); start += chunkSize) {
+
+				final int from = start;
+				final int to = Math.min(start + chunkSize, sequences.size());
+				chunks.add(executor.submit(
+						StageMeasurement.measured(() -> this.analyseRange(args, sequences, from, to, true))));
+			}
 
-			// Extract CFG
-			cfg = null;
-			if (!config.shouldSkipCFG()) {
-				cfg = this.getCFGAnalyser().extractCFG(instructions, entry);
+			// Merge in chunk order to keep results deterministic.
+			final ImmutableList.Builder<@NonNull Gadget> gadgets = ImmutableList
+					.builderWithExpectedSize(sequences.size());
+			for (final Future<ImmutableList<@NonNull Gadget>> chunk : chunks) {
+				gadgets.addAll(chunk.get());
 			}
+			return gadgets.build();
 
-			// Extract DFG. Maybe this requires CFG as well.
-			dfg = null;
-			if (!config.shouldSkipDFG()) {
-				dfg = this.getDFGAnalyser().extractDFG(instructions);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
 			}
+			throw new StageException("Failed to analyse instruction sequences.", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StageException("Static analysis has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Analyses the instruction sequences with indices in <code>[from, to)</code>
+	 * one after another on the calling thread.
+	 * 
+	 * @param interruptible Whether to stop analysis, once the calling thread is
+	 *                      interrupted. Then the result is incomplete. This allows
+	 *                      to abort worker threads of a failed parallel analysis.
+	 * @return List of {@link Gadget}s ordered like <code>sequences</code>.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull Gadget> analyseRange(@NonNull final PipelineArgs args,
+			@NonNull final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences,
+			final int from, final int to, final boolean interruptible) {
 
-			gadgets.add(new Gadget(instructions, cfg, dfg));
+		final ImmutableList.Builder<@NonNull Gadget> gadgets = ImmutableList.builderWithExpectedSize(to - from);
+		for (int i = from; i < to; i++) {
+			// Stop early, if parallel analysis has been aborted.
+			if (interruptible && Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			// Gadgets keep their own copy of a sequence to allow random access.
+			gadgets.add(this.analyse(args, ImmutableList.copyOf(sequences.get(i))));
 		}
+		return gadgets.build();
+	}
 
-		context.putInfo(StaticInfo.class.getSimpleName(), new StaticInfo(ImmutableList.copyOf(gadgets)));
+	/**
+	 * Reads {@link SweeperInfo} and {@link DeduplicatorInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of(SweeperInfo.class.getSimpleName(), DeduplicatorInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Provides {@link StaticInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of(StaticInfo.class.getSimpleName());
 	}
-}
\ No newline at end of file
+}
@@ -1,20 +1,25 @@
 package com.topper.dex.staticanalyser;
 
+import java.util.function.Supplier;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jf.dexlib2.Opcode;
 
 import com.google.common.collect.ImmutableList;
+import com.topper.configuration.StaticAnalyserConfig;
+import com.topper.configuration.StaticAnalyserConfig.CFGMode;
 import com.topper.configuration.SweeperConfig;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 import com.topper.dex.graphs.CFG;
+import com.topper.dex.graphs.CompactCFG;
 import com.topper.dex.graphs.DFG;
 import com.topper.helpers.DexHelper;
 
 /**
  * Gadget extracted using a {@link StaticAnalyser}. It consists of a list of
  * {@link DecompiledInstruction}s, where the last instruction is determined by a
- * configurable opcode, i.e. by {@link SweeperConfig#getPivotOpcode()}.
+ * configurable opcode, i.e. by one of {@link SweeperConfig#getPivotOpcodes()}.
  * 
  * @author Pascal Kühnemann
  * @since 21.08.2023
@@ -28,10 +33,29 @@ public class Gadget {
 	private final ImmutableList<@NonNull DecompiledInstruction> instructions;
 
 	/**
-	 * Extracted Control Flow Graph, if configured.
+	 * Extracted Control Flow Graph, if configured and already extracted.
+	 */
+	@Nullable
+	private volatile CFG cfg;
+
+	/**
+	 * Extracted Control Flow Graph in compact form, if configured and already
+	 * extracted.
 	 */
 	@Nullable
-	private final CFG cfg;
+	private volatile CompactCFG compactCFG;
+
+	/**
+	 * Extracts the Control Flow Graph on first access, if configured. It is
+	 * dropped once the graph has been extracted.
+	 */
+	@Nullable
+	private volatile Supplier<@NonNull CFG> cfgSupplier;
+
+	/**
+	 * Whether to keep a lazily extracted Control Flow Graph in compact form.
+	 */
+	private final boolean compact;
 
 	/**
 	 * Extracted Data Flow Graph, if configured.
@@ -55,6 +79,70 @@ public class Gadget {
 			@Nullable DFG dfg) {
 		this.instructions = instructions;
 		this.cfg = cfg;
+		this.compactCFG = null;
+		this.cfgSupplier = null;
+		this.compact = false;
+		this.dfg = dfg;
+	}
+
+	/**
+	 * Creates a new {@link Gadget} from a list of {@link DecompiledInstruction}s,
+	 * a {@link CompactCFG} and optionally a {@link DFG}. <code>compactCFG</code>
+	 * and <code>dfg</code> must be linked to <code>instructions</code>.
+	 * 
+	 * @param instructions List of <code>DecompiledInstruction</code>s that make up
+	 *                     this gadget.
+	 * @param compactCFG   Control Flow Graph extracted using static analysis in
+	 *                     compact form.
+	 * @param dfg          Data Flow Graph extracted using static analysis, if
+	 *                     configured.
+	 */
+	public Gadget(@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
+			@NonNull final CompactCFG compactCFG, @Nullable DFG dfg) {
+		this.instructions = instructions;
+		this.cfg = null;
+		this.compactCFG = compactCFG;
+		this.cfgSupplier = null;
+		this.compact = true;
+		this.dfg = dfg;
+	}
+
+	/**
+	 * Creates a new {@link Gadget} from a list of {@link DecompiledInstruction}s,
+	 * whose {@link CFG} is extracted on first access. See {@link CFGMode#LAZY}.
+	 * 
+	 * @param instructions List of <code>DecompiledInstruction</code>s that make up
+	 *                     this gadget.
+	 * @param cfgSupplier  Extracts the Control Flow Graph of
+	 *                     <code>instructions</code>. It is invoked at most once.
+	 * @param dfg          Data Flow Graph extracted using static analysis, if
+	 *                     configured.
+	 */
+	public Gadget(@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
+			@NonNull final Supplier<@NonNull CFG> cfgSupplier, @Nullable DFG dfg) {
+		this(instructions, cfgSupplier, false, dfg);
+	}
+
+	/**
+	 * Creates a new {@link Gadget} from a list of {@link DecompiledInstruction}s,
+	 * whose {@link CFG} is extracted on first access. See {@link CFGMode#LAZY}.
+	 * 
+	 * @param instructions List of <code>DecompiledInstruction</code>s that make up
+	 *                     this gadget.
+	 * @param cfgSupplier  Extracts the Control Flow Graph of
+	 *                     <code>instructions</code>. It is invoked at most once.
+	 * @param compact      Whether to keep the Control Flow Graph as
+	 *                     {@link CompactCFG} once it is extracted.
+	 * @param dfg          Data Flow Graph extracted using static analysis, if
+	 *                     configured.
+	 */
+	public Gadget(@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions,
+			@NonNull final Supplier<@NonNull CFG> cfgSupplier, final boolean compact, @Nullable DFG dfg) {
+		this.instructions = instructions;
+		this.cfg = null;
+		this.compactCFG = null;
+		this.cfgSupplier = cfgSupplier;
+		this.compact = compact;
 		this.dfg = dfg;
 	}
 
@@ -62,28 +150,132 @@ public class Gadget {
 	 * Gets the list of {@link DecompiledInstruction}s that make up this gadget.
 	 * 
 	 * The list is guaranteed to be non - empty and end in an instruction, whose {@link Opcode}
-	 * matches {@link SweeperConfig#getPivotOpcode()}.
+	 * matches one of {@link SweeperConfig#getPivotOpcodes()}.
 	 */
 	@NonNull
 	public final ImmutableList<@NonNull DecompiledInstruction> getInstructions() {
 		return this.instructions;
 	}
 
+	/**
+	 * Gets the pivot {@link Opcode} this gadget ends on.
+	 */
+	@SuppressWarnings("null") // Opcode of a decompiled instruction is not expected to be null...
+	@NonNull
+	public final Opcode getPivot() {
+		return this.instructions.get(this.instructions.size() - 1).getInstruction().getOpcode();
+	}
+
+	/**
+	 * Gets the byte offset, from which {@link CFG} extraction starts, i.e. the
+	 * offset of the first instruction. This does not extract a lazy
+	 * <code>CFG</code>.
+	 */
+	public final int getEntry() {
+		final CFG cfg = this.cfg;
+		if (cfg != null) {
+			return cfg.getEntry();
+		}
+		final CompactCFG compactCFG = this.compactCFG;
+		if (compactCFG != null) {
+			return compactCFG.getEntry();
+		}
+		return this.instructions.get(0).getOffset();
+	}
+
 	/**
 	 * Gets the associated {@link CFG}, if any.
+	 * 
+	 * If the <code>CFG</code> is extracted lazily, then the first invocation
+	 * extracts it. Concurrent invocations wait for and share the same
+	 * <code>CFG</code>. If the <code>CFG</code> is kept as {@link CompactCFG},
+	 * then each invocation expands it into a new <code>CFG</code>. Prefer
+	 * {@link Gadget#getCompactCFG()} in that case.
 	 * */
 	@Nullable
 	public final CFG getCFG() {
-		return this.cfg;
+		final CFG cfg = this.cfg;
+		if (cfg != null) {
+			return cfg;
+		}
+		final CompactCFG compactCFG = this.compactCFG;
+		if (compactCFG != null) {
+			return compactCFG.toCFG();
+		}
+		if (this.cfgSupplier != null) {
+			final CFG extracted = this.extractCFG();
+			// Another thread may have extracted the CFG in the meantime.
+			return (extracted != null) ? extracted : this.getCFG();
+		}
+		return null;
 	}
 
 	/**
-	 * Determines whether this gadget has an associated {@link CFG} or not.
+	 * Gets the associated {@link CFG} in compact form, if any.
+	 * 
+	 * If the <code>CFG</code> is not kept as {@link CompactCFG}, e.g. because
+	 * {@link StaticAnalyserConfig#shouldCompactCFG()} does not hold, then each
+	 * invocation compacts the <code>CFG</code> anew.
+	 * */
+	@Nullable
+	public final CompactCFG getCompactCFG() {
+		final CompactCFG compactCFG = this.compactCFG;
+		if (compactCFG != null) {
+			return compactCFG;
+		}
+
+		// Lazy extraction may result in a compact CFG.
+		final CFG cfg = this.getCFG();
+		if (this.compactCFG != null) {
+			return this.compactCFG;
+		}
+		return (cfg != null) ? CompactCFG.of(cfg, this.instructions) : null;
+	}
+
+	/**
+	 * Extracts a lazy {@link CFG}, unless it has already been extracted.
+	 * 
+	 * @return Extracted <code>CFG</code>, or <code>null</code>, if it has already
+	 *         been extracted.
+	 */
+	@Nullable
+	private final synchronized CFG extractCFG() {
+		final Supplier<@NonNull CFG> supplier = this.cfgSupplier;
+		if (supplier == null) {
+			return null;
+		}
+
+		final CFG cfg = supplier.get();
+		if (this.compact) {
+			this.compactCFG = CompactCFG.of(cfg, this.instructions);
+		} else {
+			this.cfg = cfg;
+		}
+		// Release everything the supplier captured.
+		this.cfgSupplier = null;
+		return cfg;
+	}
+
+	/**
+	 * Determines whether this gadget has an associated {@link CFG} or not. This
+	 * does not extract a lazy <code>CFG</code>.
 	 * 
 	 * @return <code>true</code>, if this gadget has an associated <code>CFG</code>; <code>false</code> otherwise.
 	 * */
 	public final boolean hasCFG() {
-		return this.cfg != null;
+		// Supplier is dropped only after the CFG is set, so check it first.
+		return this.cfgSupplier != null || this.cfg != null || this.compactCFG != null;
+	}
+
+	/**
+	 * Determines whether the associated {@link CFG} has already been extracted.
+	 * 
+	 * @return <code>true</code>, if this gadget has an extracted <code>CFG</code>;
+	 *         <code>false</code>, if there is no <code>CFG</code>, or it is still
+	 *         to be extracted lazily.
+	 * */
+	public final boolean isCFGExtracted() {
+		return this.cfg != null || this.compactCFG != null;
 	}
 
 	/**
@@ -108,8 +300,7 @@ public class Gadget {
 		final StringBuilder b = new StringBuilder();
 
 		// Print entry
-		b.append(String.format("Entry: %#08x" + System.lineSeparator(),
-				(this.cfg != null) ? this.cfg.getEntry() : this.instructions.get(0).getOffset()));
+		b.append(String.format("Entry: %#08x" + System.lineSeparator(), this.getEntry()));
 
 		// Convert instructions to string
 		b.append(DexHelper.instructionsToString(this.instructions));
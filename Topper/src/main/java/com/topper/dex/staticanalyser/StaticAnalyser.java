@@ -3,7 +3,23 @@ package com.topper.dex.staticanalyser;
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
 
+import com.google.common.collect.ImmutableList;
+import com.topper.configuration.StaticAnalyserConfig;
+import com.topper.configuration.StaticAnalyserConfig.CFGMode;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.graphs.CFG;
+import com.topper.dex.graphs.CompactCFG;
+import com.topper.dex.graphs.DFG;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.pipeline.DeduplicatorInfo;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
 import com.topper.dex.pipeline.Stage;
+import com.topper.dex.pipeline.StaticInfo;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.sweeper.Sweeper;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
 
 /**
  * Abstract description of an analyser that performs static analysis.
@@ -68,6 +84,118 @@ public abstract class StaticAnalyser implements Stage {
 		this.dfgAnalyser = da;
 	}
 
+	/**
+	 * Turns a single instruction sequence into a {@link Gadget}. Depending on
+	 * {@link StaticAnalyserConfig}, a {@link CFG} and {@link DFG} are extracted.
+	 * With {@link CFGMode#LAZY}, the <code>CFG</code> is only extracted once it is
+	 * requested from the <code>Gadget</code>. If
+	 * {@link StaticAnalyserConfig#shouldCompactCFG()} holds, then the
+	 * <code>Gadget</code> keeps the <code>CFG</code> as {@link CompactCFG}.
+	 * 
+	 * It is used by {@link Pipeline#executeStreaming(PipelineArgs)} to analyse
+	 * sequences as soon as they are swept, and may be invoked concurrently.
+	 * 
+	 * @param args         Arguments of the pipeline.
+	 * @param instructions Instruction sequence ending in a pivot instruction.
+	 * @return <code>Gadget</code> made up of <code>instructions</code>.
+	 * @throws IllegalArgumentException If <code>instructions</code> is empty (must
+	 *                                  at least contain pivot instruction).
+	 */
+	@NonNull
+	public Gadget analyse(@NonNull final PipelineArgs args,
+			@NonNull final ImmutableList<@NonNull DecompiledInstruction> instructions) {
+
+		// If an empty instruction sequence had been found, something must have gone
+		// wrong in a previous stage.
+		if (instructions.size() <= 0) {
+			throw new IllegalArgumentException("Encountered empty instruction sequence. Missing pivot instruction.");
+		}
+
+		final StaticAnalyserConfig config = args.getConfig().getStaticAnalyserConfig();
+
+		// Compute entry wrt. current instruction sequence.
+		final int entry = instructions.get(0).getOffset();
+
+		// Extract DFG. Maybe this requires CFG as well.
+		DFG dfg = null;
+		if (!config.shouldSkipDFG()) {
+			dfg = this.getDFGAnalyser().extractDFG(instructions);
+		}
+
+		// Extract CFG now, on first access or never.
+		switch (config.getCFGMode()) {
+		case EAGER:
+			final CFG cfg = this.getCFGAnalyser().extractCFG(instructions, entry);
+			if (config.shouldCompactCFG()) {
+				return new Gadget(instructions, CompactCFG.of(cfg, instructions), dfg);
+			}
+			return new Gadget(instructions, cfg, dfg);
+		case LAZY:
+			// Capture the current analyser, as it may be replaced before first access.
+			final CFGAnalyser analyser = this.getCFGAnalyser();
+			return new Gadget(instructions, () -> analyser.extractCFG(instructions, entry),
+					config.shouldCompactCFG(), dfg);
+		default:
+			return new Gadget(instructions, (CFG) null, dfg);
+		}
+	}
+
+	/**
+	 * Counts the instruction sequences to analyse.
+	 */
+	@Override
+	public long countInputs(@NonNull final PipelineContext context) {
+		try {
+			return getSweeperInfo(context).getInstructionSequences().size();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Gets the {@link SweeperInfo} whose instruction sequences are to be
+	 * analysed. If a {@link GadgetDeduplicator} has been executed, this is its
+	 * {@link DeduplicatorInfo}, so that each distinct sequence is analysed once.
+	 * Otherwise, it is the <code>SweeperInfo</code> of the {@link Sweeper}.
+	 * 
+	 * @throws MissingStageInfoException If <code>context</code> contains neither
+	 *                                   of both.
+	 */
+	@NonNull
+	public static final SweeperInfo getSweeperInfo(@NonNull final PipelineContext context)
+			throws MissingStageInfoException {
+		try {
+			return context.getSweeperInfo(DeduplicatorInfo.class.getSimpleName());
+		} catch (final MissingStageInfoException ignored) {
+			return context.getSweeperInfo(SweeperInfo.class.getSimpleName());
+		}
+	}
+
+	/**
+	 * Counts the extracted {@link Gadget}s.
+	 */
+	@Override
+	public long countOutputs(@NonNull final PipelineContext context) {
+		return countGadgets(context);
+	}
+
+
+
+	/**
+	 * Counts the {@link Gadget}s in the {@link StaticInfo} of
+	 * <code>context</code>.
+	 * 
+	 * @return Number of <code>Gadget</code>s, or <code>-1</code>, if there is no
+	 *         <code>StaticInfo</code>.
+	 */
+	public static final long countGadgets(@NonNull final PipelineContext context) {
+		try {
+			return context.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets().size();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+
 	/**
 	 * Determines whether <code>opcode</code> represents an if opcode.
 	 * 
@@ -1,26 +1,34 @@
 package com.topper.dex.sweeper;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jf.dexlib2.Format;
+import org.jf.dexlib2.Opcode;
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 import org.jf.util.ExceptionWithContext;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.topper.configuration.TopperConfig;
 import com.topper.dex.decompiler.DecompilationResult;
 import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.OpcodeTable;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
 import com.topper.dex.pipeline.SeekerInfo;
 import com.topper.dex.pipeline.Stage;
 import com.topper.dex.pipeline.StageInfo;
+import com.topper.dex.pipeline.StageMeasurement;
 import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.seeker.CodeRegions;
 import com.topper.exceptions.pipeline.DuplicateInfoIdException;
 import com.topper.exceptions.pipeline.MissingStageInfoException;
 import com.topper.exceptions.pipeline.SweeperException;
@@ -38,6 +46,11 @@ public class BackwardLinearSweeper extends Sweeper {
 
 	private static final int CODE_UNIT_SIZE = 2;
 
+	/**
+	 * Number of chunks of pivots per thread in case sweeping is done in parallel.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
 	/**
 	 * Performs a linear backward sweep on <code>buffer</code>.
 	 * 
@@ -84,72 +97,281 @@ public class BackwardLinearSweeper extends Sweeper {
 		final PipelineArgs args = context.getArgs();
 		final SeekerInfo seekerInfo = context.getSeekerInfo(SeekerInfo.class.getSimpleName());
 
-		final ImmutableList<Integer> offsets = seekerInfo.getPivotOffsets();
 		final byte[] buffer = args.getBuffer();
 		final TopperConfig config = args.getConfig();
 		final DexBackedDexFile augmentation = args.getAugmentation();
 
-		final ImmutableList.Builder<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = new ImmutableList.Builder<>();
-		for (final int offset : offsets) {
+		final int threads = args.getNumberThreads();
+
+		final ImmutableList<@NonNull InstructionSequence> sequences;
+		final List<@NonNull DecodeCache> caches = new ArrayList<>();
+		if (threads > 1 && seekerInfo.getNumberPivots() > 1) {
+			sequences = this.sweepParallel(seekerInfo, buffer, config, augmentation, threads, caches);
+		} else {
+			final DecodeCache cache = this.createCache(config);
+			caches.add(cache);
+			sequences = this.sweepRange(seekerInfo, 0, seekerInfo.getNumberPivots(), buffer, config, augmentation,
+					cache);
+		}
+
+		final long hits = caches.stream().mapToLong(DecodeCache::getHits).sum();
+		final long misses = caches.stream().mapToLong(DecodeCache::getMisses).sum();
+		context.putInfo(SweeperInfo.class.getSimpleName(), new SweeperInfo(sequences, hits, misses));
+	}
+
+	/**
+	 * Sweeps the pivots with indices in <code>[from, to)</code> on the calling
+	 * thread. All pivots of the chunk share a {@link DecodeCache}.
+	 * 
+	 * @throws SweeperException If an offset does not point to a pivot instruction,
+	 *                          or is out of bounds wrt. the buffer.
+	 */
+	@SuppressWarnings("null") // ImmutableList.copyOf() is not expected to be null...
+	@Override
+	@NonNull
+	public final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sweep(
+			@NonNull final PipelineContext context, @NonNull final SeekerInfo pivots, final int from, final int to)
+			throws SweeperException {
+		final PipelineArgs args = context.getArgs();
+		return ImmutableList.copyOf(this.sweepRange(pivots, from, to, args.getBuffer(), args.getConfig(), args.getAugmentation(),
+				this.createCache(args.getConfig())));
+	}
+
+	/**
+	 * Sweeps all pivots in <code>pivots</code> on <code>threads</code> threads.
+	 * 
+	 * As sweeps of different pivots are independent of each other, the list of
+	 * pivots is partitioned into contiguous chunks, which are swept concurrently.
+	 * Results of all chunks are concatenated in the order of their chunks. Hence
+	 * the resulting list of instruction sequences is identical to the list
+	 * obtained from sweeping all pivots on a single thread.
+	 * 
+	 * Each chunk uses its own {@link DecodeCache}, which is added to
+	 * <code>caches</code>. As chunks are contiguous, neighbouring pivots still
+	 * share decoded candidates.
+	 * 
+	 * @param pivots       Pivot offsets to sweep.
+	 * @param buffer       Buffer, in which to search for gadgets. It is shared
+	 *                     among all threads and must not be modified.
+	 * @param config       Configuration to be used by this sweeper.
+	 * @param augmentation Dex file representation to use for decompiling.
+	 * @param threads      Number of threads to use.
+	 * @param caches       List, to which the caches of all chunks are added.
+	 * @return List of instruction sequences of all pivots ordered by pivot.
+	 * @throws SweeperException If sweeping any of the pivots fails, or if sweeping
+	 *                          is interrupted.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull InstructionSequence> sweepParallel(
+			@NonNull final SeekerInfo pivots, final byte @NonNull [] buffer, @NonNull final TopperConfig config,
+			@Nullable final DexBackedDexFile augmentation, final int threads,
+			@NonNull final List<@NonNull DecodeCache> caches) throws SweeperException {
+
+		// Use more chunks than threads to balance pivots with expensive sweeps.
+		final int chunkSize = Math.max(1, pivots.getNumberPivots() / (threads * CHUNKS_PER_THREAD));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<ImmutableList<@NonNull InstructionSequence>>> chunks = new ArrayList<>();
+			for (int start = 0; start < pivots.getNumberPivots(); start += chunkSize) {
+
+				final int from = start;
+				final int to = Math.min(start + chunkSize, pivots.getNumberPivots());
+				final DecodeCache cache = this.createCache(config);
+				caches.add(cache);
+				chunks.add(executor.submit(StageMeasurement.measured(() -> this.sweepRange(pivots, from, to,
+						buffer, config, augmentation, cache))));
+			}
+
+			// Merge in chunk order to keep results deterministic.
+			final ImmutableList.Builder<@NonNull InstructionSequence> sequences = new ImmutableList.Builder<>();
+			for (final Future<ImmutableList<@NonNull InstructionSequence>> chunk : chunks) {
+				sequences.addAll(chunk.get());
+			}
+			return sequences.build();
 
-			// Perform bound checks on buffer and offset.
-			final int currentSize = config.getSweeperConfig().getPivotOpcode().format.size;
-			if (offset + currentSize > buffer.length) {
-				throw new SweeperException("buffer is too small to hold pivot instruction at " + offset + ".");
-			} else if (offset < 0) {
-				throw new SweeperException("offset must not be negative.");
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof SweeperException) {
+				throw (SweeperException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SweeperException("Failed to sweep pivot instructions.", e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SweeperException("Sweeping has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Sweeps the pivots with indices in <code>[from, to)</code> one after another
+	 * on the calling thread.
+	 * 
+	 * @param pivots       Pivot offsets to sweep.
+	 * @param from         Index of the first pivot to sweep.
+	 * @param to           Index behind the last pivot to sweep.
+	 * @param buffer       Buffer, in which to search for gadgets.
+	 * @param config       Configuration to be used by this sweeper.
+	 * @param augmentation Dex file representation to use for decompiling.
+	 * @param cache        Cache of decoded candidates shared by all pivots.
+	 * @return List of instruction sequences of all pivots ordered by pivot.
+	 * @throws SweeperException If an offset does not point to a pivot instruction,
+	 *                          or is out of bounds wrt. <code>buffer</code>.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull InstructionSequence> sweepRange(
+			@NonNull final SeekerInfo pivots, final int from, final int to, final byte @NonNull [] buffer,
+			@NonNull final TopperConfig config, @Nullable final DexBackedDexFile augmentation,
+			@NonNull final DecodeCache cache) throws SweeperException {
+
+		// Decoder statistics of the entire range, which are summarized once.
+		final long rangeHits = cache.getHits();
+		final long rangeMisses = cache.getMisses();
+		final long rangeAccepted = cache.getAccepted();
+
+		final ImmutableList.Builder<@NonNull InstructionSequence> sequences = new ImmutableList.Builder<>();
+		for (int i = from; i < to; i++) {
+
+			final PivotSweepEvent event = new PivotSweepEvent();
+			event.begin();
+			final long hits = cache.getHits();
+			final long misses = cache.getMisses();
+
+			final ImmutableList<@NonNull InstructionSequence> pivotSequences = this
+					.sweepPivot(buffer, pivots.getPivotOffset(i), pivots.getRegions(), config, augmentation, cache);
+			sequences.addAll(pivotSequences);
+
+			// Report cache statistics of this pivot to flight recorder.
+			event.end();
+			if (event.shouldCommit()) {
+				event.pivotOffset = pivots.getPivotOffset(i);
+				event.sequences = pivotSequences.size();
+				event.candidates = (cache.getHits() - hits) + (cache.getMisses() - misses);
+				event.decoded = cache.getMisses() - misses;
+				event.commit();
 			}
+		}
+		DecodeSummaryEvent.record(cache.getAccepted() - rangeAccepted,
+				(cache.getMisses() - rangeMisses) - (cache.getAccepted() - rangeAccepted),
+				cache.getHits() - rangeHits);
+		return sequences.build();
+	}
+
+	/**
+	 * Performs a linear backward sweep starting at the pivot instruction located
+	 * at <code>offset</code>.
+	 * 
+	 * @param buffer       Buffer, in which to search for gadgets.
+	 * @param offset       Offset of the pivot instruction.
+	 * @param regions      Instruction regions. If given, the sweep does not leave
+	 *                     the region containing the pivot instruction.
+	 * @param config       Configuration to be used by this sweeper.
+	 * @param augmentation Dex file representation to use for decompiling.
+	 * @param cache        Cache of decoded candidates.
+	 * @return List of in-order instruction sequences ending in the pivot
+	 *         instruction. All sequences share the nodes of their common
+	 *         suffixes.
+	 * @throws SweeperException If <code>offset</code> does not point to a pivot
+	 *                          instruction, or is out of bounds wrt.
+	 *                          <code>buffer</code> or <code>regions</code>.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
+	@NonNull
+	private final ImmutableList<@NonNull InstructionSequence> sweepPivot(
+			final byte @NonNull [] buffer, final int offset, @Nullable final CodeRegions regions,
+			@NonNull final TopperConfig config, @Nullable final DexBackedDexFile augmentation,
+			@NonNull final DecodeCache cache) throws SweeperException {
+
+		// Perform bound checks on buffer and offset.
+		if (offset < 0) {
+			throw new SweeperException("offset must not be negative.");
+		} else if (offset >= buffer.length) {
+			throw new SweeperException("buffer is too small to hold pivot instruction at " + offset + ".");
+		}
+
+		// Determine which of the pivot opcodes is located at offset.
+		final Opcode pivot = config.getDecompilerConfig().getOpcodeTable().getOpcode(buffer[offset]);
+		if (pivot == null || !config.getSweeperConfig().isPivotOpcode(pivot)) {
+			throw new SweeperException("offset " + offset + " does not point to a pivot opcode.");
+		}
 
-			final Decompiler decompiler = this.getDecompiler();
-			final int maxSizes = config.getSweeperConfig().getMaxNumberInstructions();
-			final List<Integer> checkedGadgetSizes = new ArrayList<Integer>(maxSizes);
-			checkedGadgetSizes.add(currentSize);
-			final int depth = 1;
-
-			// Try to decompile pivot instruction pointed to by offset.
-			try {
-				final DecompilationResult result = decompiler
-						.decompile(Arrays.copyOfRange(buffer, offset, offset + currentSize), augmentation, config);
-				final ImmutableList<@NonNull DecompiledInstruction> instructions = result.getInstructions();
-				final DecompiledInstruction instruction = instructions.get(0);
-
-				// Thoroughly check pivot instruction, because its format is known in advance.
-				if (instructions.size() != 1 || instruction.getByteCode().length != currentSize || !instruction
-						.getInstruction().getOpcode().equals(config.getSweeperConfig().getPivotOpcode())) {
-					throw new SweeperException("Pivot instruction (" + instruction.getInstructionString()
-							+ " at offset " + offset + " is invalid.");
-				}
-
-				// Use pivot instruction as base for recursive sweep.
-				instructions.get(0).setOffset(offset);
-				sequences.addAll(this.recursiveSweepImpl(decompiler, buffer, offset, currentSize, instructions,
-						checkedGadgetSizes, depth, config, augmentation).stream().map(l -> l.reverse()).iterator());
-
-			} catch (final ExceptionWithContext | ArrayIndexOutOfBoundsException e) {
-				throw new SweeperException("Failed to decompile pivot instruction.", e);
+		// Restrict sweep to the instruction region of the pivot, if any.
+		int lowerBound = 0;
+		int upperBound = buffer.length;
+		if (regions != null) {
+			final int index = regions.indexOf(offset);
+			if (index == -1) {
+				throw new SweeperException("offset " + offset + " lies outside of all code regions.");
 			}
+			lowerBound = regions.getStart(index);
+			upperBound = Math.min(regions.getEnd(index), buffer.length);
 		}
 
-		context.putInfo(SweeperInfo.class.getSimpleName(), new SweeperInfo(sequences.build()));
+		final int currentSize = pivot.format.size;
+		if (offset + currentSize > upperBound) {
+			throw new SweeperException("buffer is too small to hold pivot instruction at " + offset + ".");
+		}
+
+		final Decompiler decompiler = this.getDecompiler();
+		final int maxSizes = config.getSweeperConfig().getMaxNumberInstructions();
+		final List<Integer> checkedGadgetSizes = new ArrayList<Integer>(maxSizes);
+		checkedGadgetSizes.add(currentSize);
+
+		// Try to decompile pivot instruction pointed to by offset.
+		try {
+			final DecompilationResult result = decompiler.decompile(buffer, offset, currentSize, augmentation,
+					config);
+			final ImmutableList<@NonNull DecompiledInstruction> instructions = result.getInstructions();
+			final DecompiledInstruction instruction = instructions.get(0);
+
+			// Thoroughly check pivot instruction, because its format is known in advance.
+			if (instructions.size() != 1 || instruction.getByteCode().length != currentSize
+					|| !instruction.getInstruction().getOpcode().equals(pivot)) {
+				throw new SweeperException("Pivot instruction (" + instruction.getInstructionString()
+						+ " at offset " + offset + " is invalid.");
+			}
+
+			// Use pivot instruction as root of the recursive sweep. The pivot
+			// instruction on its own is the first sequence.
+			instruction.setOffset(offset);
+			final InstructionSequence root = InstructionSequence.of(instruction);
+			final ImmutableList.Builder<@NonNull InstructionSequence> sequences = new ImmutableList.Builder<>();
+			sequences.add(root);
+			this.recursiveSweepImpl(decompiler, buffer, lowerBound, offset, currentSize, root, checkedGadgetSizes,
+					config, augmentation, cache, sequences);
+			return sequences.build();
+
+		} catch (final ExceptionWithContext | ArrayIndexOutOfBoundsException e) {
+			throw new SweeperException("Failed to decompile pivot instruction.", e);
+		}
 	}
 
 	/**
 	 * Recursive algorithm to extract instructions starting at a given
 	 * <code>offset</code> from <code>buffer</code>. The recursion stops in either
-	 * of the following cases: 1. <code>depth</code> exceeds the configured upper
-	 * bound on the number of instructions allowed in a gadget. 2. Regardless of
-	 * what gadget size is used, all result in decompilation errors.
+	 * of the following cases: 1. The size of <code>previous</code> reaches the
+	 * configured upper bound on the number of instructions allowed in a gadget. 2.
+	 * Regardless of what gadget size is used, all result in decompilation errors.
+	 * 
+	 * Sequences are stored in a suffix - sharing tree. A valid instruction is
+	 * prepended to <code>previous</code> by creating a single child node, which
+	 * represents the extended sequence. Thus, no sequence is ever copied.
 	 * 
 	 * In a particular call, assuming more than 1 instruction is requested, this
 	 * method tests all possible instruction candidates. This is achieved by
 	 * iterating over even instruction sizes and subtracting these sizes from the
 	 * current <code>offset</code>. The resulting offset will be interpreted as a
 	 * new instruction base and decompiled, if all optimisation checks are passed.
-	 * If decompilation succeeds and the instruction is valid, then it will be added
-	 * to the total result. An instruction is considered valid, iff. the decompiler
+	 * If decompilation succeeds and the instruction is valid, then the extended
+	 * sequence will be added to <code>sequences</code>, followed by all sequences
+	 * extending it. An instruction is considered valid, iff. the decompiler
 	 * produces only this single instruction and the instruction size matches the
-	 * size of the current iteration. If an instruction with opcode
-	 * <code>config.getSweeperConfig().getPivotOpcocde()</code> is observed, then
+	 * size of the current iteration. If an instruction with any opcode in
+	 * <code>config.getSweeperConfig().getPivotOpcodes()</code> is observed, then
 	 * this pivot instruction will be skipped, because pivot instructions signal the
 	 * end of an instruction sequence.
 	 * 
@@ -165,6 +387,9 @@ public class BackwardLinearSweeper extends Sweeper {
 	 * @param decompiler           {@link Decompiler} to use for decompiling single
 	 *                             instruction candidates.
 	 * @param buffer               Buffer, in which to search for gadgets.
+	 * @param lowerBound           Offset of the first byte that may be part of
+	 *                             an instruction. Candidates before it are never
+	 *                             decompiled.
 	 * @param offset               Starting point relative to the beginning of
 	 *                             <code>buffer</code>. Initially it refers to the
 	 *                             pivot instruction that signals the end of a
@@ -175,41 +400,34 @@ public class BackwardLinearSweeper extends Sweeper {
 	 *                             by adding the size of the next valid instruction.
 	 *                             The total size can be used with
 	 *                             <code>checkGadgetSizes</code>.
-	 * @param previousInstructions List of previously observed instructions, before
-	 *                             reaching this call level. Initialized to the
-	 *                             pivot instruction determined by
-	 *                             <code>TopperConfig</code>.
+	 * @param previous             Sequence of previously observed instructions,
+	 *                             before reaching this call level. Initially it
+	 *                             is the root of the tree, i.e. the pivot
+	 *                             instruction. Its size is the depth of the
+	 *                             recursion, which is compared against the upper
+	 *                             bound on the number of instructions allowed in
+	 *                             a gadget.
 	 * @param checkedGadgetSizes   List of sums of instruction sizes already
 	 *                             checked. As it is impossible to find two gadgets
 	 *                             with the same starting point, i.e. the same size,
 	 *                             further decompilations can be avoided.
-	 * @param depth                Depth of the recursion used to compare against
-	 *                             the upper bound on the number of instructions
-	 *                             allowed in a gadget. Initially 1, because it
-	 *                             includes the pivot instruction.
 	 * @param config               Configuration to be used by this sweeper.
 	 * @param augmentation		   Dex file representation to use for decompiling.
-	 * @return List of instruction sequences. In case the upper bound on the
-	 *         instructions is 1, only the pivot instruction is returned.
+	 * @param cache                Cache of decoded candidates. It is consulted
+	 *                             before decompiling a candidate.
+	 * @param sequences            Builder, to which all sequences extending
+	 *                             <code>previous</code> are added in depth -
+	 *                             first order.
 	 */
-	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
-	@NonNull
-	private final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> recursiveSweepImpl(
-			@NonNull final Decompiler decompiler, final byte @NonNull [] buffer, final int offset,
-			final int currentSize, @NonNull final List<DecompiledInstruction> previousInstructions,
-			@NonNull final List<Integer> checkedGadgetSizes, final int depth, @NonNull final TopperConfig config,
-			@Nullable final DexBackedDexFile augmentation) {
-
-		final ImmutableList.Builder<ImmutableList<DecompiledInstruction>> sequences = new ImmutableList.Builder<ImmutableList<DecompiledInstruction>>();
-
-		// If this is the first call, then the first instruction must be added.
-		if (depth == 1) {
-			sequences.add(ImmutableList.copyOf(previousInstructions));
-		}
+	private final void recursiveSweepImpl(@NonNull final Decompiler decompiler, final byte @NonNull [] buffer,
+			final int lowerBound, final int offset, final int currentSize, @NonNull final InstructionSequence previous,
+			@NonNull final List<Integer> checkedGadgetSizes, @NonNull final TopperConfig config,
+			@Nullable final DexBackedDexFile augmentation, @NonNull final DecodeCache cache,
+			final ImmutableList.@NonNull Builder<@NonNull InstructionSequence> sequences) {
 
 		// Check if maximum number of instructions is reached.
-		if (depth >= config.getSweeperConfig().getMaxNumberInstructions()) {
-			return sequences.build();
+		if (previous.size() >= config.getSweeperConfig().getMaxNumberInstructions()) {
+			return;
 		}
 
 		// Check buffer bounds. offset = buffer.length is explicitly
@@ -217,25 +435,21 @@ public class BackwardLinearSweeper extends Sweeper {
 		// next (sub)sweep. Further checks on offset prevent invalid
 		// indices.
 		if (offset < 0 || offset > buffer.length) {
-			return sequences.build();
+			return;
 		}
 
-		// Path on this recursion level requires at most as many
-		// instructions as the maximum allowed instructions minus
-		// the current depth.
-		final ArrayList<DecompiledInstruction> path = new ArrayList<DecompiledInstruction>(
-				config.getSweeperConfig().getMaxNumberInstructions() - (depth - 1));
-
+		final OpcodeTable table = config.getDecompilerConfig().getOpcodeTable();
+		final boolean nopUnknownInstruction = config.getDecompilerConfig().shouldNopUnknownInstruction();
 		int instructionSize;
 		int totalSize;
-		ImmutableList<DecompiledInstruction> instructions;
+		DecompiledInstruction instruction;
 		for (int i = 1; i <= this.getMaxInstructionSize() / CODE_UNIT_SIZE; i++) {
 
 			instructionSize = CODE_UNIT_SIZE * i;
 			totalSize = currentSize + instructionSize;
 
 			// Perform bounds check. If it fails, any future iteration will as well.
-			if (offset - instructionSize < 0) {
+			if (offset - instructionSize < lowerBound) {
 				break;
 			}
 
@@ -244,55 +458,56 @@ public class BackwardLinearSweeper extends Sweeper {
 				continue;
 			}
 
-			try {
-
-				// Decompile instruction.
-				instructions = decompiler
-						.decompile(Arrays.copyOfRange(buffer, offset - instructionSize, offset), augmentation, config)
-						.getInstructions();
-
-				// Check instructions. If invalid, then this instruction can be ignored/is not
-				// valid.
-				if (instructions.size() != 1 || instructions.get(0).getByteCode().length != instructionSize) {
-					continue;
-				}
-
-				// Check if decompiled instruction is pivot instruction. If so,
-				// skip it, because the pivot instruction always signals the end of
-				// an instruction sequence.
-				if (instructions.get(0).getInstruction().getOpcode()
-						.equals(config.getSweeperConfig().getPivotOpcode())) {
-					continue;
-				}
-
-				// Patch offset of instruction.
-				instructions.get(0).setOffset(offset - instructionSize);
-
-				// Because decompilation was successful, no other
-				// combination of instructions with the same totalSize
-				// starting at the same offset can be valid.
-				checkedGadgetSizes.add(totalSize);
-
-				// Construct instruction sequence from previously observed instructions,
-				// and the decompiled instruction.
-				path.clear();
-				path.addAll(previousInstructions);
-				path.addAll(instructions);
-
-				// As this is a new sequence of instructions, add it to total result.
-				sequences.add(ImmutableList.copyOf(path));
-
-				// Compute instruction paths that follow the decompiled instruction.
-				// Add resulting paths to this path.
-				sequences.addAll(recursiveSweepImpl(decompiler, Arrays.copyOfRange(buffer, 0, offset - instructionSize),
-						offset - instructionSize, // offset points behind last byte
-						totalSize, path, checkedGadgetSizes, depth + 1, config, augmentation));
-
-			} catch (final ExceptionWithContext | IndexOutOfBoundsException e) {
+			// Reject candidates, whose opcode byte cannot start an instruction of
+			// this size, with a single table lookup.
+			if (!table.canStart(buffer[offset - instructionSize], instructionSize, nopUnknownInstruction)) {
+				continue;
+			}
+
+			// Decompile instruction, unless this candidate has already been
+			// decompiled for another pivot or on another recursion level. An
+			// instruction is valid, iff. it is the only instruction in the
+			// candidate and covers all of its bytes.
+			instruction = cache.decompile(decompiler, buffer, offset, instructionSize, augmentation, config);
+			if (instruction == null) {
+				continue;
+			}
+
+			// Check if decompiled instruction is pivot instruction. If so,
+			// skip it, because the pivot instruction always signals the end of
+			// an instruction sequence.
+			if (config.getSweeperConfig().isPivotOpcode(instruction.getInstruction().getOpcode())) {
+				continue;
 			}
+
+			// Because decompilation was successful, no other
+			// combination of instructions with the same totalSize
+			// starting at the same offset can be valid.
+			checkedGadgetSizes.add(totalSize);
+
+			// Extend previously observed instructions by the decompiled
+			// instruction. As this is a new sequence of instructions, add it to
+			// total result.
+			final InstructionSequence path = previous.prepend(instruction);
+			sequences.add(path);
+
+			// Compute instruction paths that precede the decompiled instruction.
+			// Candidates of deeper levels always end at offset - instructionSize,
+			// so there is no need to truncate buffer.
+			this.recursiveSweepImpl(decompiler, buffer, lowerBound,
+					offset - instructionSize, // offset points behind last byte
+					totalSize, path, checkedGadgetSizes, config, augmentation, cache, sequences);
 		}
+	}
 
-		return sequences.build();
+	/**
+	 * Creates a {@link DecodeCache} that covers all candidates of a single
+	 * backward sweep. As pivots are swept in ascending order, candidates beyond
+	 * this window are never requested again and may be evicted.
+	 */
+	@NonNull
+	private final DecodeCache createCache(@NonNull final TopperConfig config) {
+		return new DecodeCache(config.getSweeperConfig().getMaxNumberInstructions() * this.getMaxInstructionSize());
 	}
 
 	/**
@@ -314,4 +529,24 @@ public class BackwardLinearSweeper extends Sweeper {
 
 		return max;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Reads {@link SeekerInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+		return ImmutableSet.of(SeekerInfo.class.getSimpleName());
+	}
+
+	/**
+	 * Provides {@link SweeperInfo}.
+	 */
+	@SuppressWarnings("null") // ImmutableSet.of() is not expected to be null...
+	@Override
+	@NonNull
+	public ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+		return ImmutableSet.of(SweeperInfo.class.getSimpleName());
+	}
+}
@@ -0,0 +1,247 @@
+package com.topper.dex.sweeper;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jf.dexlib2.Format;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.jf.util.ExceptionWithContext;
+
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+
+/**
+ * Memoizes single instruction candidates decompiled by a {@link Sweeper}.
+ *
+ * Backward sweeps of neighbouring pivot instructions often share long stretches
+ * of preceding bytes. Therefore, the same candidates, identified by the offset
+ * right behind their last byte and their size, are decompiled over and over
+ * again. This cache remembers for each candidate whether it is a valid
+ * instruction and, if so, the decompiled instruction itself.
+ *
+ * Pivots are swept in ascending order, and a sweep never reaches further back
+ * than a fixed window. Thus, a candidate that ends more than a window in front
+ * of the current pivot is never requested again. The cache is a direct -
+ * mapped table with one row per end offset in a window. A row is reused as
+ * soon as the window slides past its end offset, which drops all its
+ * candidates along with their instructions. Hence, the size of a cache only
+ * depends on its window, not on the size of the buffer.
+ *
+ * A cache is only valid for a single buffer, augmentation and configuration.
+ * It is not thread - safe, i.e. concurrent sweeps must use separate caches.
+ */
+public final class DecodeCache {
+
+	/**
+	 * Number of bytes in a code unit. Instructions are always a multiple of it.
+	 */
+	private static final int CODE_UNIT_SIZE = 2;
+
+	/**
+	 * Largest size of a non - payload instruction in bytes.
+	 */
+	private static final int MAX_INSTRUCTION_SIZE = Arrays.stream(Format.values()).mapToInt(format -> format.size)
+			.max().getAsInt();
+
+	/**
+	 * Number of candidate sizes per end offset.
+	 */
+	private static final int SIZES = MAX_INSTRUCTION_SIZE / CODE_UNIT_SIZE;
+
+	/**
+	 * State of a candidate that has not been decompiled.
+	 */
+	private static final byte UNKNOWN = 0;
+
+	/**
+	 * State of a candidate that is exactly one instruction of its size.
+	 */
+	private static final byte VALID = 1;
+
+	/**
+	 * State of a candidate that could not be decompiled into exactly one
+	 * instruction of its size.
+	 */
+	private static final byte INVALID = 2;
+
+	/**
+	 * End offset each row currently belongs to, or <code>-1</code>, if the row is
+	 * unused.
+	 */
+	private final int @NonNull [] rows;
+
+	/**
+	 * States of all candidates. The state of a candidate of size
+	 * <code>s</code> in row <code>r</code> is at <code>r * SIZES + s / 2 - 1</code>.
+	 */
+	private final byte @NonNull [] states;
+
+	/**
+	 * Decompiled instructions of all valid candidates, laid out like
+	 * <code>states</code>.
+	 */
+	private final DecompiledInstruction @NonNull [] instructions;
+
+	/**
+	 * Mask that maps an end offset to its row.
+	 */
+	private final int mask;
+
+	/**
+	 * Number of cached candidates.
+	 */
+	private int size;
+
+	/**
+	 * Number of lookups that could be answered without decompiling.
+	 */
+	private long hits;
+
+	/**
+	 * Number of lookups that required decompiling.
+	 */
+	private long misses;
+
+	/**
+	 * Number of decompiled candidates that turned out to be valid instructions.
+	 */
+	private long accepted;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param window Largest distance in bytes between the end offsets of two
+	 *               candidates that should both be cached, e.g. the number of
+	 *               bytes a single backward sweep may cover. Candidates that
+	 *               end further apart may evict each other.
+	 * @throws IllegalArgumentException If <code>window</code> is negative or too
+	 *                                  large.
+	 */
+	public DecodeCache(final int window) {
+		if (window < 0 || window >= (1 << 24)) {
+			throw new IllegalArgumentException("Window of " + window + " bytes is invalid.");
+		}
+		final int capacity = Integer.highestOneBit(Math.max(1, window)) << 1;
+		this.rows = new int[capacity];
+		Arrays.fill(this.rows, -1);
+		this.states = new byte[capacity * SIZES];
+		this.instructions = new DecompiledInstruction[capacity * SIZES];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Decompiles the candidate of <code>instructionSize</code> bytes that ends
+	 * right before <code>endOffset</code> in <code>buffer</code>, unless this
+	 * candidate has been decompiled before and is still cached.
+	 *
+	 * @param decompiler      {@link Decompiler} to use on a cache miss.
+	 * @param buffer          Buffer, in which to search for gadgets.
+	 * @param endOffset       Offset right behind the last byte of the candidate.
+	 * @param instructionSize Size of the candidate in bytes.
+	 * @param augmentation    Dex file representation to use for decompiling.
+	 * @param config          Configuration to be used for decompiling.
+	 * @return Decompiled instruction, or <code>null</code>, if the candidate is
+	 *         not exactly one instruction of size <code>instructionSize</code>.
+	 */
+	@Nullable
+	public final DecompiledInstruction decompile(@NonNull final Decompiler decompiler, final byte @NonNull [] buffer,
+			final int endOffset, final int instructionSize, @Nullable final DexBackedDexFile augmentation,
+			@NonNull final TopperConfig config) {
+
+		// Candidates that no instruction can fill are neither decompiled nor cached.
+		if (endOffset < 0 || instructionSize <= 0 || instructionSize > MAX_INSTRUCTION_SIZE
+				|| instructionSize % CODE_UNIT_SIZE != 0) {
+			this.misses++;
+			return null;
+		}
+
+		final int slot = this.slotOf(endOffset, instructionSize);
+		if (this.states[slot] != UNKNOWN) {
+			this.hits++;
+			return this.instructions[slot];
+		}
+		this.misses++;
+
+		DecompiledInstruction instruction = null;
+		try {
+			// Only a single instruction that covers the entire candidate is valid.
+			// Invalid candidates are rejected without throwing.
+			instruction = decompiler.tryDecompile(buffer, endOffset - instructionSize, instructionSize,
+					augmentation, config);
+			if (instruction != null) {
+				instruction.setOffset(endOffset - instructionSize);
+			}
+		} catch (final ExceptionWithContext | IndexOutOfBoundsException e) {
+			// Only reachable, if the augmentation itself is corrupted.
+		}
+
+		if (instruction != null) {
+			this.accepted++;
+		}
+		this.states[slot] = (instruction != null) ? VALID : INVALID;
+		this.instructions[slot] = instruction;
+		this.size++;
+		return instruction;
+	}
+
+	/**
+	 * Gets the number of lookups that could be answered without decompiling.
+	 */
+	public final long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Gets the number of lookups that required decompiling.
+	 */
+	public final long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Gets the number of decompiled candidates that turned out to be valid
+	 * instructions.
+	 */
+	public final long getAccepted() {
+		return this.accepted;
+	}
+
+	/**
+	 * Gets the number of decompiled candidates that turned out to be invalid.
+	 */
+	public final long getRejected() {
+		return this.misses - this.accepted;
+	}
+
+	/**
+	 * Gets the number of cached candidates. It never exceeds the number of
+	 * candidates of a window.
+	 */
+	public final int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the slot of a candidate. If the row of <code>endOffset</code> belongs
+	 * to another end offset, it is cleared and assigned to
+	 * <code>endOffset</code>.
+	 */
+	private final int slotOf(final int endOffset, final int instructionSize) {
+
+		final int row = endOffset & this.mask;
+		final int first = row * SIZES;
+		if (this.rows[row] != endOffset) {
+			for (int i = first; i < first + SIZES; i++) {
+				if (this.states[i] != UNKNOWN) {
+					this.states[i] = UNKNOWN;
+					this.instructions[i] = null;
+					this.size--;
+				}
+			}
+			this.rows[row] = endOffset;
+		}
+		return first + instructionSize / CODE_UNIT_SIZE - 1;
+	}
+}
@@ -0,0 +1,78 @@
+package com.topper.dex.sweeper;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic flight recorder event that summarizes how many instruction
+ * candidates have been accepted or rejected by the decoder since the previous
+ * event. Counts are contributed by all sweeps via
+ * {@link DecodeSummaryEvent#record(long, long, long)}, once per range of
+ * swept pivots to keep the shared counters off the per - pivot path.
+ */
+@Name("com.topper.DecodeSummary")
+@Label("Decode Summary")
+@Category({ "Topper", "Sweeper" })
+@Description("Instruction candidates decoded by all sweepers since the previous summary.")
+@Period("1 s")
+@StackTrace(false)
+public final class DecodeSummaryEvent extends Event {
+
+	@NonNull
+	private static final LongAdder ACCEPTED = new LongAdder();
+
+	@NonNull
+	private static final LongAdder REJECTED = new LongAdder();
+
+	@NonNull
+	private static final LongAdder CACHE_HITS = new LongAdder();
+
+	static {
+		if (FlightRecorder.isAvailable()) {
+			FlightRecorder.addPeriodicEvent(DecodeSummaryEvent.class, DecodeSummaryEvent::emit);
+		}
+	}
+
+	@Label("Accepted")
+	@Description("Number of candidates decoded into a valid instruction.")
+	public long accepted;
+
+	@Label("Rejected")
+	@Description("Number of candidates that are not a valid instruction.")
+	public long rejected;
+
+	@Label("Cache Hits")
+	@Description("Number of candidates taken from a decode cache.")
+	public long cacheHits;
+
+	/**
+	 * Adds decoder statistics to the next summary. It is thread - safe.
+	 * 
+	 * @param accepted  Number of candidates decoded into a valid instruction.
+	 * @param rejected  Number of candidates that are not a valid instruction.
+	 * @param cacheHits Number of candidates taken from a decode cache.
+	 */
+	static final void record(final long accepted, final long rejected, final long cacheHits) {
+		ACCEPTED.add(accepted);
+		REJECTED.add(rejected);
+		CACHE_HITS.add(cacheHits);
+	}
+
+	private static final void emit() {
+		final DecodeSummaryEvent event = new DecodeSummaryEvent();
+		event.accepted = ACCEPTED.sumThenReset();
+		event.rejected = REJECTED.sumThenReset();
+		event.cacheHits = CACHE_HITS.sumThenReset();
+		event.commit();
+	}
+}
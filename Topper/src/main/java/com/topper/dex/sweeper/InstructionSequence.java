@@ -0,0 +1,171 @@
+package com.topper.dex.sweeper;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+
+/**
+ * Node of a suffix - sharing tree of instruction sequences.
+ *
+ * All instruction sequences found by a backward sweep of a single pivot
+ * instruction end in that pivot instruction, and each sequence extends a
+ * shorter sequence by exactly one preceding instruction. Therefore, the
+ * sequences of a pivot form a tree rooted at the pivot instruction, in which
+ * every node stores a single instruction and a pointer to its parent, i.e. the
+ * instruction that directly follows it. Every node represents the sequence
+ * obtained by walking from the node to the root.
+ *
+ * Thus, a sequence of <code>n</code> instructions costs a single node instead
+ * of an array of <code>n</code> references. The node is an immutable
+ * {@link java.util.List} view of its sequence in execution order, i.e. the
+ * instruction stored in the node comes first and the pivot instruction comes
+ * last. Random access walks up the tree and therefore takes linear time.
+ * Consumers that need random access should copy the sequence, e.g. via
+ * {@link InstructionSequence#toImmutableList()}.
+ */
+public final class InstructionSequence extends AbstractList<@NonNull DecompiledInstruction> {
+
+	/**
+	 * First instruction of this sequence.
+	 */
+	@NonNull
+	private final DecompiledInstruction instruction;
+
+	/**
+	 * Sequence following {@link InstructionSequence#instruction}. It is
+	 * <code>null</code>, iff. this node is the root, i.e. the pivot instruction.
+	 */
+	@Nullable
+	private final InstructionSequence parent;
+
+	/**
+	 * Number of instructions in this sequence.
+	 */
+	private final int size;
+
+	private InstructionSequence(@NonNull final DecompiledInstruction instruction,
+			@Nullable final InstructionSequence parent) {
+		this.instruction = instruction;
+		this.parent = parent;
+		this.size = (parent != null) ? parent.size + 1 : 1;
+	}
+
+	/**
+	 * Creates the root of a new tree, i.e. the sequence that only consists of
+	 * the <code>pivot</code> instruction.
+	 */
+	@NonNull
+	public static final InstructionSequence of(@NonNull final DecompiledInstruction pivot) {
+		return new InstructionSequence(pivot, null);
+	}
+
+	/**
+	 * Creates a child of this node, i.e. the sequence obtained by prepending
+	 * <code>instruction</code> to this sequence. This sequence is shared, not
+	 * copied.
+	 */
+	@NonNull
+	public final InstructionSequence prepend(@NonNull final DecompiledInstruction instruction) {
+		return new InstructionSequence(instruction, this);
+	}
+
+	/**
+	 * Gets the sequence following the first instruction, or <code>null</code>,
+	 * if this sequence only consists of the pivot instruction.
+	 */
+	@Nullable
+	public final InstructionSequence getParent() {
+		return this.parent;
+	}
+
+	/**
+	 * Gets the first instruction of this sequence.
+	 */
+	@NonNull
+	public final DecompiledInstruction getFirst() {
+		return this.instruction;
+	}
+
+	/**
+	 * Gets the pivot instruction, i.e. the last instruction of this sequence.
+	 */
+	@NonNull
+	public final DecompiledInstruction getPivot() {
+		InstructionSequence node = this;
+		while (node.parent != null) {
+			node = node.parent;
+		}
+		return node.instruction;
+	}
+
+	/**
+	 * Copies this sequence into an {@link ImmutableList} with constant - time
+	 * random access.
+	 */
+	@SuppressWarnings("null") // ImmutableList.copyOf() is not expected to be null...
+	@NonNull
+	public final ImmutableList<@NonNull DecompiledInstruction> toImmutableList() {
+		return ImmutableList.copyOf(this);
+	}
+
+	/**
+	 * Gets the <code>index</code> - th instruction of this sequence by walking
+	 * <code>index</code> nodes up the tree.
+	 *
+	 * @throws IndexOutOfBoundsException If <code>index</code> is negative or not
+	 *                                   less than {@link #size()}.
+	 */
+	@SuppressWarnings("null") // index < size implies that parent is not null...
+	@Override
+	@NonNull
+	public final DecompiledInstruction get(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + this.size + ".");
+		}
+		InstructionSequence node = this;
+		for (int i = 0; i < index; i++) {
+			node = node.parent;
+		}
+		return node.instruction;
+	}
+
+	@Override
+	public final int size() {
+		return this.size;
+	}
+
+	/**
+	 * Iterates over this sequence in execution order in linear time.
+	 */
+	@Override
+	@NonNull
+	public final Iterator<@NonNull DecompiledInstruction> iterator() {
+		return new Iterator<@NonNull DecompiledInstruction>() {
+
+			@Nullable
+			private InstructionSequence next = InstructionSequence.this;
+
+			@Override
+			public final boolean hasNext() {
+				return this.next != null;
+			}
+
+			@Override
+			@NonNull
+			public final DecompiledInstruction next() {
+				final InstructionSequence current = this.next;
+				if (current == null) {
+					throw new NoSuchElementException();
+				}
+				this.next = current.parent;
+				return current.instruction;
+			}
+		};
+	}
+}
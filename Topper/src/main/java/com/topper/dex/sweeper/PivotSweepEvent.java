@@ -0,0 +1,43 @@
+package com.topper.dex.sweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event emitted by {@link BackwardLinearSweeper} for every
+ * swept pivot instruction. Its duration is the time spent sweeping the pivot,
+ * which allows to spot pivots that blow up sweep time.
+ * 
+ * By default, only events of at least 1 ms are recorded, so that recording
+ * stays cheap on large files. A threshold of <code>0 ms</code> records all
+ * pivots.
+ */
+@Name("com.topper.PivotSweep")
+@Label("Pivot Sweep")
+@Category({ "Topper", "Sweeper" })
+@Description("Backward sweep starting at a single pivot instruction.")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class PivotSweepEvent extends Event {
+
+	@Label("Pivot Offset")
+	@Description("Offset of the pivot instruction in the buffer.")
+	public int pivotOffset;
+
+	@Label("Sequences")
+	@Description("Number of instruction sequences ending in the pivot.")
+	public int sequences;
+
+	@Label("Candidates Tried")
+	@Description("Number of instruction candidates looked up, including decode cache hits.")
+	public long candidates;
+
+	@Label("Candidates Decoded")
+	@Description("Number of instruction candidates that had to be decoded.")
+	public long decoded;
+}
@@ -1,10 +1,21 @@
 package com.topper.dex.sweeper;
 
+import java.util.List;
+
 import org.eclipse.jdt.annotation.NonNull;
 
+import com.google.common.collect.ImmutableList;
 import com.topper.dex.decompiler.Decompiler;
 import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.SeekerInfo;
 import com.topper.dex.pipeline.Stage;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
+import com.topper.exceptions.pipeline.StageException;
 
 /**
  * Abstract decompiler that operates on a buffer. Given a starting point, this
@@ -46,4 +57,65 @@ public abstract class Sweeper implements Stage {
 	public final void setDecompiler(@NonNull final Decompiler decompiler) {
 		this.decompiler = decompiler;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Sweeps the pivots with indices in <code>[from, to)</code> of
+	 * <code>pivots</code> and returns their instruction sequences in pivot
+	 * order. It is used by {@link Pipeline#executeStreaming(PipelineArgs)} to
+	 * sweep a file chunk by chunk and may be invoked concurrently for disjoint
+	 * chunks.
+	 * 
+	 * By default, this {@link Sweeper} is executed on a fresh
+	 * {@link PipelineContext} that only contains the chunk of pivots. Subclasses
+	 * should override this to avoid the indirection.
+	 * 
+	 * @param context {@link PipelineContext} of the streaming pipeline. It must
+	 *                not be modified.
+	 * @param pivots  Pivots found by a previous stage.
+	 * @param from    Index of the first pivot to sweep.
+	 * @param to      Index behind the last pivot to sweep.
+	 * @return List of instruction sequences of all pivots ordered by pivot.
+	 *         Sequences are not guaranteed to support constant - time random
+	 *         access.
+	 * @throws StageException If sweeping any of the pivots fails.
+	 */
+	@NonNull
+	public ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sweep(
+			@NonNull final PipelineContext context, @NonNull final SeekerInfo pivots, final int from, final int to)
+			throws StageException {
+
+		final int[] offsets = new int[to - from];
+		for (int i = from; i < to; i++) {
+			offsets[i - from] = pivots.getPivotOffset(i);
+		}
+
+		final PipelineContext chunk = new PipelineContext(context.getArgs());
+		chunk.putInfo(SeekerInfo.class.getSimpleName(), new SeekerInfo(offsets, pivots.getRegions()));
+		this.execute(chunk);
+		return chunk.getSweeperInfo(SweeperInfo.class.getSimpleName()).getInstructionSequences();
+	}
+
+	/**
+	 * Counts the pivots to sweep.
+	 */
+	@Override
+	public long countInputs(@NonNull final PipelineContext context) {
+		try {
+			return context.getSeekerInfo(SeekerInfo.class.getSimpleName()).getNumberPivots();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Counts the instruction sequences found.
+	 */
+	@Override
+	public long countOutputs(@NonNull final PipelineContext context) {
+		try {
+			return context.getSweeperInfo(SweeperInfo.class.getSimpleName()).getInstructionSequences().size();
+		} catch (final MissingStageInfoException ignored) {
+			return -1;
+		}
+	}
+}
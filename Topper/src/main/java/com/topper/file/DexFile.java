@@ -30,12 +30,13 @@ public class DexFile implements ComposedFile {
 	private final String id;
 
 	/**
-	 * Associated data of this file. Often the file contents.
+	 * Associated data of this file. It contains the .dex file at
+	 * <code>offset</code>, e.g. the file contents or an enclosing .vdex file.
 	 */
 	private final byte @NonNull [] buffer;
 
 	/**
-	 * Offset of this .dex file.
+	 * Offset of this .dex file relative to <code>buffer</code>.
 	 */
 	private final int offset;
 
@@ -46,24 +47,33 @@ public class DexFile implements ComposedFile {
 	private final DexBackedDexFile dexFile;
 
 	/**
-	 * Creates a .dex file using a {@link String} - id and a <code>buffer</code>.
+	 * Creates a .dex file using a {@link String} - id and a <code>buffer</code>,
+	 * which contains the .dex file at <code>offset</code>.
+	 * 
+	 * The .dex file is parsed in place, i.e. <code>buffer</code> is not copied.
+	 * Therefore, .dex files embedded in e.g. a .vdex file share the buffer of
+	 * the .vdex file.
 	 * 
 	 * It uses the {@link ConfigManager} to obtain valid {@link Opcodes}, which are
 	 * used by {@link DexBackedDexFile}.
 	 * 
 	 * @param id     Id of the augmented file.
-	 * @param buffer Raw bytes that represent a valid .dex file.
-	 * @param offset Offset of this .dex file relative to some other object (e.g.
+	 * @param buffer Raw bytes that contain a valid .dex file at
+	 *               <code>offset</code>.
+	 * @param offset Offset of this .dex file relative to <code>buffer</code> (e.g.
 	 *               .vdex).
 	 * @param config Configuration to use during .dex file creation.
 	 * @throws IllegalArgumentException If the buffer is empty or does not contain a
-	 *                                  valid .dex file.
+	 *                                  valid .dex file at <code>offset</code>.
 	 */
 	public DexFile(@NonNull final String id, final byte @NonNull [] buffer, final int offset,
 			@NonNull final TopperConfig config) {
 		if (buffer.length == 0) {
 			throw new IllegalArgumentException("buffer must not be empty");
 		}
+		if (offset < 0 || offset >= buffer.length) {
+			throw new IllegalArgumentException("offset must point into buffer.");
+		}
 
 		this.id = id;
 		this.buffer = buffer;
@@ -71,7 +81,7 @@ public class DexFile implements ComposedFile {
 
 		try {
 			final Opcodes opcodes = ConfigManager.get().getDecompilerConfig().getOpcodes();
-			this.dexFile = new DexBackedDexFile(opcodes, buffer);
+			this.dexFile = new DexBackedDexFile(opcodes, buffer, offset);
 		} catch (final RuntimeException e) {
 			throw new IllegalArgumentException("buffer must represent a valid .dex file.", e);
 		}
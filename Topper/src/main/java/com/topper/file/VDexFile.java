@@ -5,6 +5,8 @@ import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jf.dexlib2.util.DexUtil;
 
 import com.google.common.collect.ImmutableList;
 import com.topper.configuration.DecompilerConfig;
@@ -21,7 +23,9 @@ import com.topper.helpers.BufferHelper;
  * As a .vdex file contains a list of .dex files combined with some addition
  * information, this class attempts to parse the .vdex file structure to such a
  * degree that the list of .dex files is parsable. Then {@code DexFile}s are
- * used to store the .dex files.
+ * used to store the .dex files. Only the headers of .dex files are read on
+ * construction. Each {@code DexFile} is parsed on first access, so opening a
+ * .vdex file with many .dex files only pays for the ones that are used.
  * 
  * @author Pascal Kühnemann
  * @since 09.08.2023
@@ -41,10 +45,23 @@ public class VDexFile implements ComposedFile {
 	private final byte @NonNull [] buffer;
 
 	/**
-	 * List of {@code DexFile}s stored in the .vdex file parsed from {@code buffer}.
+	 * Configuration used to parse {@code DexFile}s on first access.
 	 */
 	@NonNull
-	private final ImmutableList<@NonNull DexFile> files;
+	private final TopperConfig config;
+
+	/**
+	 * Headers of all .dex files stored in the .vdex file that do not exceed the
+	 * configured threshold.
+	 */
+	@NonNull
+	private final ImmutableList<@NonNull PartialDexHeader> headers;
+
+	/**
+	 * {@code DexFile}s parsed from {@code buffer}, in the order of
+	 * {@code headers}. Each entry is <code>null</code> until its first access.
+	 */
+	private final @Nullable DexFile @NonNull [] files;
 
 	/**
 	 * Creates a new .vdex file respresentation using a {@link String} - id and a
@@ -75,6 +92,7 @@ public class VDexFile implements ComposedFile {
 
 		this.id = id;
 		this.buffer = buffer;
+		this.config = config;
 
 		final VDexFileHeader fileHeader = new VDexFileHeader(buffer, 0);
 
@@ -82,7 +100,8 @@ public class VDexFile implements ComposedFile {
 			throw new IllegalArgumentException("buffer must contain a valid .vdex file.");
 		} else {
 			// Propagate IllegalArgumentExceptions to caller
-			this.files = this.loadFiles(fileHeader, buffer, config);
+			this.headers = this.loadHeaders(fileHeader, buffer, config);
+			this.files = new DexFile[this.headers.size()];
 		}
 	}
 
@@ -101,44 +120,91 @@ public class VDexFile implements ComposedFile {
 		return 0;
 	}
 
+	/**
+	 * Gets all .dex files of this .vdex file. Each .dex file that has not been
+	 * accessed yet is parsed. Prefer {@link VDexFile#getDexFile(int)}, if only a
+	 * single .dex file is required.
+	 * 
+	 * @throws IllegalArgumentException If a .dex file is corrupted.
+	 */
+	@SuppressWarnings("null") // ImmutableList.Builder.build() is not expected to be null...
 	@Override
 	@NonNull
 	public final ImmutableList<@NonNull DexFile> getDexFiles() {
-		return this.files;
+		final ImmutableList.Builder<@NonNull DexFile> builder = ImmutableList.builderWithExpectedSize(this.files.length);
+		for (int i = 0; i < this.files.length; i++) {
+			builder.add(this.getDexFile(i));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Gets the <code>index</code> - th .dex file of this .vdex file. It is parsed
+	 * on first access, so other .dex files are not parsed.
+	 * 
+	 * @throws IndexOutOfBoundsException If <code>index</code> is out of bounds.
+	 * @throws IllegalArgumentException  If the .dex file is corrupted.
+	 */
+	@NonNull
+	public final synchronized DexFile getDexFile(final int index) {
+		DexFile file = this.files[index];
+		if (file == null) {
+			final PartialDexHeader header = this.headers.get(index);
+			file = new DexFile("classes" + Integer.toString(index) + ".dex", this.buffer, header.getOffset(),
+					this.config);
+			this.files[index] = file;
+		}
+		return file;
+	}
+
+	/**
+	 * Gets the number of .dex files of this .vdex file without parsing them.
+	 */
+	public final int getNumberDexFiles() {
+		return this.headers.size();
 	}
 
 	/**
-	 * Loads all .dex files from this .vdex file. An underlying assumption is that
-	 * .dex files are adjacent to each other, i.e. offset_1 + size_1 = offset_2.
+	 * Gets the headers of all .dex files of this .vdex file, in the order of
+	 * {@link VDexFile#getDexFiles()}. Headers are read on construction, so
+	 * listing .dex files does not require parsing them.
+	 */
+	@NonNull
+	public final ImmutableList<@NonNull PartialDexHeader> getDexHeaders() {
+		return this.headers;
+	}
+
+	/**
+	 * Loads the headers of all .dex files from this .vdex file. An underlying
+	 * assumption is that .dex files are adjacent to each other, i.e. offset_1 +
+	 * size_1 = offset_2.
 	 * 
-	 * Internally, all .dex files are wrapped in a {@link DexFile}, which may imply
-	 * CFG extraction depending on {@code decompiler} and {@code analyser}.
+	 * Only the magic bytes of each .dex file are verified. The .dex files
+	 * themselves are parsed on first access. See {@link VDexFile#getDexFile(int)}.
 	 * 
-	 * @param fileHeader    Representation of a .vdex file header.
-	 * @param file          File to augment. It is forwarded to all
-	 *                      {@code DexFile}s.
-	 * @param buffer        Raw bytes that contain the valid (and already verified)
-	 *                      .vdex file. It is sliced to extract .dex files and
-	 *                      forwarded to its respective {@code DexFile}.
-	 * @param vdexThreshold A threshold for file sizes of .dex files in this .vdex
-	 *                      file. If a .dex exceeds this threshold, then its methods
-	 *                      will not be analysed using {@code decompiler} and
-	 *                      {@code analyser}. This prevents being stuck on large
-	 *                      library .dex files that may be irrelevant.
-	 * @return List of .dex file representations.
-	 * @throws IllegalArgumentException If {@code DexFile} construction fails.
+	 * @param fileHeader Representation of a .vdex file header.
+	 * @param buffer     Raw bytes that contain the valid (and already verified)
+	 *                   .vdex file. It is shared by all {@code DexFile}s, which
+	 *                   parse their .dex files in place.
+	 * @param config     Configuration that provides a threshold for file sizes of
+	 *                   .dex files in this .vdex file. If a .dex exceeds this
+	 *                   threshold, then it is skipped. This prevents being stuck on
+	 *                   large library .dex files that may be irrelevant.
+	 * @return List of .dex file headers.
+	 * @throws IllegalArgumentException If a .dex file does not fit into
+	 *                                  <code>buffer</code> or has invalid magic
+	 *                                  bytes.
 	 */
 	@SuppressWarnings("null")
 	@NonNull
-	private final ImmutableList<@NonNull DexFile> loadFiles(@NonNull final VDexFileHeader fileHeader,
+	private final ImmutableList<@NonNull PartialDexHeader> loadHeaders(@NonNull final VDexFileHeader fileHeader,
 			final byte @NonNull [] buffer, @NonNull final TopperConfig config) {
 
 		final int vdexThreshold = config.getDecompilerConfig().getDexSkipThreshold();
-		final ImmutableList.Builder<@NonNull DexFile> builder = new ImmutableList.Builder<>();
+		final ImmutableList.Builder<@NonNull PartialDexHeader> builder = new ImmutableList.Builder<>();
 
 		final int base = VDexFileHeader.getTotalSize();
 		VDexSectionHeader header;
-		int dexId = 0;
 		for (int i = 0; i < fileHeader.getNumberOfSections(); i++) {
 
 			// Skip headers that do not contain dex files
@@ -147,7 +213,7 @@ public class VDexFile implements ComposedFile {
 				continue;
 			}
 
-			// Get dex file buffers
+			// Get dex file headers
 			int dexStart = header.getSectionOffset();
 			PartialDexHeader dexHeader;
 
@@ -156,14 +222,21 @@ public class VDexFile implements ComposedFile {
 				// Parse partial dex header
 				dexHeader = new PartialDexHeader(buffer, dexStart);
 
+				// .dex files are parsed in place, so they must lie entirely inside of buffer
+				if (dexHeader.getFileSize() <= 0 || dexHeader.getFileSize() > buffer.length - dexStart) {
+					throw new IllegalArgumentException("buffer must contain entire .dex file.");
+				}
+
 				// Check if .dex file exceeds configured threshold
 				if (dexHeader.getFileSize() <= vdexThreshold || vdexThreshold < 0) {
 
-					// Parse dex file and store it into list
-					builder.add(new DexFile("classes" + Integer.toString(dexId) + ".dex",
-							BufferHelper.copyBuffer(buffer, dexStart, dexStart + dexHeader.getFileSize()), dexStart,
-							config));
-					dexId += 1;
+					// Reject corrupted .dex files early, although they are parsed later
+					try {
+						DexUtil.verifyDexHeader(buffer, dexStart);
+					} catch (final RuntimeException e) {
+						throw new IllegalArgumentException("buffer must represent a valid .dex file.", e);
+					}
+					builder.add(dexHeader);
 				}
 
 				// Move dexStart by size of current dex file
@@ -334,44 +407,67 @@ public class VDexFile implements ComposedFile {
 		}
 	}
 
-	private static class PartialDexHeader {
+	/**
+	 * Header of a .dex file inside of a .vdex file. Only the fields required to
+	 * locate and identify the .dex file are read.
+	 */
+	public static final class PartialDexHeader {
 
+		private final int offset;
 		private final byte @NonNull [] magic;
 		private final int checksum;
 		private final byte @NonNull [] signature;
 		private final int fileSize;
 
-		@SuppressWarnings("null")
-		public PartialDexHeader(final byte @NonNull [] buffer, final int start) {
+		private PartialDexHeader(final byte @NonNull [] buffer, final int start) {
+			if (start < 0 || start > buffer.length - PartialDexHeader.getTotalSize()) {
+				throw new IllegalArgumentException("buffer is too small.");
+			}
 			final ByteBuffer buf = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
-			this.magic = buf.slice(PartialDexHeaderStructure.MAGIC.getOffset() + start,
-					PartialDexHeaderStructure.MAGIC.getSize()).array();
+			this.offset = start;
+			this.magic = BufferHelper.copyBuffer(buffer, PartialDexHeaderStructure.MAGIC.getOffset() + start,
+					PartialDexHeaderStructure.MAGIC.getEndOffset() + start);
 			this.checksum = buf.getInt(PartialDexHeaderStructure.CHECKSUM.getOffset() + start);
-			this.signature = buf.slice(PartialDexHeaderStructure.SIGNATURE.getOffset() + start,
-					PartialDexHeaderStructure.SIGNATURE.getSize()).array();
+			this.signature = BufferHelper.copyBuffer(buffer, PartialDexHeaderStructure.SIGNATURE.getOffset() + start,
+					PartialDexHeaderStructure.SIGNATURE.getEndOffset() + start);
 			this.fileSize = buf.getInt(PartialDexHeaderStructure.FILE_SIZE.getOffset() + start);
 		}
 
-		@SuppressWarnings("unused")
+		/**
+		 * Gets the offset of the .dex file relative to the .vdex file.
+		 */
+		public final int getOffset() {
+			return this.offset;
+		}
+
+		/**
+		 * Gets the magic bytes of the .dex file, including its version.
+		 */
 		public final byte @NonNull [] getMagic() {
-			return this.magic;
+			return this.magic.clone();
 		}
 
-		@SuppressWarnings("unused")
+		/**
+		 * Gets the adler32 checksum of the .dex file.
+		 */
 		public final int getChecksum() {
 			return this.checksum;
 		}
 
-		@SuppressWarnings("unused")
+		/**
+		 * Gets the SHA - 1 signature of the .dex file.
+		 */
 		public final byte @NonNull [] getSignature() {
-			return this.signature;
+			return this.signature.clone();
 		}
 
+		/**
+		 * Gets the size of the .dex file in bytes.
+		 */
 		public final int getFileSize() {
 			return this.fileSize;
 		}
 
-		@SuppressWarnings("unused")
 		public static final int getTotalSize() {
 			return PartialDexHeaderStructure.values()[PartialDexHeaderStructure.values().length - 1].getEndOffset();
 		}
@@ -393,6 +489,7 @@ public class VDexFile implements ComposedFile {
 			return this.offset;
 		}
 
+		@SuppressWarnings("unused")
 		public final int getSize() {
 			return this.size;
 		}
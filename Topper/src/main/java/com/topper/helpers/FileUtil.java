@@ -1,8 +1,8 @@
 package com.topper.helpers;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -36,24 +36,19 @@ public final class FileUtil {
 		}
 	}
 	
+	/**
+	 * Reads the contents of <code>file</code> into a heap array of exactly the
+	 * size of <code>file</code>.
+	 * 
+	 * @throws IllegalArgumentException If reading <code>file</code> fails.
+	 * */
+	@SuppressWarnings("null") // Files.readAllBytes() is not expected to be null...
 	public static final byte @NonNull [] readContents(@NonNull final File file) {
 		
-		FileInputStream in = null;
 		try {
-			in = new FileInputStream(file);
-			final byte[] content = in.readAllBytes();
-			if (content == null) {
-				throw new IOException();
-			}
-			return content;
+			return Files.readAllBytes(file.toPath());
 		} catch (final IOException e) {
 			throw new IllegalArgumentException("Reading " + file.getPath() + " failed.", e);
-		} finally {
-			try {
-				if (in != null) {
-					in.close();
-				}
-			} catch (final IOException ignored) {}
 		}
 	}
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.topper.sstate;
 
+import java.util.stream.Collectors;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
 import com.topper.commands.file.BasedGadget;
 import com.topper.commands.file.FileCommand;
+import com.topper.dex.search.GadgetSearchIndex;
 import com.topper.exceptions.commands.IllegalSessionState;
 import com.topper.exceptions.commands.InternalExecutionException;
 import com.topper.file.ComposedFile;
@@ -32,6 +35,13 @@ public final class Session {
 	@Nullable
 	private ImmutableList<@NonNull BasedGadget> gadgets;
 
+	/**
+	 * Index over <code>gadgets</code> used to answer structured searches. It is
+	 * built on first use, see {@link Session#getGadgetIndex()}.
+	 */
+	@Nullable
+	private GadgetSearchIndex index;
+
 	/**
 	 * Gets current {@link ComposedFile} loaded via {@link FileCommand}.
 	 * 
@@ -69,10 +79,35 @@ public final class Session {
 	}
 
 	/**
-	 * Updates current list of {@link BasedGadget} with <code>gadgets</code>.
+	 * Updates current list of {@link BasedGadget} with <code>gadgets</code>. This
+	 * invalidates the {@link GadgetSearchIndex} over the previous list.
 	 */
 	public final void setGadgets(@NonNull final ImmutableList<@NonNull BasedGadget> gadgets) {
 		this.gadgets = gadgets;
+		this.index = null;
+	}
+
+	/**
+	 * Gets the {@link GadgetSearchIndex} over {@link Session#getGadgets()}. The
+	 * id of a gadget is its index in <code>getGadgets()</code>.
+	 * 
+	 * The index is built on the first call after {@link Session#setGadgets}, so
+	 * loading a file is not slowed down by searches that never happen.
+	 * 
+	 * @throws IllegalSessionState If the list of {@link BasedGadget}s is
+	 *                             <code>null</code>.
+	 */
+	@SuppressWarnings("null") // Collectors.toList() and IntStream.toArray() are not expected to be null...
+	@NonNull
+	public final GadgetSearchIndex getGadgetIndex() throws IllegalSessionState {
+		GadgetSearchIndex index = this.index;
+		if (index == null) {
+			final ImmutableList<@NonNull BasedGadget> gadgets = this.getGadgets();
+			index = GadgetSearchIndex.of(gadgets.stream().map(BasedGadget::getGadget).collect(Collectors.toList()),
+					gadgets.stream().mapToInt(BasedGadget::getDex).toArray());
+			this.index = index;
+		}
+		return index;
 	}
 
 	/**
@@ -112,5 +147,6 @@ public final class Session {
 	public final void clear() {
 		this.loadedFile = null;
 		this.gadgets = null;
+		this.index = null;
 	}
 }
\ No newline at end of file
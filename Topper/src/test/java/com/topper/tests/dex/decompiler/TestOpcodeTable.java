@@ -0,0 +1,82 @@
+package com.topper.tests.dex.decompiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.Opcodes;
+import org.junit.jupiter.api.Test;
+
+import com.topper.dex.decompiler.OpcodeTable;
+
+public class TestOpcodeTable {
+
+	private static final int[] DEX_VERSIONS = new int[] { 35, 37, 38, 39 };
+
+	@Test
+	public void Given_DexVersions_When_Comparing_Expect_SameAsOpcodes() {
+		// Reason: The table must be a faithful copy of dexlib2's opcode mapping.
+
+		for (final int version : DEX_VERSIONS) {
+			final Opcodes opcodes = Opcodes.forDexVersion(version);
+			final OpcodeTable table = OpcodeTable.forDexVersion(version);
+			assertEquals(version, table.getDexVersion());
+
+			for (int value = 0; value < OpcodeTable.NUMBER_BYTES; value++) {
+				final Opcode opcode = opcodes.getOpcodeByValue(value);
+				assertEquals(opcode, table.getOpcode(value));
+				assertEquals(opcode != null, table.isValid(value));
+				assertEquals((opcode != null) ? opcode.format.size : 0, table.getSize(value));
+				assertEquals(opcodes.getOpcodeByValue(value << 8), (value == 0) ? Opcode.NOP : table.getPayload(value));
+			}
+
+			for (final Opcode opcode : Opcode.values()) {
+				final Short value = opcodes.getOpcodeValue(opcode);
+				assertEquals((value != null) ? (value & 0xffff) : -1, table.getValue(opcode));
+			}
+		}
+	}
+
+	@Test
+	public void Given_SameDexVersion_When_GettingTable_Expect_SharedTable() {
+		assertSame(OpcodeTable.forDexVersion(39), OpcodeTable.forDexVersion(39));
+	}
+
+	@Test
+	public void Given_Payloads_When_LookingUp_Expect_OnlyPayloadOpcodes() {
+		// Reason: Payloads are encoded as 0x00 followed by a distinguishing byte.
+
+		final OpcodeTable table = OpcodeTable.forDexVersion(39);
+		assertTrue(table.isPayloadPrefix(0x00));
+		assertFalse(table.isPayloadPrefix(0x01));
+		assertEquals(Opcode.PACKED_SWITCH_PAYLOAD, table.getPayload(0x01));
+		assertEquals(Opcode.SPARSE_SWITCH_PAYLOAD, table.getPayload(0x02));
+		assertEquals(Opcode.ARRAY_PAYLOAD, table.getPayload(0x03));
+		assertNull(table.getPayload(0x00));
+		assertNull(table.getPayload(0x04));
+		assertEquals(0x100, table.getValue(Opcode.PACKED_SWITCH_PAYLOAD));
+	}
+
+	@Test
+	public void Given_Candidates_When_CheckingStart_Expect_SizeOfFormat() {
+		// Reason: Only candidates, whose size matches the format of their opcode, can be valid.
+
+		final OpcodeTable table = OpcodeTable.forDexVersion(39);
+		final int throwByte = table.getValue(Opcode.THROW);
+		final int unused = 0x3e;
+
+		assertTrue(table.canStart(throwByte, Opcode.THROW.format.size, false));
+		assertFalse(table.canStart(throwByte, Opcode.THROW.format.size + 2, false));
+		assertFalse(table.isValid(unused));
+		assertFalse(table.canStart(unused, 2, false));
+		assertTrue(table.canStart(unused, 2, true));
+		assertFalse(table.canStart(unused, 4, true));
+
+		// Any size may be a payload.
+		assertTrue(table.canStart(0x00, 2, false));
+		assertTrue(table.canStart(0x00, 10, false));
+	}
+}
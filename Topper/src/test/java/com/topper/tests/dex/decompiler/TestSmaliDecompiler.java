@@ -3,6 +3,7 @@ package com.topper.tests.dex.decompiler;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.io.ByteArrayOutputStream;
@@ -21,6 +22,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.DecodeStatus;
 import com.topper.dex.decompiler.DecompilationResult;
 import com.topper.dex.decompiler.Decompiler;
 import com.topper.dex.decompiler.SmaliDecompiler;
@@ -270,4 +272,160 @@ public class TestSmaliDecompiler {
 		
 		this.checkResult(result, DEX_FILE_BYTECODE, true);
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void Given_ValidBytecode_When_DecompilingWindow_Expect_SameAsCopy() {
+		// Reason: Decompiling a window must not differ from decompiling a copy of that window.
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(false);
+		final Decompiler decompiler = new SmaliDecompiler();
+		final byte[] bytecode = INVALID_START_VALID_BYTECODE;
+		final int offset = INVALID_OPCODE_BYTECODE.length;
+		
+		final DecompilationResult window = decompiler.decompile(bytecode, offset, VALID_BYTECODE.length, null, config);
+		final DecompilationResult copy = decompiler.decompile(VALID_BYTECODE, null, config);
+		
+		assertEquals(copy.getInstructions().size(), window.getInstructions().size());
+		for (int i = 0; i < copy.getInstructions().size(); i++) {
+			assertEquals(copy.getInstructions().get(i).getOffset(), window.getInstructions().get(i).getOffset());
+			assertArrayEquals(copy.getInstructions().get(i).getByteCode(), window.getInstructions().get(i).getByteCode());
+			assertEquals(copy.getInstructions().get(i).getInstructionString(), window.getInstructions().get(i).getInstructionString());
+		}
+	}
+	
+	@Test
+	public void Given_TruncatingWindow_When_Decompiling_Expect_ArrayIndexOutOfBoundsException() {
+		// Reason: Reads beyond a window must fail, even if the underlying buffer is large enough.
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(false);
+		final Decompiler decompiler = new SmaliDecompiler();
+		final byte[] bytecode = concatBytes(OOB_BYTECODE, new byte[] { 0x0, 0x0, 0x0, 0x0 });
+		assertThrowsExactly(ArrayIndexOutOfBoundsException.class,
+				() -> decompiler.decompile(bytecode, 0, OOB_BYTECODE.length, null, config));
+	}
+	
+	@Test
+	public void Given_UnknownOpcode_When_DecompilingInstruction_Expect_NullOrNop() {
+		// Reason: Unknown opcodes are either rejected or nop`ed out, like in a full decompilation.
+		
+		final Decompiler decompiler = new SmaliDecompiler();
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(false);
+		assertNull(decompiler.decompileInstruction(INVALID_OPCODE_BYTECODE, 0, INVALID_OPCODE_BYTECODE.length, null, config));
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(true);
+		final DecompiledInstruction instruction = decompiler.decompileInstruction(INVALID_OPCODE_BYTECODE, 0,
+				INVALID_OPCODE_BYTECODE.length, null, config);
+		assertNotNull(instruction);
+		assertEquals(Opcode.NOP, instruction.getInstruction().getOpcode());
+	}
+	
+	@Test
+	public void Given_WrongSizeOrOddWindow_When_DecompilingInstruction_Expect_Null() {
+		// Reason: A window is only valid, if exactly one instruction covers it.
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(false);
+		final Decompiler decompiler = new SmaliDecompiler();
+		
+		// VALID_BYTECODE starts with a 4 - byte iget-object.
+		assertNotNull(decompiler.decompileInstruction(VALID_BYTECODE, 0, 4, null, config));
+		assertNull(decompiler.decompileInstruction(VALID_BYTECODE, 0, 2, null, config));
+		assertNull(decompiler.decompileInstruction(VALID_BYTECODE, 0, 6, null, config));
+		assertNull(decompiler.decompileInstruction(VALID_BYTECODE, 0, 3, null, config));
+		assertNull(decompiler.decompileInstruction(VALID_BYTECODE, VALID_BYTECODE.length - 2, 4, null, config));
+	}
+	
+	@Test
+	public void Given_InvalidWindows_When_CheckingInstruction_Expect_MatchingStatus() {
+		// Reason: Each kind of invalid candidate must be reported without throwing.
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(false);
+		final Decompiler decompiler = new SmaliDecompiler();
+		
+		assertEquals(DecodeStatus.VALID, decompiler.checkInstruction(VALID_BYTECODE, 0, 4, null, config));
+		assertEquals(DecodeStatus.SIZE_MISMATCH, decompiler.checkInstruction(VALID_BYTECODE, 0, 6, null, config));
+		assertEquals(DecodeStatus.SIZE_MISMATCH, decompiler.checkInstruction(VALID_BYTECODE, 0, 3, null, config));
+		assertEquals(DecodeStatus.TRUNCATED, decompiler.checkInstruction(VALID_BYTECODE, 0, 2, null, config));
+		assertEquals(DecodeStatus.TRUNCATED, decompiler.checkInstruction(OOB_BYTECODE, 0, OOB_BYTECODE.length, null, config));
+		assertEquals(DecodeStatus.TRUNCATED, decompiler.checkInstruction(VALID_BYTECODE, VALID_BYTECODE.length - 2, 4, null, config));
+		assertEquals(DecodeStatus.UNKNOWN_OPCODE,
+				decompiler.checkInstruction(INVALID_OPCODE_BYTECODE, 0, INVALID_OPCODE_BYTECODE.length, null, config));
+		
+		// Reference indices are only checked, if they can be resolved.
+		assertEquals(DecodeStatus.VALID, decompiler.checkInstruction(INVALID_INSTRUCTION_BYTECODE, 0,
+				INVALID_INSTRUCTION_BYTECODE.length, null, config));
+		assertEquals(DecodeStatus.BAD_REFERENCE, decompiler.checkInstruction(INVALID_INSTRUCTION_BYTECODE, 0,
+				INVALID_INSTRUCTION_BYTECODE.length, DEX_FILE, config));
+		assertNull(decompiler.tryDecompile(INVALID_INSTRUCTION_BYTECODE, 0, INVALID_INSTRUCTION_BYTECODE.length,
+				DEX_FILE, config));
+		
+		// array-payload with element width 3 and a single element.
+		final byte[] badPayload = new byte[] { 0x0, 0x3, 0x3, 0x0, 0x1, 0x0, 0x0, 0x0, 0x42, 0x42 };
+		assertEquals(DecodeStatus.BAD_PAYLOAD, decompiler.checkInstruction(badPayload, 0, badPayload.length, null, config));
+		
+		config.getDecompilerConfig().setNopUnknownInstruction(true);
+		assertEquals(DecodeStatus.VALID,
+				decompiler.checkInstruction(INVALID_OPCODE_BYTECODE, 0, INVALID_OPCODE_BYTECODE.length, null, config));
+	}
+	
+	@Test
+	public void Given_AllWindows_When_DecompilingInstruction_Expect_SameAsFullDecompilation() {
+		// Reason: The fast path must accept and reject exactly the windows a full decompilation does.
+		
+		final Decompiler decompiler = new SmaliDecompiler();
+		for (final boolean nop : new boolean[] { false, true }) {
+			config.getDecompilerConfig().setNopUnknownInstruction(nop);
+			this.checkAllWindows(decompiler, VALID_BYTECODE, null);
+			this.checkAllWindows(decompiler, DEX_FILE_BYTECODE, DEX_FILE);
+		}
+	}
+	
+	private final void checkAllWindows(@NonNull final Decompiler decompiler, final byte @NonNull [] bytecode,
+			final DexBackedDexFile augmentation) {
+		
+		for (int offset = 0; offset < bytecode.length; offset += 2) {
+			for (int length = 2; length <= 10 && offset + length <= bytecode.length; length += 2) {
+				
+				DecompiledInstruction expected = null;
+				Class<?> expectedException = null;
+				try {
+					final DecompilationResult result = decompiler.decompile(bytecode, offset, length, augmentation, config);
+					if (result.getInstructions().size() == 1 && result.getInstructions().get(0).getByteCode().length == length) {
+						expected = result.getInstructions().get(0);
+					}
+				} catch (final ExceptionWithContext | IndexOutOfBoundsException e) {
+					expectedException = e.getClass();
+				}
+				
+				DecompiledInstruction actual = null;
+				Class<?> actualException = null;
+				try {
+					actual = decompiler.decompileInstruction(bytecode, offset, length, augmentation, config);
+				} catch (final ExceptionWithContext | IndexOutOfBoundsException e) {
+					actualException = e.getClass();
+				}
+				
+				// Checking and trying must never throw, but agree with a full decompilation.
+				assertEquals(expected != null,
+						decompiler.checkInstruction(bytecode, offset, length, augmentation, config) == DecodeStatus.VALID);
+				assertEquals(expected != null,
+						decompiler.tryDecompile(bytecode, offset, length, augmentation, config) != null);
+				
+				// A full decompilation may fail on an instruction behind a wrongly sized
+				// first instruction, which the fast path never looks at.
+				if (expectedException != null && actualException == null) {
+					assertNull(actual);
+					continue;
+				}
+				assertEquals(expectedException, actualException);
+				if (expected == null) {
+					assertNull(actual);
+				} else {
+					assertNotNull(actual);
+					assertArrayEquals(expected.getByteCode(), actual.getByteCode());
+					assertEquals(expected.getInstructionString(), actual.getInstructionString());
+				}
+			}
+		}
+	}
+}
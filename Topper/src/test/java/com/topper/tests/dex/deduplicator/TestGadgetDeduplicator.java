@@ -0,0 +1,206 @@
+package com.topper.tests.dex.deduplicator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Bytes;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.deduplicator.UniqueGadget;
+import com.topper.dex.pipeline.DeduplicatorInfo;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.StaticInfo;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
+import com.topper.exceptions.pipeline.StageException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestGadgetDeduplicator {
+
+	private static TopperConfig config;
+
+	private static byte @NonNull [] bytecode;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException, IOException, NoSuchFieldException, SecurityException,
+			IllegalArgumentException, IllegalAccessException {
+		config = TestConfig.getDefault();
+
+		// The same method twice in a row, so every short gadget occurs at least twice.
+		final byte[] method = DexLoader.get().getMethodBytes();
+		bytecode = Bytes.concat(method, method);
+	}
+
+	@BeforeEach
+	public final void initClass() throws InvalidConfigException {
+		TestConfig.reset(config);
+	}
+
+	@NonNull
+	private static PipelineContext execute() throws StageException {
+		final Pipeline pipeline = Pipeline.createDefaultPipeline();
+		pipeline.addStage(2, new GadgetDeduplicator());
+		return pipeline.execute(new PipelineArgs(config, bytecode)).getContext();
+	}
+
+	@NonNull
+	private static ImmutableList<@NonNull Gadget> extractAll() throws StageException {
+		return Pipeline.createDefaultPipeline().execute(new PipelineArgs(config, bytecode)).getContext()
+				.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets();
+	}
+
+	@NonNull
+	private static ImmutableList<@NonNull UniqueGadget> toUniqueGadgets(@NonNull final PipelineContext context)
+			throws MissingStageInfoException {
+
+		final DeduplicatorInfo info = context.getInfo(DeduplicatorInfo.class.getSimpleName());
+		final ImmutableList.Builder<@NonNull UniqueGadget> unique = ImmutableList.builder();
+		for (final Gadget gadget : context.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets()) {
+			final UniqueGadget g = info.toUniqueGadget(gadget);
+			assertNotNull(g);
+			unique.add(g);
+		}
+		return unique.build();
+	}
+
+	@NonNull
+	private static String bytecodeOf(@NonNull final Gadget gadget) {
+		final StringBuilder b = new StringBuilder();
+		for (final DecompiledInstruction instruction : gadget.getInstructions()) {
+			for (final byte value : instruction.getByteCode()) {
+				b.append(String.format("%02x", value));
+			}
+		}
+		return b.toString();
+	}
+
+	@Test
+	public void Given_DuplicatedCode_When_Deduplicating_Expect_OneGadgetPerBytecode() throws StageException {
+		// Reason: Every gadget must be represented by exactly one unique gadget with
+		// identical bytecode, and unique gadgets must differ in bytecode. Only
+		// distinct sequences must be analysed.
+
+		final ImmutableList<@NonNull Gadget> gadgets = extractAll();
+		final PipelineContext context = execute();
+		final DeduplicatorInfo info = context.getInfo(DeduplicatorInfo.class.getSimpleName());
+		final ImmutableList<@NonNull UniqueGadget> unique = toUniqueGadgets(context);
+
+		assertTrue(unique.size() < gadgets.size());
+		assertEquals(info.getInstructionSequences().size(), unique.size());
+		assertEquals(gadgets.size(), info.getNumberOccurrences());
+
+		final Map<Integer, Gadget> byEntry = new HashMap<>();
+		for (final Gadget gadget : gadgets) {
+			byEntry.put(gadget.getEntry(), gadget);
+		}
+
+		final Set<String> distinct = new HashSet<>();
+		int occurrences = 0;
+		for (final UniqueGadget g : unique) {
+
+			final String expected = bytecodeOf(g.getGadget());
+			assertTrue(distinct.add(expected));
+			assertEquals(g.getGadget().getEntry(), g.getEntry(0));
+			for (final int entry : g.getEntries()) {
+				final Gadget occurrence = byEntry.get(entry);
+				assertNotNull(occurrence);
+				assertEquals(expected, bytecodeOf(occurrence));
+			}
+			occurrences += g.getNumberOccurrences();
+		}
+		assertEquals(gadgets.size(), occurrences);
+	}
+
+	@Test
+	public void Given_Gadgets_When_Deduplicating_Expect_OrderOfFirstOccurrences() throws StageException {
+		// Reason: Canonical gadgets must be the first occurrences in gadget order, and
+		// entries must be kept in gadget order.
+
+		final ImmutableList<@NonNull Gadget> gadgets = extractAll();
+		final ImmutableList<@NonNull UniqueGadget> unique = toUniqueGadgets(execute());
+
+		final Map<String, UniqueGadget> groups = new HashMap<>();
+		final Map<String, Integer> seen = new HashMap<>();
+		int next = 0;
+		for (final Gadget gadget : gadgets) {
+
+			final String key = bytecodeOf(gadget);
+			if (!seen.containsKey(key)) {
+				assertEquals(gadget.getEntry(), unique.get(next).getGadget().getEntry());
+				assertEquals(key, bytecodeOf(unique.get(next).getGadget()));
+				groups.put(key, unique.get(next));
+				seen.put(key, 0);
+				next++;
+			}
+			final int index = seen.get(key);
+			assertEquals(gadget.getEntry(), groups.get(key).getEntry(index));
+			seen.put(key, index + 1);
+		}
+		assertEquals(unique.size(), next);
+	}
+
+	@Test
+	public void Given_StreamingPipeline_When_Deduplicating_Expect_SameUniqueGadgets()
+			throws StageException, InvalidConfigException {
+		// Reason: Streaming must deduplicate swept chunks before analysis and result in
+		// the same unique gadgets as a non - streaming execution, regardless of the
+		// number of threads.
+
+		final ImmutableList<@NonNull UniqueGadget> expected = toUniqueGadgets(execute());
+		for (final int threads : new int[] { 1, 4 }) {
+
+			config.getGeneralConfig().setDefaultAmountThreads(threads);
+			final Pipeline pipeline = Pipeline.createDefaultPipeline();
+			pipeline.addStage(2, new GadgetDeduplicator());
+			final ImmutableList<@NonNull UniqueGadget> actual = toUniqueGadgets(
+					pipeline.executeStreaming(new PipelineArgs(config, bytecode)).getContext());
+
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(bytecodeOf(expected.get(i).getGadget()), bytecodeOf(actual.get(i).getGadget()));
+				assertArrayEquals(expected.get(i).getEntries(), actual.get(i).getEntries());
+			}
+		}
+	}
+
+	@Test
+	public void Given_EmptyContext_When_Deduplicating_Expect_MissingStageInfoException() {
+		// Reason: Deduplication requires the instruction sequences of a sweeper.
+
+		final PipelineContext context = new PipelineContext(new PipelineArgs(config, bytecode));
+		assertThrowsExactly(MissingStageInfoException.class, () -> new GadgetDeduplicator().execute(context));
+	}
+
+	@Test
+	public void Given_MismatchingEntries_When_CreatingUniqueGadget_Expect_IllegalArgumentException()
+			throws StageException {
+		// Reason: The first entry must belong to the canonical gadget.
+
+		final Gadget gadget = execute().getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets().get(0);
+		assertThrowsExactly(IllegalArgumentException.class, () -> new UniqueGadget(gadget, new int[0]));
+		assertThrowsExactly(IllegalArgumentException.class,
+				() -> new UniqueGadget(gadget, new int[] { gadget.getEntry() + 2 }));
+		assertArrayEquals(new int[] { gadget.getEntry(), 0 },
+				new UniqueGadget(gadget, new int[] { gadget.getEntry(), 0 }).getEntries());
+	}
+}
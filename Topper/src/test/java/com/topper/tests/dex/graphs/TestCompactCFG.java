@@ -0,0 +1,150 @@
+package com.topper.tests.dex.graphs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.graphs.BasicBlock;
+import com.topper.dex.graphs.CFG;
+import com.topper.dex.graphs.CompactCFG;
+import com.topper.dex.staticanalyser.BFSCFGAnalyser;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestCompactCFG {
+
+	private static ImmutableList<@NonNull DecompiledInstruction> instructions;
+
+	@BeforeAll
+	public static final void loadInstructions() throws IOException, IllegalArgumentException, IllegalAccessException,
+			NoSuchFieldException, SecurityException, InvalidConfigException {
+		instructions = new SmaliDecompiler()
+				.decompile(DexLoader.get().getMethodBytes(), null, TestConfig.getDefault()).getInstructions();
+		assertNotNull(instructions);
+	}
+
+	@NonNull
+	private static final CFG extract(final int entry) {
+		return new BFSCFGAnalyser().extractCFG(instructions, entry);
+	}
+
+	@NonNull
+	private static final Set<String> edgesOf(@NonNull final CFG cfg) {
+		final Set<String> edges = new HashSet<>();
+		for (final BasicBlock block : cfg.getGraph().nodes()) {
+			for (final BasicBlock successor : cfg.getGraph().successors(block)) {
+				edges.add(block.getOffset() + "->" + successor.getOffset());
+			}
+		}
+		return edges;
+	}
+
+	@NonNull
+	private static final Set<String> blocksOf(@NonNull final CFG cfg) {
+		final Set<String> blocks = new HashSet<>();
+		for (final BasicBlock block : cfg.getGraph().nodes()) {
+			blocks.add(block.getOffset() + ":" + block.getSize());
+		}
+		return blocks;
+	}
+
+	@Test
+	public void Given_CFG_When_Compacting_Expect_SameBlocksAndEdges() {
+		// Reason: Compacting must neither lose nor invent blocks or edges, regardless
+		// of the entry.
+
+		for (final DecompiledInstruction start : instructions) {
+
+			final CFG cfg = extract(start.getOffset());
+			final CompactCFG compact = CompactCFG.of(cfg, instructions);
+
+			assertEquals(cfg.getEntry(), compact.getEntry());
+			assertEquals(cfg.getGraph().nodes().size(), compact.getNumberBlocks());
+			assertEquals(cfg.getGraph().edges().size(), compact.getNumberEdges());
+
+			final Set<String> edges = new HashSet<>();
+			for (int block = 0; block < compact.getNumberBlocks(); block++) {
+
+				// Blocks are ordered by offset.
+				if (block > 0) {
+					assertTrue(compact.getBlockOffset(block - 1) < compact.getBlockOffset(block));
+				}
+
+				final BasicBlock expected = cfg.getBlock(compact.getBlockInstructions(block).get(0));
+				assertNotNull(expected);
+				assertEquals(expected.getInstructions(), compact.getBlockInstructions(block));
+
+				for (final int successor : compact.getSuccessors(block)) {
+					assertTrue(compact.hasEdge(block, successor));
+					edges.add(compact.getBlockOffset(block) + "->" + compact.getBlockOffset(successor));
+				}
+				assertEquals(cfg.getGraph().inDegree(expected), compact.getPredecessors(block).length);
+				for (final int predecessor : compact.getPredecessors(block)) {
+					assertTrue(compact.hasEdge(predecessor, block));
+				}
+			}
+			assertEquals(edgesOf(cfg), edges);
+		}
+	}
+
+	@Test
+	public void Given_CompactCFG_When_LookingUp_Expect_SameAsCFG() {
+		// Reason: Lookups must behave like those of the full CFG, including
+		// instructions that are not covered by any block.
+
+		final CFG cfg = extract(0x10);
+		final CompactCFG compact = CompactCFG.of(cfg, instructions);
+
+		assertEquals(compact.getBlockOffset(compact.getEntryBlock()), cfg.getBlock(cfg.getInstruction(0x10)).getOffset());
+		for (final DecompiledInstruction instruction : instructions) {
+			assertTrue(instruction == compact.getInstruction(instruction.getOffset()));
+
+			final BasicBlock expected = cfg.getBlock(instruction);
+			final int actual = compact.getBlock(instruction);
+			if (expected == null) {
+				assertEquals(-1, actual);
+			} else {
+				assertEquals(expected.getOffset(), compact.getBlockOffset(actual));
+			}
+		}
+		assertNull(compact.getInstruction(-1));
+		assertNull(compact.getInstruction(instructions.get(0).getOffset() + 1));
+	}
+
+	@Test
+	public void Given_CompactCFG_When_Expanding_Expect_EquivalentCFG() {
+		// Reason: Expanding a compact CFG must restore graph and lookups.
+
+		final CFG cfg = extract(0x10);
+		final CFG expanded = CompactCFG.of(cfg, instructions).toCFG();
+
+		assertEquals(cfg.getEntry(), expanded.getEntry());
+		assertEquals(blocksOf(cfg), blocksOf(expanded));
+		assertEquals(edgesOf(cfg), edgesOf(expanded));
+		assertEquals(cfg.getOffsetInstructionLookup(), expanded.getOffsetInstructionLookup());
+		assertEquals(cfg.getInstructionBlockLookup().keySet(), expanded.getInstructionBlockLookup().keySet());
+	}
+
+	@Test
+	public void Given_ForeignInstructions_When_Compacting_Expect_IllegalArgumentException() {
+		// Reason: Blocks must be part of the given instructions.
+
+		final CFG cfg = extract(instructions.get(instructions.size() - 1).getOffset());
+		assertThrowsExactly(IllegalArgumentException.class,
+				() -> CompactCFG.of(cfg, instructions.subList(0, instructions.size() - 1)));
+	}
+}
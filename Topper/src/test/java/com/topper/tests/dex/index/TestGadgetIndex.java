@@ -0,0 +1,220 @@
+package com.topper.tests.dex.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.deduplicator.GadgetDeduplicator;
+import com.topper.dex.deduplicator.UniqueGadget;
+import com.topper.dex.index.GadgetIndex;
+import com.topper.dex.pipeline.DeduplicatorInfo;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.StaticInfo;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.StageException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestGadgetIndex {
+
+	private static TopperConfig config;
+
+	private static byte @NonNull [] bytecode;
+
+	@TempDir
+	Path directory;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException, IOException, NoSuchFieldException, SecurityException,
+			IllegalArgumentException, IllegalAccessException {
+		config = TestConfig.getDefault();
+		bytecode = DexLoader.get().getMethodBytes();
+	}
+
+	@BeforeEach
+	public final void initClass() throws InvalidConfigException {
+		TestConfig.reset(config);
+		config.getSweeperConfig().setMaxNumberInstructions(10);
+	}
+
+	@NonNull
+	private static ImmutableList<@NonNull Gadget> extract(@NonNull final PipelineArgs args) throws StageException {
+		return Pipeline.createDefaultPipeline().execute(args).getContext()
+				.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets();
+	}
+
+	/**
+	 * Restores the sequences of <code>index</code> and analyses them via
+	 * <code>pipeline</code>.
+	 */
+	@Nullable
+	private static PipelineContext restore(@NonNull final GadgetIndex index, @NonNull final PipelineArgs args,
+			@NonNull final Pipeline pipeline) throws StageException {
+		final SweeperInfo sequences = index.restore(args, new SmaliDecompiler());
+		return (sequences != null) ? pipeline.executeFrom(args, sequences).getContext() : null;
+	}
+
+	@NonNull
+	private static String instructionsOf(@NonNull final Gadget gadget) {
+		final StringBuilder b = new StringBuilder();
+		gadget.getInstructions().forEach(instruction -> b.append(instruction.getOffset()).append(':')
+				.append(instruction.getInstructionString()).append(';'));
+		return b.toString();
+	}
+
+	@Test
+	public void Given_WrittenIndex_When_Restoring_Expect_IdenticalGadgets()
+			throws StageException, IOException, InvalidConfigException {
+		// Reason: Restored gadgets must consist of the same instructions at the same
+		// offsets as the extracted gadgets, in the same order, regardless of whether
+		// sequences are restored in parallel.
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final ImmutableList<@NonNull Gadget> gadgets = extract(args);
+		final byte[] key = GadgetIndex.key(args);
+		final Path path = GadgetIndex.pathOf(this.directory, key);
+		GadgetIndex.write(path, key, gadgets, config);
+
+		final GadgetIndex index = GadgetIndex.load(path, key);
+		assertNotNull(index);
+		assertEquals(gadgets.size(), index.size());
+
+		// Restore sequentially and in parallel.
+		for (final int threads : new int[] { 1, 4 }) {
+			config.getGeneralConfig().setDefaultAmountThreads(threads);
+			final PipelineContext context = restore(index, args, Pipeline.createDefaultPipeline());
+			assertNotNull(context);
+			final ImmutableList<@NonNull Gadget> restored = context.getStaticInfo(StaticInfo.class.getSimpleName())
+					.getGadgets();
+			assertEquals(gadgets.size(), restored.size());
+			for (int i = 0; i < gadgets.size(); i++) {
+				assertEquals(gadgets.get(i).getEntry(), restored.get(i).getEntry());
+				assertEquals(gadgets.get(i).getPivot(), restored.get(i).getPivot());
+				assertEquals(instructionsOf(gadgets.get(i)), instructionsOf(restored.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void Given_DifferentConfig_When_ComputingKey_Expect_DifferentKey() throws InvalidConfigException {
+		// Reason: Gadgets depend on the sweeper configuration, so an index must not be
+		// reused across configurations.
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final byte[] key = GadgetIndex.key(args);
+		assertArrayEquals(key, GadgetIndex.key(new PipelineArgs(config, bytecode)));
+		assertArrayEquals(key, GadgetIndex.key(args, GadgetIndex.hash(bytecode)));
+
+		config.getSweeperConfig().setMaxNumberInstructions(5);
+		assertFalse(Arrays.equals(key, GadgetIndex.key(args)));
+
+		config.getSweeperConfig().setMaxNumberInstructions(10);
+		final byte[] modified = Arrays.copyOf(bytecode, bytecode.length);
+		modified[0] ^= 1;
+		assertFalse(Arrays.equals(key, GadgetIndex.key(new PipelineArgs(config, modified))));
+
+		// Deduplicated indices order gadgets group by group.
+		config.getGeneralConfig().setDeduplicateGadgets(true);
+		assertFalse(Arrays.equals(key, GadgetIndex.key(args)));
+	}
+
+	@Test
+	public void Given_WrittenUniqueIndex_When_Restoring_Expect_SameGroups() throws StageException, IOException {
+		// Reason: A deduplicated index must contain all occurrences, such that
+		// deduplicating the restored gadgets results in the same groups.
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final Pipeline pipeline = Pipeline.createDefaultPipeline();
+		pipeline.addStage(2, new GadgetDeduplicator());
+		final PipelineContext context = pipeline.execute(args).getContext();
+		final DeduplicatorInfo info = context.getInfo(DeduplicatorInfo.class.getSimpleName());
+		final ImmutableList.Builder<@NonNull UniqueGadget> builder = ImmutableList.builder();
+		for (final Gadget gadget : context.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets()) {
+			final UniqueGadget unique = info.toUniqueGadget(gadget);
+			assertNotNull(unique);
+			builder.add(unique);
+		}
+		final ImmutableList<@NonNull UniqueGadget> unique = builder.build();
+
+		final byte[] key = GadgetIndex.key(args);
+		final Path path = GadgetIndex.pathOf(this.directory, key);
+		GadgetIndex.writeUnique(path, key, unique, config);
+		final GadgetIndex index = GadgetIndex.load(path, key);
+		assertNotNull(index);
+		assertEquals(info.getNumberOccurrences(), index.size());
+
+		final PipelineContext restored = restore(index, args, pipeline);
+		assertNotNull(restored);
+		final DeduplicatorInfo regrouped = restored.getInfo(DeduplicatorInfo.class.getSimpleName());
+		assertEquals(unique.size(), regrouped.getInstructionSequences().size());
+		for (int i = 0; i < unique.size(); i++) {
+			final Gadget gadget = unique.get(i).getGadget();
+			final UniqueGadget actual = regrouped.toUniqueGadget(gadget);
+			assertNotNull(actual);
+			assertArrayEquals(unique.get(i).getEntries(), actual.getEntries());
+			assertEquals(gadget.getEntry(), regrouped.getInstructionSequences().get(i).get(0).getOffset());
+		}
+	}
+
+	@Test
+	public void Given_MismatchingKeyOrCorruptIndex_When_Loading_Expect_Null() throws StageException, IOException {
+		// Reason: Indices with a different key, truncated indices and missing indices
+		// must be ignored.
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final byte[] key = GadgetIndex.key(args);
+		final Path path = GadgetIndex.pathOf(this.directory, key);
+		assertNull(GadgetIndex.load(path, key));
+
+		GadgetIndex.write(path, key, extract(args), config);
+		final byte[] other = Arrays.copyOf(key, key.length);
+		other[0] ^= 1;
+		assertNull(GadgetIndex.load(path, other));
+
+		final byte[] content = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(content, content.length - 1));
+		assertNull(GadgetIndex.load(path, key));
+	}
+
+	@Test
+	public void Given_ModifiedBuffer_When_Restoring_Expect_Null() throws StageException, IOException {
+		// Reason: If the indexed gadgets cannot be decompiled from the buffer anymore,
+		// then the index does not belong to the buffer.
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final ImmutableList<@NonNull Gadget> gadgets = extract(args);
+		final byte[] key = GadgetIndex.key(args);
+		final Path path = GadgetIndex.pathOf(this.directory, key);
+		GadgetIndex.write(path, key, gadgets, config);
+
+		// Replace the pivot of the first gadget by a nop.
+		final Gadget first = gadgets.get(0);
+		final byte[] modified = Arrays.copyOf(bytecode, bytecode.length);
+		modified[first.getInstructions().get(first.getInstructions().size() - 1).getOffset()] = 0;
+
+		final GadgetIndex index = GadgetIndex.load(path, key);
+		assertNotNull(index);
+		assertNull(index.restore(new PipelineArgs(config, modified), new SmaliDecompiler()));
+	}
+}
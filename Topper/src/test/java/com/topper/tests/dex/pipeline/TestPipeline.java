@@ -3,29 +3,52 @@ package com.topper.tests.dex.pipeline;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.pipeline.ConsumingFinalizer;
 import com.topper.dex.pipeline.Pipeline;
 import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.PipelineListener;
 import com.topper.dex.pipeline.PipelineResult;
+import com.topper.dex.pipeline.Stage;
+import com.topper.dex.pipeline.StageInfo;
+import com.topper.dex.pipeline.StageMeasurement;
+import com.topper.dex.pipeline.StageMetrics;
+import com.topper.dex.pipeline.StaticInfo;
 import com.topper.dex.seeker.PivotSeeker;
 import com.topper.dex.seeker.Seeker;
 import com.topper.dex.semanticanalyser.DefaultSemanticAnalyser;
 import com.topper.dex.semanticanalyser.SemanticAnalyser;
 import com.topper.dex.staticanalyser.DefaultStaticAnalyser;
+import com.topper.dex.staticanalyser.Gadget;
 import com.topper.dex.staticanalyser.StaticAnalyser;
 import com.topper.dex.sweeper.BackwardLinearSweeper;
 import com.topper.dex.sweeper.Sweeper;
 import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.MissingStageInfoException;
 import com.topper.exceptions.pipeline.StageException;
 import com.topper.tests.utility.DexLoader;
 import com.topper.tests.utility.TestConfig;
@@ -45,6 +68,58 @@ public class TestPipeline {
 		assertNotNull(config);
 	}
 
+	@BeforeEach
+	public final void initClass() throws InvalidConfigException {
+		TestConfig.reset(config);
+	}
+
+	/**
+	 * Creates a {@link Stage} that declares to neither read nor write any
+	 * {@link StageInfo}.
+	 */
+	@NonNull
+	private static Stage createIndependentStage(@NonNull final Stage stage) {
+		return new Stage() {
+
+			@Override
+			public void execute(@NonNull final PipelineContext context) throws StageException {
+				stage.execute(context);
+			}
+
+			@Override
+			public ImmutableSet<@NonNull String> getRequiredInfoKeys() {
+				return ImmutableSet.of();
+			}
+
+			@Override
+			public ImmutableSet<@NonNull String> getProvidedInfoKeys() {
+				return ImmutableSet.of();
+			}
+		};
+	}
+
+	@NonNull
+	private static ImmutableList<@NonNull Gadget> getGadgets(@NonNull final PipelineResult result)
+			throws MissingStageInfoException {
+		return result.getContext().getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets();
+	}
+
+	private static void assertSameGadgets(@NonNull final List<@NonNull Gadget> expected,
+			@NonNull final List<@NonNull Gadget> actual) {
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+
+			final ImmutableList<@NonNull DecompiledInstruction> e = expected.get(i).getInstructions();
+			final ImmutableList<@NonNull DecompiledInstruction> a = actual.get(i).getInstructions();
+			assertEquals(e.size(), a.size());
+			for (int j = 0; j < e.size(); j++) {
+				assertEquals(e.get(j).getOffset(), a.get(j).getOffset());
+				assertTrue(Arrays.equals(e.get(j).getByteCode(), a.get(j).getByteCode()));
+			}
+		}
+	}
+
 	@Test
 	public void Given_SubsetMandatoryStages_When_Validating_Expect_Invalid() {
 		// Reason: Any real subset of the mandatory stages must be considered
@@ -257,4 +332,321 @@ public class TestPipeline {
 		assertFalse(p.isValid());
 		assertThrowsExactly(StageException.class, () -> p.execute(args));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void Given_DefaultPipeline_When_Streaming_Expect_SameGadgets() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Streaming must not change the resulting gadgets or their order,
+		// regardless of the number of threads and chunks in flight.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final ImmutableList<@NonNull Gadget> expected = getGadgets(Pipeline.createDefaultPipeline().execute(args));
+		assertFalse(expected.isEmpty());
+		
+		assertSameGadgets(expected, getGadgets(Pipeline.createDefaultPipeline().executeStreaming(args)));
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		config.getGeneralConfig().setStreamCapacity(1);
+		assertSameGadgets(expected, getGadgets(Pipeline.createDefaultPipeline().executeStreaming(args)));
+		
+		// Streaming via configuration.
+		config.getGeneralConfig().setStreamPipeline(true);
+		assertSameGadgets(expected, getGadgets(Pipeline.createDefaultPipeline().execute(args)));
+	}
+	
+	@Test
+	public void Given_StreamingFinalizer_When_Streaming_Expect_GadgetsConsumedIncrementally() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: A streaming finalizer must see every gadget in order, and the gadgets
+		// must not be collected in the context on top of that.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final ImmutableList<@NonNull Gadget> expected = getGadgets(Pipeline.createDefaultPipeline().execute(args));
+		
+		final List<@NonNull Gadget> consumed = new ArrayList<>();
+		final Pipeline p = Pipeline.createDefaultPipeline();
+		p.setFinalizer(new ConsumingFinalizer(consumed::add));
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final PipelineResult result = p.executeStreaming(args);
+		assertSameGadgets(expected, consumed);
+		assertThrowsExactly(MissingStageInfoException.class, () -> getGadgets(result));
+	}
+	
+	@Test
+	public void Given_SemanticAnalyserRejectingGadgets_When_Streaming_Expect_GadgetsFiltered() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: The semantic analyser decides on eligibility of each streamed gadget.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final Pipeline p = new Pipeline();
+		p.addStage(new PivotSeeker());
+		p.addStage(new BackwardLinearSweeper());
+		p.addStage(new DefaultStaticAnalyser());
+		p.addStage(new SemanticAnalyser() {
+			
+			@Override
+			public void execute(@NonNull final PipelineContext context) {
+			}
+			
+			@Override
+			public boolean isEligible(@NonNull final PipelineArgs args, @NonNull final Gadget gadget) {
+				return gadget.getInstructions().size() == 1;
+			}
+		});
+		
+		final ImmutableList<@NonNull Gadget> gadgets = getGadgets(p.executeStreaming(args));
+		assertFalse(gadgets.isEmpty());
+		for (final Gadget gadget : gadgets) {
+			assertEquals(1, gadget.getInstructions().size());
+			assertEquals(Opcode.THROW, gadget.getPivot());
+		}
+	}
+	
+	@Test
+	public void Given_StageBetweenSweeperAndSemanticAnalyser_When_Streaming_Expect_StageException() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException {
+		// Reason: Stages relying on the entire SweeperInfo cannot be streamed.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final Pipeline p = new Pipeline();
+		p.addStage(new PivotSeeker());
+		p.addStage(new BackwardLinearSweeper());
+		p.addStage(context -> {});
+		p.addStage(new DefaultStaticAnalyser());
+		p.addStage(new DefaultSemanticAnalyser());
+		
+		assertTrue(p.isValid());
+		assertThrowsExactly(StageException.class, () -> p.executeStreaming(args));
+	}
+	
+	@Test
+	public void Given_DefaultPipeline_When_Executing_Expect_MetricsOfAllStages() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Every stage must be measured in execution order, and item counts
+		// of neighbouring stages must match.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final Pipeline p = Pipeline.createDefaultPipeline();
+		p.addStage(context -> {});
+		final PipelineResult result = p.execute(args);
+		final ImmutableList<@NonNull StageMetrics> metrics = result.getStageMetrics();
+		
+		assertEquals(5, metrics.size());
+		assertEquals(PivotSeeker.class.getSimpleName(), metrics.get(0).getName());
+		assertEquals(BackwardLinearSweeper.class.getSimpleName(), metrics.get(1).getName());
+		assertEquals(DefaultStaticAnalyser.class.getSimpleName(), metrics.get(2).getName());
+		assertEquals(DefaultSemanticAnalyser.class.getSimpleName(), metrics.get(3).getName());
+		
+		assertEquals(args.getBuffer().length, metrics.get(0).getItemsIn());
+		assertTrue(metrics.get(0).getItemsOut() > 0);
+		assertEquals(metrics.get(0).getItemsOut(), metrics.get(1).getItemsIn());
+		assertEquals(metrics.get(1).getItemsOut(), metrics.get(2).getItemsIn());
+		assertEquals(getGadgets(result).size(), metrics.get(2).getItemsOut());
+		assertEquals(metrics.get(2).getItemsOut(), metrics.get(3).getItemsOut());
+		
+		// Custom stages do not count items.
+		assertEquals(-1, metrics.get(4).getItemsIn());
+		assertEquals(-1, metrics.get(4).getItemsOut());
+		for (final StageMetrics stage : metrics) {
+			assertTrue(stage.getWallNanos() >= 0);
+		}
+	}
+	
+	@Test
+	public void Given_ParallelStages_When_Executing_Expect_WorkerThreadsMeasured() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Stages that run on worker threads must report the CPU time and
+		// allocations of their workers, not only those of the calling thread.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final ImmutableList<@NonNull StageMetrics> sequential = Pipeline.createDefaultPipeline().execute(args)
+				.getStageMetrics();
+		final long sweeper = sequential.get(1).getAllocatedBytes();
+		final long analyser = sequential.get(2).getAllocatedBytes();
+		assertTrue(sweeper > 0);
+		assertTrue(analyser > 0);
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final ImmutableList<@NonNull StageMetrics> parallel = Pipeline.createDefaultPipeline().execute(args)
+				.getStageMetrics();
+		assertTrue(parallel.get(1).getAllocatedBytes() >= sweeper / 2);
+		assertTrue(parallel.get(2).getAllocatedBytes() >= analyser / 2);
+		assertTrue(parallel.get(1).getCpuNanos() > 0);
+		
+		config.getGeneralConfig().setStreamPipeline(true);
+		final ImmutableList<@NonNull StageMetrics> streamed = Pipeline.createDefaultPipeline().execute(args)
+				.getStageMetrics();
+		assertTrue(streamed.get(1).getAllocatedBytes() >= (sweeper + analyser) / 2);
+		
+		// Without a running measurement, tasks are not wrapped.
+		final Callable<Integer> task = () -> 0;
+		assertSame(task, StageMeasurement.measured(task));
+	}
+	
+	@Test
+	public void Given_Listener_When_Executing_Expect_NotifiedInOrder() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Listeners must observe the same metrics that end up in the result.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final List<@NonNull StageMetrics> observed = new ArrayList<>();
+		final List<@NonNull PipelineResult> results = new ArrayList<>();
+		final Pipeline p = Pipeline.createDefaultPipeline();
+		p.addListener(new PipelineListener() {
+			
+			@Override
+			public void onStageFinished(@NonNull final StageMetrics metrics) {
+				observed.add(metrics);
+			}
+			
+			@Override
+			public void onPipelineFinished(@NonNull final PipelineResult result) {
+				results.add(result);
+			}
+		});
+		
+		final PipelineResult result = p.execute(args);
+		assertEquals(result.getStageMetrics(), observed);
+		assertEquals(1, results.size());
+		assertTrue(results.get(0) == result);
+	}
+	
+	@Test
+	public void Given_DefaultPipeline_When_Streaming_Expect_StreamedStagesMeasuredTogether() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Streamed stages interleave and thus share a single entry, which
+		// maps pivots to gadgets.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final PipelineResult result = Pipeline.createDefaultPipeline().executeStreaming(args);
+		final ImmutableList<@NonNull StageMetrics> metrics = result.getStageMetrics();
+		
+		assertEquals(2, metrics.size());
+		assertEquals(PivotSeeker.class.getSimpleName(), metrics.get(0).getName());
+		assertEquals(metrics.get(0).getItemsOut(), metrics.get(1).getItemsIn());
+		assertEquals(getGadgets(result).size(), metrics.get(1).getItemsOut());
+	}
+	
+	@Test
+	public void Given_DefaultPipeline_When_Scheduling_Expect_SameGadgets() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Scheduling must respect dependencies of default stages, so that
+		// results equal those of a sequential execution.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final ImmutableList<@NonNull Gadget> expected = getGadgets(Pipeline.createDefaultPipeline().execute(args));
+		assertFalse(expected.isEmpty());
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final PipelineResult result = Pipeline.createDefaultPipeline().executeScheduled(args);
+		assertSameGadgets(expected, getGadgets(result));
+		assertEquals(4, result.getStageMetrics().size());
+		assertEquals(PivotSeeker.class.getSimpleName(), result.getStageMetrics().get(0).getName());
+		
+		// Scheduling via configuration.
+		config.getGeneralConfig().setScheduleStages(true);
+		assertSameGadgets(expected, getGadgets(Pipeline.createDefaultPipeline().execute(args)));
+	}
+	
+	@Test
+	public void Given_IndependentStages_When_Scheduling_Expect_ConcurrentExecution() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Stages without conflicting info accesses must run concurrently.
+		// Each stage waits for the other one, which only terminates if both run
+		// at the same time.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final CountDownLatch latch = new CountDownLatch(2);
+		final Stage meeting = context -> {
+			latch.countDown();
+			try {
+				if (!latch.await(10, TimeUnit.SECONDS)) {
+					throw new StageException("Stages did not run concurrently.");
+				}
+			} catch (final InterruptedException e) {
+				throw new StageException("Interrupted.", e);
+			}
+		};
+		
+		final Pipeline p = Pipeline.createDefaultPipeline();
+		p.addStage(createIndependentStage(meeting));
+		p.addStage(createIndependentStage(meeting));
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		p.executeScheduled(args);
+		assertEquals(0, latch.getCount());
+	}
+	
+	@Test
+	public void Given_UndeclaredStage_When_Scheduling_Expect_Barrier() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException, StageException {
+		// Reason: Stages that do not declare their info accesses may access anything
+		// and must therefore run after all previous and before all following stages.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final List<@NonNull String> order = Collections.synchronizedList(new ArrayList<>());
+		
+		final Pipeline p = new Pipeline();
+		p.addStage(createIndependentStage(context -> order.add("first")));
+		p.addStage(context -> {
+			// Give a concurrent successor the chance to overtake.
+			try {
+				Thread.sleep(50);
+			} catch (final InterruptedException e) {
+				throw new StageException("Interrupted.", e);
+			}
+			order.add("barrier");
+		});
+		p.addStage(createIndependentStage(context -> order.add("last")));
+		p.addStage(new PivotSeeker());
+		p.addStage(new BackwardLinearSweeper());
+		p.addStage(new DefaultStaticAnalyser());
+		p.addStage(new DefaultSemanticAnalyser());
+		
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final PipelineResult result = p.executeScheduled(args);
+		assertEquals(Arrays.asList("first", "barrier", "last"), order);
+		assertEquals(7, result.getStageMetrics().size());
+	}
+	
+	@Test
+	public void Given_CustomStages_When_GettingInfoKeys_Expect_Undeclared() {
+		// Reason: Subclasses of the abstract stage types may access arbitrary infos.
+		// Unless they declare their keys, they must act as barriers. Only the default
+		// stages declare their keys.
+		
+		final List<@NonNull Stage> custom = Arrays.asList(new Seeker() {
+			@Override
+			public void execute(@NonNull final PipelineContext context) {
+			}
+		}, new Sweeper() {
+			@Override
+			public void execute(@NonNull final PipelineContext context) {
+			}
+		}, new StaticAnalyser() {
+			@Override
+			public void execute(@NonNull final PipelineContext context) {
+			}
+		}, (SemanticAnalyser) context -> {
+		});
+		for (final Stage stage : custom) {
+			assertEquals(null, stage.getRequiredInfoKeys());
+			assertEquals(null, stage.getProvidedInfoKeys());
+		}
+		
+		final List<@NonNull Stage> defaults = Arrays.asList(new PivotSeeker(), new BackwardLinearSweeper(),
+				new DefaultStaticAnalyser(), new DefaultSemanticAnalyser());
+		for (final Stage stage : defaults) {
+			assertNotNull(stage.getRequiredInfoKeys());
+			assertNotNull(stage.getProvidedInfoKeys());
+		}
+	}
+	
+	@Test
+	public void Given_ThrowingStage_When_Scheduling_Expect_StageException() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException, InvalidConfigException, IOException {
+		// Reason: Failures of concurrently running stages must be reported like
+		// in sequential executions.
+		
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		
+		final Pipeline p = Pipeline.createDefaultPipeline();
+		p.addStage(createIndependentStage(context -> { throw new RuntimeException(); }));
+		assertThrowsExactly(StageException.class, () -> p.executeScheduled(args));
+		
+		final Pipeline q = Pipeline.createDefaultPipeline();
+		final StageException expected = new StageException("Expected.");
+		q.addStage(createIndependentStage(context -> { throw expected; }));
+		assertTrue(assertThrowsExactly(StageException.class, () -> q.executeScheduled(args)) == expected);
+	}
+}
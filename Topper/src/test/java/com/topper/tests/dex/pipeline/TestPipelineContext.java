@@ -5,6 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.junit.jupiter.api.BeforeAll;
@@ -151,4 +158,38 @@ public class TestPipelineContext {
 		assertEquals(info, c.getStaticInfo(TEST_ID));
 	}
 	
-}
\ No newline at end of file
+	@Test
+	public void Given_ArgsContext_When_PuttingSameIdConcurrently_Expect_SingleSuccess() throws Exception {
+		// Reason: Concurrently scheduled stages share a context. Exactly one of
+		// many concurrent writers of the same identifier must succeed.
+		
+		final int numberThreads = 8;
+		final PipelineContext c = createContext();
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger successes = new AtomicInteger();
+		final ExecutorService pool = Executors.newFixedThreadPool(numberThreads);
+		try {
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < numberThreads; i++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					try {
+						c.putInfo(TEST_ID, new SeekerInfo(ImmutableList.of()));
+						successes.incrementAndGet();
+					} catch (final DuplicateInfoIdException ignored) {
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		
+		assertEquals(1, successes.get());
+		assertInstanceOf(SeekerInfo.class, c.getInfo(TEST_ID));
+	}
+}
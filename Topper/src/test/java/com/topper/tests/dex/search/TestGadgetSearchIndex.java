@@ -0,0 +1,182 @@
+package com.topper.tests.dex.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.ReferenceType;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.jf.dexlib2.iface.instruction.Instruction;
+import org.jf.dexlib2.iface.instruction.OneRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.ReferenceInstruction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.decompiler.references.TypeReference;
+import com.topper.dex.pipeline.Pipeline;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.StaticInfo;
+import com.topper.dex.search.GadgetSearchIndex;
+import com.topper.dex.search.GadgetSearchIndex.Query;
+import com.topper.dex.staticanalyser.Gadget;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.StageException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestGadgetSearchIndex {
+
+	private static ImmutableList<@NonNull Gadget> gadgets;
+
+	private static GadgetSearchIndex index;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException, IOException, StageException {
+		final TopperConfig config = TestConfig.getDefault();
+		TestConfig.reset(config);
+
+		// Gadgets of an entire .dex file, so that references are resolved.
+		final DexBackedDexFile file = DexLoader.get().getFile();
+		gadgets = Pipeline.createStructuredPipeline()
+				.execute(new PipelineArgs(config, file.getBuffer().getBuf(), file, 0)).getContext()
+				.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets();
+		index = GadgetSearchIndex.of(gadgets);
+	}
+
+	/**
+	 * Gets the ids of all gadgets with an instruction that satisfies
+	 * <code>predicate</code> by scanning all gadgets.
+	 */
+	private static int @NonNull [] scan(@NonNull final Predicate<Instruction> predicate) {
+		return IntStream.range(0, gadgets.size()).filter(id -> gadgets.get(id).getInstructions().stream()
+				.anyMatch(instruction -> predicate.test(instruction.getInstruction()))).toArray();
+	}
+
+	@Test
+	public void Given_Index_When_SearchingOpcode_Expect_SameAsScan() {
+		// Reason: Postings of an opcode must list exactly the gadgets containing it.
+
+		for (final Opcode opcode : new Opcode[] { Opcode.THROW, Opcode.MOVE_EXCEPTION, Opcode.INVOKE_DIRECT,
+				Opcode.NEW_INSTANCE }) {
+			assertArrayEquals(scan(instruction -> instruction.getOpcode() == opcode),
+					index.search(new Query().opcode(opcode)));
+		}
+		assertTrue(index.search(new Query().opcode(Opcode.THROW)).length > 0);
+	}
+
+	@Test
+	public void Given_Index_When_SearchingWrittenRegister_Expect_SameAsScan() {
+		// Reason: Postings of a written register must list exactly the gadgets with an
+		// instruction that sets it.
+
+		for (int register = 0; register < 4; register++) {
+			final int r = register;
+			assertArrayEquals(scan(instruction -> instruction instanceof OneRegisterInstruction
+					&& instruction.getOpcode().setsRegister()
+					&& (((OneRegisterInstruction) instruction).getRegisterA() == r
+							|| (instruction.getOpcode().setsWideRegister()
+									&& ((OneRegisterInstruction) instruction).getRegisterA() + 1 == r))),
+					index.search(new Query().writes(r)));
+		}
+	}
+
+	@Test
+	public void Given_Index_When_SearchingTypeReference_Expect_SameAsScan() {
+		// Reason: Postings of a reference must list exactly the gadgets referencing the
+		// same item of the same section.
+
+		final int[] all = scan(instruction -> instruction instanceof ReferenceInstruction
+				&& ((ReferenceInstruction) instruction).getReferenceType() == ReferenceType.TYPE);
+		assertTrue(all.length > 0);
+
+		for (final int id : all) {
+			for (final DecompiledInstruction decompiled : gadgets.get(id).getInstructions()) {
+				final Instruction instruction = decompiled.getInstruction();
+				if (instruction instanceof ReferenceInstruction
+						&& ((ReferenceInstruction) instruction).getReferenceType() == ReferenceType.TYPE) {
+					final int type = ((TypeReference) ((ReferenceInstruction) instruction).getReference())
+							.getTypeIndex();
+					assertArrayEquals(
+							scan(other -> other instanceof ReferenceInstruction
+									&& ((ReferenceInstruction) other).getReferenceType() == ReferenceType.TYPE
+									&& ((TypeReference) ((ReferenceInstruction) other).getReference())
+											.getTypeIndex() == type),
+							index.search(new Query().reference(0, ReferenceType.TYPE, type)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void Given_Index_When_SearchingConjunction_Expect_Intersection() {
+		// Reason: Terms of a query must all be satisfied, and an empty query must match
+		// all gadgets.
+
+		final int[] throwing = index.search(new Query().opcode(Opcode.THROW));
+		final int[] moving = index.search(new Query().opcode(Opcode.MOVE_EXCEPTION));
+		final int[] expected = IntStream.of(throwing).filter(id -> IntStream.of(moving).anyMatch(m -> m == id))
+				.toArray();
+		assertArrayEquals(expected, index.search(new Query().opcode(Opcode.MOVE_EXCEPTION).opcode(Opcode.THROW)));
+
+		assertEquals(gadgets.size(), index.search(new Query()).length);
+		assertEquals(0, index.search(new Query().opcode(Opcode.THROW).writes(0xffff)).length);
+		assertFalse(new Query().opcode(Opcode.THROW).isEmpty());
+	}
+
+	@Test
+	public void Given_GadgetsOfTwoDexFiles_When_SearchingReference_Expect_OnlyGadgetsOfThatDexFile() {
+		// Reason: Item indices are relative to a .dex file, so the same reference must
+		// not match gadgets of another .dex file.
+
+		final ImmutableList<@NonNull Gadget> both = ImmutableList.<@NonNull Gadget>builder().addAll(gadgets)
+				.addAll(gadgets).build();
+		final int[] dexFiles = new int[both.size()];
+		Arrays.fill(dexFiles, gadgets.size(), dexFiles.length, 1);
+		final GadgetSearchIndex merged = GadgetSearchIndex.of(both, dexFiles);
+		assertArrayEquals(new int[] { 0, 1 }, merged.getDexFiles());
+
+		final int[] all = scan(instruction -> instruction instanceof ReferenceInstruction
+				&& ((ReferenceInstruction) instruction).getReferenceType() == ReferenceType.TYPE);
+		assertTrue(all.length > 0);
+		for (final DecompiledInstruction decompiled : gadgets.get(all[0]).getInstructions()) {
+			final Instruction instruction = decompiled.getInstruction();
+			if (instruction instanceof ReferenceInstruction
+					&& ((ReferenceInstruction) instruction).getReferenceType() == ReferenceType.TYPE) {
+				final int type = ((TypeReference) ((ReferenceInstruction) instruction).getReference()).getTypeIndex();
+				final int[] first = index.search(new Query().reference(0, ReferenceType.TYPE, type));
+
+				assertArrayEquals(first, merged.search(new Query().reference(0, ReferenceType.TYPE, type)));
+				assertArrayEquals(IntStream.of(first).map(id -> id + gadgets.size()).toArray(),
+						merged.search(new Query().reference(1, ReferenceType.TYPE, type)));
+				assertEquals(0, merged.search(new Query().reference(2, ReferenceType.TYPE, type)).length);
+			}
+		}
+
+		// Structured terms without references are independent of .dex files.
+		assertEquals(2 * index.search(new Query().opcode(Opcode.THROW)).length,
+				merged.search(new Query().opcode(Opcode.THROW)).length);
+	}
+
+	@Test
+	public void Given_MismatchingDexFiles_When_BuildingIndex_Expect_IllegalArgumentException() {
+		// Reason: Each gadget must be assigned exactly one valid .dex file.
+
+		assertThrowsExactly(IllegalArgumentException.class,
+				() -> GadgetSearchIndex.of(gadgets, new int[gadgets.size() + 1]));
+		final int[] invalid = new int[gadgets.size()];
+		invalid[0] = -1;
+		assertThrowsExactly(IllegalArgumentException.class, () -> GadgetSearchIndex.of(gadgets, invalid));
+	}
+}
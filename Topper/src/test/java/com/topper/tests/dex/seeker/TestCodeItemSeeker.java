@@ -0,0 +1,95 @@
+package com.topper.tests.dex.seeker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.pipeline.PipelineArgs;
+import com.topper.dex.pipeline.PipelineContext;
+import com.topper.dex.pipeline.SeekerInfo;
+import com.topper.dex.pipeline.SweeperInfo;
+import com.topper.dex.seeker.CodeItemSeeker;
+import com.topper.dex.seeker.CodeRegions;
+import com.topper.dex.seeker.PivotSeeker;
+import com.topper.dex.sweeper.BackwardLinearSweeper;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.pipeline.StageException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestCodeItemSeeker {
+
+	private static TopperConfig config;
+
+	private static DexBackedDexFile file;
+
+	private static byte[] buffer;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException, IOException {
+		config = TestConfig.getDefault();
+		file = DexLoader.get().getFile();
+		buffer = file.getBuffer().readByteRange(0, file.getBuffer().getBuf().length);
+	}
+
+	@Test
+	public void Given_DexFile_When_Seeking_Expect_OnlyPivotsInsideCodeItems() throws StageException {
+		// Reason: Headers and data sections can never be executed.
+
+		final PipelineContext structured = new PipelineContext(new PipelineArgs(config, buffer, file));
+		new CodeItemSeeker().execute(structured);
+		final SeekerInfo info = structured.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+		final PipelineContext whole = new PipelineContext(new PipelineArgs(config, buffer, file));
+		new PivotSeeker().execute(whole);
+		final SeekerInfo wholeInfo = whole.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+		final CodeRegions regions = info.getRegions();
+		assertNotNull(regions);
+		assertTrue(info.getNumberPivots() > 0);
+		assertTrue(info.getNumberPivots() < wholeInfo.getNumberPivots());
+		assertTrue(info.getPivotOffsetStream().allMatch(offset -> regions.indexOf(offset) != -1));
+	}
+
+	@Test
+	public void Given_DexFile_When_Sweeping_Expect_SequencesInsideCodeItemOfPivot() throws StageException {
+		// Reason: Sweeps must not cross the start of the code item of their pivot.
+
+		final PipelineContext context = new PipelineContext(new PipelineArgs(config, buffer, file));
+		new CodeItemSeeker().execute(context);
+		new BackwardLinearSweeper().execute(context);
+		final CodeRegions regions = context.getSeekerInfo(SeekerInfo.class.getSimpleName()).getRegions();
+		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
+
+		assertNotNull(regions);
+		assertTrue(info.getInstructionSequences().size() > 0);
+		info.getInstructionSequences().forEach(sequence -> {
+			final int region = regions.indexOf(sequence.get(sequence.size() - 1).getOffset());
+			assertEquals(region, regions.indexOf(sequence.get(0).getOffset()));
+		});
+	}
+
+	@Test
+	public void Given_NoAugmentation_When_Seeking_Expect_EntireBuffer() throws StageException {
+		// Reason: Without file structure, the seeker must behave like a PivotSeeker.
+
+		final PipelineContext structured = new PipelineContext(new PipelineArgs(config, buffer));
+		new CodeItemSeeker().execute(structured);
+		final SeekerInfo info = structured.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+		final PipelineContext whole = new PipelineContext(new PipelineArgs(config, buffer));
+		new PivotSeeker().execute(whole);
+
+		assertNull(info.getRegions());
+		assertEquals(whole.getSeekerInfo(SeekerInfo.class.getSimpleName()).getPivotOffsets(),
+				info.getPivotOffsets());
+	}
+}
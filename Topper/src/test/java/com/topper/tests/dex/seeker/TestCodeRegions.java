@@ -0,0 +1,77 @@
+package com.topper.tests.dex.seeker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.junit.jupiter.api.Test;
+
+import com.topper.dex.seeker.CodeRegions;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.tests.utility.DexLoader;
+
+public class TestCodeRegions {
+
+	@Test
+	public void Given_OverlappingUnsortedRegions_When_Creating_Expect_MergedSortedRegions() {
+		// Reason: Lookups rely on sorted, disjoint regions.
+
+		final CodeRegions regions = new CodeRegions(new int[] { 40, 0, 10, 20, 60 },
+				new int[] { 50, 10, 16, 30, 60 });
+
+		// [0, 10) and [10, 16) are adjacent, [60, 60) is empty.
+		assertEquals(3, regions.size());
+		assertEquals(0, regions.getStart(0));
+		assertEquals(16, regions.getEnd(0));
+		assertEquals(20, regions.getStart(1));
+		assertEquals(30, regions.getEnd(1));
+		assertEquals(40, regions.getStart(2));
+		assertEquals(50, regions.getEnd(2));
+		assertEquals(36, regions.getTotalSize());
+	}
+
+	@Test
+	public void Given_Regions_When_LookingUpOffsets_Expect_ContainingRegion() {
+		// Reason: Region ends are exclusive, gaps belong to no region.
+
+		final CodeRegions regions = new CodeRegions(new int[] { 10, 20 }, new int[] { 16, 30 });
+
+		assertEquals(-1, regions.indexOf(0));
+		assertEquals(0, regions.indexOf(10));
+		assertEquals(0, regions.indexOf(15));
+		assertEquals(-1, regions.indexOf(16));
+		assertEquals(1, regions.indexOf(20));
+		assertEquals(1, regions.indexOf(29));
+		assertEquals(-1, regions.indexOf(30));
+	}
+
+	@Test
+	public void Given_InvalidRegion_When_Creating_Expect_IllegalArgumentException() {
+		assertThrowsExactly(IllegalArgumentException.class, () -> new CodeRegions(new int[] { 10 }, new int[] { 5 }));
+		assertThrowsExactly(IllegalArgumentException.class, () -> new CodeRegions(new int[] { 10 }, new int[0]));
+	}
+
+	@Test
+	public void Given_DexFile_When_Indexing_Expect_AlignedRegionsInsideFile() throws IOException,
+			InvalidConfigException {
+		// Reason: Instruction arrays of code items are 4 - byte aligned and shifted by
+		// the given base.
+
+		final DexBackedDexFile file = DexLoader.get().getFile();
+		final int size = file.getBuffer().getBuf().length;
+		final CodeRegions regions = CodeRegions.fromDexFile(file, 0);
+		final CodeRegions shifted = CodeRegions.fromDexFile(file, 0x40);
+
+		assertTrue(regions.size() > 0);
+		assertTrue(regions.getTotalSize() < size);
+		assertEquals(regions.size(), shifted.size());
+		for (int i = 0; i < regions.size(); i++) {
+			assertEquals(0, regions.getStart(i) % 4);
+			assertTrue(regions.getEnd(i) <= size);
+			assertEquals(regions.getStart(i) + 0x40, shifted.getStart(i));
+		}
+	}
+}
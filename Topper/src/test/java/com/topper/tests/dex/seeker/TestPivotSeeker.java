@@ -1,17 +1,24 @@
 package com.topper.tests.dex.seeker;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
 import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.topper.configuration.TopperConfig;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
@@ -130,4 +137,96 @@ public class TestPivotSeeker {
 		assertEquals(matches, info.getPivotOffsets().size());
 		checkOffsets(buffer, info.getPivotOffsets(), c);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void Given_RandomBytes_When_Scanning_Expect_SameOffsetsAsByteLoop() {
+		// Reason: Word - at - a - time scanning must neither miss nor invent matches,
+		// in particular around word boundaries and at the end of the buffer.
+
+		final Random random = new Random(0x70b);
+		for (int length = 0; length < 64; length++) {
+			final byte[] buffer = new byte[length];
+			random.nextBytes(buffer);
+			for (int i = 0; i < length; i++) {
+				// Make matches and neighbouring bytes likely.
+				buffer[i] = (byte) (0x26 + random.nextInt(3));
+			}
+
+			for (final boolean aligned : new boolean[] { false, true }) {
+				final List<Integer> expected = new ArrayList<>();
+				for (int i = 0; i + 2 <= length; i += (aligned) ? 2 : 1) {
+					if (buffer[i] == 0x27) {
+						expected.add(i);
+					}
+				}
+				assertEquals(expected, Ints.asList(PivotSeeker.scan(buffer, (byte) 0x27, 2, aligned)));
+			}
+		}
+	}
+
+	@Test
+	public void Given_StructuredFile_When_Seeking_Expect_OnlyAlignedOffsets() throws IOException,
+			InvalidConfigException, DuplicateInfoIdException, MissingStageInfoException, NoSuchFieldException,
+			IllegalAccessException {
+		// Reason: Instructions in .dex files are aligned to code units, so unaligned
+		// pivots must be skipped if and only if a structured file is given.
+
+		final DexBackedDexFile file = DexLoader.get().getFile();
+		final byte[] buffer = file.getBuffer().readByteRange(0, file.getBuffer().getBuf().length);
+
+		final PipelineContext structured = new PipelineContext(new PipelineArgs(config, buffer, file));
+		new PivotSeeker().execute(structured);
+		final SeekerInfo structuredInfo = structured.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+		final PipelineContext raw = createContext(buffer);
+		new PivotSeeker().execute(raw);
+		final SeekerInfo rawInfo = raw.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+		assertTrue(structuredInfo.getPivotOffsetStream().allMatch(offset -> offset % 2 == 0));
+		assertTrue(rawInfo.getPivotOffsetStream().anyMatch(offset -> offset % 2 != 0));
+		assertEquals(rawInfo.getPivotOffsetStream().filter(offset -> offset % 2 == 0).count(),
+				structuredInfo.getNumberPivots());
+	}
+
+	@Test
+	public void Given_MultiplePivotOpcodes_When_Seeking_Expect_UnionOfSingleSeeks() throws IOException,
+			InvalidConfigException, DuplicateInfoIdException, MissingStageInfoException, NoSuchFieldException,
+			IllegalAccessException {
+		// Reason: A single pass over a lookup table must find exactly the pivots
+		// that separate searches for each opcode would find.
+
+		final byte[] buffer = DexLoader.get().getMethodBytes();
+		final Opcodes opcodes = Opcodes.forDexVersion(config.getDecompilerConfig().getDexVersion());
+		final Opcode[] pivots = new Opcode[] { Opcode.THROW, Opcode.RETURN_VOID, Opcode.GOTO };
+
+		final TreeSet<Integer> expected = new TreeSet<>();
+		for (final Opcode pivot : pivots) {
+			expected.addAll(Ints.asList(PivotSeeker.scan(buffer, (byte) (opcodes.getOpcodeValue(pivot) & 0xff),
+					pivot.format.size, false)));
+		}
+
+		try {
+			config.getSweeperConfig().setPivotOpcode("throw, return-void, goto");
+			final PipelineContext c = createContext(buffer);
+			new PivotSeeker().execute(c);
+			final SeekerInfo info = c.getSeekerInfo(SeekerInfo.class.getSimpleName());
+
+			assertEquals(new ArrayList<>(expected), info.getPivotOffsets());
+		} finally {
+			config.getSweeperConfig().setPivotOpcode("throw");
+		}
+	}
+
+	@Test
+	public void Given_PayloadPivotOpcode_When_Configuring_Expect_InvalidConfigException() {
+		// Reason: Payload opcodes share the opcode byte 0x00 with nop, so every nop
+		// byte would be regarded a pivot.
+
+		for (final String payload : new String[] { "packed-switch-payload", "sparse-switch-payload",
+				"array-payload", "throw, array-payload" }) {
+			assertThrowsExactly(InvalidConfigException.class,
+					() -> config.getSweeperConfig().setPivotOpcode(payload));
+		}
+		assertEquals(Opcode.THROW, config.getSweeperConfig().getPivotOpcode());
+	}
+}
@@ -8,6 +8,10 @@ import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -20,8 +24,10 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.topper.configuration.TopperConfig;
 import com.topper.dex.decompiler.DecompilationResult;
 import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.OpcodeTable;
 import com.topper.dex.decompiler.SmaliDecompiler;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 import com.topper.dex.graphs.BasicBlock;
@@ -33,6 +39,10 @@ import com.topper.exceptions.InvalidConfigException;
 import com.topper.tests.utility.DexLoader;
 import com.topper.tests.utility.TestConfig;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 public class TestBFSCFGAnalyser {
 
 	private static ImmutableList<@NonNull DecompiledInstruction> validInstructions;
@@ -239,4 +249,72 @@ public class TestBFSCFGAnalyser {
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void Given_Recording_When_ExtractingCFG_Expect_CFGBuildEventMatchingGraph() throws IOException {
+		// Reason: Flight recorder must describe the size of each extracted graph.
+		final CFG cfg;
+		final Path dump = Files.createTempFile("topper", ".jfr");
+		try (final Recording recording = new Recording()) {
+			recording.enable("com.topper.CFGBuild").withoutThreshold();
+			recording.start();
+			cfg = createAnalyser().extractCFG(validInstructions, validInstructions.get(0).getOffset());
+			recording.stop();
+			recording.dump(dump);
+		}
+
+		// Recordings are process - wide. Ignore extractions of other threads.
+		final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+		Files.delete(dump);
+		events.removeIf(event -> event.getThread() == null
+				|| event.getThread().getJavaThreadId() != Thread.currentThread().getId());
+		assertEquals(1, events.size());
+		assertEquals(validInstructions.size(), events.get(0).getInt("instructions"));
+		assertEquals(cfg.getGraph().nodes().size(), events.get(0).getInt("blocks"));
+		assertEquals(cfg.getGraph().edges().size(), events.get(0).getInt("edges"));
+	}
+
+	@Test
+	public void Given_SwitchTargetingEveryInstruction_When_Analyse_Expect_BlockPerTarget() throws InvalidConfigException {
+		// Reason: Repeatedly splitting blocks must result in adjacent, non - overlapping
+		// blocks, each of which is linked to its successor.
+		final int cases = 64;
+		final TopperConfig config = TestConfig.getDefault();
+		final OpcodeTable opcodes = config.getDecompilerConfig().getOpcodeTable();
+
+		// packed-switch v0, payload; cases x const/4 v0, #0; return-void; payload
+		final int payloadUnit = (3 + cases + 1 + 1) & ~1;
+		final ByteBuffer buffer = ByteBuffer.allocate((payloadUnit + 4 + 2 * cases) * 2)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put((byte) opcodes.getValue(Opcode.PACKED_SWITCH)).put((byte) 0).putInt(payloadUnit);
+		for (int i = 0; i < cases; i++) {
+			buffer.put((byte) opcodes.getValue(Opcode.CONST_4)).put((byte) 0);
+		}
+		buffer.put((byte) opcodes.getValue(Opcode.RETURN_VOID)).put((byte) 0);
+		while (buffer.position() < payloadUnit * 2) {
+			buffer.putShort((short) 0);
+		}
+		buffer.putShort((short) opcodes.getValue(Opcode.PACKED_SWITCH_PAYLOAD)).putShort((short) cases).putInt(0);
+		for (int i = 0; i < cases; i++) {
+			buffer.putInt(3 + i);
+		}
+
+		final ImmutableList<@NonNull DecompiledInstruction> instructions = new SmaliDecompiler()
+				.decompile(buffer.array(), null, config).getInstructions();
+		final CFG cfg = createAnalyser().extractCFG(instructions, 0);
+
+		assertEquals(cases + 1, cfg.getGraph().nodes().size());
+		final BasicBlock entry = cfg.getBlock(instructions.get(0));
+		assertEquals(cases, cfg.getGraph().outDegree(entry));
+		for (int i = 0; i < cases; i++) {
+			final BasicBlock block = cfg.getBlock(instructions.get(1 + i));
+			assertEquals(instructions.get(1 + i).getOffset(), block.getOffset());
+			assertEquals((i < cases - 1) ? 1 : 0, cfg.getGraph().outDegree(block));
+			if (i < cases - 1) {
+				final BasicBlock next = cfg.getBlock(instructions.get(2 + i));
+				assertEquals(block.getOffset() + block.getSize(), next.getOffset());
+				assertTrue(cfg.getGraph().hasEdgeConnecting(block, next));
+			}
+		}
+	}
+}
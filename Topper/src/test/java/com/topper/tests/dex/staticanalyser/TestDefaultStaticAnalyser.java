@@ -1,11 +1,17 @@
 package com.topper.tests.dex.staticanalyser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.junit.jupiter.api.BeforeAll;
@@ -13,8 +19,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.topper.configuration.StaticAnalyserConfig.CFGMode;
 import com.topper.configuration.TopperConfig;
+import com.topper.dex.graphs.BasicBlock;
 import com.topper.dex.graphs.CFG;
+import com.topper.dex.graphs.CompactCFG;
 import com.topper.dex.graphs.DFG;
 import com.topper.dex.pipeline.PipelineArgs;
 import com.topper.dex.pipeline.PipelineContext;
@@ -67,9 +76,12 @@ public class TestDefaultStaticAnalyser {
 	}
 
 	@BeforeEach
-	public void reset() {
+	public void reset() throws InvalidConfigException {
 		config.getStaticAnalyserConfig().setSkipCFG(false);
 		config.getStaticAnalyserConfig().setSkipDFG(false);
+		config.getStaticAnalyserConfig().setCFGMode(CFGMode.EAGER);
+		config.getStaticAnalyserConfig().setCompactCFG(false);
+		config.getGeneralConfig().setDefaultAmountThreads(1);
 	}
 
 	public static final void verifyResults(@NonNull final PipelineContext context, @NonNull final TopperConfig config)
@@ -230,4 +242,182 @@ public class TestDefaultStaticAnalyser {
 
 		assertThrowsExactly(IllegalArgumentException.class, () -> analyser.execute(context));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void Given_ValidContext_When_ExecutingParallel_Expect_SameGadgetsAsSerial()
+			throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException,
+			InvalidConfigException, IOException, StageException {
+		// Reason: Parallel analysis must produce the same gadgets in the same order
+		// as serial analysis.
+
+		final byte[] buffer = DexLoader.get().getMethodBytes();
+		final PipelineContext serial = createContext(buffer);
+		create().execute(serial);
+		final ImmutableList<@NonNull Gadget> expected = serial.getStaticInfo(StaticInfo.class.getSimpleName())
+				.getGadgets();
+		assertTrue(expected.size() > 1);
+
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final PipelineContext parallel = createContext(buffer);
+		create().execute(parallel);
+		final ImmutableList<@NonNull Gadget> actual = parallel.getStaticInfo(StaticInfo.class.getSimpleName())
+				.getGadgets();
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getInstructions(), actual.get(i).getInstructions());
+			assertEquals(expected.get(i).getCFG().getGraph().nodes().size(),
+					actual.get(i).getCFG().getGraph().nodes().size());
+			assertEquals(expected.get(i).hasDFG(), actual.get(i).hasDFG());
+		}
+		verifyResults(parallel, config);
+	}
+
+	@Test
+	public void Given_EmptyInstructionSequence_When_ExecutingParallel_Expect_IllegalArgumentException()
+			throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException,
+			InvalidConfigException, IOException, DuplicateInfoIdException {
+		// Reason: Failures of worker threads must surface like in serial analysis.
+
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final PipelineArgs args = createArgs(DexLoader.get().getMethodBytes());
+		final SweeperInfo info = new SweeperInfo(ImmutableList.of(ImmutableList.of(), ImmutableList.of()));
+		final PipelineContext context = new PipelineContext(args);
+		context.putInfo(SweeperInfo.class.getSimpleName(), info);
+
+		assertThrowsExactly(IllegalArgumentException.class, () -> create().execute(context));
+	}
+
+	@Test
+	public void Given_LazyCFGMode_When_Executing_Expect_CFGExtractedOnFirstAccess()
+			throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException,
+			InvalidConfigException, IOException, StageException {
+		// Reason: Lazy CFGs must not be extracted during analysis, but must equal
+		// eager CFGs once requested. Extraction must only happen once.
+
+		final byte[] buffer = DexLoader.get().getMethodBytes();
+		final PipelineContext eager = createContext(buffer);
+		create().execute(eager);
+		final ImmutableList<@NonNull Gadget> expected = eager.getStaticInfo(StaticInfo.class.getSimpleName())
+				.getGadgets();
+
+		config.getStaticAnalyserConfig().setCFGMode(CFGMode.LAZY);
+		final PipelineContext lazy = createContext(buffer);
+		create().execute(lazy);
+		final ImmutableList<@NonNull Gadget> actual = lazy.getStaticInfo(StaticInfo.class.getSimpleName())
+				.getGadgets();
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			final Gadget gadget = actual.get(i);
+			assertTrue(gadget.hasCFG());
+			assertFalse(gadget.isCFGExtracted());
+
+			final CFG cfg = gadget.getCFG();
+			assertNotNull(cfg);
+			assertTrue(gadget.isCFGExtracted());
+			assertTrue(cfg == gadget.getCFG());
+
+			final CFG e = expected.get(i).getCFG();
+			assertEquals(e.getEntry(), cfg.getEntry());
+			assertEquals(e.getGraph().nodes().size(), cfg.getGraph().nodes().size());
+			assertEquals(e.getGraph().edges().size(), cfg.getGraph().edges().size());
+		}
+		verifyResults(lazy, config);
+	}
+
+	@Test
+	public void Given_LazyCFGMode_When_AccessingConcurrently_Expect_SameCFG() throws Exception {
+		// Reason: Concurrent first accesses of a lazy CFG must share a single CFG.
+
+		config.getStaticAnalyserConfig().setCFGMode(CFGMode.LAZY);
+		final PipelineContext c = createContext(DexLoader.get().getMethodBytes());
+		create().execute(c);
+		final Gadget gadget = c.getStaticInfo(StaticInfo.class.getSimpleName()).getGadgets().get(0);
+
+		final int numberThreads = 8;
+		final ExecutorService pool = Executors.newFixedThreadPool(numberThreads);
+		try {
+			final List<Future<CFG>> futures = new ArrayList<>();
+			for (int i = 0; i < numberThreads; i++) {
+				futures.add(pool.submit(gadget::getCFG));
+			}
+			for (final Future<CFG> future : futures) {
+				assertTrue(future.get() == gadget.getCFG());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void Given_SkipCFGMode_When_Executing_Expect_CFGNullValid()
+			throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException,
+			InvalidConfigException, IOException, StageException {
+		// Reason: Skipping CFG extraction via mode must behave like skipCFG.
+
+		config.getStaticAnalyserConfig().setCFGMode(CFGMode.SKIP);
+		assertTrue(config.getStaticAnalyserConfig().shouldSkipCFG());
+
+		final PipelineContext c = createContext(DexLoader.get().getMethodBytes());
+		create().execute(c);
+		verifyResults(c, config);
+	}
+
+	@Test
+	public void Given_InvalidCFGModeName_When_Setting_Expect_InvalidConfigException() throws InvalidConfigException {
+		// Reason: Only eager, lazy and skip are valid CFG modes.
+
+		config.getStaticAnalyserConfig().setCFGMode(" Lazy ");
+		assertEquals(CFGMode.LAZY, config.getStaticAnalyserConfig().getCFGMode());
+		assertThrowsExactly(InvalidConfigException.class,
+				() -> config.getStaticAnalyserConfig().setCFGMode("sometimes"));
+	}
+
+	@Test
+	public void Given_CompactCFG_When_Executing_Expect_CompactCFGsEquivalentToCFGs()
+			throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException,
+			InvalidConfigException, IOException, StageException {
+		// Reason: Gadgets must keep compact CFGs, if configured, both eagerly and
+		// lazily. Expanding them must give the same CFGs as without compaction.
+
+		final byte[] buffer = DexLoader.get().getMethodBytes();
+		final PipelineContext full = createContext(buffer);
+		create().execute(full);
+		final ImmutableList<@NonNull Gadget> expected = full.getStaticInfo(StaticInfo.class.getSimpleName())
+				.getGadgets();
+
+		config.getStaticAnalyserConfig().setCompactCFG(true);
+		for (final CFGMode mode : new CFGMode[] { CFGMode.EAGER, CFGMode.LAZY }) {
+
+			config.getStaticAnalyserConfig().setCFGMode(mode);
+			final PipelineContext c = createContext(buffer);
+			create().execute(c);
+			final ImmutableList<@NonNull Gadget> actual = c.getStaticInfo(StaticInfo.class.getSimpleName())
+					.getGadgets();
+
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				final Gadget gadget = actual.get(i);
+				assertTrue(gadget.hasCFG());
+				assertEquals(mode == CFGMode.EAGER, gadget.isCFGExtracted());
+
+				final CompactCFG compact = gadget.getCompactCFG();
+				assertNotNull(compact);
+				assertTrue(compact == gadget.getCompactCFG());
+
+				final CFG e = expected.get(i).getCFG();
+				final CFG cfg = gadget.getCFG();
+				assertEquals(e.getEntry(), gadget.getEntry());
+				assertEquals(e.getGraph().nodes().size(), cfg.getGraph().nodes().size());
+				for (final BasicBlock block : e.getGraph().nodes()) {
+					final BasicBlock other = cfg.getBlock(block.getInstructions().get(0));
+					assertEquals(block.getSize(), other.getSize());
+					assertEquals(e.getGraph().outDegree(block), cfg.getGraph().outDegree(other));
+				}
+				assertEquals(e.getGraph().edges().size(), compact.getNumberEdges());
+			}
+			verifyResults(c, config);
+		}
+	}
+}
@@ -1,11 +1,21 @@
 package com.topper.tests.dex.sweeper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
@@ -14,6 +24,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Bytes;
 import com.topper.configuration.TopperConfig;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
 import com.topper.dex.pipeline.PipelineArgs;
@@ -21,12 +32,17 @@ import com.topper.dex.pipeline.PipelineContext;
 import com.topper.dex.pipeline.SeekerInfo;
 import com.topper.dex.pipeline.SweeperInfo;
 import com.topper.dex.sweeper.BackwardLinearSweeper;
+import com.topper.dex.sweeper.InstructionSequence;
 import com.topper.dex.sweeper.Sweeper;
 import com.topper.exceptions.InvalidConfigException;
 import com.topper.exceptions.pipeline.StageException;
 import com.topper.exceptions.pipeline.SweeperException;
 import com.topper.tests.utility.TestConfig;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 public class TestBackwardLinearSweeper {
 
 	private static final byte @NonNull [] VALID_BYTECODE = new byte[] { 0x54, 0x30, 0x24, 0x8, 0x1d, 0x0, 0x52, 0x31,
@@ -37,6 +53,7 @@ public class TestBackwardLinearSweeper {
 			0x1, 0x14, 0x17, 0x2, 0x0, 0x1, 0x0, 0x1, 0x0, 0x0, 0x0, (byte) 0xfb, 0xd, 0x2f, 0x0, 0x18, 0x0, 0x0, 0x0,
 			0x54, 0x10, 0x23, 0x8, 0x38, 0x0, 0x12, 0x0, 0x54, 0x10, 0x23, 0x8 };
 	private static final int VALID_BYTECODE_THROW_OFFSET = 0x32;
+	private static final int VALID_BYTECODE_RETURN_VOID_OFFSET = 0x2c;
 	private static final int VALID_BYTECODE_NUMBER_INSTRUCTIONS_IN_GADGET = 17;
 
 	private static final byte @NonNull [] SHORT_VALID_BYTECODE = new byte[] { 0x27, 0x1 };
@@ -59,6 +76,7 @@ public class TestBackwardLinearSweeper {
 		
 		config.getSweeperConfig().setMaxNumberInstructions(VALID_BYTECODE_NUMBER_INSTRUCTIONS_IN_GADGET);
 		config.getSweeperConfig().setPivotOpcode("THROW");
+		TestConfig.reset(config);
 	}
 
 	@NonNull
@@ -71,6 +89,27 @@ public class TestBackwardLinearSweeper {
 		return context;
 	}
 
+	@NonNull
+	private static PipelineContext createContext(final byte[] bytecode, final ImmutableList<Integer> offsets)
+			throws StageException {
+
+		final PipelineArgs args = new PipelineArgs(config, bytecode);
+		final PipelineContext context = new PipelineContext(args);
+		context.putInfo(SeekerInfo.class.getSimpleName(), new SeekerInfo(offsets));
+
+		return context;
+	}
+
+	@NonNull
+	private static ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sweep(final byte[] bytecode,
+			final ImmutableList<Integer> offsets) throws StageException {
+
+		final PipelineContext context = createContext(bytecode, offsets);
+		sweeper.execute(context);
+		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
+		return info.getInstructionSequences();
+	}
+
 	// Method: sweep(buffer : byte[], offset : int) :
 	// List<List<DecompiledInstruction>>
 	@Test
@@ -79,7 +118,7 @@ public class TestBackwardLinearSweeper {
 		final PipelineContext context = createContext(VALID_BYTECODE, VALID_BYTECODE_THROW_OFFSET);
 		sweeper.execute(context);
 		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = info
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
 				.getInstructionSequences();
 
 		// Expecting at least one result (hard to predict though)
@@ -92,7 +131,7 @@ public class TestBackwardLinearSweeper {
 			exist[i] = false;
 		}
 
-		for (final ImmutableList<@NonNull DecompiledInstruction> sequence : sequences) {
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
 			exist[sequence.size() - 1] = true;
 		}
 
@@ -102,7 +141,7 @@ public class TestBackwardLinearSweeper {
 		
 		// All ending instructions must be pivot instructions.
 		// No intermediate instruction must be a pivot instruction.
-		for (final ImmutableList<@NonNull DecompiledInstruction> sequence : sequences) {
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
 			
 			assertEquals(config.getSweeperConfig().getPivotOpcode(), sequence.get(sequence.size() - 1).getInstruction().getOpcode());
 			for (int i = 0; i < sequence.size() - 1; i++) {
@@ -113,8 +152,8 @@ public class TestBackwardLinearSweeper {
 
 		// Expecting different sizes
 		int firstSum, secondSum;
-		for (final ImmutableList<DecompiledInstruction> first : sequences) {
-			for (final ImmutableList<DecompiledInstruction> second : sequences) {
+		for (final List<DecompiledInstruction> first : sequences) {
+			for (final List<DecompiledInstruction> second : sequences) {
 
 				if (first == second) {
 					continue;
@@ -143,7 +182,7 @@ public class TestBackwardLinearSweeper {
 		final PipelineContext context = createContext(SHORT_VALID_BYTECODE, 0);
 		sweeper.execute(context);
 		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = info
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
 				.getInstructionSequences();
 		assertEquals(1, sequences.size());
 		assertEquals(1, sequences.get(0).size());
@@ -170,7 +209,7 @@ public class TestBackwardLinearSweeper {
 		final PipelineContext context = createContext(MEDIUM_VALID_BYTECODE, MEDIUM_VALID_BYTECODE_THROW_OFFSET);
 		sweeper.execute(context);
 		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = info
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
 				.getInstructionSequences();
 
 		// Expecting all sizes between 1 and max amount instructions in bytecode
@@ -179,7 +218,7 @@ public class TestBackwardLinearSweeper {
 			exist[i] = false;
 		}
 
-		for (final ImmutableList<@NonNull DecompiledInstruction> sequence : sequences) {
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
 			exist[sequence.size() - 1] = true;
 		}
 
@@ -199,12 +238,154 @@ public class TestBackwardLinearSweeper {
 		final PipelineContext context = createContext(MEDIUM_VALID_BYTECODE, MEDIUM_VALID_BYTECODE_THROW_OFFSET);
 		sweeper.execute(context);
 		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = info
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
 				.getInstructionSequences();
 		
-		for (@NonNull final ImmutableList<@NonNull DecompiledInstruction> sequence : sequences) {
+		for (@NonNull final List<@NonNull DecompiledInstruction> sequence : sequences) {
 			assertTrue(config.getSweeperConfig().getMaxNumberInstructions() >= sequence.size());
 			assertTrue(1 <= sequence.size());
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void Given_MultiplePivots_When_SweepingInParallel_Expect_SameSequencesAsSerial()
+			throws InvalidConfigException, StageException {
+
+		// Reason: Parallel sweeping must merge results in pivot order.
+		final int prefixSize = VALID_BYTECODE_THROW_OFFSET + SHORT_VALID_BYTECODE.length;
+		final byte[] bytecode = Bytes.concat(Arrays.copyOf(VALID_BYTECODE, prefixSize), MEDIUM_VALID_BYTECODE);
+		final int secondOffset = prefixSize + MEDIUM_VALID_BYTECODE_THROW_OFFSET;
+		final ImmutableList<Integer> offsets = ImmutableList.of(secondOffset, VALID_BYTECODE_THROW_OFFSET,
+				secondOffset, VALID_BYTECODE_THROW_OFFSET, VALID_BYTECODE_THROW_OFFSET);
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> serial = sweep(bytecode, offsets);
+
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> parallel = sweep(bytecode,
+				offsets);
+
+		assertEquals(serial.size(), parallel.size());
+		for (int i = 0; i < serial.size(); i++) {
+
+			assertEquals(serial.get(i).size(), parallel.get(i).size());
+			for (int j = 0; j < serial.get(i).size(); j++) {
+				assertEquals(serial.get(i).get(j).getOffset(), parallel.get(i).get(j).getOffset());
+				assertTrue(Arrays.equals(serial.get(i).get(j).getByteCode(), parallel.get(i).get(j).getByteCode()));
+			}
+		}
+	}
+
+	@Test
+	public void Given_ValidByteCode_When_Sweeping_Expect_SequencesShareSuffixes() throws StageException {
+
+		// Reason: A sequence must extend a previously found sequence of the same
+		// pivot instead of copying it.
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = sweep(VALID_BYTECODE,
+				ImmutableList.of(VALID_BYTECODE_THROW_OFFSET));
+		assertTrue(sequences.size() > 1);
+
+		final Map<InstructionSequence, Boolean> seen = new IdentityHashMap<>();
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
+
+			assertTrue(sequence instanceof InstructionSequence);
+			final InstructionSequence node = (InstructionSequence) sequence;
+			final InstructionSequence parent = node.getParent();
+			if (parent == null) {
+				assertEquals(1, node.size());
+			} else {
+				assertTrue(seen.containsKey(parent));
+				assertEquals(parent, node.subList(1, node.size()));
+			}
+			assertSame(sequences.get(0).get(0), node.getPivot());
+			seen.put(node, true);
+		}
+	}
+
+	@Test
+	public void Given_InvalidPivot_When_SweepingInParallel_Expect_SweeperException() throws InvalidConfigException {
+
+		// Reason: Failures of worker threads must surface as in the serial case.
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		assertThrowsExactly(SweeperException.class, () -> sweeper
+				.execute(createContext(VALID_BYTECODE, ImmutableList.of(VALID_BYTECODE_THROW_OFFSET, 0))));
+	}
+
+	@Test
+	public void Given_RepeatedPivot_When_Sweeping_Expect_DecodeCacheHits() throws StageException {
+
+		// Reason: Sweeping the same pivot twice must not decompile any candidate twice.
+		final PipelineContext once = createContext(VALID_BYTECODE, VALID_BYTECODE_THROW_OFFSET);
+		sweeper.execute(once);
+		final SweeperInfo onceInfo = once.getInfo(SweeperInfo.class.getSimpleName());
+
+		final PipelineContext twice = createContext(VALID_BYTECODE,
+				ImmutableList.of(VALID_BYTECODE_THROW_OFFSET, VALID_BYTECODE_THROW_OFFSET));
+		sweeper.execute(twice);
+		final SweeperInfo twiceInfo = twice.getInfo(SweeperInfo.class.getSimpleName());
+
+		assertEquals(onceInfo.getDecodeCacheMisses(), twiceInfo.getDecodeCacheMisses());
+		assertTrue(twiceInfo.getDecodeCacheHits() >= onceInfo.getDecodeCacheMisses());
+		assertEquals(2 * onceInfo.getInstructionSequences().size(), twiceInfo.getInstructionSequences().size());
+	}
+
+	@Test
+	public void Given_MultiplePivotOpcodes_When_Sweeping_Expect_SequencesEndInTheirPivot()
+			throws InvalidConfigException, StageException {
+
+		// Reason: Sequences of all configured pivots must be found, and no pivot may
+		// occur inside of a sequence.
+		config.getSweeperConfig().setPivotOpcode("throw, return-void");
+		final PipelineContext context = createContext(VALID_BYTECODE,
+				ImmutableList.of(VALID_BYTECODE_RETURN_VOID_OFFSET, VALID_BYTECODE_THROW_OFFSET));
+		sweeper.execute(context);
+		final SweeperInfo info = context.getInfo(SweeperInfo.class.getSimpleName());
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
+				.getInstructionSequences();
+
+		final Set<Opcode> pivots = new HashSet<>();
+		for (final List<@NonNull DecompiledInstruction> sequence : sequences) {
+
+			pivots.add(sequence.get(sequence.size() - 1).getInstruction().getOpcode());
+			for (int j = 0; j < sequence.size() - 1; j++) {
+				assertFalse(config.getSweeperConfig().isPivotOpcode(sequence.get(j).getInstruction().getOpcode()));
+			}
+		}
+		assertEquals(new HashSet<>(Arrays.asList(Opcode.RETURN_VOID, Opcode.THROW)), pivots);
+	}
+
+	@Test
+	public void Given_OffsetToUnconfiguredPivot_When_Sweeping_Expect_SweeperException() {
+		// Reason: Only configured pivot opcodes may start a sweep.
+		assertThrowsExactly(SweeperException.class,
+				() -> sweeper.execute(createContext(VALID_BYTECODE, VALID_BYTECODE_RETURN_VOID_OFFSET)));
+	}
+
+	@Test
+	public void Given_Recording_When_Sweeping_Expect_OnePivotSweepEventPerPivot() throws StageException, IOException {
+
+		// Reason: Flight recorder must see every pivot along with its own statistics.
+		final ImmutableList<Integer> offsets = ImmutableList.of(VALID_BYTECODE_THROW_OFFSET,
+				VALID_BYTECODE_THROW_OFFSET);
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences;
+		final Path dump = Files.createTempFile("topper", ".jfr");
+		try (final Recording recording = new Recording()) {
+			recording.enable("com.topper.PivotSweep").withoutThreshold();
+			recording.start();
+			sequences = sweep(VALID_BYTECODE, offsets);
+			recording.stop();
+			recording.dump(dump);
+		}
+
+		final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+		Files.delete(dump);
+		assertEquals(offsets.size(), events.size());
+		for (final RecordedEvent event : events) {
+			assertEquals(VALID_BYTECODE_THROW_OFFSET, event.getInt("pivotOffset"));
+			assertEquals(sequences.size() / offsets.size(), event.getInt("sequences"));
+			assertTrue(event.getLong("candidates") >= event.getLong("decoded"));
+		}
+
+		// Second sweep of the same pivot is answered by the decode cache.
+		assertTrue(events.get(0).getLong("decoded") > 0);
+		assertEquals(0, events.get(1).getLong("decoded"));
+	}
+}
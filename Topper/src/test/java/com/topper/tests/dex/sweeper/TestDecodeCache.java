@@ -0,0 +1,115 @@
+package com.topper.tests.dex.sweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.jf.dexlib2.Opcode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.topper.configuration.TopperConfig;
+import com.topper.dex.decompiler.Decompiler;
+import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.sweeper.DecodeCache;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.tests.utility.TestConfig;
+
+public class TestDecodeCache {
+
+	// nop, const/4 v1, 0x1, throw v1
+	private static final byte @NonNull [] BYTECODE = new byte[] { 0x0, 0x0, 0x12, 0x11, 0x27, 0x1 };
+
+	private static final Decompiler decompiler = new SmaliDecompiler();
+
+	private static final int WINDOW = 64;
+
+	private static TopperConfig config;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException {
+		config = TestConfig.getDefault();
+	}
+
+	@Test
+	public void Given_ValidCandidate_When_DecompilingTwice_Expect_SameInstructionAndOneHit() {
+
+		// Reason: Second lookup must not decompile again.
+		final DecodeCache cache = new DecodeCache(WINDOW);
+		final DecompiledInstruction first = cache.decompile(decompiler, BYTECODE, 4, 2, null, config);
+		final DecompiledInstruction second = cache.decompile(decompiler, BYTECODE, 4, 2, null, config);
+
+		assertNotNull(first);
+		assertSame(first, second);
+		assertEquals(Opcode.CONST_4, first.getInstruction().getOpcode());
+		assertEquals(2, first.getOffset());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getAccepted());
+		assertEquals(0, cache.getRejected());
+	}
+
+	@Test
+	public void Given_InvalidCandidate_When_DecompilingTwice_Expect_NullAndOneHit() {
+
+		// Reason: Invalid candidates are cached as well. Four bytes contain two
+		// instructions, which is invalid.
+		final DecodeCache cache = new DecodeCache(WINDOW);
+		assertNull(cache.decompile(decompiler, BYTECODE, 4, 4, null, config));
+		assertNull(cache.decompile(decompiler, BYTECODE, 4, 4, null, config));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0, cache.getAccepted());
+		assertEquals(1, cache.getRejected());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void Given_CandidatesWithinWindow_When_Decompiling_Expect_AllCached() {
+
+		// Reason: Candidates, whose end offsets are at most a window apart, must not
+		// evict each other.
+		final DecodeCache cache = new DecodeCache(WINDOW);
+		final byte[] nops = new byte[4096];
+		for (int end = nops.length - WINDOW; end <= nops.length; end += 2) {
+			assertNotNull(cache.decompile(decompiler, nops, end, 2, null, config));
+		}
+		for (int end = nops.length - WINDOW; end <= nops.length; end += 2) {
+			final DecompiledInstruction instruction = cache.decompile(decompiler, nops, end, 2, null, config);
+			assertNotNull(instruction);
+			assertEquals(end - 2, instruction.getOffset());
+		}
+
+		assertEquals(WINDOW / 2 + 1, cache.size());
+		assertEquals(WINDOW / 2 + 1, cache.getHits());
+		assertEquals(WINDOW / 2 + 1, cache.getMisses());
+	}
+
+	@Test
+	public void Given_CandidatesBeyondWindow_When_Decompiling_Expect_Evicted() {
+
+		// Reason: Sweeping ascending pivots through a large buffer must not keep
+		// candidates that can never be requested again.
+		final DecodeCache cache = new DecodeCache(WINDOW);
+		final byte[] nops = new byte[4096];
+		for (int end = 2; end <= nops.length; end += 2) {
+			for (int size = 2; size <= Math.min(end, 10); size += 2) {
+				cache.decompile(decompiler, nops, end, size, null, config);
+			}
+		}
+		assertTrue(cache.size() <= 5 * 2 * WINDOW);
+
+		// Candidates at the end of the buffer are still cached, but the first one
+		// has to be decompiled again.
+		final long misses = cache.getMisses();
+		assertNotNull(cache.decompile(decompiler, nops, nops.length, 2, null, config));
+		assertEquals(misses, cache.getMisses());
+		assertNotNull(cache.decompile(decompiler, nops, 2, 2, null, config));
+		assertEquals(misses + 1, cache.getMisses());
+	}
+}
@@ -0,0 +1,105 @@
+package com.topper.tests.dex.sweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.dex.decompiler.SmaliDecompiler;
+import com.topper.dex.decompiler.instructions.DecompiledInstruction;
+import com.topper.dex.sweeper.InstructionSequence;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.tests.utility.DexLoader;
+import com.topper.tests.utility.TestConfig;
+
+public class TestInstructionSequence {
+
+	private static ImmutableList<@NonNull DecompiledInstruction> instructions;
+
+	@BeforeAll
+	public static final void loadInstructions() throws IOException, IllegalArgumentException, IllegalAccessException,
+			NoSuchFieldException, SecurityException, InvalidConfigException {
+		instructions = new SmaliDecompiler()
+				.decompile(DexLoader.get().getMethodBytes(), null, TestConfig.getDefault()).getInstructions();
+		assertTrue(instructions.size() >= 3);
+	}
+
+	/**
+	 * Builds the sequence consisting of the last <code>size</code> instructions by
+	 * prepending one instruction after another.
+	 */
+	@NonNull
+	private static final InstructionSequence suffix(final int size) {
+		InstructionSequence sequence = InstructionSequence.of(instructions.get(instructions.size() - 1));
+		for (int i = 2; i <= size; i++) {
+			sequence = sequence.prepend(instructions.get(instructions.size() - i));
+		}
+		return sequence;
+	}
+
+	@Test
+	public void Given_Sequence_When_Accessing_Expect_SameAsCopiedList() {
+		// Reason: A tree node must behave like a list of its instructions in execution order.
+
+		final int size = Math.min(5, instructions.size());
+		final InstructionSequence sequence = suffix(size);
+		final ImmutableList<@NonNull DecompiledInstruction> expected = instructions
+				.subList(instructions.size() - size, instructions.size());
+
+		assertEquals(size, sequence.size());
+		assertEquals(expected, sequence);
+		assertEquals(sequence, expected);
+		assertEquals(expected.hashCode(), sequence.hashCode());
+		assertEquals(expected, sequence.toImmutableList());
+		assertEquals(expected, new ArrayList<>(sequence));
+		for (int i = 0; i < size; i++) {
+			assertSame(expected.get(i), sequence.get(i));
+		}
+		assertSame(expected.get(0), sequence.getFirst());
+		assertSame(expected.get(size - 1), sequence.getPivot());
+	}
+
+	@Test
+	public void Given_Sequence_When_Prepending_Expect_SharedSuffix() {
+		// Reason: Extending a sequence must neither copy nor modify it.
+
+		final InstructionSequence root = suffix(1);
+		final InstructionSequence left = root.prepend(instructions.get(0));
+		final InstructionSequence right = root.prepend(instructions.get(1));
+
+		assertNull(root.getParent());
+		assertSame(root, left.getParent());
+		assertSame(root, right.getParent());
+		assertEquals(1, root.size());
+		assertEquals(ImmutableList.of(instructions.get(0), root.getPivot()), left);
+		assertEquals(ImmutableList.of(instructions.get(1), root.getPivot()), right);
+	}
+
+	@Test
+	public void Given_Sequence_When_AccessingOutOfBounds_Expect_IndexOutOfBoundsException() {
+		// Reason: Walking past the pivot instruction must fail like any other list.
+
+		final InstructionSequence sequence = suffix(2);
+		assertThrowsExactly(IndexOutOfBoundsException.class, () -> sequence.get(-1));
+		assertThrowsExactly(IndexOutOfBoundsException.class, () -> sequence.get(2));
+	}
+
+	@Test
+	public void Given_Sequence_When_Modifying_Expect_UnsupportedOperationException() {
+		// Reason: Sequences are shared among each other and must therefore be immutable.
+
+		final InstructionSequence sequence = suffix(2);
+		assertThrowsExactly(UnsupportedOperationException.class, () -> sequence.add(instructions.get(0)));
+		assertThrowsExactly(UnsupportedOperationException.class, () -> sequence.remove(0));
+		assertThrowsExactly(UnsupportedOperationException.class, () -> sequence.iterator().remove());
+	}
+}
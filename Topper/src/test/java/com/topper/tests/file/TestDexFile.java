@@ -1,11 +1,14 @@
 package com.topper.tests.file;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.AccessFlags;
@@ -50,4 +53,30 @@ public class TestDexFile {
 		final File f = new File(VALID_VDEX_FILE_PATH);
 		assertThrowsExactly(IllegalArgumentException.class, () -> new DexFile(VALID_DEX_FILE_PATH, getFileContents(f), 0, config));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public final void Given_EmbeddedDexFile_When_ParsingInPlace_Expect_SameClassesWithoutCopy() throws IOException {
+		// Reason: .dex files embedded in e.g. .vdex files are parsed in place, so they
+		// must neither be copied nor differ from standalone .dex files.
+		
+		final byte[] content = getFileContents(new File(VALID_DEX_FILE_PATH));
+		final byte[] embedded = new byte[content.length + 0x20];
+		System.arraycopy(content, 0, embedded, 0x10, content.length);
+		
+		final DexFile standalone = new DexFile(VALID_DEX_FILE_PATH, content, 0, config);
+		final DexFile inPlace = new DexFile(VALID_DEX_FILE_PATH, embedded, 0x10, config);
+		
+		assertSame(embedded, inPlace.getBuffer());
+		assertEquals(0x10, inPlace.getOffset());
+		assertEquals(standalone.getDexFile().getClasses().stream().map(c -> c.getType()).collect(Collectors.toList()),
+				inPlace.getDexFile().getClasses().stream().map(c -> c.getType()).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public final void Given_ValidDexFile_When_OffsetOutOfBounds_Expect_IllegalArgumentException() throws IOException {
+		
+		final byte[] content = getFileContents(new File(VALID_DEX_FILE_PATH));
+		assertThrowsExactly(IllegalArgumentException.class, () -> new DexFile(VALID_DEX_FILE_PATH, content, -1, config));
+		assertThrowsExactly(IllegalArgumentException.class, () -> new DexFile(VALID_DEX_FILE_PATH, content, content.length, config));
+	}
+}
@@ -0,0 +1,218 @@
+package com.topper.tests.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+import com.topper.commands.PicoCommand;
+import com.topper.commands.TopLevelCommand;
+import com.topper.commands.file.BasedGadget;
+import com.topper.configuration.TopperConfig;
+import com.topper.exceptions.InvalidConfigException;
+import com.topper.exceptions.commands.IllegalSessionState;
+import com.topper.sstate.CommandContext;
+import com.topper.tests.utility.TestConfig;
+
+import picocli.CommandLine;
+
+public class TestFileCommand {
+
+	private static final String FIRST_DEX_FILE_PATH = "./src/test/java/resources/classes7.dex";
+	private static final String SECOND_DEX_FILE_PATH = "./src/test/java/resources/classes9.dex";
+
+	/**
+	 * Offset of the first .dex file in a .vdex file created by
+	 * {@link TestFileCommand#createVDexFile(byte[]...)}.
+	 */
+	private static final int FIRST_DEX_OFFSET = 12 + 12;
+
+	private static TopperConfig config;
+
+	private static byte @NonNull [] first;
+
+	private static byte @NonNull [] second;
+
+	@TempDir
+	Path directory;
+
+	private Path vdexPath;
+
+	@BeforeAll
+	public static void init() throws InvalidConfigException, IOException {
+		config = TestConfig.getDefault();
+		first = getFileContents(new File(FIRST_DEX_FILE_PATH));
+		second = getFileContents(new File(SECOND_DEX_FILE_PATH));
+	}
+
+	@BeforeEach
+	public final void initClass() throws InvalidConfigException, IOException {
+		TestConfig.reset(config);
+		config.getDecompilerConfig().setDexSkipThreshold(-1);
+		this.vdexPath = this.directory.resolve("two.vdex");
+		Files.write(this.vdexPath, createVDexFile(first, second));
+	}
+
+	@AfterEach
+	public final void reset() throws InvalidConfigException {
+		config.getGeneralConfig().setGadgetIndexDirectory("");
+		config.getDecompilerConfig().setDexSkipThreshold(500000);
+	}
+
+	private static final byte @NonNull [] getFileContents(@NonNull final File file) throws IOException {
+		final FileInputStream input = new FileInputStream(file);
+		final byte[] content = input.readAllBytes();
+		input.close();
+		assertNotNull(content);
+		return content;
+	}
+
+	/**
+	 * Creates a .vdex file with a single .dex section that contains
+	 * <code>dexFiles</code> back to back.
+	 */
+	private static final byte @NonNull [] createVDexFile(final byte @NonNull [] @NonNull... dexFiles) {
+		int size = 0;
+		for (final byte[] dex : dexFiles) {
+			size += dex.length;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(FIRST_DEX_OFFSET + size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(new byte[] { 'v', 'd', 'e', 'x', '0', '2', '7', 0 });
+		buffer.putInt(1);
+		buffer.putInt(1);
+		buffer.putInt(FIRST_DEX_OFFSET);
+		buffer.putInt(size);
+		for (final byte[] dex : dexFiles) {
+			buffer.put(dex);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Executes the file command with <code>options</code> on the .vdex file and
+	 * returns the loaded gadgets.
+	 */
+	@NonNull
+	private final ImmutableList<@NonNull BasedGadget> load(@NonNull final String... options)
+			throws IllegalSessionState {
+
+		final CommandContext context = new CommandContext(config);
+		final TopLevelCommand commands = new TopLevelCommand(context);
+		final StringWriter out = new StringWriter();
+		commands.setOut(new PrintWriter(out));
+
+		final List<String> arguments = new ArrayList<>();
+		arguments.add("file");
+		arguments.add("-t");
+		arguments.add("VDEX");
+		arguments.add("-f");
+		arguments.add(this.vdexPath.toString());
+		for (final String option : options) {
+			arguments.add(option);
+		}
+		final int code = new CommandLine(commands).execute(arguments.toArray(new String[0]));
+		commands.out().flush();
+		assertEquals(PicoCommand.SUCCESS, code, out.toString());
+		return context.getSession().getGadgets();
+	}
+
+	private static final void assertSameGadgets(@NonNull final List<@NonNull BasedGadget> expected,
+			@NonNull final List<@NonNull BasedGadget> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getDex(), actual.get(i).getDex());
+			assertEquals(expected.get(i).getBase(), actual.get(i).getBase());
+			assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+	}
+
+	@Test
+	public void Given_VDexFile_When_LoadingAll_Expect_GadgetsOfEachDexFileInOrder()
+			throws IllegalSessionState, InvalidConfigException {
+		// Reason: --all must merge the gadgets of all .dex files in the order of the
+		// .dex files, tag each gadget with its .dex file and keep entries relative to
+		// the .vdex file.
+
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+		final ImmutableList<@NonNull BasedGadget> all = this.load("--all");
+
+		config.getGeneralConfig().setDefaultAmountThreads(1);
+		final List<@NonNull BasedGadget> expected = new ArrayList<>(this.load("-i", "0"));
+		final int numberFirst = expected.size();
+		expected.addAll(this.load("-i", "1"));
+		assertTrue(numberFirst > 0 && expected.size() > numberFirst);
+		assertSameGadgets(expected, all);
+
+		for (int i = 0; i < all.size(); i++) {
+			final BasedGadget gadget = all.get(i);
+			final int dex = (i < numberFirst) ? 0 : 1;
+			final int start = (dex == 0) ? FIRST_DEX_OFFSET : FIRST_DEX_OFFSET + first.length;
+			final int end = (dex == 0) ? FIRST_DEX_OFFSET + first.length
+					: FIRST_DEX_OFFSET + first.length + second.length;
+			assertEquals(dex, gadget.getDex());
+			assertEquals(0, gadget.getBase());
+			assertTrue(start <= gadget.getEntry(0) && gadget.getEntry(0) < end);
+		}
+	}
+
+	@Test
+	public void Given_VDexFile_When_LoadingAllConcurrently_Expect_SameGadgetsAsSequential()
+			throws IllegalSessionState, InvalidConfigException {
+		// Reason: Analysing .dex files concurrently must neither reorder nor lose
+		// gadgets, regardless of how threads are split among pipelines.
+
+		config.getGeneralConfig().setDefaultAmountThreads(1);
+		final ImmutableList<@NonNull BasedGadget> expected = this.load("--all");
+		assertFalse(expected.isEmpty());
+
+		for (final int threads : new int[] { 2, 3, 8 }) {
+			config.getGeneralConfig().setDefaultAmountThreads(threads);
+			assertSameGadgets(expected, this.load("--all"));
+		}
+	}
+
+	@Test
+	public void Given_GadgetIndex_When_LoadingAll_Expect_IndicesSharedWithSingleDexFiles()
+			throws IllegalSessionState, InvalidConfigException, IOException {
+		// Reason: Keys derived from a hash of the .vdex file shared among all
+		// pipelines must equal the keys of single .dex files, so indices are reused.
+
+		final Path indices = this.directory.resolve("indices");
+		Files.createDirectories(indices);
+		config.getGeneralConfig().setGadgetIndexDirectory(indices.toString());
+		config.getGeneralConfig().setDefaultAmountThreads(4);
+
+		final ImmutableList<@NonNull BasedGadget> single = this.load("-i", "0");
+		try (final Stream<Path> files = Files.list(indices)) {
+			assertEquals(1, files.count());
+		}
+
+		final ImmutableList<@NonNull BasedGadget> all = this.load("--all");
+		try (final Stream<Path> files = Files.list(indices)) {
+			assertEquals(2, files.count());
+		}
+		assertSameGadgets(single, all.subList(0, single.size()));
+		assertSameGadgets(all, this.load("--all"));
+	}
+}
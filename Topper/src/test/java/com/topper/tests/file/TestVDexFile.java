@@ -2,11 +2,14 @@ package com.topper.tests.file;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.HashSet;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -14,15 +17,18 @@ import org.jf.dexlib2.AccessFlags;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.topper.configuration.TopperConfig;
 import com.topper.exceptions.InvalidConfigException;
 import com.topper.file.DexFile;
 import com.topper.file.VDexFile;
+import com.topper.file.VDexFile.PartialDexHeader;
 import com.topper.tests.utility.TestConfig;
 
 public class TestVDexFile {
 
 	private static final String VALID_DEX_FILE_PATH = "./src/test/java/resources/classes7.dex";
+	private static final String OTHER_DEX_FILE_PATH = "./src/test/java/resources/classes9.dex";
 	private static final String VALID_VDEX_FILE_PATH = "./src/test/java/resources/base.vdex";
 	private static final String CORRUPTED_VDEX_FILE_PATH = "./src/test/java/resources/corrupted.vdex";
 
@@ -84,4 +90,82 @@ public class TestVDexFile {
 		final File f = new File(CORRUPTED_VDEX_FILE_PATH);
 		assertThrowsExactly(IllegalArgumentException.class, () -> new VDexFile(CORRUPTED_VDEX_FILE_PATH, getFileContents(f), config));
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Creates a .vdex file with a single .dex section that contains
+	 * <code>dexFiles</code> back to back.
+	 */
+	private static final byte @NonNull [] createVDexFile(final byte @NonNull [] @NonNull... dexFiles) {
+		final int start = 12 + 12;
+		int size = 0;
+		for (final byte[] dex : dexFiles) {
+			size += dex.length;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(start + size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(new byte[] { 'v', 'd', 'e', 'x', '0', '2', '7', 0 });
+		buffer.putInt(1);
+		buffer.putInt(1);
+		buffer.putInt(start);
+		buffer.putInt(size);
+		for (final byte[] dex : dexFiles) {
+			buffer.put(dex);
+		}
+		return buffer.array();
+	}
+	
+	@Test
+	public void Given_VDexFile_When_Loading_Expect_HeadersOnly() throws IOException {
+		// Reason: Headers must locate and identify .dex files without parsing them.
+		
+		config.getDecompilerConfig().setDexSkipThreshold(-1);
+		final byte[] first = getFileContents(new File(VALID_DEX_FILE_PATH));
+		final byte[] second = getFileContents(new File(OTHER_DEX_FILE_PATH));
+		final VDexFile vdex = new VDexFile(VALID_VDEX_FILE_PATH, createVDexFile(first, second), config);
+		
+		assertEquals(2, vdex.getNumberDexFiles());
+		final ImmutableList<@NonNull PartialDexHeader> headers = vdex.getDexHeaders();
+		assertEquals(24, headers.get(0).getOffset());
+		assertEquals(first.length, headers.get(0).getFileSize());
+		assertEquals(ByteBuffer.wrap(first).order(ByteOrder.LITTLE_ENDIAN).getInt(8), headers.get(0).getChecksum());
+		assertEquals(24 + first.length, headers.get(1).getOffset());
+		assertEquals(second.length, headers.get(1).getFileSize());
+		assertEquals(ByteBuffer.wrap(second).order(ByteOrder.LITTLE_ENDIAN).getInt(8), headers.get(1).getChecksum());
+	}
+	
+	@Test
+	public void Given_VDexFile_When_GettingDexFile_Expect_OnlyRequestedFileParsed() throws IOException {
+		// Reason: .dex files must be parsed in place on first access, so a corrupted
+		// .dex file must not prevent access to the others.
+		
+		config.getDecompilerConfig().setDexSkipThreshold(-1);
+		final byte[] first = getFileContents(new File(VALID_DEX_FILE_PATH));
+		final byte[] second = getFileContents(new File(OTHER_DEX_FILE_PATH));
+		
+		// Invalid string_ids_size, which is only noticed when parsing.
+		ByteBuffer.wrap(second).order(ByteOrder.LITTLE_ENDIAN).putInt(0x38, -1);
+		final byte[] buffer = createVDexFile(first, second);
+		final VDexFile vdex = new VDexFile(VALID_VDEX_FILE_PATH, buffer, config);
+		
+		final DexFile dex = vdex.getDexFile(0);
+		assertSame(dex, vdex.getDexFile(0));
+		assertSame(buffer, dex.getBuffer());
+		assertEquals(24, dex.getOffset());
+		assertEquals(new DexFile(VALID_DEX_FILE_PATH, first, 0, config).getDexFile().getClasses().size(),
+				dex.getDexFile().getClasses().size());
+		
+		assertThrowsExactly(IllegalArgumentException.class, () -> vdex.getDexFile(1));
+		assertThrowsExactly(IllegalArgumentException.class, () -> vdex.getDexFiles());
+	}
+	
+	@Test
+	public void Given_VDexFile_When_DexMagicInvalid_Expect_IllegalArgumentException() throws IOException {
+		// Reason: .dex files with invalid magic bytes must be rejected on construction.
+		
+		config.getDecompilerConfig().setDexSkipThreshold(-1);
+		final byte[] first = getFileContents(new File(VALID_DEX_FILE_PATH));
+		final byte[] second = getFileContents(new File(OTHER_DEX_FILE_PATH));
+		second[0] = 0;
+		assertThrowsExactly(IllegalArgumentException.class,
+				() -> new VDexFile(VALID_VDEX_FILE_PATH, createVDexFile(first, second), config));
+	}
+}
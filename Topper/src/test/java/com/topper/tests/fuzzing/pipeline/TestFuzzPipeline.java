@@ -11,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.jf.dexlib2.Opcode;
@@ -24,6 +25,7 @@ import com.topper.configuration.Config;
 import com.topper.configuration.DecompilerConfig;
 import com.topper.configuration.GeneralConfig;
 import com.topper.configuration.StaticAnalyserConfig;
+import com.topper.configuration.StaticAnalyserConfig.CFGMode;
 import com.topper.configuration.SweeperConfig;
 import com.topper.configuration.TopperConfig;
 import com.topper.dex.decompiler.instructions.DecompiledInstruction;
@@ -99,12 +101,19 @@ public class TestFuzzPipeline {
 		final StaticAnalyserConfig sa = new StaticAnalyserConfig();
 		enableConfig(sa);
 		sa.setSkipCFG(data.consumeBoolean());
+		sa.setCFGMode(data.pickValue(CFGMode.values()));
+		sa.setCompactCFG(data.consumeBoolean());
 		sa.setSkipDFG(data.consumeBoolean());
 
 		// General
 		final GeneralConfig general = new GeneralConfig();
 		enableConfig(general);
 		general.setDefaultAmountThreads(data.consumeInt(1, Integer.MAX_VALUE));
+		general.setStreamPipeline(data.consumeBoolean());
+		general.setStreamCapacity(data.consumeInt(1, 64));
+		general.setScheduleStages(data.consumeBoolean());
+		general.setDeduplicateGadgets(data.consumeBoolean());
+		general.setGadgetIndexDirectory("");
 		
 		final TopperConfig config = new TopperConfig(general, sa, sweeper, decompiler);
 		return config;
@@ -170,11 +179,11 @@ public class TestFuzzPipeline {
 		// Sweeper
 		// Check max number of instructions
 		final SweeperInfo info = result.getContext().getInfo(SweeperInfo.class.getSimpleName());
-		final ImmutableList<@NonNull ImmutableList<@NonNull DecompiledInstruction>> sequences = info
+		final ImmutableList<@NonNull List<@NonNull DecompiledInstruction>> sequences = info
 				.getInstructionSequences();
 
 		for (@NonNull
-		final ImmutableList<@NonNull DecompiledInstruction> sequence : sequences) {
+		final List<@NonNull DecompiledInstruction> sequence : sequences) {
 			assertTrue(config.getSweeperConfig().getMaxNumberInstructions() >= sequence.size());
 			assertTrue(1 <= sequence.size());
 		}
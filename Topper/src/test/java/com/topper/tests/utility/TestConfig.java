@@ -14,4 +14,15 @@ public class TestConfig {
 		ConfigManager.get().loadConfig(Paths.get(CONFIG_PATH));
 		return ConfigManager.get().getConfig();
 	}
+
+	/**
+	 * Resets how pipelines are executed to the values of the test
+	 * configuration, i.e. sequentially on a single thread without streaming.
+	 */
+	public static void reset(final TopperConfig config) throws InvalidConfigException {
+		config.getGeneralConfig().setDefaultAmountThreads(1);
+		config.getGeneralConfig().setStreamPipeline(false);
+		config.getGeneralConfig().setStreamCapacity(16);
+		config.getGeneralConfig().setScheduleStages(false);
+	}
 }
\ No newline at end of file